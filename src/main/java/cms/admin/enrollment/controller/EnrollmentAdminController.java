@@ -2,6 +2,9 @@ package cms.admin.enrollment.controller;
 
 import cms.admin.enrollment.dto.CancelRequestAdminDto;
 import cms.admin.enrollment.dto.EnrollAdminResponseDto;
+import cms.admin.enrollment.dto.BulkRefundJobDto;
+import cms.admin.enrollment.dto.BulkRefundRequestDto;
+import cms.admin.enrollment.service.BulkRefundService;
 import cms.admin.enrollment.service.EnrollmentAdminService;
 import cms.common.dto.ApiResponseSchema;
 import io.swagger.v3.oas.annotations.Operation;
@@ -17,6 +20,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.security.Principal;
 import java.util.Map;
 import java.util.List;
 import java.util.Collections;
@@ -38,6 +42,7 @@ import org.springframework.http.HttpStatus;
 public class EnrollmentAdminController {
 
     private final EnrollmentAdminService enrollmentAdminService;
+    private final BulkRefundService bulkRefundService;
 
     @Operation(summary = "관리자 수강 정보 변경", description = "관리자가 특정 수강 등록 정보를 새로운 강습으로 변경합니다.")
     @PatchMapping("/{enrollmentId}/change-lesson")
@@ -181,6 +186,24 @@ public class EnrollmentAdminController {
         return ResponseEntity.ok(ApiResponseSchema.success(refundDetails, "예상 환불액 계산 성공"));
     }
 
+    @Operation(summary = "일괄 환불 작업 생성", description = "강습 전체 또는 지정한 신청들을 한 번에 취소/환불합니다. 환불액은 즉시 계산되어 항목으로 저장되고, PG 환불은 백그라운드에서 제한된 동시성으로 처리됩니다.")
+    @PostMapping("/bulk-refunds")
+    public ResponseEntity<ApiResponseSchema<BulkRefundJobDto>> createBulkRefund(
+            @Valid @RequestBody BulkRefundRequestDto request, Principal principal) {
+        String requestedBy = principal != null ? principal.getName() : null;
+        BulkRefundJobDto job = bulkRefundService.createJob(request, requestedBy);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponseSchema.success(job, "일괄 환불 작업이 등록되었습니다."));
+    }
+
+    @Operation(summary = "일괄 환불 작업 조회", description = "일괄 환불 작업의 진행 현황(상태별 건수)과 신청별 처리 결과를 조회합니다.")
+    @GetMapping("/bulk-refunds/{jobId}")
+    public ResponseEntity<ApiResponseSchema<BulkRefundJobDto>> getBulkRefund(
+            @Parameter(description = "일괄 환불 작업 ID") @PathVariable Long jobId) {
+        BulkRefundJobDto job = bulkRefundService.getJob(jobId);
+        return ResponseEntity.ok(ApiResponseSchema.success(job, "일괄 환불 작업 조회 성공"));
+    }
+
     @PostMapping("/temporary")
     @Operation(summary = "오프라인 등록자를 위한 임시 등록", description = "관리자가 오프라인으로 신청/결제한 사용자를 시스템에 임시로 등록합니다.")
     @PreAuthorize("hasAnyRole('ADMIN', 'SYSTEM_ADMIN')")
@@ -0,0 +1,46 @@
+package cms.admin.enrollment.dto;
+
+import cms.payment.domain.BulkRefundItemStatus;
+import cms.payment.domain.BulkRefundJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRefundJobDto {
+    private Long jobId;
+    private Long lessonId;
+    private String reason;
+    private boolean fullRefund;
+    private BulkRefundJobStatus status;
+    private int totalCount;
+    private Map<BulkRefundItemStatus, Long> statusCounts; // 항목 상태별 건수 (진행률)
+    private String requestedBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private List<Item> items;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long enrollId;
+        private Long paymentId;
+        private int refundAmount;
+        private boolean partialRefund;
+        private Integer usedDays;
+        private BulkRefundItemStatus status;
+        private int attempts;
+        private String lastError;
+        private LocalDateTime processedAt;
+    }
+}
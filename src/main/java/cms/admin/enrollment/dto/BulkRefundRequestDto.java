@@ -0,0 +1,17 @@
+package cms.admin.enrollment.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotBlank;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class BulkRefundRequestDto {
+    private Long lessonId; // 강습 전체 환불 (enrollIds 와 둘 중 하나 필수)
+    private List<Long> enrollIds; // 지정한 신청만 환불
+    @NotBlank(message = "일괄 환불 사유는 필수입니다.")
+    private String reason;
+    private boolean fullRefund; // true 이면 사용일수와 관계없이 남은 결제액 전액 환불
+}
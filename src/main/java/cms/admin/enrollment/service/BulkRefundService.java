@@ -0,0 +1,21 @@
+package cms.admin.enrollment.service;
+
+import cms.admin.enrollment.dto.BulkRefundJobDto;
+import cms.admin.enrollment.dto.BulkRefundRequestDto;
+
+public interface BulkRefundService {
+
+    /**
+     * 강습 전체 또는 지정한 신청들의 일괄 환불 작업을 만듭니다.
+     * 환불액은 생성 시 한 번에 계산해 항목으로 저장하고, PG 환불은 작업 스레드가 이어서 처리합니다.
+     *
+     * @param request     lessonId 또는 enrollIds 중 하나는 필수
+     * @param requestedBy 요청한 관리자 (알 수 없으면 null)
+     */
+    BulkRefundJobDto createJob(BulkRefundRequestDto request, String requestedBy);
+
+    /**
+     * 일괄 환불 작업의 진행 현황과 항목별 결과를 조회합니다.
+     */
+    BulkRefundJobDto getJob(Long jobId);
+}
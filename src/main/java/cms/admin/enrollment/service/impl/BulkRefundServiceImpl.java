@@ -0,0 +1,459 @@
+package cms.admin.enrollment.service.impl;
+
+import cms.admin.enrollment.dto.AdminCancelRequestDto;
+import cms.admin.enrollment.dto.BulkRefundJobDto;
+import cms.admin.enrollment.dto.BulkRefundRequestDto;
+import cms.admin.enrollment.dto.CalculatedRefundDetailsDto;
+import cms.admin.enrollment.service.BulkRefundService;
+import cms.admin.enrollment.service.EnrollmentAdminService;
+import cms.common.exception.BusinessRuleException;
+import cms.common.exception.ErrorCode;
+import cms.common.exception.ResourceNotFoundException;
+import cms.common.service.ClaimedRowWorker;
+import cms.enroll.domain.Enroll;
+import cms.enroll.repository.EnrollRepository;
+import cms.enroll.service.EnrollmentService;
+import cms.payment.domain.BulkRefundItem;
+import cms.payment.domain.BulkRefundItemStatus;
+import cms.payment.domain.BulkRefundJob;
+import cms.payment.domain.BulkRefundJobStatus;
+import cms.payment.domain.Payment;
+import cms.payment.domain.PaymentStatus;
+import cms.payment.repository.BulkRefundItemRepository;
+import cms.payment.repository.BulkRefundJobRepository;
+import cms.payment.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 강습 폐강 등 대량 취소 시의 일괄 환불.
+ *
+ * - 생성: 대상 신청과 결제를 각각 한 번의 조회로 읽어 환불액을 모두 계산하고, 작업(bulk_refund_job)과 항목(bulk_refund_item)으로 저장한다.
+ *   대상 신청 행을 잠근 뒤 같은 강습/신청을 다루는 진행 중(RUNNING) 작업이 있으면 거절한다.
+ * - 처리: ClaimedRowWorker 가 항목을 선점(PENDING -> PROCESSING)하여 관리자 취소 + 환불 승인 흐름을 그대로 실행한다.
+ *   PG 환불 중복 방지와 결과 기록은 단건 환불과 같은 경로(payment_cancel_request)를 따른다.
+ * - 재시도: PG 차단기 열림, 락 대기 등 일시적 오류만 retry-initial-delay 부터 두 배씩 늦춰 max-attempts 까지 재시도한다.
+ *   처리 중 중단으로 다시 대기로 돌아온 항목도 선점할 때 시도 횟수를 세므로 max-attempts 를 넘으면 실패로 끝난다.
+ * - 진행 현황은 항목 상태로 DB 에 남으므로 재기동 후에도 PENDING 항목은 폴링이, 오래 PROCESSING 으로 남은 항목은
+ *   processing-timeout 후 다시 대기로 돌려 이어서 처리한다.
+ */
+@Service
+public class BulkRefundServiceImpl implements BulkRefundService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkRefundServiceImpl.class);
+    // 환불 대상이 되는 수강신청 결제 상태 (결제 완료, 사용자 환불 요청, 관리자 취소 후 환불 대기)
+    private static final List<String> REFUNDABLE_PAY_STATUSES = Arrays.asList("PAID", "REFUND_REQUESTED",
+            "REFUND_PENDING_ADMIN_CANCEL");
+    private static final List<BulkRefundItemStatus> OPEN_ITEM_STATUSES = Arrays.asList(BulkRefundItemStatus.PENDING,
+            BulkRefundItemStatus.PROCESSING);
+
+    private final BulkRefundJobRepository jobRepository;
+    private final BulkRefundItemRepository itemRepository;
+    private final EnrollRepository enrollRepository;
+    private final PaymentRepository paymentRepository;
+    private final EnrollmentService enrollmentService;
+    private final EnrollmentAdminService enrollmentAdminService;
+    private final TransactionTemplate transactionTemplate;
+    private ClaimedRowWorker worker;
+
+    @Value("${app.bulk-refund.worker-threads:8}")
+    private int workerThreads;
+
+    @Value("${app.bulk-refund.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${app.bulk-refund.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.bulk-refund.retry-initial-delay:5000}")
+    private long retryInitialDelayMs;
+
+    @Value("${app.bulk-refund.retry-max-delay:60000}")
+    private long retryMaxDelayMs;
+
+    @Value("${app.bulk-refund.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.bulk-refund.processing-timeout:300000}")
+    private long processingTimeoutMs;
+
+    public BulkRefundServiceImpl(BulkRefundJobRepository jobRepository, BulkRefundItemRepository itemRepository,
+            EnrollRepository enrollRepository, PaymentRepository paymentRepository,
+            EnrollmentService enrollmentService, EnrollmentAdminService enrollmentAdminService,
+            PlatformTransactionManager transactionManager) {
+        this.jobRepository = jobRepository;
+        this.itemRepository = itemRepository;
+        this.enrollRepository = enrollRepository;
+        this.paymentRepository = paymentRepository;
+        this.enrollmentService = enrollmentService;
+        this.enrollmentAdminService = enrollmentAdminService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        worker = ClaimedRowWorker.builder()
+                .name("Bulk Refund")
+                .threadPrefix("bulk-refund-")
+                .threads(workerThreads)
+                .queueCapacity(queueCapacity)
+                .retryInitialDelayMs(retryInitialDelayMs)
+                .retryMaxDelayMs(retryMaxDelayMs)
+                .processingTimeoutMs(processingTimeoutMs)
+                .processor(this::process)
+                .build();
+        logger.info("Bulk refund workers initialized. workers={}, queueCapacity={}, maxAttempts={}",
+                workerThreads, queueCapacity, maxAttempts);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+
+    @Override
+    public BulkRefundJobDto createJob(BulkRefundRequestDto request, String requestedBy) {
+        boolean byLesson = request.getLessonId() != null;
+        if (!byLesson && (request.getEnrollIds() == null || request.getEnrollIds().isEmpty())) {
+            throw new BusinessRuleException(ErrorCode.INVALID_INPUT_VALUE, "강습 ID 또는 신청 ID 목록이 필요합니다.");
+        }
+
+        CreatedJob created = transactionTemplate.execute(status -> planJob(request, requestedBy));
+        logger.info("[Bulk Refund] Job {} created by {} with {} items ({} to refund).", created.jobId, requestedBy,
+                created.totalCount, created.pendingIds.size());
+
+        // 작업 대기열을 넘는 항목은 PENDING 으로 남아 다음 폴링에서 제출된다
+        worker.dispatchAll(created.pendingIds);
+        return getJob(created.jobId);
+    }
+
+    private CreatedJob planJob(BulkRefundRequestDto request, String requestedBy) {
+        // 첫 문장으로 잠가야 이후 조회가 먼저 커밋된 작업의 항목을 본다 (REPEATABLE READ 스냅샷은 첫 일반 조회 시점)
+        List<Long> lockedIds = request.getLessonId() != null
+                ? enrollRepository.lockIdsByLessonId(request.getLessonId())
+                : enrollRepository.lockIdsByEnrollIdIn(request.getEnrollIds());
+        rejectOverlappingJobs(request.getLessonId(), lockedIds);
+
+        List<Enroll> enrolls;
+        Set<Long> missingIds = new LinkedHashSet<>();
+        if (request.getLessonId() != null) {
+            enrolls = enrollRepository.findRefundTargetsByLesson(request.getLessonId(), REFUNDABLE_PAY_STATUSES);
+        } else {
+            missingIds.addAll(request.getEnrollIds());
+            enrolls = enrollRepository.findWithLessonByEnrollIdIn(missingIds);
+            enrolls.forEach(enroll -> missingIds.remove(enroll.getEnrollId()));
+        }
+        if (enrolls.isEmpty() && missingIds.isEmpty()) {
+            throw new BusinessRuleException(ErrorCode.INVALID_INPUT_VALUE, "환불할 수강신청이 없습니다.");
+        }
+
+        // 신청별 최신 결제를 한 번에 조회
+        Map<Long, Payment> latestPayments = new HashMap<>();
+        if (!enrolls.isEmpty()) {
+            List<Long> enrollIds = enrolls.stream().map(Enroll::getEnrollId).collect(Collectors.toList());
+            for (Payment payment : paymentRepository.findByEnroll_EnrollIdIn(enrollIds)) {
+                Long enrollId = payment.getEnroll().getEnrollId();
+                Payment current = latestPayments.get(enrollId);
+                if (current == null || (payment.getCreatedAt() != null && current.getCreatedAt() != null
+                        && payment.getCreatedAt().isAfter(current.getCreatedAt()))) {
+                    latestPayments.put(enrollId, payment);
+                }
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkRefundJob job = jobRepository.save(BulkRefundJob.builder()
+                .lessonId(request.getLessonId())
+                .reason(request.getReason())
+                .fullRefund(request.isFullRefund())
+                .status(BulkRefundJobStatus.RUNNING)
+                .totalCount(enrolls.size() + missingIds.size())
+                .requestedBy(requestedBy)
+                .createdAt(now)
+                .build());
+
+        LocalDate today = LocalDate.now();
+        List<BulkRefundItem> items = new ArrayList<>();
+        for (Long enrollId : missingIds) {
+            items.add(skippedItem(job.getId(), enrollId, null, "수강신청 정보를 찾을 수 없습니다.", now));
+        }
+        for (Enroll enroll : enrolls) {
+            Payment payment = latestPayments.get(enroll.getEnrollId());
+            if (!REFUNDABLE_PAY_STATUSES.contains(enroll.getPayStatus())) {
+                items.add(skippedItem(job.getId(), enroll.getEnrollId(), payment == null ? null : payment.getId(),
+                        "환불 대상 결제 상태가 아닙니다: " + enroll.getPayStatus(), now));
+                continue;
+            }
+            if (payment == null) {
+                items.add(skippedItem(job.getId(), enroll.getEnrollId(), null, "결제 내역이 없습니다.", now));
+                continue;
+            }
+            items.add(plannedItem(job.getId(), enroll, payment, request.isFullRefund(), today, now));
+        }
+        itemRepository.saveAll(items);
+
+        CreatedJob created = new CreatedJob();
+        created.jobId = job.getId();
+        created.totalCount = items.size();
+        for (BulkRefundItem item : items) {
+            if (item.getStatus() == BulkRefundItemStatus.PENDING) {
+                created.pendingIds.add(item.getId());
+            }
+        }
+        return created;
+    }
+
+    private void rejectOverlappingJobs(Long lessonId, List<Long> enrollIds) {
+        Set<Long> runningJobIds = new LinkedHashSet<>();
+        if (lessonId != null) {
+            runningJobIds.addAll(jobRepository.findIdsByLessonIdAndStatus(lessonId, BulkRefundJobStatus.RUNNING));
+        }
+        if (!enrollIds.isEmpty()) {
+            runningJobIds.addAll(itemRepository.findJobIdsWithOpenItems(enrollIds, OPEN_ITEM_STATUSES,
+                    BulkRefundJobStatus.RUNNING));
+        }
+        if (!runningJobIds.isEmpty()) {
+            throw new BusinessRuleException("같은 강습 또는 신청을 처리 중인 일괄 환불 작업이 있습니다: " + runningJobIds,
+                    ErrorCode.DUPLICATE_REQUEST_IN_PROGRESS);
+        }
+    }
+
+    private BulkRefundItem plannedItem(Long jobId, Enroll enroll, Payment payment, boolean fullRefund,
+            LocalDate today, LocalDateTime now) {
+        int paidAmt = payment.getPaidAmt() != null ? payment.getPaidAmt() : 0;
+        int refundedAmt = payment.getRefundedAmt() != null ? payment.getRefundedAmt() : 0;
+        int remaining = Math.max(paidAmt - refundedAmt, 0);
+
+        int refundAmount;
+        Integer usedDays = null;
+        if (payment.getStatus() == PaymentStatus.CANCELED || payment.getStatus() == PaymentStatus.PARTIAL_REFUNDED) {
+            // PG 환불은 끝났고 수강신청 반영만 남은 건 (승인 흐름이 PG 호출 없이 상태만 반영)
+            refundAmount = refundedAmt;
+        } else if (fullRefund) {
+            refundAmount = remaining;
+        } else {
+            CalculatedRefundDetailsDto details = enrollmentService.calculateRefund(enroll, payment, null, today);
+            refundAmount = Math.min(details.getFinalRefundAmount().intValue(), remaining);
+            usedDays = details.getEffectiveUsedDays();
+        }
+
+        return BulkRefundItem.builder()
+                .jobId(jobId)
+                .enrollId(enroll.getEnrollId())
+                .paymentId(payment.getId())
+                .refundAmount(refundAmount)
+                .partialRefund(refundAmount < paidAmt)
+                .usedDays(usedDays)
+                .status(BulkRefundItemStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    private BulkRefundItem skippedItem(Long jobId, Long enrollId, Long paymentId, String note, LocalDateTime now) {
+        return BulkRefundItem.builder()
+                .jobId(jobId)
+                .enrollId(enrollId)
+                .paymentId(paymentId)
+                .refundAmount(0)
+                .partialRefund(false)
+                .status(BulkRefundItemStatus.SKIPPED)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .lastError(note)
+                .processedAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    @Override
+    public BulkRefundJobDto getJob(Long jobId) {
+        return transactionTemplate.execute(status -> {
+            BulkRefundJob job = jobRepository.findById(jobId)
+                    .orElseThrow(() -> new ResourceNotFoundException("BulkRefundJob", jobId));
+
+            Map<BulkRefundItemStatus, Long> counts = new EnumMap<>(BulkRefundItemStatus.class);
+            for (BulkRefundItemStatus itemStatus : BulkRefundItemStatus.values()) {
+                counts.put(itemStatus, 0L);
+            }
+            for (Object[] row : itemRepository.countByStatus(jobId)) {
+                counts.put((BulkRefundItemStatus) row[0], ((Number) row[1]).longValue());
+            }
+
+            List<BulkRefundJobDto.Item> items = itemRepository.findByJobIdOrderByIdAsc(jobId).stream()
+                    .map(item -> BulkRefundJobDto.Item.builder()
+                            .enrollId(item.getEnrollId())
+                            .paymentId(item.getPaymentId())
+                            .refundAmount(item.getRefundAmount())
+                            .partialRefund(item.isPartialRefund())
+                            .usedDays(item.getUsedDays())
+                            .status(item.getStatus())
+                            .attempts(item.getAttempts())
+                            .lastError(item.getLastError())
+                            .processedAt(item.getProcessedAt())
+                            .build())
+                    .collect(Collectors.toList());
+
+            return BulkRefundJobDto.builder()
+                    .jobId(job.getId())
+                    .lessonId(job.getLessonId())
+                    .reason(job.getReason())
+                    .fullRefund(job.isFullRefund())
+                    .status(job.getStatus())
+                    .totalCount(job.getTotalCount())
+                    .statusCounts(counts)
+                    .requestedBy(job.getRequestedBy())
+                    .createdAt(job.getCreatedAt())
+                    .finishedAt(job.getFinishedAt())
+                    .items(items)
+                    .build();
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.bulk-refund.poll-interval:5000}")
+    public void pollItems() {
+        try {
+            worker.releaseStale((staleBefore, now) -> transactionTemplate.execute(status -> itemRepository
+                    .releaseStale(BulkRefundItemStatus.PENDING, BulkRefundItemStatus.PROCESSING, staleBefore, now)));
+            LocalDateTime now = LocalDateTime.now();
+            Integer exhausted = transactionTemplate.execute(status -> itemRepository.failExhausted(
+                    BulkRefundItemStatus.PENDING, BulkRefundItemStatus.FAILED, maxAttempts,
+                    "처리 중 중단이 반복되어 " + maxAttempts + "회 시도 후 중단", now));
+            if (exhausted != null && exhausted > 0) {
+                logger.error("[Bulk Refund] Failed {} items that used up {} attempts", exhausted, maxAttempts);
+            }
+
+            worker.dispatchAll(itemRepository.findDueIds(BulkRefundItemStatus.PENDING, now,
+                    PageRequest.of(0, batchSize)));
+
+            for (Long jobId : jobRepository.findIdsByStatus(BulkRefundJobStatus.RUNNING)) {
+                if (itemRepository.existsByJobIdAndStatusIn(jobId, OPEN_ITEM_STATUSES)) {
+                    continue;
+                }
+                Integer completed = transactionTemplate.execute(status -> jobRepository.markCompleted(jobId,
+                        BulkRefundJobStatus.RUNNING, BulkRefundJobStatus.COMPLETED, LocalDateTime.now()));
+                if (completed != null && completed > 0) {
+                    logger.info("[Bulk Refund] Job {} completed.", jobId);
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("[Bulk Refund] Failed to poll bulk refund items: {}", e.getMessage());
+        }
+    }
+
+    private void process(Long id) {
+        LocalDateTime claimedAt = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> itemRepository.claim(id,
+                BulkRefundItemStatus.PENDING, BulkRefundItemStatus.PROCESSING, claimedAt, maxAttempts));
+        if (claimed == null || claimed == 0) {
+            return; // 다른 스레드/노드가 이미 처리 중이거나 재시도 시각 전
+        }
+        BulkRefundItem item = itemRepository.findById(id).orElse(null);
+        BulkRefundJob job = item == null ? null : jobRepository.findById(item.getJobId()).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        BulkRefundItemStatus resultStatus = BulkRefundItemStatus.SUCCEEDED;
+        String failure = null;
+        boolean retryable = false;
+        try {
+            String payStatus = refundStep(item, job.getReason());
+            if (payStatus != null) {
+                resultStatus = BulkRefundItemStatus.SKIPPED;
+                failure = "이미 환불이 완료된 신청입니다: " + payStatus;
+            }
+        } catch (BusinessRuleException e) {
+            // 차단기가 열려 PG 를 호출하지 않은 경우만 재시도 (응답 불명은 payment_cancel_request 로 확인 후 처리)
+            retryable = e.getErrorCode() == ErrorCode.PAYMENT_GATEWAY_UNAVAILABLE;
+            failure = e.getErrorCode() + ": " + e.getMessage();
+        } catch (TransientDataAccessException e) {
+            retryable = true;
+            failure = e.getClass().getSimpleName() + ": " + e.getMessage();
+        } catch (Exception e) {
+            logger.error("[Bulk Refund] Error while refunding enrollment {} (job {}, item {})", item.getEnrollId(),
+                    job.getId(), id, e);
+            failure = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        String lastError = ClaimedRowWorker.truncateError(failure);
+        if (failure == null || resultStatus == BulkRefundItemStatus.SKIPPED) {
+            BulkRefundItemStatus finalStatus = resultStatus;
+            transactionTemplate.execute(status -> itemRepository.updateResult(id, finalStatus, lastError,
+                    item.getNextAttemptAt(), now, now));
+            logger.info("[Bulk Refund] Enrollment {} {} (job {}, amount {}, attempt {})", item.getEnrollId(),
+                    finalStatus, job.getId(), item.getRefundAmount(), item.getAttempts());
+        } else if (retryable && item.getAttempts() < maxAttempts) {
+            long delayMs = worker.retryDelayMs(item.getAttempts());
+            transactionTemplate.execute(status -> itemRepository.updateResult(id, BulkRefundItemStatus.PENDING,
+                    lastError, now.plus(delayMs, ChronoUnit.MILLIS), null, now));
+            logger.warn("[Bulk Refund] Enrollment {} (job {}) failed on attempt {}; retrying in {}ms: {}",
+                    item.getEnrollId(), job.getId(), item.getAttempts(), delayMs, lastError);
+        } else {
+            transactionTemplate.execute(status -> itemRepository.updateResult(id, BulkRefundItemStatus.FAILED,
+                    lastError, item.getNextAttemptAt(), now, now));
+            logger.error("[Bulk Refund] Enrollment {} (job {}) failed after {} attempts: {}", item.getEnrollId(),
+                    job.getId(), item.getAttempts(), lastError);
+        }
+    }
+
+    /**
+     * 관리자 취소(필요한 경우) 후 계산해 둔 환불액으로 환불 승인 흐름을 실행한다.
+     *
+     * @return 작업 생성 이후 이미 환불이 끝난 신청이면 그 결제 상태, 환불을 진행했으면 null
+     */
+    private String refundStep(BulkRefundItem item, String reason) {
+        Enroll enroll = transactionTemplate.execute(status -> enrollRepository.findById(item.getEnrollId())
+                .orElseThrow(() -> new ResourceNotFoundException("신청 정보를 찾을 수 없습니다.",
+                        ErrorCode.ENROLLMENT_NOT_FOUND)));
+        String payStatus = enroll.getPayStatus();
+        if ("REFUNDED".equals(payStatus) || "PARTIAL_REFUNDED".equals(payStatus)) {
+            return payStatus;
+        }
+
+        boolean userRequested = enroll.getCancelStatus() == Enroll.CancelStatusType.REQ;
+        boolean adminCancelled = enroll.getCancelStatus() == Enroll.CancelStatusType.ADMIN_CANCELED
+                && "REFUND_PENDING_ADMIN_CANCEL".equals(payStatus);
+        if (!userRequested && !adminCancelled) {
+            enrollmentAdminService.adminCancelEnrollment(item.getEnrollId(), reason);
+        }
+
+        AdminCancelRequestDto cancelRequest = new AdminCancelRequestDto();
+        cancelRequest.setAdminComment(reason);
+        cancelRequest.setFinalRefundAmount(item.getRefundAmount());
+        cancelRequest.setIsFullRefund(!item.isPartialRefund());
+        cancelRequest.setManualUsedDays(item.getUsedDays());
+        enrollmentAdminService.approveCancellation(item.getEnrollId(), cancelRequest);
+        return null;
+    }
+
+    private static final class CreatedJob {
+        private Long jobId;
+        private int totalCount;
+        private final List<Long> pendingIds = new ArrayList<>();
+    }
+}
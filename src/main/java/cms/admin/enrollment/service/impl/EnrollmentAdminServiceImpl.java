@@ -22,6 +22,8 @@ import cms.user.domain.UserRoleType;
 import cms.user.repository.UserRepository;
 import cms.swimming.domain.Lesson;
 import cms.swimming.repository.LessonRepository;
+import cms.swimming.domain.LessonSeatLedger.SeatState;
+import cms.swimming.service.LessonSeatLedgerService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,11 +32,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.UUID;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import cms.admin.enrollment.dto.CalculatedRefundDetailsDto;
 import cms.admin.enrollment.dto.AdminCancelRequestDto;
@@ -50,6 +57,7 @@ public class EnrollmentAdminServiceImpl implements EnrollmentAdminService {
     private final LockerService lockerService;
     private final UserRepository userRepository;
     private final LessonRepository lessonRepository;
+    private final LessonSeatLedgerService lessonSeatLedgerService;
 
     @Value("${app.default-locker-fee:5000}")
     private int defaultLockerFee;
@@ -57,13 +65,13 @@ public class EnrollmentAdminServiceImpl implements EnrollmentAdminService {
     private static final Logger logger = LoggerFactory.getLogger(EnrollmentAdminServiceImpl.class);
 
     private EnrollAdminResponseDto convertToEnrollAdminResponseDto(Enroll enroll) {
-        logger.info("Attempting to convert Enroll to EnrollAdminResponseDto for enrollId: {}",
-                enroll != null ? enroll.getEnrollId() : "null_enroll_object");
         if (enroll == null)
             return null;
+        return convertToEnrollAdminResponseDto(enroll, findLatestPayment(enroll.getEnrollId()));
+    }
 
-        List<Payment> payments = paymentRepository.findByEnroll_EnrollIdOrderByCreatedAtDesc(enroll.getEnrollId());
-        Payment latestPayment = payments.isEmpty() ? null : payments.get(0);
+    private EnrollAdminResponseDto convertToEnrollAdminResponseDto(Enroll enroll, Payment latestPayment) {
+        logger.debug("Converting Enroll to EnrollAdminResponseDto for enrollId: {}", enroll.getEnrollId());
 
         EnrollAdminResponseDto.PaymentInfoForEnrollAdmin paymentInfo = null;
         if (latestPayment != null) {
@@ -104,14 +112,8 @@ public class EnrollmentAdminServiceImpl implements EnrollmentAdminService {
                 .build();
     }
 
-    private CancelRequestAdminDto convertToCancelRequestAdminDto(Enroll enroll) {
-        logger.info("Attempting to convert Enroll to CancelRequestAdminDto for enrollId: {}",
-                enroll != null ? enroll.getEnrollId() : "null_enroll_object");
-        if (enroll == null)
-            return null;
-
-        List<Payment> payments = paymentRepository.findByEnroll_EnrollIdOrderByCreatedAtDesc(enroll.getEnrollId());
-        Payment payment = payments.isEmpty() ? null : payments.get(0);
+    private CancelRequestAdminDto convertToCancelRequestAdminDto(Enroll enroll, Payment payment) {
+        logger.debug("Converting Enroll to CancelRequestAdminDto for enrollId: {}", enroll.getEnrollId());
 
         CancelRequestAdminDto.PaymentDetailsForCancel paymentDetails = null;
         CalculatedRefundDetailsDto refundDetailsDto = null;
@@ -152,9 +154,12 @@ public class EnrollmentAdminServiceImpl implements EnrollmentAdminService {
             // 2. 그 외 결제된 건에 대해서는 환불액 미리보기 시도
             else if (enroll.getPayStatus() != null && !"UNPAID".equalsIgnoreCase(enroll.getPayStatus())) {
                 try {
-                    // getRefundPreview는 REFUNDED, FAILED, CANCELED 등의 상태에 대해 예외를 던질 수 있음
-                    refundDetailsDto = enrollmentService.getRefundPreview(enroll.getEnrollId(),
-                            enroll.getDaysUsedForRefund());
+                    // 환불 계산은 REFUNDED, FAILED, CANCELED 등의 상태에 대해 예외를 던질 수 있음
+                    // (이미 읽은 신청/결제로 계산하여 행마다 다시 조회하지 않음)
+                    refundDetailsDto = "CANCELED_UNPAID".equalsIgnoreCase(enroll.getPayStatus())
+                            ? CalculatedRefundDetailsDto.createEmpty()
+                            : enrollmentService.calculateRefund(enroll, payment, enroll.getDaysUsedForRefund(),
+                                    LocalDate.now());
                     if (refundDetailsDto != null && refundDetailsDto.getFinalRefundAmount() != null) {
                         calculatedRefundInt = refundDetailsDto.getFinalRefundAmount().intValue();
                     }
@@ -195,7 +200,9 @@ public class EnrollmentAdminServiceImpl implements EnrollmentAdminService {
         Specification<Enroll> spec = EnrollSpecification.filterByAdminCriteria(lessonId, userId, payStatus, null, year,
                 month, false);
         Page<Enroll> enrollPage = enrollRepository.findAll(spec, pageable);
-        return enrollPage.map(this::convertToEnrollAdminResponseDto);
+        Map<Long, Payment> latestPayments = findLatestPayments(enrollPage.getContent());
+        return enrollPage.map(enroll -> convertToEnrollAdminResponseDto(enroll,
+                latestPayments.get(enroll.getEnrollId())));
     }
 
     @Override
@@ -218,7 +225,30 @@ public class EnrollmentAdminServiceImpl implements EnrollmentAdminService {
         Specification<Enroll> spec = EnrollSpecification.filterForCancelAndRefundManagement(lessonId, cancelStatuses,
                 targetPayStatuses, useCombinedLogic, false);
         Page<Enroll> enrollPage = enrollRepository.findAll(spec, pageable);
-        return enrollPage.map(this::convertToCancelRequestAdminDto);
+        Map<Long, Payment> latestPayments = findLatestPayments(enrollPage.getContent());
+        return enrollPage.map(enroll -> convertToCancelRequestAdminDto(enroll,
+                latestPayments.get(enroll.getEnrollId())));
+    }
+
+    private Payment findLatestPayment(Long enrollId) {
+        List<Payment> payments = paymentRepository.findByEnroll_EnrollIdOrderByCreatedAtDesc(enrollId);
+        return payments.isEmpty() ? null : payments.get(0);
+    }
+
+    /**
+     * 목록 한 페이지의 신청별 최신 결제를 한 번의 조회로 가져온다. (생성 시각이 같으면 id 가 큰 결제)
+     */
+    private Map<Long, Payment> findLatestPayments(List<Enroll> enrolls) {
+        Map<Long, Payment> latestPayments = new HashMap<>();
+        if (enrolls.isEmpty()) {
+            return latestPayments;
+        }
+        List<Long> enrollIds = enrolls.stream().map(Enroll::getEnrollId).collect(Collectors.toList());
+        for (Payment payment : paymentRepository.findLatestByEnrollIds(enrollIds)) {
+            latestPayments.merge(payment.getEnroll().getEnrollId(), payment,
+                    (current, candidate) -> candidate.getId() > current.getId() ? candidate : current);
+        }
+        return latestPayments;
     }
 
     @Override
@@ -231,7 +261,7 @@ public class EnrollmentAdminServiceImpl implements EnrollmentAdminService {
     }
 
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // PG 환불 호출 동안 트랜잭션을 잡지 않음
     public void approveCancellation(Long enrollId, AdminCancelRequestDto cancelRequestDto) {
         // Delegate the call to the core EnrollmentService
         enrollmentService.approveEnrollmentCancellationAdmin(enrollId, cancelRequestDto);
@@ -253,6 +283,7 @@ public class EnrollmentAdminServiceImpl implements EnrollmentAdminService {
                 .orElseThrow(() -> new ResourceNotFoundException("신청 정보를 찾을 수 없습니다.", ErrorCode.ENROLLMENT_NOT_FOUND));
 
         String originalPayStatus = enroll.getPayStatus();
+        SeatState seatBefore = lessonSeatLedgerService.seatStateOf(enroll);
         logger.info("관리자 직접 취소 시작. Enroll ID: {}, Original Pay Status: {}", enrollId, originalPayStatus);
 
         // 이미 최종적으로 취소/환불된 건은 더 이상 처리하지 않음.
@@ -293,6 +324,8 @@ public class EnrollmentAdminServiceImpl implements EnrollmentAdminService {
         }
 
         Enroll updatedEnroll = enrollRepository.save(enroll);
+        lessonSeatLedgerService.applyTransition(updatedEnroll.getLesson().getLessonId(), seatBefore,
+                lessonSeatLedgerService.seatStateOf(updatedEnroll));
         logger.info("관리자 직접 취소 완료. 최종 상태: status={}, payStatus={}", updatedEnroll.getStatus(),
                 updatedEnroll.getPayStatus());
 
@@ -458,9 +491,10 @@ public class EnrollmentAdminServiceImpl implements EnrollmentAdminService {
         Lesson newLesson = lessonRepository.findById(newLessonId)
                 .orElseThrow(() -> new ResourceNotFoundException("새로운 강습 정보를 찾을 수 없습니다.", ErrorCode.LESSON_NOT_FOUND));
 
-        // 정원 체크 (실시간 카운트)
-        long currentEnrolledCount = enrollRepository.countByLesson(newLesson);
-        if (currentEnrolledCount >= newLesson.getCapacity()) {
+        // 좌석 원장 이동 (기존 강습 반납, 새 강습 조건부 점유). 좌석을 차지하지 않는 신청은 정원과 무관하게 이동
+        Long oldLessonId = enroll.getLesson().getLessonId();
+        SeatState seat = lessonSeatLedgerService.seatStateOf(enroll);
+        if (!lessonSeatLedgerService.tryMoveSeat(oldLessonId, newLessonId, seat)) {
             throw new BusinessRuleException("해당 강습의 정원이 가득 찼습니다.", ErrorCode.LESSON_CAPACITY_EXCEEDED);
         }
 
@@ -3,6 +3,8 @@ package cms.admin.lesson.service.impl;
 import cms.swimming.domain.Lesson;
 import cms.swimming.repository.LessonRepository;
 import cms.swimming.repository.specification.LessonSpecification;
+import cms.swimming.dto.LessonSeatSnapshot;
+import cms.swimming.service.LessonSeatLedgerService;
 import cms.admin.lesson.dto.AdminLessonCreateRequestDto;
 import cms.admin.lesson.dto.AdminLessonResponseDto;
 import cms.admin.lesson.dto.AdminLessonUpdateRequestDto;
@@ -13,6 +15,7 @@ import cms.common.exception.ErrorCode;
 import cms.common.exception.BusinessRuleException;
 import cms.common.exception.InvalidInputException;
 import cms.enroll.repository.EnrollRepository;
+import cms.enroll.service.EnrollmentAdmissionGate;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +34,7 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -41,21 +45,26 @@ public class LessonAdminServiceImpl implements LessonAdminService {
     private static final Logger logger = LoggerFactory.getLogger(LessonAdminServiceImpl.class);
     private final LessonRepository lessonRepository;
     private final EnrollRepository enrollRepository;
+    private final LessonSeatLedgerService lessonSeatLedgerService;
+    private final EnrollmentAdmissionGate enrollmentAdmissionGate;
 
     // Helper method to convert Lesson entity to AdminLessonResponseDto
     private AdminLessonResponseDto convertToAdminLessonResponseDto(Lesson lesson) {
         if (lesson == null) return null;
+        return convertToAdminLessonResponseDto(lesson, lessonSeatLedgerService.getSnapshot(lesson.getLessonId()));
+    }
+
+    private AdminLessonResponseDto convertToAdminLessonResponseDto(Lesson lesson, LessonSeatSnapshot seats) {
+        if (lesson == null) return null;
 
         Integer remainingSpots = null;
         long paidEnrollments = 0;
         long unpaidActiveEnrollments = 0;
 
-        if (lesson.getCapacity() != null) {
-            paidEnrollments = enrollRepository.countByLessonLessonIdAndPayStatus(lesson.getLessonId(), "PAID");
-            unpaidActiveEnrollments = enrollRepository.countByLessonLessonIdAndStatusAndPayStatusAndExpireDtAfter(
-                    lesson.getLessonId(), "APPLIED", "UNPAID", LocalDateTime.now());
-            remainingSpots = lesson.getCapacity() - (int) paidEnrollments - (int) unpaidActiveEnrollments;
-            if (remainingSpots < 0) remainingSpots = 0;
+        if (lesson.getCapacity() != null && seats != null) {
+            paidEnrollments = seats.getPaidCount();
+            unpaidActiveEnrollments = seats.getHeldCount();
+            remainingSpots = seats.getRemainingSeats();
         }
 
         // currentEnrollmentCount can remain as just paid, or also include unpaid active depending on definition for admin view
@@ -94,8 +103,11 @@ public class LessonAdminServiceImpl implements LessonAdminService {
     public Page<AdminLessonResponseDto> getAllLessonsAdmin(Pageable pageable, Integer year, Integer month) {
         Specification<Lesson> spec = LessonSpecification.filterBy( year, month);
         Page<Lesson> lessonPage = lessonRepository.findAll(spec, pageable);
+        // 페이지 전체 강습의 좌석 현황을 한 번에 조회 (강습별 COUNT N+1 방지)
+        Map<Long, LessonSeatSnapshot> seatsByLessonId = lessonSeatLedgerService.getSnapshots(
+                lessonPage.getContent().stream().map(Lesson::getLessonId).collect(Collectors.toList()));
         List<AdminLessonResponseDto> dtoList = lessonPage.getContent().stream()
-                .map(this::convertToAdminLessonResponseDto)
+                .map(lesson -> convertToAdminLessonResponseDto(lesson, seatsByLessonId.get(lesson.getLessonId())))
                 .collect(Collectors.toList());
         return new PageImpl<>(dtoList, pageable, lessonPage.getTotalElements());
     }
@@ -139,6 +151,8 @@ public class LessonAdminServiceImpl implements LessonAdminService {
                 .build();
 
         Lesson savedLesson = lessonRepository.save(lesson);
+        savedLesson.setSeriesId(savedLesson.getLessonId()); // 신규 강습은 새 시리즈의 시작
+        lessonSeatLedgerService.syncCapacity(savedLesson.getLessonId(), savedLesson.getCapacity());
         return convertToAdminLessonResponseDto(savedLesson);
     }
 
@@ -175,6 +189,9 @@ public class LessonAdminServiceImpl implements LessonAdminService {
         // existingLesson.setUpdatedAt(LocalDateTime.now()); // This is handled by @UpdateTimestamp
 
         Lesson updatedLesson = lessonRepository.save(existingLesson);
+        lessonSeatLedgerService.syncCapacity(updatedLesson.getLessonId(), updatedLesson.getCapacity());
+        // 정원/접수 기간 변경을 입장 게이트에 반영
+        enrollmentAdmissionGate.invalidate(updatedLesson.getLessonId());
         return convertToAdminLessonResponseDto(updatedLesson);
     }
 
@@ -189,6 +206,7 @@ public class LessonAdminServiceImpl implements LessonAdminService {
                     "Lesson has " + activeEnrollments + " active enrollments and cannot be deleted.");
         }
         lessonRepository.delete(lesson);
+        enrollmentAdmissionGate.invalidate(lessonId);
     }
 
     @Override
@@ -233,6 +251,8 @@ public class LessonAdminServiceImpl implements LessonAdminService {
                 .instructorName(originalLesson.getInstructorName())
                 .lessonTime(originalLesson.getLessonTime())
                 .locationName(originalLesson.getLocationName())
+                .previousLessonId(originalLesson.getLessonId())
+                .seriesId(originalLesson.seriesIdForClone())
                 .registrationStartDateTime(newRegStartDateTime)
                 .registrationEndDateTime(newRegEndDateTime)
                 .createdBy(createdBy)
@@ -240,6 +260,7 @@ public class LessonAdminServiceImpl implements LessonAdminService {
                 .build();
 
         Lesson savedClonedLesson = lessonRepository.save(clonedLesson);
+        lessonSeatLedgerService.syncCapacity(savedClonedLesson.getLessonId(), savedClonedLesson.getCapacity());
         return convertToAdminLessonResponseDto(savedClonedLesson);
     }
     
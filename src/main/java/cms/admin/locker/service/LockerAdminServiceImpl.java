@@ -4,6 +4,7 @@ import cms.admin.locker.dto.LockerInventoryDto;
 import cms.admin.locker.dto.LockerInventoryUpdateRequestDto;
 import cms.locker.domain.LockerInventory;
 import cms.locker.repository.LockerInventoryRepository;
+import cms.locker.service.LockerService;
 import cms.common.exception.ResourceNotFoundException;
 import cms.common.exception.ErrorCode;
 import cms.common.exception.BusinessRuleException;
@@ -21,6 +22,7 @@ import java.util.stream.Collectors;
 public class LockerAdminServiceImpl implements LockerAdminService {
 
     private final LockerInventoryRepository lockerInventoryRepository;
+    private final LockerService lockerService;
     private final List<String> VALID_GENDERS = Arrays.asList("MALE", "FEMALE");
 
     private LockerInventoryDto convertToDto(LockerInventory entity) {
@@ -86,6 +88,7 @@ public class LockerAdminServiceImpl implements LockerAdminService {
         }
         inventory.setTotalQuantity(updateRequestDto.getTotalQuantity());
         LockerInventory updatedInventory = lockerInventoryRepository.save(inventory);
+        lockerService.evictAvailabilityCache(normalizedGender);
         return convertToDto(updatedInventory);
     }
 } 
\ No newline at end of file
@@ -1,7 +1,10 @@
 package cms.admin.payment.controller;
 
 import cms.admin.payment.dto.PaymentAdminDto;
+import cms.admin.payment.dto.PgDiscrepancyType;
+import cms.admin.payment.dto.PgReconciliationReportDto;
 import cms.admin.payment.service.PaymentAdminService;
+import cms.admin.payment.service.PgReconciliationService;
 import cms.common.dto.ApiResponseSchema;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,16 +14,22 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import cms.payment.domain.PaymentStatus;
 import cms.admin.payment.dto.KispgQueryRequestDto;
 import cms.kispg.service.KispgPaymentService;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 @Tag(name = "CMS - Payment Management", description = "결제 및 환불 내역 관리 API (관리자용)")
 @RestController
@@ -31,6 +40,7 @@ public class PaymentAdminController {
 
     private final PaymentAdminService paymentAdminService;
     private final KispgPaymentService kispgPaymentService;
+    private final PgReconciliationService pgReconciliationService;
 
     @Operation(summary = "모든 결제/환불 내역 조회", description = "다양한 필터와 페이징을 적용하여 결제 및 환불 내역을 조회합니다.")
     @GetMapping
@@ -83,4 +93,25 @@ public class PaymentAdminController {
         Map<String, Object> pgTransactionDetails = kispgPaymentService.queryTransactionAtPg(requestDto);
         return ResponseEntity.ok(ApiResponseSchema.success(pgTransactionDetails, "PG사 결제 내역 조회 성공"));
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "PG 거래 내역 CSV 대사", description = "KISPG 거래 내역(transList) CSV 를 결제/수강신청과 대사합니다. "
+            + "dryRun=true(기본)이면 차이만 보고하고, false 이면 repairs 로 지정한 유형(MISSING_PAYMENT, ORPHAN_ENROLL, "
+            + "CANCELED_AT_PG_PAID_LOCALLY)을 청크 단위로 복구합니다.")
+    @PostMapping(value = "/reconciliation", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponseSchema<PgReconciliationReportDto>> reconcileWithPgTransactions(
+            @Parameter(description = "KISPG 거래 내역 CSV (UTF-8)") @RequestParam("file") MultipartFile file,
+            @Parameter(description = "true 이면 보고만 함") @RequestParam(defaultValue = "true") boolean dryRun,
+            @Parameter(description = "복구할 차이 유형") @RequestParam(required = false) Set<PgDiscrepancyType> repairs)
+            throws IOException {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponseSchema.error("대사할 CSV 파일이 필요합니다.", "INVALID_RECONCILIATION_FILE"));
+        }
+        PgReconciliationReportDto report;
+        try (InputStream csv = file.getInputStream()) {
+            report = pgReconciliationService.reconcile(csv, dryRun,
+                    repairs != null ? repairs : Collections.<PgDiscrepancyType>emptySet());
+        }
+        return ResponseEntity.ok(ApiResponseSchema.success(report, dryRun ? "PG 대사 점검 완료" : "PG 대사 및 복구 완료"));
+    }
+}
@@ -0,0 +1,16 @@
+package cms.admin.payment.dto;
+
+/**
+ * PG 거래 내역(CSV)과 DB 대사 시 발견되는 차이 유형.
+ */
+public enum PgDiscrepancyType {
+    MISSING_PAYMENT,           // PG 승인 거래인데 결제/수강신청이 모두 없음 -> 수강신청과 결제 생성
+    ORPHAN_ENROLL,             // 수강신청은 있으나 결제 기록이 없음 -> 결제 생성
+    AMOUNT_MISMATCH,           // 결제 기록 금액이 PG 금액과 다름 (보고만 함)
+    CANCELED_AT_PG_PAID_LOCALLY, // PG 에서 취소되었으나 DB 는 결제 완료 -> 결제 취소/환불 처리
+    INVALID_ROW;               // 필수 값 누락, 사용자/강습을 찾을 수 없는 행 (보고만 함)
+
+    public boolean isRepairable() {
+        return this == MISSING_PAYMENT || this == ORPHAN_ENROLL || this == CANCELED_AT_PG_PAID_LOCALLY;
+    }
+}
@@ -0,0 +1,24 @@
+package cms.admin.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PgReconciliationDiscrepancyDto {
+    private long rowNumber; // CSV 행 번호 (헤더 다음 행이 1)
+    private PgDiscrepancyType type;
+    private String tid;
+    private String moid;
+    private String username;
+    private Integer pgAmount;
+    private Integer localAmount;
+    private Long paymentId;
+    private Long enrollId;
+    private boolean repaired;
+    private String note;
+}
@@ -0,0 +1,23 @@
+package cms.admin.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PgReconciliationReportDto {
+    private boolean dryRun;
+    private long totalRows;
+    private long matchedRows;
+    private Map<PgDiscrepancyType, Long> discrepancyCounts;
+    private Map<PgDiscrepancyType, Long> repairedCounts;
+    private List<PgReconciliationDiscrepancyDto> discrepancies; // 최대 app.reconciliation.max-report-rows 건
+    private boolean discrepanciesTruncated;
+}
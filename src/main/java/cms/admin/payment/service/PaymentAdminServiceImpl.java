@@ -8,6 +8,8 @@ import cms.enroll.domain.Enroll;
 import cms.enroll.repository.EnrollRepository; // Needed for enriching DTO
 import cms.user.domain.User; // Needed for enriching DTO
 import cms.swimming.domain.Lesson; // Needed for enriching DTO
+import cms.swimming.domain.LessonSeatLedger.SeatState;
+import cms.swimming.service.LessonSeatLedgerService;
 import cms.common.exception.ResourceNotFoundException;
 import cms.common.exception.ErrorCode;
 import cms.common.exception.BusinessRuleException;
@@ -32,6 +34,7 @@ public class PaymentAdminServiceImpl implements PaymentAdminService {
     private static final Logger logger = LoggerFactory.getLogger(PaymentAdminServiceImpl.class);
     private final PaymentRepository paymentRepository;
     private final EnrollRepository enrollRepository; // For DTO enrichment
+    private final LessonSeatLedgerService lessonSeatLedgerService;
 
     @Override
     @Transactional(readOnly = true)
@@ -84,6 +87,9 @@ public class PaymentAdminServiceImpl implements PaymentAdminService {
         // payment.setAdminNote(adminNote); // Assuming Payment entity has adminNote
         // field and you want to set it
 
+        Enroll refundedEnroll = payment.getEnroll();
+        SeatState seatBefore = lessonSeatLedgerService.seatStateOf(refundedEnroll);
+
         if (payment.getRefundedAmt() >= totalPaidAmount) {
             payment.setStatus(PaymentStatus.CANCELED); // Full refund
             // Update related Enroll status if applicable
@@ -103,6 +109,11 @@ public class PaymentAdminServiceImpl implements PaymentAdminService {
             }
         }
 
+        if (refundedEnroll != null) {
+            lessonSeatLedgerService.applyTransition(refundedEnroll.getLesson().getLessonId(), seatBefore,
+                    lessonSeatLedgerService.seatStateOf(refundedEnroll));
+        }
+
         Payment updatedPayment = paymentRepository.save(payment);
         return convertToPaymentAdminDto(updatedPayment);
     }
@@ -0,0 +1,19 @@
+package cms.admin.payment.service;
+
+import cms.admin.payment.dto.PgDiscrepancyType;
+import cms.admin.payment.dto.PgReconciliationReportDto;
+
+import java.io.InputStream;
+import java.util.Set;
+
+public interface PgReconciliationService {
+
+    /**
+     * KISPG 거래 내역 CSV 를 스트리밍으로 읽어 결제/수강신청과 대사합니다.
+     *
+     * @param csv     KISPG 거래 내역(transList) CSV (UTF-8, 첫 행은 헤더)
+     * @param dryRun  true 이면 차이만 보고하고 DB 는 변경하지 않음
+     * @param repairs 복구할 차이 유형 (dryRun 이 false 일 때만 적용)
+     */
+    PgReconciliationReportDto reconcile(InputStream csv, boolean dryRun, Set<PgDiscrepancyType> repairs);
+}
@@ -0,0 +1,822 @@
+package cms.admin.payment.service;
+
+import cms.admin.payment.dto.PgDiscrepancyType;
+import cms.admin.payment.dto.PgReconciliationDiscrepancyDto;
+import cms.admin.payment.dto.PgReconciliationReportDto;
+import cms.common.exception.BusinessRuleException;
+import cms.common.exception.ErrorCode;
+import cms.enroll.domain.Enroll.CancelStatusType;
+import cms.enroll.domain.Enroll;
+import cms.enroll.domain.MembershipType;
+import cms.enroll.repository.EnrollRepository;
+import cms.locker.service.LockerService;
+import cms.payment.domain.Payment;
+import cms.payment.domain.PaymentIntent;
+import cms.payment.domain.PaymentStatus;
+import cms.payment.repository.PaymentIntentRepository;
+import cms.payment.repository.PaymentRepository;
+import cms.swimming.domain.Lesson;
+import cms.swimming.domain.LessonSeatLedger.SeatState;
+import cms.swimming.repository.LessonRepository;
+import cms.swimming.service.LessonSeatLedgerService;
+import cms.user.domain.User;
+import cms.user.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * KISPG 거래 내역(transList) CSV 와 결제/수강신청 대사.
+ *
+ * - CSV 는 한 줄씩 읽어 app.reconciliation.chunk-size 행마다 처리하므로 파일 크기와 무관하게 메모리 사용량이 일정하다.
+ * - 승인 행과 취소 행은 서로 다른 청크에 있을 수 있으므로, 먼저 파일을 한 번 훑어 TID 별 취소 금액을 모은다.
+ *   취소(전체/부분)가 있는 TID 는 PAID 결제를 새로 만들지 않고 취소 금액만 반영한다.
+ * - 청크마다 TID/MOID/사용자/강습을 IN 조회로 한 번에 읽고, 복구도 청크 단위 트랜잭션으로 반영한다.
+ *   복구 중 오류가 나면 해당 청크만 롤백하고 차이는 복구 실패로 보고한다.
+ * - 보고서의 상세 목록은 app.reconciliation.max-report-rows 건까지만 담고 유형별 건수는 모두 센다.
+ */
+@Service
+public class PgReconciliationServiceImpl implements PgReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PgReconciliationServiceImpl.class);
+
+    private static final String COL_USERNAME = "고객ID";
+    private static final String COL_MOID = "주문번호";
+    private static final String COL_TID = "TID";
+    private static final String COL_AMOUNT = "결제금액";
+    private static final String COL_PAID_AT = "결제일시";
+    private static final String COL_PAY_METHOD = "결제수단";
+    private static final String COL_CANCEL_AMOUNT = "취소금액";
+    private static final String[] COL_STATUS_CANDIDATES = { "거래상태", "상태", "취소여부" };
+    private static final DateTimeFormatter PAID_AT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String REPAIR_ACTOR = "PG_RECONCILE";
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentIntentRepository paymentIntentRepository;
+    private final EnrollRepository enrollRepository;
+    private final UserRepository userRepository;
+    private final LessonRepository lessonRepository;
+    private final LessonSeatLedgerService lessonSeatLedgerService;
+    private final LockerService lockerService;
+    private final TransactionTemplate chunkTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${app.reconciliation.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.reconciliation.max-report-rows:1000}")
+    private int maxReportRows;
+
+    @Value("${app.locker.fee:5000}")
+    private int lockerFee;
+
+    public PgReconciliationServiceImpl(PaymentRepository paymentRepository,
+            PaymentIntentRepository paymentIntentRepository, EnrollRepository enrollRepository,
+            UserRepository userRepository, LessonRepository lessonRepository,
+            LessonSeatLedgerService lessonSeatLedgerService, LockerService lockerService,
+            PlatformTransactionManager transactionManager) {
+        this.paymentRepository = paymentRepository;
+        this.paymentIntentRepository = paymentIntentRepository;
+        this.enrollRepository = enrollRepository;
+        this.userRepository = userRepository;
+        this.lessonRepository = lessonRepository;
+        this.lessonSeatLedgerService = lessonSeatLedgerService;
+        this.lockerService = lockerService;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public PgReconciliationReportDto reconcile(InputStream csv, boolean dryRun, Set<PgDiscrepancyType> repairs) {
+        Set<PgDiscrepancyType> appliedRepairs = dryRun || repairs == null ? Collections.emptySet() : repairs;
+        ReportAccumulator report = new ReportAccumulator(dryRun, maxReportRows);
+        logger.info("Starting PG reconciliation. dryRun: {}, repairs: {}", dryRun, appliedRepairs);
+
+        Path csvFile = null;
+        try {
+            // 두 번 읽어야 하므로 업로드 스트림을 임시 파일로 옮겨 둔다
+            csvFile = Files.createTempFile("pg-reconcile-", ".csv");
+            Files.copy(csv, csvFile, StandardCopyOption.REPLACE_EXISTING);
+
+            Map<String, PgCancel> cancelsByTid = collectCancels(csvFile);
+
+            try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+                ColumnIndex columns = readHeader(reader);
+                List<PgRow> chunk = new ArrayList<>(chunkSize);
+                long rowNumber = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    chunk.add(PgRow.parse(++rowNumber, parseCsvLine(line), columns));
+                    if (chunk.size() >= chunkSize) {
+                        processChunk(chunk, cancelsByTid, appliedRepairs, report);
+                        chunk.clear();
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    processChunk(chunk, cancelsByTid, appliedRepairs, report);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read PG reconciliation CSV", e);
+            throw new BusinessRuleException(ErrorCode.INVALID_INPUT_VALUE, "CSV 파일을 읽을 수 없습니다: " + e.getMessage());
+        } finally {
+            if (csvFile != null) {
+                try {
+                    Files.deleteIfExists(csvFile);
+                } catch (IOException e) {
+                    logger.warn("Failed to delete temporary reconciliation file {}: {}", csvFile, e.getMessage());
+                }
+            }
+        }
+
+        PgReconciliationReportDto result = report.build();
+        logger.info("Finished PG reconciliation. rows: {}, matched: {}, discrepancies: {}, repaired: {}",
+                result.getTotalRows(), result.getMatchedRows(), result.getDiscrepancyCounts(),
+                result.getRepairedCounts());
+        return result;
+    }
+
+    private static ColumnIndex readHeader(BufferedReader reader) throws IOException {
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            throw new BusinessRuleException(ErrorCode.INVALID_INPUT_VALUE, "CSV 파일이 비어 있습니다.");
+        }
+        if (headerLine.startsWith("\uFEFF")) {
+            headerLine = headerLine.substring(1);
+        }
+        return ColumnIndex.of(parseCsvLine(headerLine));
+    }
+
+    /**
+     * 파일 전체에서 취소 행만 모아 TID 별 누적 취소 금액을 만든다. 취소 건수만큼만 메모리를 쓴다.
+     */
+    private static Map<String, PgCancel> collectCancels(Path csvFile) throws IOException {
+        Map<String, PgCancel> cancels = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
+            ColumnIndex columns = readHeader(reader);
+            long rowNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                PgRow row = PgRow.parse(++rowNumber, parseCsvLine(line), columns);
+                if (row.error == null && row.cancelType != CancelType.NONE) {
+                    cancels.computeIfAbsent(row.tid, tid -> new PgCancel()).add(row);
+                }
+            }
+        }
+        return cancels;
+    }
+
+    private void processChunk(List<PgRow> rows, Map<String, PgCancel> cancelsByTid, Set<PgDiscrepancyType> repairs,
+            ReportAccumulator report) {
+        ChunkResult result;
+        if (repairs.isEmpty()) {
+            result = readOnlyTransaction.execute(status -> reconcileChunk(rows, cancelsByTid, repairs));
+        } else {
+            try {
+                result = chunkTransaction.execute(status -> reconcileChunk(rows, cancelsByTid, repairs));
+            } catch (RuntimeException e) {
+                // 청크 전체가 롤백되었으므로 차이만 다시 분류해 복구 실패로 보고
+                logger.error("PG reconciliation chunk (rows {}-{}) rolled back", rows.get(0).rowNumber,
+                        rows.get(rows.size() - 1).rowNumber, e);
+                result = readOnlyTransaction
+                        .execute(status -> reconcileChunk(rows, cancelsByTid, Collections.emptySet()));
+                for (PgReconciliationDiscrepancyDto discrepancy : result.discrepancies) {
+                    if (repairs.contains(discrepancy.getType())) {
+                        discrepancy.setNote("복구 실패로 청크 롤백: " + e.getMessage());
+                    }
+                }
+            }
+        }
+        report.add(rows.size(), result);
+    }
+
+    private ChunkResult reconcileChunk(List<PgRow> rows, Map<String, PgCancel> cancelsByTid,
+            Set<PgDiscrepancyType> repairs) {
+        ChunkResult result = new ChunkResult();
+
+        Set<String> tids = new HashSet<>();
+        Set<String> moids = new HashSet<>();
+        for (PgRow row : rows) {
+            if (row.error == null) {
+                tids.add(row.tid);
+                moids.add(row.moid);
+            }
+        }
+        Map<String, Payment> paymentsByTid = tids.isEmpty() ? Collections.emptyMap()
+                : paymentRepository.findByTidIn(tids).stream()
+                        .collect(Collectors.toMap(Payment::getTid, Function.identity(), (a, b) -> a));
+        Map<String, Payment> paymentsByMoid = moids.isEmpty() ? Collections.emptyMap()
+                : paymentRepository.findByMoidIn(moids).stream()
+                        .collect(Collectors.toMap(Payment::getMoid, Function.identity(), (a, b) -> a));
+        Map<String, PaymentIntent> intents = moids.isEmpty() ? Collections.emptyMap()
+                : paymentIntentRepository.findAllById(moids).stream()
+                        .collect(Collectors.toMap(PaymentIntent::getMoid, Function.identity()));
+
+        Set<Long> enrollIds = new HashSet<>();
+        for (String moid : moids) {
+            PaymentIntent intent = intents.get(moid);
+            Long enrollId = intent != null ? intent.getEnrollId() : parseEnrollIdFromMoid(moid);
+            if (enrollId != null) {
+                enrollIds.add(enrollId);
+            }
+        }
+        Map<Long, Enroll> enrolls = enrollIds.isEmpty() ? Collections.emptyMap()
+                : enrollRepository.findAllById(enrollIds).stream()
+                        .collect(Collectors.toMap(Enroll::getEnrollId, Function.identity()));
+
+        // 같은 TID 의 승인/취소 행을 묶어 TID 단위로 한 번만 판정한다
+        Map<String, List<PgRow>> rowsByTid = new LinkedHashMap<>();
+        for (PgRow row : rows) {
+            if (row.error != null) {
+                result.discrepancies.add(discrepancy(row, PgDiscrepancyType.INVALID_ROW).note(row.error).build());
+                continue;
+            }
+            rowsByTid.computeIfAbsent(row.tid, tid -> new ArrayList<>()).add(row);
+        }
+
+        List<PgRow> missingRows = new ArrayList<>();
+        for (Map.Entry<String, List<PgRow>> group : rowsByTid.entrySet()) {
+            List<PgRow> tidRows = group.getValue();
+            PgRow first = tidRows.get(0);
+            Payment payment = paymentsByTid.get(group.getKey());
+            if (payment == null) {
+                payment = paymentsByMoid.get(first.moid);
+            }
+
+            PgCancel cancel = cancelsByTid.get(group.getKey());
+            if (cancel != null) {
+                reconcileCanceledTid(tidRows, payment, cancel, repairs, result);
+                continue;
+            }
+
+            // 같은 파일 안의 중복 승인 행은 첫 행만 판정
+            result.matched += tidRows.size() - 1;
+            PgRow row = first;
+            if (payment != null) {
+                if (payment.getPaidAmt() != null && payment.getPaidAmt() != row.amount) {
+                    result.discrepancies.add(discrepancy(row, PgDiscrepancyType.AMOUNT_MISMATCH)
+                            .localAmount(payment.getPaidAmt()).paymentId(payment.getId())
+                            .enrollId(payment.getEnroll() != null ? payment.getEnroll().getEnrollId() : null)
+                            .build());
+                } else {
+                    result.matched++;
+                }
+                continue;
+            }
+
+            PaymentIntent intent = intents.get(row.moid);
+            Long enrollId = intent != null ? intent.getEnrollId() : parseEnrollIdFromMoid(row.moid);
+            Enroll enroll = enrollId != null ? enrolls.get(enrollId) : null;
+            if (enroll != null) {
+                boolean repaired = false;
+                if (repairs.contains(PgDiscrepancyType.ORPHAN_ENROLL)) {
+                    repaired = createPayment(row, enroll, intent) != null;
+                }
+                result.discrepancies.add(discrepancy(row, PgDiscrepancyType.ORPHAN_ENROLL)
+                        .enrollId(enroll.getEnrollId()).repaired(repaired).build());
+            } else {
+                missingRows.add(row);
+            }
+        }
+
+        if (!missingRows.isEmpty()) {
+            reconcileMissingPayments(missingRows, intents, repairs, result);
+        }
+        return result;
+    }
+
+    /**
+     * 결제도 수강신청도 없는 PG 승인 건. 사용자/강습은 결제 의도 또는 CSV 고객ID/temp MOID 로 찾아 일괄 조회한다.
+     */
+    private void reconcileMissingPayments(List<PgRow> rows, Map<String, PaymentIntent> intents,
+            Set<PgDiscrepancyType> repairs, ChunkResult result) {
+        Set<String> usernames = new HashSet<>();
+        Set<Long> lessonIds = new HashSet<>();
+        for (PgRow row : rows) {
+            if (intents.containsKey(row.moid)) {
+                continue;
+            }
+            if (row.username != null) {
+                usernames.add(row.username);
+            }
+            Long lessonId = parseLessonIdFromTempMoid(row.moid);
+            if (lessonId != null) {
+                lessonIds.add(lessonId);
+            }
+        }
+        Map<String, User> users = usernames.isEmpty() ? Collections.emptyMap()
+                : userRepository.findByUsernameIn(usernames).stream()
+                        .collect(Collectors.toMap(User::getUsername, Function.identity(), (a, b) -> a));
+        Map<Long, Lesson> lessons = lessonIds.isEmpty() ? Collections.emptyMap()
+                : lessonRepository.findAllById(lessonIds).stream()
+                        .collect(Collectors.toMap(Lesson::getLessonId, Function.identity()));
+
+        for (PgRow row : rows) {
+            PaymentIntent intent = intents.get(row.moid);
+            User user = intent != null ? intent.getUser() : users.get(row.username);
+            Lesson lesson = null;
+            if (intent != null) {
+                lesson = intent.getLesson();
+            } else {
+                Long lessonId = parseLessonIdFromTempMoid(row.moid);
+                if (lessonId != null) {
+                    lesson = lessons.get(lessonId);
+                }
+            }
+            if (user == null || lesson == null) {
+                result.discrepancies.add(discrepancy(row, PgDiscrepancyType.INVALID_ROW)
+                        .note(user == null ? "사용자를 찾을 수 없습니다: " + row.username
+                                : "주문번호로 강습을 찾을 수 없습니다: " + row.moid)
+                        .build());
+                continue;
+            }
+
+            boolean repaired = false;
+            Long enrollId = null;
+            if (repairs.contains(PgDiscrepancyType.MISSING_PAYMENT)) {
+                Enroll enroll = createEnrollment(row, user, lesson, intent);
+                createPayment(row, enroll, intent);
+                enrollId = enroll.getEnrollId();
+                repaired = true;
+            }
+            result.discrepancies.add(discrepancy(row, PgDiscrepancyType.MISSING_PAYMENT)
+                    .enrollId(enrollId).repaired(repaired).build());
+        }
+    }
+
+    /**
+     * PG 에서 취소(전체/부분)된 TID. 결제를 새로 만들지 않고, 로컬 결제가 있으면 누적 취소 금액까지 환불 처리한다.
+     * 행마다 한 건씩 세도록 판정은 TID 의 첫 취소 행(없으면 첫 행)에 싣고 나머지는 일치로 센다.
+     */
+    private void reconcileCanceledTid(List<PgRow> tidRows, Payment payment, PgCancel cancel,
+            Set<PgDiscrepancyType> repairs, ChunkResult result) {
+        PgRow reportRow = tidRows.get(0);
+        for (PgRow row : tidRows) {
+            if (row.cancelType != CancelType.NONE) {
+                reportRow = row;
+                break;
+            }
+        }
+        result.matched += tidRows.size() - 1;
+
+        if (payment == null) {
+            PgRow approval = null;
+            for (PgRow row : tidRows) {
+                if (row.cancelType == CancelType.NONE) {
+                    approval = row;
+                    break;
+                }
+            }
+            if (cancel.fullyCanceled || (approval != null && cancel.isFull(approval.amount))) {
+                result.matched++; // 승인 후 전액 취소되어 로컬에 남길 것이 없음
+            } else {
+                result.discrepancies.add(discrepancy(reportRow, PgDiscrepancyType.MISSING_PAYMENT)
+                        .note("PG 에서 " + cancel.amount + "원 부분취소된 거래라 자동 복구하지 않습니다.").build());
+            }
+            return;
+        }
+        if (isCancelApplied(payment, cancel)) {
+            result.matched++;
+            return;
+        }
+        boolean repaired = repairs.contains(PgDiscrepancyType.CANCELED_AT_PG_PAID_LOCALLY)
+                && applyPgCancel(payment, cancel);
+        result.discrepancies.add(discrepancy(reportRow, PgDiscrepancyType.CANCELED_AT_PG_PAID_LOCALLY)
+                .localAmount(payment.getPaidAmt()).paymentId(payment.getId())
+                .enrollId(payment.getEnroll() != null ? payment.getEnroll().getEnrollId() : null)
+                .note(cancel.fullyCanceled ? null : "PG 부분취소 " + cancel.amount + "원")
+                .repaired(repaired).build());
+    }
+
+    private Enroll createEnrollment(PgRow row, User user, Lesson lesson, PaymentIntent intent) {
+        boolean usesLocker;
+        MembershipType membership;
+        if (intent != null) {
+            usesLocker = intent.isUsesLocker();
+            membership = intent.getMembershipType();
+        } else {
+            // 결제 의도가 없는 주문은 결제 금액으로 회원 할인/사물함 여부를 추정
+            MembershipType deduced = null;
+            boolean deducedLocker = false;
+            for (MembershipType candidate : MembershipType.values()) {
+                int lessonAmount = lesson.getPrice() - (lesson.getPrice() * candidate.getDiscountPercentage() / 100);
+                if (row.amount == lessonAmount || row.amount == lessonAmount + lockerFee) {
+                    deduced = candidate;
+                    deducedLocker = row.amount == lessonAmount + lockerFee;
+                    break;
+                }
+            }
+            membership = deduced != null ? deduced : MembershipType.GENERAL;
+            usesLocker = deducedLocker;
+        }
+
+        // 일반 결제 경로와 같이 재고에서 사물함을 배정한다. 재고가 없으면 배정 없이 복구하고 로그로 남긴다
+        boolean lockerAllocated = false;
+        if (usesLocker) {
+            String gender = lockerGender(user);
+            lockerAllocated = gender != null && lockerService.tryIncrementUsedQuantity(gender);
+            if (!lockerAllocated) {
+                logger.warn("[PG Reconcile] Could not allocate locker for user: {} (tid: {}, gender: {})",
+                        user.getUsername(), row.tid, user.getGender());
+            }
+        }
+
+        Enroll enroll = Enroll.builder()
+                .user(user)
+                .lesson(lesson)
+                .status("APPLIED")
+                .payStatus("PAID")
+                .usesLocker(usesLocker)
+                .lockerAllocated(lockerAllocated)
+                .membershipType(membership)
+                .finalAmount(row.amount)
+                .discountAppliedPercentage(membership.getDiscountPercentage())
+                .createdBy(REPAIR_ACTOR)
+                .createdIp(REPAIR_ACTOR)
+                .build();
+        Enroll saved = enrollRepository.save(enroll);
+        lessonSeatLedgerService.applyTransition(lesson.getLessonId(), SeatState.NONE, SeatState.PAID);
+        logger.info("[PG Reconcile] Created enrollment {} for tid: {}, moid: {}", saved.getEnrollId(), row.tid,
+                row.moid);
+        return saved;
+    }
+
+    private Payment createPayment(PgRow row, Enroll enroll, PaymentIntent intent) {
+        int lockerAmount = enroll.isUsesLocker() && row.amount > lockerFee ? lockerFee : 0;
+        Payment payment = Payment.builder()
+                .enroll(enroll)
+                .status(PaymentStatus.PAID)
+                .paidAt(row.paidAt != null ? row.paidAt : LocalDateTime.now())
+                .moid(row.moid)
+                .tid(row.tid)
+                .paidAmt(row.amount)
+                .lessonAmount(row.amount - lockerAmount)
+                .lockerAmount(lockerAmount)
+                .refundedAmt(0)
+                .payMethod(row.payMethod)
+                .pgResultMsg("PG 거래 내역 대사로 복구")
+                .createdBy(REPAIR_ACTOR)
+                .createdIp(REPAIR_ACTOR)
+                .updatedBy(REPAIR_ACTOR)
+                .build();
+        paymentRepository.save(payment);
+
+        if (!"PAID".equals(enroll.getPayStatus())) {
+            SeatState seatBefore = lessonSeatLedgerService.seatStateOf(enroll);
+            enroll.setPayStatus("PAID");
+            enroll.setUpdatedBy(REPAIR_ACTOR);
+            enrollRepository.save(enroll);
+            lessonSeatLedgerService.applyTransition(enroll.getLesson().getLessonId(), seatBefore,
+                    lessonSeatLedgerService.seatStateOf(enroll));
+        }
+        if (intent != null && !intent.isCompleted()) {
+            intent.complete(enroll.getEnrollId());
+        }
+        logger.info("[PG Reconcile] Created payment for enrollment {} (tid: {}, amount: {})", enroll.getEnrollId(),
+                row.tid, row.amount);
+        return payment;
+    }
+
+    private static boolean isCancelApplied(Payment payment, PgCancel cancel) {
+        int paidAmount = payment.getPaidAmt() != null ? payment.getPaidAmt() : 0;
+        int refundedAmount = payment.getRefundedAmt() != null ? payment.getRefundedAmt() : 0;
+        if (payment.getStatus() == PaymentStatus.CANCELED) {
+            return true;
+        }
+        if (cancel.isFull(paidAmount)) {
+            return false;
+        }
+        return payment.getStatus() == PaymentStatus.PARTIAL_REFUNDED && refundedAmount >= cancel.amount;
+    }
+
+    /**
+     * PG 누적 취소 금액을 결제/수강신청에 반영한다. 이미 반영되어 바뀐 것이 없으면 false.
+     */
+    private boolean applyPgCancel(Payment payment, PgCancel cancel) {
+        if (isCancelApplied(payment, cancel)) {
+            return false;
+        }
+        int paidAmount = payment.getPaidAmt() != null ? payment.getPaidAmt() : 0;
+        boolean full = cancel.isFull(paidAmount);
+        payment.setStatus(full ? PaymentStatus.CANCELED : PaymentStatus.PARTIAL_REFUNDED);
+        payment.setRefundedAmt(full ? paidAmount : (int) cancel.amount);
+        payment.setRefundDt(LocalDateTime.now());
+        payment.setUpdatedBy(REPAIR_ACTOR);
+        paymentRepository.save(payment);
+
+        Enroll enroll = payment.getEnroll();
+        if (enroll != null) {
+            // 부분취소도 일반 환불 흐름과 같이 수강 취소로 본다 (사용 일수만큼 차감 후 환불)
+            SeatState seatBefore = lessonSeatLedgerService.seatStateOf(enroll);
+            enroll.setPayStatus(full ? "REFUNDED" : "PARTIAL_REFUNDED");
+            enroll.setStatus("CANCELED");
+            enroll.setCancelStatus(CancelStatusType.APPROVED);
+            enroll.setCancelApprovedAt(LocalDateTime.now());
+            enroll.setUpdatedBy(REPAIR_ACTOR);
+            if (enroll.isLockerAllocated()) {
+                String gender = lockerGender(enroll.getUser());
+                if (gender != null) {
+                    lockerService.decrementUsedQuantity(gender);
+                }
+                enroll.setLockerAllocated(false);
+            }
+            enrollRepository.save(enroll);
+            lessonSeatLedgerService.applyTransition(enroll.getLesson().getLessonId(), seatBefore,
+                    lessonSeatLedgerService.seatStateOf(enroll));
+        }
+        logger.info("[PG Reconcile] Applied PG {} cancel to payment {} (tid: {}, canceled: {})",
+                full ? "full" : "partial", payment.getId(), payment.getTid(), cancel.amount);
+        return true;
+    }
+
+    // 사물함 재고의 성별 키 (user.gender: 1 남성, 0 여성)
+    private static String lockerGender(User user) {
+        String genderCode = user != null ? user.getGender() : null;
+        if ("1".equals(genderCode)) {
+            return "MALE";
+        } else if ("0".equals(genderCode)) {
+            return "FEMALE";
+        }
+        return null;
+    }
+
+    private PgReconciliationDiscrepancyDto.PgReconciliationDiscrepancyDtoBuilder discrepancy(PgRow row,
+            PgDiscrepancyType type) {
+        return PgReconciliationDiscrepancyDto.builder()
+                .rowNumber(row.rowNumber)
+                .type(type)
+                .tid(row.tid)
+                .moid(row.moid)
+                .username(row.username)
+                .pgAmount(row.error == null ? row.amount : null);
+    }
+
+    // enroll_{enrollId}_{timestamp}
+    private static Long parseEnrollIdFromMoid(String moid) {
+        if (moid == null || !moid.startsWith("enroll_")) {
+            return null;
+        }
+        try {
+            return Long.parseLong(moid.split("_")[1]);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // temp_{lessonId}_{userUuidPrefix}_{timestamp}
+    private static Long parseLessonIdFromTempMoid(String moid) {
+        if (moid == null || !moid.startsWith("temp_")) {
+            return null;
+        }
+        try {
+            return Long.parseLong(moid.split("_")[1]);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * CSV 한 줄을 필드로 나눈다. 큰따옴표로 감싼 필드 안의 쉼표와 "" 이스케이프를 처리한다 (필드 안 줄바꿈은 지원하지 않음).
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields;
+    }
+
+    private static final class ColumnIndex {
+        private final Map<String, Integer> positions = new HashMap<>();
+
+        static ColumnIndex of(List<String> header) {
+            ColumnIndex index = new ColumnIndex();
+            for (int i = 0; i < header.size(); i++) {
+                index.positions.put(header.get(i), i);
+            }
+            for (String required : new String[] { COL_TID, COL_MOID, COL_AMOUNT }) {
+                if (!index.positions.containsKey(required)) {
+                    throw new BusinessRuleException(ErrorCode.INVALID_INPUT_VALUE,
+                            "CSV 에 필수 컬럼이 없습니다: " + required);
+                }
+            }
+            return index;
+        }
+
+        String get(List<String> fields, String column) {
+            Integer position = positions.get(column);
+            if (position == null || position >= fields.size()) {
+                return null;
+            }
+            String value = fields.get(position);
+            return value.isEmpty() ? null : value;
+        }
+
+        String getStatus(List<String> fields) {
+            for (String column : COL_STATUS_CANDIDATES) {
+                String value = get(fields, column);
+                if (value != null) {
+                    return value;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class PgRow {
+        private long rowNumber;
+        private String tid;
+        private String moid;
+        private String username;
+        private int amount;
+        private LocalDateTime paidAt;
+        private String payMethod;
+        private CancelType cancelType = CancelType.NONE;
+        private int cancelAmount;
+        private String error; // null 이면 유효한 행
+
+        static PgRow parse(long rowNumber, List<String> fields, ColumnIndex columns) {
+            PgRow row = new PgRow();
+            row.rowNumber = rowNumber;
+            row.tid = columns.get(fields, COL_TID);
+            row.moid = columns.get(fields, COL_MOID);
+            row.username = columns.get(fields, COL_USERNAME);
+            row.payMethod = columns.get(fields, COL_PAY_METHOD);
+            String status = columns.getStatus(fields);
+            row.cancelType = CancelType.of(status);
+
+            if (row.tid == null || row.moid == null) {
+                row.error = "TID 또는 주문번호가 없습니다.";
+                return row;
+            }
+            String amount = columns.get(fields, COL_AMOUNT);
+            try {
+                // 취소 행은 음수로 내려오는 경우가 있어 절댓값으로 비교
+                row.amount = Math.abs(Integer.parseInt(amount.replace(",", "")));
+            } catch (RuntimeException e) {
+                row.error = "결제금액을 해석할 수 없습니다: " + amount;
+                return row;
+            }
+            if (row.cancelType != CancelType.NONE) {
+                // 취소금액 컬럼이 없으면 취소 행의 결제금액이 취소된 금액
+                String cancelAmount = columns.get(fields, COL_CANCEL_AMOUNT);
+                try {
+                    row.cancelAmount = cancelAmount == null ? row.amount
+                            : Math.abs(Integer.parseInt(cancelAmount.replace(",", "")));
+                } catch (RuntimeException e) {
+                    row.error = "취소금액을 해석할 수 없습니다: " + cancelAmount;
+                    return row;
+                }
+            }
+            String paidAt = columns.get(fields, COL_PAID_AT);
+            if (paidAt != null) {
+                try {
+                    row.paidAt = LocalDateTime.parse(paidAt, PAID_AT_FORMAT);
+                } catch (DateTimeParseException e) {
+                    row.paidAt = null; // 결제일시는 복구 시 참고용이므로 형식이 다르면 현재 시각 사용
+                }
+            }
+            return row;
+        }
+    }
+
+    private enum CancelType {
+        NONE, FULL, PARTIAL;
+
+        static CancelType of(String status) {
+            if (status == null) {
+                return NONE;
+            }
+            String normalized = status.replace(" ", "").toUpperCase();
+            if (normalized.contains("부분취소") || normalized.contains("PARTIAL")) {
+                return PARTIAL;
+            }
+            if (normalized.contains("취소") || normalized.contains("CANCEL")) {
+                return FULL;
+            }
+            return NONE;
+        }
+    }
+
+    /**
+     * TID 하나의 누적 취소. 전체취소 행이 있거나 부분취소 합계가 결제 금액에 이르면 전액 취소로 본다.
+     */
+    private static final class PgCancel {
+        private long amount;
+        private boolean fullyCanceled;
+
+        void add(PgRow row) {
+            amount += row.cancelAmount;
+            if (row.cancelType == CancelType.FULL) {
+                fullyCanceled = true;
+            }
+        }
+
+        boolean isFull(int paidAmount) {
+            return fullyCanceled || amount >= paidAmount;
+        }
+    }
+
+    private static final class ChunkResult {
+        private long matched;
+        private final List<PgReconciliationDiscrepancyDto> discrepancies = new ArrayList<>();
+    }
+
+    private static final class ReportAccumulator {
+        private final boolean dryRun;
+        private final int maxReportRows;
+        private long totalRows;
+        private long matchedRows;
+        private final Map<PgDiscrepancyType, Long> discrepancyCounts = new EnumMap<>(PgDiscrepancyType.class);
+        private final Map<PgDiscrepancyType, Long> repairedCounts = new EnumMap<>(PgDiscrepancyType.class);
+        private final List<PgReconciliationDiscrepancyDto> discrepancies = new ArrayList<>();
+        private boolean truncated;
+
+        ReportAccumulator(boolean dryRun, int maxReportRows) {
+            this.dryRun = dryRun;
+            this.maxReportRows = maxReportRows;
+        }
+
+        void add(int rows, ChunkResult chunk) {
+            totalRows += rows;
+            matchedRows += chunk.matched;
+            for (PgReconciliationDiscrepancyDto discrepancy : chunk.discrepancies) {
+                discrepancyCounts.merge(discrepancy.getType(), 1L, Long::sum);
+                if (discrepancy.isRepaired()) {
+                    repairedCounts.merge(discrepancy.getType(), 1L, Long::sum);
+                }
+                if (discrepancies.size() < maxReportRows) {
+                    discrepancies.add(discrepancy);
+                } else {
+                    truncated = true;
+                }
+            }
+        }
+
+        PgReconciliationReportDto build() {
+            return PgReconciliationReportDto.builder()
+                    .dryRun(dryRun)
+                    .totalRows(totalRows)
+                    .matchedRows(matchedRows)
+                    .discrepancyCounts(discrepancyCounts)
+                    .repairedCounts(repairedCounts)
+                    .discrepancies(discrepancies)
+                    .discrepanciesTruncated(truncated)
+                    .build();
+        }
+    }
+}
@@ -20,6 +20,8 @@ public enum ErrorCode {
     SERVICE_UNAVAILABLE("CM_0009", "현재 서비스를 사용할 수 없습니다. 잠시 후 다시 시도해주세요.", HttpStatus.SERVICE_UNAVAILABLE),
     DATA_INTEGRITY_VIOLATION("CM_0010", "데이터 무결성 제약조건을 위반했습니다. 입력값을 확인해주세요.", HttpStatus.CONFLICT),
     INVALID_REQUEST("CM_0011", "잘못된 요청입니다.", HttpStatus.BAD_REQUEST),
+    DUPLICATE_REQUEST_IN_PROGRESS("CM_0012", "동일한 요청이 처리 중입니다. 잠시 후 다시 시도해주세요.", HttpStatus.CONFLICT),
+    IDEMPOTENCY_KEY_REUSED("CM_0013", "같은 멱등 키로 다른 내용의 요청을 보낼 수 없습니다.", HttpStatus.UNPROCESSABLE_ENTITY),
 
     // User Errors (US_xxxx)
     USER_NOT_FOUND("US_0001", "해당 사용자를 찾을 수 없습니다.", HttpStatus.NOT_FOUND),
@@ -63,6 +65,7 @@ public enum ErrorCode {
             HttpStatus.FORBIDDEN),
     DUPLICATE_ENROLLMENT("EN_0011", "이미 해당 강습에 신청 내역이 존재합니다.", HttpStatus.CONFLICT),
     REGISTRATION_PERIOD_INVALID("EN_0012", "신청 기간이 아닙니다.", HttpStatus.BAD_REQUEST),
+    WAITING_ROOM_NOT_ADMITTED("EN_0013", "대기열 입장 순서가 아닙니다. 대기 후 다시 시도해주세요.", HttpStatus.TOO_MANY_REQUESTS),
 
     // Payment Errors (PM_xxxx)
     PAYMENT_INFO_NOT_FOUND("PM_0001", "결제 정보를 찾을 수 없습니다.", HttpStatus.NOT_FOUND),
@@ -79,6 +82,7 @@ public enum ErrorCode {
     PAYMENT_CANCEL_FAILED("PM_0012", "PG사 결제 취소에 실패했습니다. (PG사 거부)", HttpStatus.BAD_REQUEST),
     PAYMENT_GATEWAY_ERROR("PM_0013", "PG사와의 통신 중 오류가 발생했습니다.", HttpStatus.INTERNAL_SERVER_ERROR),
     PG_TRANSACTION_NOT_FOUND("PM_0014", "PG사에서 해당 거래를 찾을 수 없습니다.", HttpStatus.NOT_FOUND),
+    PAYMENT_GATEWAY_UNAVAILABLE("PM_0015", "PG사 연동이 일시적으로 원활하지 않습니다. 잠시 후 다시 시도해 주세요.", HttpStatus.SERVICE_UNAVAILABLE),
 
     // Locker Errors (LK_xxxx)
     LOCKER_NOT_AVAILABLE("LK_0001", "사용 가능한 사물함이 없습니다.", HttpStatus.CONFLICT),
@@ -0,0 +1,127 @@
+package cms.common.service;
+
+import lombok.Builder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * DB 에 쌓인 작업 행(결제 통지 수신함, 일괄 환불 항목 등)을 크기가 정해진 스레드 풀에서 처리하는 공용 작업자.
+ *
+ * - 행의 선점(PENDING -> PROCESSING 조건부 UPDATE)과 결과 기록은 processor 가 맡는다. 선점한 쪽만 처리하므로
+ *   여러 노드가 같은 테이블을 폴링해도 된다. 이 클래스는 제출, 중복 제출 방지, 재시도 간격, 오래된 선점 해제만 다룬다.
+ * - 풀 대기열이 가득 차면 행은 PENDING 으로 남고 다음 폴링에서 다시 제출된다.
+ * - 종료 시 처리 중이던 행은 processing-timeout 이 지나면 다른 노드(또는 재기동 후)가 다시 처리한다.
+ */
+public class ClaimedRowWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClaimedRowWorker.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    // 로그 접두어 (예: "KISPG Inbox")
+    private final String name;
+    private final long retryInitialDelayMs;
+    private final long retryMaxDelayMs;
+    private final long processingTimeoutMs;
+    private final Consumer<Long> processor;
+    // 작업 대기열에 들어가 있는 행 (폴링이 같은 행을 중복 제출하지 않도록)
+    private final Set<Long> queuedIds = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor workers;
+
+    @Builder
+    private ClaimedRowWorker(String name, String threadPrefix, int threads, int queueCapacity,
+            long retryInitialDelayMs, long retryMaxDelayMs, long processingTimeoutMs, Consumer<Long> processor) {
+        this.name = name;
+        this.retryInitialDelayMs = retryInitialDelayMs;
+        this.retryMaxDelayMs = retryMaxDelayMs;
+        this.processingTimeoutMs = processingTimeoutMs;
+        this.processor = processor;
+        AtomicInteger threadSeq = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, threadPrefix + threadSeq.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * @return 작업 대기열이 가득 차 제출하지 못했으면 false (행은 PENDING 으로 남아 다음 폴링에서 다시 제출된다)
+     */
+    public boolean dispatch(Long id) {
+        if (!queuedIds.add(id)) {
+            return true;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    processor.accept(id);
+                } finally {
+                    queuedIds.remove(id);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            queuedIds.remove(id);
+            logger.debug("[{}] Worker queue full; row {} left for the next poll", name, id);
+            return false;
+        }
+    }
+
+    /**
+     * 앞에서부터 제출하다가 작업 대기열이 가득 차면 멈춘다.
+     */
+    public void dispatchAll(Iterable<Long> ids) {
+        for (Long id : ids) {
+            if (!dispatch(id)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * processing-timeout 보다 오래 PROCESSING 으로 남은 행을 대기로 되돌린다.
+     *
+     * @param release (staleBefore, now) 를 받아 되돌린 행 수를 돌려주는 조건부 UPDATE
+     */
+    public int releaseStale(BiFunction<LocalDateTime, LocalDateTime, Integer> release) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer released = release.apply(now.minus(processingTimeoutMs, ChronoUnit.MILLIS), now);
+        if (released != null && released > 0) {
+            logger.warn("[{}] Requeued {} rows stuck in PROCESSING for over {}ms", name, released,
+                    processingTimeoutMs);
+            return released;
+        }
+        return 0;
+    }
+
+    /**
+     * attempts 번째 실패 후의 재시도 간격: retry-initial-delay 부터 두 배씩, 최대 retry-max-delay
+     */
+    public long retryDelayMs(int attempts) {
+        long delay = retryInitialDelayMs;
+        for (int i = 1; i < attempts && delay < retryMaxDelayMs; i++) {
+            delay *= 2;
+        }
+        return Math.min(delay, retryMaxDelayMs);
+    }
+
+    public static String truncateError(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
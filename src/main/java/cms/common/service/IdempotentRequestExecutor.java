@@ -0,0 +1,167 @@
+package cms.common.service;
+
+import cms.common.exception.BusinessRuleException;
+import cms.common.exception.ErrorCode;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 중복 요청(더블 클릭, 클라이언트 재시도) 흡수용 멱등 실행기.
+ *
+ * - 같은 키의 첫 요청만 action 을 실행하고, 처리 중 들어온 중복 요청은 그 결과(또는 예외)를 기다려 그대로 받는다.
+ * - 성공 결과는 ttl 동안 보관하여 이후 중복 요청에 재사용한다 (트랜잭션/잠금 진입 없음).
+ * - 실패한 요청은 보관하지 않으므로 원인 해소 후 재시도는 다시 실행된다.
+ * - 같은 Idempotency-Key 로 내용이 다른 요청이 오면 422 로 거절한다.
+ */
+@Component
+public class IdempotentRequestExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotentRequestExecutor.class);
+
+    private static final String CLIENT_KEY_MARK = "key:";
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${app.idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.idempotency.ttl:30000}")
+    private long ttlMs;
+
+    @Value("${app.idempotency.wait-timeout:30000}")
+    private long waitTimeoutMs;
+
+    /**
+     * 멱등 키 생성. 클라이언트가 Idempotency-Key 헤더를 보낸 경우 그 값을, 아니면 요청 지문을 사용한다.
+     * 어느 경우든 scope 와 사용자로 구분하여 다른 API/사용자와 충돌하지 않게 한다.
+     * 요청 지문의 해시를 함께 보관하여, 같은 Idempotency-Key 로 다른 내용을 보낸 요청을 구분한다.
+     */
+    public static RequestKey keyOf(String scope, String userUuid, String clientKey, Object... fingerprint) {
+        StringBuilder body = new StringBuilder();
+        for (Object part : fingerprint) {
+            body.append(part).append('|');
+        }
+        String prefix = scope + '|' + userUuid + '|';
+        String key = StringUtils.hasText(clientKey) ? prefix + CLIENT_KEY_MARK + clientKey.trim() : prefix + body;
+        return new RequestKey(key, DigestUtils.sha256Hex(body.toString()));
+    }
+
+    /**
+     * @throws BusinessRuleException 같은 Idempotency-Key 로 다른 내용의 요청이 들어온 경우 (IDEMPOTENCY_KEY_REUSED, 422)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RequestKey requestKey, Supplier<T> action) {
+        if (!enabled || requestKey == null) {
+            return action.get();
+        }
+
+        String key = requestKey.key;
+        Entry created = new Entry(requestKey.bodyHash);
+        Entry existing = entries.putIfAbsent(key, created);
+        if (existing != null && existing.isExpired()) {
+            // 만료된 결과는 새 실행으로 교체 (동시에 교체를 시도한 요청 중 하나만 성공)
+            existing = entries.replace(key, existing, created) ? null : entries.get(key);
+        }
+        if (existing != null) {
+            if (!existing.bodyHash.equals(requestKey.bodyHash)) {
+                logger.warn("[Idempotency] Idempotency key reused with a different request body: {}", key);
+                throw new BusinessRuleException(ErrorCode.IDEMPOTENCY_KEY_REUSED, HttpStatus.UNPROCESSABLE_ENTITY);
+            }
+            logger.info("[Idempotency] Duplicate request detected, reusing result of first execution: {}", key);
+            return (T) await(existing);
+        }
+
+        try {
+            T result = action.get();
+            created.complete(result, System.currentTimeMillis() + ttlMs);
+            return result;
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, created);
+            created.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 사용자의 요청 지문 기반 결과를 버린다 (신청 취소 후 같은 내용으로 다시 신청할 수 있도록).
+     * 클라이언트가 보낸 Idempotency-Key 결과는 같은 키의 재시도를 위해 남겨 둔다.
+     */
+    public void evictFingerprints(String scope, String userUuid) {
+        String prefix = scope + '|' + userUuid + '|';
+        entries.keySet().removeIf(key -> key.startsWith(prefix) && !key.startsWith(prefix + CLIENT_KEY_MARK));
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.ttl:30000}")
+    public void evictExpired() {
+        entries.entrySet().removeIf(e -> e.getValue().isExpired());
+    }
+
+    private Object await(Entry entry) {
+        try {
+            return entry.future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new BusinessRuleException("중복 요청 처리 중 오류가 발생했습니다.", ErrorCode.INTERNAL_SERVER_ERROR, cause);
+        } catch (TimeoutException e) {
+            throw new BusinessRuleException(ErrorCode.DUPLICATE_REQUEST_IN_PROGRESS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessRuleException(ErrorCode.DUPLICATE_REQUEST_IN_PROGRESS);
+        }
+    }
+
+    public static final class RequestKey {
+        private final String key;
+        // 요청 지문 해시 (같은 키로 다른 내용이 오는지 확인용)
+        private final String bodyHash;
+
+        private RequestKey(String key, String bodyHash) {
+            this.key = key;
+            this.bodyHash = bodyHash;
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+        private final String bodyHash;
+        // 0 이면 처리 중 (만료 대상 아님)
+        private volatile long expiresAt;
+
+        Entry(String bodyHash) {
+            this.bodyHash = bodyHash;
+        }
+
+        void complete(Object result, long expiresAt) {
+            this.expiresAt = expiresAt;
+            future.complete(result);
+        }
+
+        boolean isExpired() {
+            return expiresAt > 0 && System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
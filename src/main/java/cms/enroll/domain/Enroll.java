@@ -12,6 +12,7 @@ import java.time.LocalDateTime;
 import org.hibernate.annotations.ColumnDefault;
 
 @Entity
+@EntityListeners(EnrollChangeListener.class)
 @Table(name = "enroll", indexes = {
         @Index(name = "idx_user_lesson_status", columnList = "user_uuid, lesson_id, status"),
         @Index(name = "idx_lesson_paystatus", columnList = "lesson_id, pay_status"),
@@ -0,0 +1,55 @@
+package cms.enroll.domain;
+
+import cms.common.service.IdempotentRequestExecutor;
+import cms.enroll.service.UserEnrollmentLedger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 신청 건 저장/삭제 시 사용자 월 신청 현황 캐시 무효화.
+ * 신청이 취소/만료되면 같은 내용의 재신청이 이전 결과로 흡수되지 않도록 멱등 실행기의 요청 지문 결과도 버린다.
+ * Hibernate 가 Spring 빈으로 생성하며, EntityManagerFactory 생성 시점의 순환 참조를 피하기 위해 의존 빈은 지연 조회한다.
+ */
+@Component
+public class EnrollChangeListener {
+
+    // 더 이상 좌석을 점유하지 않는 결제 상태 (취소/만료/환불)
+    private static final List<String> RELEASED_PAY_STATUSES = Arrays.asList(
+            "CANCELED_UNPAID", "EXPIRED", "REFUND_REQUESTED", "REFUND_PENDING_ADMIN_CANCEL", "REFUNDED",
+            "PARTIAL_REFUNDED");
+
+    private final ObjectProvider<UserEnrollmentLedger> userEnrollmentLedger;
+    private final ObjectProvider<IdempotentRequestExecutor> idempotentRequestExecutor;
+
+    public EnrollChangeListener(ObjectProvider<UserEnrollmentLedger> userEnrollmentLedger,
+            ObjectProvider<IdempotentRequestExecutor> idempotentRequestExecutor) {
+        this.userEnrollmentLedger = userEnrollmentLedger;
+        this.idempotentRequestExecutor = idempotentRequestExecutor;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onEnrollChanged(Enroll enroll) {
+        // user 는 지연 로딩 프록시지만 uuid 가 식별자이므로 초기화 없이 읽힌다
+        if (enroll.getUser() == null) {
+            return;
+        }
+        String userUuid = enroll.getUser().getUuid();
+        userEnrollmentLedger.ifAvailable(ledger -> ledger.invalidate(userUuid));
+        if (isReleased(enroll)) {
+            idempotentRequestExecutor.ifAvailable(executor -> executor.evictFingerprints("enroll", userUuid));
+        }
+    }
+
+    private boolean isReleased(Enroll enroll) {
+        return RELEASED_PAY_STATUSES.contains(enroll.getPayStatus())
+                || (enroll.getCancelStatus() != null && enroll.getCancelStatus() != Enroll.CancelStatusType.NONE);
+    }
+}
@@ -0,0 +1,58 @@
+package cms.enroll.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 신청 대기실 티켓.
+ * ticketId 순서가 대기 순번이며, 입장 처리되면 admittedUntil 이 채워진다 (그 전까지는 대기 중).
+ */
+@Entity
+@Table(name = "waiting_room_ticket")
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class WaitingRoomTicket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ticket_id")
+    private Long ticketId;
+
+    @Column(name = "token", nullable = false, length = 36)
+    private String token;
+
+    @Column(name = "lesson_id", nullable = false)
+    private Long lessonId;
+
+    @Column(name = "user_uuid", nullable = false, length = 36)
+    private String userUuid;
+
+    @Column(name = "admitted_until")
+    private LocalDateTime admittedUntil;
+
+    // 입장 후 남은 신청/결제 준비 횟수 (성공한 호출마다 1 씩 차감)
+    @Column(name = "remaining_uses")
+    private Integer remainingUses;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
+    public boolean isAdmitted() {
+        return admittedUntil != null;
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return admittedUntil != null && now.isAfter(admittedUntil);
+    }
+}
@@ -3,27 +3,61 @@ package cms.enroll.repository;
 import cms.enroll.domain.Enroll;
 import cms.user.domain.User;
 import cms.swimming.domain.Lesson;
+import cms.swimming.dto.UserEnrollmentSnapshot;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface EnrollRepository extends JpaRepository<Enroll, Long>, JpaSpecificationExecutor<Enroll> {
+
+       // 관리자 신청/취소 목록: 사용자와 강습을 같은 조회로 가져옴 (행마다 지연 로딩하지 않도록)
+       @Override
+       @EntityGraph(attributePaths = { "user", "lesson" })
+       Page<Enroll> findAll(Specification<Enroll> spec, Pageable pageable);
+
        List<Enroll> findByUserOrderByCreatedAtDesc(User user);
 
        List<Enroll> findByUserAndStatusOrderByCreatedAtDesc(User user, String status);
 
        List<Enroll> findByUserUuid(String userUuid);
 
+       // 마이페이지 신청 내역 페이지 조회 (강습 fetch join, 정렬은 Pageable 로 전달)
+       @Query(value = "SELECT e FROM Enroll e JOIN FETCH e.lesson l WHERE e.user.uuid = :userUuid",
+                     countQuery = "SELECT COUNT(e) FROM Enroll e WHERE e.user.uuid = :userUuid")
+       Page<Enroll> findPageByUserUuidWithLesson(@Param("userUuid") String userUuid, Pageable pageable);
+
+       long countByUserUuid(String userUuid);
+
+       // 시작일이 주어진 날짜 이후인 강습의 신청 건수 (재수강 미리보기 병합 위치 계산용)
+       long countByUserUuidAndLesson_StartDateGreaterThanEqual(String userUuid, LocalDate startDate);
+
+       // 기간 내 시작하는 강습 중 사용자가 결제 완료한 강습 목록
+       @Query("SELECT DISTINCT l FROM Enroll e JOIN e.lesson l WHERE e.user.uuid = :userUuid " +
+                     "AND e.payStatus = 'PAID' AND l.startDate BETWEEN :fromDate AND :toDate")
+       List<Lesson> findPaidLessonsByUserUuidAndStartDateBetween(@Param("userUuid") String userUuid,
+                     @Param("fromDate") LocalDate fromDate,
+                     @Param("toDate") LocalDate toDate);
+
+       // 주어진 강습 중 사용자가 이미 결제 완료한 강습 ID
+       @Query("SELECT DISTINCT e.lesson.lessonId FROM Enroll e WHERE e.user.uuid = :userUuid " +
+                     "AND e.payStatus = 'PAID' AND e.lesson.lessonId IN :lessonIds")
+       List<Long> findPaidLessonIdsByUserUuidAndLessonIds(@Param("userUuid") String userUuid,
+                     @Param("lessonIds") Collection<Long> lessonIds);
+
        List<Enroll> findByUserUuidAndPayStatusInOrderByLesson_StartDateDesc(String userUuid, List<String> payStatuses);
 
        List<Enroll> findByUserUuidAndLessonLessonId(String userUuid, Long lessonId);
@@ -48,6 +82,15 @@ public interface EnrollRepository extends JpaRepository<Enroll, Long>, JpaSpecif
 
        long countByLessonLessonIdAndStatusAndPayStatus(Long lessonId, String status, String payStatus);
 
+       // 목록 화면용 일괄 정원 집계: [lessonId, 결제완료 수, 결제대기 수]
+       // 좌석 원장과 같은 기준: 만료 시각이 지났어도 정리 작업이 EXPIRED 로 바꾸기 전까지는 결제 대기로 집계
+       @Query("SELECT e.lesson.lessonId, " +
+                     "SUM(CASE WHEN e.payStatus = 'PAID' THEN 1 ELSE 0 END), " +
+                     "SUM(CASE WHEN e.status = 'APPLIED' AND e.payStatus = 'UNPAID' THEN 1 ELSE 0 END) " +
+                     "FROM Enroll e WHERE e.lesson.lessonId IN :lessonIds " +
+                     "GROUP BY e.lesson.lessonId")
+       List<Object[]> countSeatUsageByLessonIds(@Param("lessonIds") Collection<Long> lessonIds);
+
        // Methods for admin view
        Page<Enroll> findByPayStatus(String payStatus, Pageable pageable);
 
@@ -97,12 +140,52 @@ public interface EnrollRepository extends JpaRepository<Enroll, Long>, JpaSpecif
                      @Param("currentLessonStartDate") LocalDate currentLessonStartDate,
                      @Param("previousMonthDate") LocalDate previousMonthDate);
 
-       // For LessonCompletionLockerReleaseSweepJob: find enrollments for lessons ended
-       // before a certain date with lockers allocated.
-       @Query("SELECT e FROM Enroll e " +
+       // For LessonCompletionLockerReleaseSweepJob: keyset page of enrollments for lessons
+       // ended before a certain date with lockers allocated.
+       // Returns rows of [enrollId, user gender code, payStatus] ordered by enrollId.
+       @Query("SELECT e.enrollId, u.gender, e.payStatus FROM Enroll e JOIN e.user u " +
                      "WHERE e.lesson.endDate < :date " +
+                     "AND e.lockerAllocated = true " +
+                     "AND e.enrollId > :afterEnrollId " +
+                     "ORDER BY e.enrollId ASC")
+       List<Object[]> findLockerAllocatedAfterLessonEnd(@Param("date") LocalDate date,
+                     @Param("afterEnrollId") Long afterEnrollId, Pageable pageable);
+
+       // For LessonCompletionLockerReleaseSweepJob: bulk-clear the locker flag of paid enrollments.
+       // The returned row count is the number of lockers to give back to the inventory.
+       @Modifying
+       @Query("UPDATE Enroll e SET e.lockerAllocated = false, e.updatedAt = :now " +
+                     "WHERE e.enrollId IN :enrollIds " +
+                     "AND e.lockerAllocated = true " +
+                     "AND e.payStatus = 'PAID'")
+       int releasePaidLockers(@Param("enrollIds") Collection<Long> enrollIds, @Param("now") LocalDateTime now);
+
+       // For LessonCompletionLockerReleaseSweepJob: bulk-clear stale locker flags that no longer hold
+       // inventory (e.g. canceled enrollments whose locker was already returned).
+       @Modifying
+       @Query("UPDATE Enroll e SET e.lockerAllocated = false, e.updatedAt = :now " +
+                     "WHERE e.enrollId IN :enrollIds " +
                      "AND e.lockerAllocated = true")
-       List<Enroll> findByLesson_EndDateBeforeAndLockerAllocatedIsTrue(@Param("date") LocalDate date);
+       int clearLockerAllocated(@Param("enrollIds") Collection<Long> enrollIds, @Param("now") LocalDateTime now);
+
+       // For BulkRefundService: refund targets of a lesson with the lesson fetched in the same query
+       @Query("SELECT e FROM Enroll e JOIN FETCH e.lesson " +
+                     "WHERE e.lesson.lessonId = :lessonId AND e.payStatus IN :payStatuses " +
+                     "ORDER BY e.enrollId ASC")
+       List<Enroll> findRefundTargetsByLesson(@Param("lessonId") Long lessonId,
+                     @Param("payStatuses") Collection<String> payStatuses);
+
+       @Query("SELECT e FROM Enroll e JOIN FETCH e.lesson WHERE e.enrollId IN :enrollIds ORDER BY e.enrollId ASC")
+       List<Enroll> findWithLessonByEnrollIdIn(@Param("enrollIds") Collection<Long> enrollIds);
+
+       // 일괄 환불 작업 생성 직렬화용 행 잠금 (같은 신청을 다루는 작업이 동시에 만들어지지 않도록)
+       @Query(value = "SELECT e.id FROM enroll e WHERE e.lesson_id = :lessonId ORDER BY e.id FOR UPDATE",
+                     nativeQuery = true)
+       List<Long> lockIdsByLessonId(@Param("lessonId") Long lessonId);
+
+       @Query(value = "SELECT e.id FROM enroll e WHERE e.id IN (:enrollIds) ORDER BY e.id FOR UPDATE",
+                     nativeQuery = true)
+       List<Long> lockIdsByEnrollIdIn(@Param("enrollIds") Collection<Long> enrollIds);
 
        // For checking if a lesson can be deleted
        @Query("SELECT COUNT(e) FROM Enroll e WHERE e.lesson.lessonId = :lessonId AND e.status <> 'CANCELED' AND e.payStatus NOT IN ('REFUNDED', 'PARTIAL_REFUNDED', 'CANCELED_UNPAID')")
@@ -176,6 +259,12 @@ public interface EnrollRepository extends JpaRepository<Enroll, Long>, JpaSpecif
        // For ExpiredUnpaidEnrollmentCleanupJob
        List<Enroll> findByPayStatusAndStatusAndExpireDtBefore(String payStatus, String status, LocalDateTime expireDt);
 
+       // 결제 대기 건만 만료 (1 이면 이 호출이 만료시킴, 0 이면 이미 만료/결제되어 좌석 원장을 건드리지 않음)
+       @Modifying
+       @Query("UPDATE Enroll e SET e.status = 'EXPIRED', e.updatedAt = :now " +
+                     "WHERE e.enrollId = :enrollId AND e.status = 'APPLIED' AND e.payStatus = 'UNPAID'")
+       int expireIfUnpaid(@Param("enrollId") Long enrollId, @Param("now") LocalDateTime now);
+
        Optional<Enroll> findFirstByUserAndLesson(User user, Lesson lesson);
 
        @Query("SELECT count(e) > 0 FROM Enroll e WHERE e.user.uuid = :userUuid AND e.lesson.lessonId = :lessonId AND e.payStatus NOT IN ('REFUNDED', 'PARTIAL_REFUNDED', 'CANCELED_UNPAID')")
@@ -190,14 +279,17 @@ public interface EnrollRepository extends JpaRepository<Enroll, Long>, JpaSpecif
        @Query("SELECT e FROM Enroll e WHERE e.payStatus = 'UNPAID' AND e.expireDt < :now")
        List<Enroll> findExpiredUnpaidEnrollments(@Param("now") LocalDateTime now);
 
-       @Query("SELECT e FROM Enroll e " +
-                     "JOIN FETCH e.user u " +
+       // 사물함 사용 수량 동기화용: 기간 내 결제 완료 + 사물함 배정 건수를 사용자 성별 코드별로 집계 [gender, count]
+       // 재고를 차지하는 것은 배정(lockerAllocated) 건이며, 종료된 강습은 startDate(오늘) 조건으로 제외된다
+       @Query("SELECT u.gender, COUNT(e) FROM Enroll e " +
+                     "JOIN e.user u " +
                      "JOIN e.lesson l " +
                      "WHERE e.payStatus = 'PAID' " +
-                     "AND e.usesLocker = true " +
+                     "AND e.lockerAllocated = true " +
                      "AND (e.cancelStatus IS NULL OR e.cancelStatus = 'NONE') " +
-                     "AND l.startDate <= :endDate AND l.endDate >= :startDate")
-       List<Enroll> findActivePaidLockerUsersInDateRange(@Param("startDate") LocalDate startDate,
+                     "AND l.startDate <= :endDate AND l.endDate >= :startDate " +
+                     "GROUP BY u.gender")
+       List<Object[]> countActivePaidLockerUsersByGender(@Param("startDate") LocalDate startDate,
                      @Param("endDate") LocalDate endDate);
 
        boolean existsByUserUuidAndCancelStatusIn(String userUuid, List<Enroll.CancelStatusType> cancelStatuses);
@@ -205,6 +297,23 @@ public interface EnrollRepository extends JpaRepository<Enroll, Long>, JpaSpecif
        boolean existsByUserUuidAndCancelStatusAndPayStatusNotIn(String userUuid, Enroll.CancelStatusType cancelStatus,
                      List<String> payStatuses);
 
+       // 신청 자격 확인용 사용자 신청 현황 (위 exists/count 쿼리들과 같은 조건을 한 번의 집계로 계산)
+       @Query("SELECT new cms.swimming.dto.UserEnrollmentSnapshot(" +
+                     "SUM(CASE WHEN e.cancelStatus = :cancelRequested THEN 1 ELSE 0 END), " +
+                     "SUM(CASE WHEN e.cancelStatus = :adminCanceled " +
+                     "AND e.payStatus NOT IN ('REFUNDED', 'PARTIAL_REFUNDED') THEN 1 ELSE 0 END), " +
+                     "SUM(CASE WHEN l.startDate BETWEEN :monthStart AND :monthEnd " +
+                     "AND e.payStatus IN ('PAID', 'UNPAID') " +
+                     "AND e.status NOT IN ('CANCELED', 'EXPIRED', 'CANCELED_UNPAID') THEN 1 ELSE 0 END), " +
+                     "SUM(CASE WHEN l.startDate BETWEEN :monthStart AND :monthEnd " +
+                     "AND e.payStatus = 'PAID' THEN 1 ELSE 0 END)) " +
+                     "FROM Enroll e JOIN e.lesson l WHERE e.user.uuid = :userUuid")
+       UserEnrollmentSnapshot summarizeUserEnrollments(@Param("userUuid") String userUuid,
+                     @Param("monthStart") LocalDate monthStart,
+                     @Param("monthEnd") LocalDate monthEnd,
+                     @Param("cancelRequested") Enroll.CancelStatusType cancelRequested,
+                     @Param("adminCanceled") Enroll.CancelStatusType adminCanceled);
+
        @Query("SELECT CASE WHEN COUNT(e) > 0 THEN true ELSE false END FROM Enroll e " +
                      "WHERE e.user.uuid = :userUuid " +
                      "AND e.lesson.startDate <= :endDate AND e.lesson.endDate >= :startDate " +
@@ -0,0 +1,91 @@
+package cms.enroll.repository;
+
+import cms.enroll.domain.WaitingRoomTicket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitingRoomTicketRepository extends JpaRepository<WaitingRoomTicket, Long> {
+
+    Optional<WaitingRoomTicket> findByToken(String token);
+
+    Optional<WaitingRoomTicket> findByLessonIdAndUserUuid(Long lessonId, String userUuid);
+
+    // 내 앞에 대기 중인 티켓 수 (순번 = 결과 + 1)
+    @Query("SELECT COUNT(t) FROM WaitingRoomTicket t WHERE t.lessonId = :lessonId " +
+            "AND t.admittedUntil IS NULL AND t.ticketId < :ticketId")
+    long countWaitingAhead(@Param("lessonId") Long lessonId, @Param("ticketId") Long ticketId);
+
+    // 대기 중인 티켓 토큰 (순번 순). 노드별 순번 알림용
+    @Query("SELECT t.token FROM WaitingRoomTicket t WHERE t.lessonId = :lessonId " +
+            "AND t.admittedUntil IS NULL ORDER BY t.ticketId ASC")
+    List<String> findWaitingTokens(@Param("lessonId") Long lessonId);
+
+    // 주어진 토큰 중 입장 처리된 티켓
+    @Query("SELECT t FROM WaitingRoomTicket t WHERE t.token IN :tokens AND t.admittedUntil IS NOT NULL")
+    List<WaitingRoomTicket> findAdmittedByTokenIn(@Param("tokens") Collection<String> tokens);
+
+    // 대기 순서대로 limit 건 입장 처리 (MariaDB 단일 테이블 UPDATE ... ORDER BY ... LIMIT)
+    @Modifying
+    @Query(value = "UPDATE waiting_room_ticket SET admitted_until = :admittedUntil, remaining_uses = :uses " +
+            "WHERE lesson_id = :lessonId AND admitted_until IS NULL ORDER BY ticket_id LIMIT :limit",
+            nativeQuery = true)
+    int admitNext(@Param("lessonId") Long lessonId, @Param("admittedUntil") LocalDateTime admittedUntil,
+            @Param("uses") int uses, @Param("limit") int limit);
+
+    // 입장한 본인 티켓의 사용 횟수 차감 (0 건이면 입장 전, 만료 또는 사용 완료)
+    @Modifying
+    @Query("UPDATE WaitingRoomTicket t SET t.remainingUses = t.remainingUses - 1 " +
+            "WHERE t.token = :token AND t.lessonId = :lessonId AND t.userUuid = :userUuid " +
+            "AND t.admittedUntil >= :now AND t.remainingUses > 0")
+    int claimUse(@Param("token") String token, @Param("lessonId") Long lessonId,
+            @Param("userUuid") String userUuid, @Param("now") LocalDateTime now);
+
+    // 실패한 호출에 차감했던 사용 횟수 반환
+    @Modifying
+    @Query("UPDATE WaitingRoomTicket t SET t.remainingUses = t.remainingUses + 1 " +
+            "WHERE t.token = :token AND t.remainingUses IS NOT NULL")
+    int releaseUse(@Param("token") String token);
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO waiting_room_admission (lesson_id, last_admitted_at) " +
+            "VALUES (:lessonId, '1970-01-01 00:00:00')", nativeQuery = true)
+    int ensureAdmissionRow(@Param("lessonId") Long lessonId);
+
+    // 이번 틱의 입장 처리를 선점 (직전 처리 이후 threshold 가 지나지 않았으면 0 건)
+    @Modifying
+    @Query(value = "UPDATE waiting_room_admission SET last_admitted_at = :now " +
+            "WHERE lesson_id = :lessonId AND last_admitted_at <= :threshold", nativeQuery = true)
+    int claimAdmissionTick(@Param("lessonId") Long lessonId, @Param("now") LocalDateTime now,
+            @Param("threshold") LocalDateTime threshold);
+
+    @Modifying
+    @Query("DELETE FROM WaitingRoomTicket t WHERE t.ticketId = :ticketId")
+    int deleteByTicketId(@Param("ticketId") Long ticketId);
+
+    // 입장 허용 시간이 지난 티켓 정리 (재발급 가능하도록)
+    @Modifying
+    @Query("DELETE FROM WaitingRoomTicket t WHERE t.lessonId = :lessonId AND t.admittedUntil < :now")
+    int deleteExpired(@Param("lessonId") Long lessonId, @Param("now") LocalDateTime now);
+
+    // 운영 구간이 끝난 강습의 티켓 정리
+    @Modifying
+    @Query(value = "DELETE t FROM waiting_room_ticket t JOIN lesson l ON l.lesson_id = t.lesson_id " +
+            "WHERE l.registration_start_datetime IS NULL OR l.registration_start_datetime <= :closedBefore",
+            nativeQuery = true)
+    int deleteForClosedRooms(@Param("closedBefore") LocalDateTime closedBefore);
+
+    @Modifying
+    @Query(value = "DELETE a FROM waiting_room_admission a JOIN lesson l ON l.lesson_id = a.lesson_id " +
+            "WHERE l.registration_start_datetime IS NULL OR l.registration_start_datetime <= :closedBefore",
+            nativeQuery = true)
+    int deleteAdmissionsForClosedRooms(@Param("closedBefore") LocalDateTime closedBefore);
+}
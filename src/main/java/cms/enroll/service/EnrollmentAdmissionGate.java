@@ -0,0 +1,151 @@
+package cms.enroll.service;
+
+import cms.common.exception.BusinessRuleException;
+import cms.common.exception.ErrorCode;
+import cms.swimming.service.LessonSeatLedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 강습별 인메모리 입장 게이트.
+ *
+ * SERIALIZABLE + 비관적 잠금 신청 경로(createInitialEnrollment) 앞에서 잔여 좌석 수만큼만 요청을 통과시킨다.
+ * - 좌석 수는 좌석 원장(lesson_seat_ledger)에서 시드하며, refresh-interval 마다 한 스레드만 재시드한다.
+ * - 매진된 강습은 DB 커넥션 없이 즉시 거절된다.
+ * - 게이트는 대략적인 선별만 담당하며, 최종 정원 판정은 신청 트랜잭션(잠금 또는 조건부 점유)이 한다.
+ */
+@Component
+public class EnrollmentAdmissionGate {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnrollmentAdmissionGate.class);
+
+    private final LessonSeatLedgerService lessonSeatLedgerService;
+    private final ConcurrentHashMap<Long, LessonGate> gates = new ConcurrentHashMap<>();
+
+    @Value("${app.enrollment.admission-gate.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.enrollment.admission-gate.refresh-interval:2000}")
+    private long refreshIntervalMs;
+
+    public EnrollmentAdmissionGate(LessonSeatLedgerService lessonSeatLedgerService) {
+        this.lessonSeatLedgerService = lessonSeatLedgerService;
+    }
+
+    /**
+     * 게이트를 통과한 경우에만 action 을 실행한다. 실패 시 좌석 허가를 반환한다.
+     *
+     * @throws BusinessRuleException 잔여 좌석이 없는 경우 (PAYMENT_PAGE_SLOT_UNAVAILABLE)
+     */
+    public <T> T admit(Long lessonId, Supplier<T> action) {
+        if (!enabled || lessonId == null) {
+            return action.get();
+        }
+
+        LessonGate gate = gateFor(lessonId);
+        if (!gate.tryAcquire()) {
+            throw new BusinessRuleException(ErrorCode.PAYMENT_PAGE_SLOT_UNAVAILABLE, "정원이 마감되었습니다.");
+        }
+
+        boolean succeeded = false;
+        try {
+            T result = action.get();
+            succeeded = true;
+            return result;
+        } finally {
+            gate.complete(succeeded);
+        }
+    }
+
+    /**
+     * 다음 요청 시 DB 에서 좌석 수를 다시 읽도록 표시 (정원 변경, 강습 삭제 등).
+     * 트랜잭션 안에서 호출되면 커밋 이후에 표시한다 (커밋 전 값으로 재시드되지 않도록).
+     */
+    public void invalidate(Long lessonId) {
+        if (lessonId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markStale(lessonId);
+                }
+            });
+        } else {
+            markStale(lessonId);
+        }
+    }
+
+    private void markStale(Long lessonId) {
+        LessonGate gate = gates.get(lessonId);
+        if (gate != null) {
+            gate.seededAt = 0L;
+        }
+    }
+
+    private LessonGate gateFor(Long lessonId) {
+        LessonGate gate = gates.computeIfAbsent(lessonId, id -> {
+            LessonGate created = new LessonGate();
+            created.reseed(remainingSeats(id));
+            return created;
+        });
+        if (System.currentTimeMillis() - gate.seededAt > refreshIntervalMs && gate.refreshing.compareAndSet(false, true)) {
+            try {
+                gate.reseed(remainingSeats(lessonId));
+            } catch (RuntimeException e) {
+                // 재시드 실패 시 기존 값으로 계속 진행 (최종 판정은 DB 잠금 경로)
+                logger.warn("[AdmissionGate] Failed to reseed gate for lesson {}: {}", lessonId, e.getMessage());
+            } finally {
+                gate.refreshing.set(false);
+            }
+        }
+        return gate;
+    }
+
+    private int remainingSeats(Long lessonId) {
+        return lessonSeatLedgerService.getSnapshot(lessonId).getRemainingSeats();
+    }
+
+    private static final class LessonGate {
+        private final AtomicInteger permits = new AtomicInteger();
+        // 게이트는 통과했지만 아직 트랜잭션이 끝나지 않은 요청 수 (DB 값에 아직 반영되지 않음)
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private volatile long seededAt;
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = permits.get();
+                if (current <= 0) {
+                    return false;
+                }
+                if (permits.compareAndSet(current, current - 1)) {
+                    inFlight.incrementAndGet();
+                    return true;
+                }
+            }
+        }
+
+        void complete(boolean succeeded) {
+            inFlight.decrementAndGet();
+            if (!succeeded) {
+                permits.incrementAndGet();
+            }
+        }
+
+        void reseed(int remainingSeats) {
+            permits.set(Math.max(0, remainingSeats - inFlight.get()));
+            seededAt = System.currentTimeMillis();
+        }
+    }
+}
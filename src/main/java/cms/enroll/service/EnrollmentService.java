@@ -12,6 +12,9 @@ import java.math.BigDecimal;
 import cms.admin.enrollment.dto.CalculatedRefundDetailsDto;
 import cms.admin.enrollment.dto.AdminCancelRequestDto;
 import cms.swimming.dto.CheckEnrollmentEligibilityDto;
+import cms.enroll.domain.Enroll;
+import cms.payment.domain.Payment;
+import java.time.LocalDate;
 
 public interface EnrollmentService {
 
@@ -137,6 +140,17 @@ public interface EnrollmentService {
      */
     CalculatedRefundDetailsDto getRefundPreview(Long enrollId, Integer manualUsedDaysPreview);
 
+    /**
+     * 이미 조회한 신청/결제로 환불액을 계산합니다. (DB 조회/변경 없음, 일괄 환불 계산용)
+     *
+     * @param enroll          강습(lesson)이 로드된 신청
+     * @param payment         해당 신청의 결제
+     * @param manualUsedDays  관리자가 지정한 사용일수 (null이면 시스템 자동 계산)
+     * @param calculationDate 계산 기준일
+     */
+    CalculatedRefundDetailsDto calculateRefund(Enroll enroll, Payment payment, Integer manualUsedDays,
+            LocalDate calculationDate);
+
     BigDecimal calculateDisplayRefundAmount(Long enrollId);
 
     CheckEnrollmentEligibilityDto checkEnrollmentEligibility(User user, Long lessonId);
@@ -0,0 +1,381 @@
+package cms.enroll.service;
+
+import cms.common.exception.BusinessRuleException;
+import cms.common.exception.ErrorCode;
+import cms.common.exception.ResourceNotFoundException;
+import cms.enroll.domain.WaitingRoomTicket;
+import cms.enroll.repository.WaitingRoomTicketRepository;
+import cms.swimming.domain.Lesson;
+import cms.swimming.dto.WaitingRoomTicketDto;
+import cms.swimming.repository.LessonRepository;
+import cms.user.domain.User;
+import cms.websocket.dto.QueuePositionUpdateDto;
+import cms.websocket.handler.LessonCapacityWebSocketHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 신청 시작 시각(registrationStartDateTime) 전후의 가상 대기실.
+ *
+ * - 운영 구간: 신청 시작 open-before-minutes 전부터 open-for-minutes 후까지. 구간 밖에서는 토큰 없이 통과한다.
+ * - 사용자는 강습별 티켓을 발급받아 FIFO 대기열에 선다 (사용자당 1장, 재요청 시 기존 티켓 반환).
+ * - 신청 시작 이후 tick-interval 마다 admission-rate(초당) 만큼 앞에서부터 입장 처리한다.
+ * - 순번/입장 알림은 /ws/lesson-capacity 에 "waiting:{ticket}" 으로 등록한 세션에 전송된다.
+ * - 신청(/swimming/enroll)과 결제 준비(/payment/prepare-kispg-payment)는 운영 구간 동안 입장한 티켓만 허용한다.
+ *   입장한 티켓은 admitted-uses 번 성공한 호출에만 쓸 수 있다 (admitted-ttl 동안 같은 토큰을 계속 재사용하지 못하도록).
+ *
+ * 대기열은 waiting_room_ticket 테이블에 있으므로 어느 노드로 요청이 가도 같은 순번을 본다.
+ * 입장 처리는 waiting_room_admission 행을 조건부 UPDATE 로 선점한 노드 하나만 틱마다 수행하고,
+ * 순번 알림은 각 노드가 자기에게 연결된 세션의 티켓만 조회해 보낸다.
+ */
+@Component
+public class EnrollmentWaitingRoom {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnrollmentWaitingRoom.class);
+
+    public static final String STATUS_OPEN = "OPEN";
+    public static final String STATUS_WAITING = "WAITING";
+    public static final String STATUS_ADMITTED = "ADMITTED";
+
+    // 신청 시작 시각 변경(관리자 수정)을 반영하기 위한 강습 정보 재조회 주기
+    private static final long LESSON_RELOAD_INTERVAL_MS = 60_000L;
+
+    private final LessonRepository lessonRepository;
+    private final WaitingRoomTicketRepository ticketRepository;
+    private final LessonCapacityWebSocketHandler webSocketHandler;
+    private final TransactionTemplate roomTransaction;
+    // 강습별 운영 구간 (존재하는 강습만, 읽기 전용 캐시. 대기열 상태는 DB 에 있음)
+    private final ConcurrentHashMap<Long, RoomWindow> windows = new ConcurrentHashMap<>();
+
+    @Value("${app.enrollment.waiting-room.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.enrollment.waiting-room.admission-rate:20}")
+    private int admissionRatePerSecond;
+
+    @Value("${app.enrollment.waiting-room.tick-interval:1000}")
+    private long tickIntervalMs;
+
+    @Value("${app.enrollment.waiting-room.open-before-minutes:10}")
+    private long openBeforeMinutes;
+
+    @Value("${app.enrollment.waiting-room.open-for-minutes:30}")
+    private long openForMinutes;
+
+    @Value("${app.enrollment.waiting-room.admitted-ttl:600000}")
+    private long admittedTtlMs;
+
+    @Value("${app.enrollment.waiting-room.admitted-uses:3}")
+    private int admittedUses;
+
+    public EnrollmentWaitingRoom(LessonRepository lessonRepository,
+            WaitingRoomTicketRepository ticketRepository,
+            LessonCapacityWebSocketHandler webSocketHandler,
+            PlatformTransactionManager transactionManager) {
+        this.lessonRepository = lessonRepository;
+        this.ticketRepository = ticketRepository;
+        this.webSocketHandler = webSocketHandler;
+        this.roomTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 대기열 티켓 발급. 운영 구간이 아니면 티켓 없이 OPEN 을 반환한다.
+     *
+     * @throws ResourceNotFoundException 강습이 없는 경우
+     * @throws BusinessRuleException 신청 기간이 끝난 강습인 경우 (REGISTRATION_PERIOD_INVALID)
+     */
+    public WaitingRoomTicketDto issueTicket(Long lessonId, User user) {
+        LocalDateTime now = LocalDateTime.now();
+        Lesson lesson = lessonRepository.findById(lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException("강습을 찾을 수 없습니다. ID: " + lessonId,
+                        ErrorCode.LESSON_NOT_FOUND));
+        RoomWindow window = cacheWindow(lesson);
+        if (window.isRegistrationEnded(now)) {
+            throw new BusinessRuleException(ErrorCode.REGISTRATION_PERIOD_INVALID, "신청 기간이 종료된 강습입니다.");
+        }
+        if (!enabled || !window.isActive(now)) {
+            return openTicket(lessonId);
+        }
+
+        WaitingRoomTicket ticket;
+        try {
+            ticket = roomTransaction.execute(status -> findOrCreateTicket(lessonId, user.getUuid(), now));
+        } catch (DataIntegrityViolationException e) {
+            // 같은 사용자의 동시 발급: 먼저 저장된 티켓을 돌려준다
+            ticket = ticketRepository.findByLessonIdAndUserUuid(lessonId, user.getUuid()).orElseThrow(() -> e);
+        }
+        return toDto(window, ticket);
+    }
+
+    /**
+     * 티켓 상태 조회 (WebSocket 을 쓸 수 없는 클라이언트의 폴링용)
+     */
+    public WaitingRoomTicketDto getTicket(Long lessonId, String token, User user) {
+        RoomWindow window = roomFor(lessonId);
+        if (window == null || !window.isActive(LocalDateTime.now())) {
+            return openTicket(lessonId);
+        }
+        WaitingRoomTicket ticket = findOwnedTicket(lessonId, token, user);
+        if (ticket == null) {
+            throw new BusinessRuleException(ErrorCode.WAITING_ROOM_NOT_ADMITTED, "유효하지 않은 대기열 티켓입니다.");
+        }
+        return toDto(window, ticket);
+    }
+
+    /**
+     * 운영 구간 동안 입장한 티켓의 사용 횟수를 하나 차감하고 action 을 실행한다 (신청/결제 준비 진입점에서 호출).
+     * action 이 실패하면 차감한 횟수를 돌려준다. 운영 구간이 아니면 티켓 없이 실행한다.
+     *
+     * @throws BusinessRuleException 입장 전이거나 만료/사용 완료된 티켓인 경우 (WAITING_ROOM_NOT_ADMITTED)
+     */
+    public <T> T withAdmission(Long lessonId, User user, String token, Supplier<T> action) {
+        if (!enabled || lessonId == null) {
+            return action.get();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        RoomWindow window = roomFor(lessonId);
+        if (window == null || !window.isActive(now)) {
+            return action.get();
+        }
+        Integer claimed = token == null || user == null ? Integer.valueOf(0)
+                : roomTransaction.execute(status -> ticketRepository.claimUse(token, lessonId, user.getUuid(), now));
+        if (claimed == null || claimed == 0) {
+            throw new BusinessRuleException(ErrorCode.WAITING_ROOM_NOT_ADMITTED);
+        }
+
+        boolean succeeded = false;
+        try {
+            T result = action.get();
+            succeeded = true;
+            return result;
+        } finally {
+            if (!succeeded) {
+                releaseUse(token);
+            }
+        }
+    }
+
+    /**
+     * 주기적 입장 처리 및 순번 알림
+     */
+    @Scheduled(fixedDelayString = "${app.enrollment.waiting-room.tick-interval:1000}")
+    public void admitNextBatch() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Lesson> lessons = lessonRepository.findByRegistrationStartDateTimeBetween(
+                now.minusMinutes(openForMinutes), now.plusMinutes(openBeforeMinutes));
+        int batchSize = (int) Math.max(1, admissionRatePerSecond * tickIntervalMs / 1000);
+
+        Set<String> localTickets = webSocketHandler.waitingTickets();
+        for (Lesson lesson : lessons) {
+            RoomWindow window = cacheWindow(lesson);
+            if (!window.isActive(now)) {
+                continue;
+            }
+            if (window.isAdmitting(now)) {
+                try {
+                    admitIfDue(lesson.getLessonId(), now, batchSize);
+                } catch (RuntimeException e) {
+                    logger.warn("[WaitingRoom] Admission tick failed for lesson {}: {}",
+                            lesson.getLessonId(), e.getMessage());
+                }
+            }
+            if (!localTickets.isEmpty()) {
+                notifyWaitingPositions(lesson.getLessonId(), localTickets);
+            }
+        }
+        // 대기 목록에 없는 로컬 티켓: 입장 처리되었으면 알리고, 만료/삭제된 티켓과 함께 등록 해제
+        if (!localTickets.isEmpty()) {
+            notifyAdmitted(localTickets);
+        }
+    }
+
+    /**
+     * 운영 구간이 끝난 강습의 티켓/선점 행과 오래된 운영 구간 캐시 정리
+     */
+    @Scheduled(fixedDelay = 60_000L)
+    public void purgeClosedRooms() {
+        LocalDateTime closedBefore = LocalDateTime.now().minusMinutes(openForMinutes);
+        Integer deleted = roomTransaction.execute(status -> {
+            ticketRepository.deleteAdmissionsForClosedRooms(closedBefore);
+            return ticketRepository.deleteForClosedRooms(closedBefore);
+        });
+        long staleBefore = System.currentTimeMillis() - LESSON_RELOAD_INTERVAL_MS;
+        windows.values().removeIf(window -> window.loadedAt < staleBefore);
+        if (deleted != null && deleted > 0) {
+            logger.info("[WaitingRoom] Purged {} tickets of closed waiting rooms", deleted);
+        }
+    }
+
+    private WaitingRoomTicket findOrCreateTicket(Long lessonId, String userUuid, LocalDateTime now) {
+        Optional<WaitingRoomTicket> existing = ticketRepository.findByLessonIdAndUserUuid(lessonId, userUuid);
+        if (existing.isPresent()) {
+            if (!existing.get().isExpired(now)) {
+                return existing.get();
+            }
+            // 입장 허용 시간이 지난 티켓은 지우고 대기열 맨 뒤로 다시 선다
+            ticketRepository.deleteByTicketId(existing.get().getTicketId());
+        }
+        WaitingRoomTicket ticket = ticketRepository.saveAndFlush(WaitingRoomTicket.builder()
+                .token(UUID.randomUUID().toString())
+                .lessonId(lessonId)
+                .userUuid(userUuid)
+                .build());
+        logger.debug("[WaitingRoom] Ticket issued for user {} on lesson {} (seq {})",
+                userUuid, lessonId, ticket.getTicketId());
+        return ticket;
+    }
+
+    private void admitIfDue(Long lessonId, LocalDateTime now, int batchSize) {
+        // 여러 노드가 같은 틱을 중복 처리하지 않도록 틱 간격의 80% 이내 재처리는 건너뛴다
+        LocalDateTime threshold = now.minusNanos(tickIntervalMs * 800_000L);
+        LocalDateTime admittedUntil = now.plusNanos(admittedTtlMs * 1_000_000L);
+        Integer admitted = roomTransaction.execute(status -> {
+            ticketRepository.ensureAdmissionRow(lessonId);
+            if (ticketRepository.claimAdmissionTick(lessonId, now, threshold) == 0) {
+                return 0;
+            }
+            ticketRepository.deleteExpired(lessonId, now);
+            return ticketRepository.admitNext(lessonId, admittedUntil, admittedUses, batchSize);
+        });
+        if (admitted != null && admitted > 0) {
+            logger.debug("[WaitingRoom] Admitted {} tickets on lesson {}", admitted, lessonId);
+        }
+    }
+
+    private void releaseUse(String token) {
+        try {
+            roomTransaction.execute(status -> ticketRepository.releaseUse(token));
+        } catch (RuntimeException e) {
+            logger.warn("[WaitingRoom] Failed to give back a use of ticket {}: {}", token, e.getMessage());
+        }
+    }
+
+    private void notifyWaitingPositions(Long lessonId, Set<String> localTickets) {
+        List<String> waitingTokens = ticketRepository.findWaitingTokens(lessonId);
+        for (int i = 0; i < waitingTokens.size(); i++) {
+            String token = waitingTokens.get(i);
+            if (localTickets.remove(token)) {
+                webSocketHandler.sendQueuePosition(positionUpdate(lessonId, token, "queue_position", i + 1L));
+            }
+        }
+    }
+
+    private void notifyAdmitted(Set<String> remainingTickets) {
+        for (WaitingRoomTicket ticket : ticketRepository.findAdmittedByTokenIn(remainingTickets)) {
+            webSocketHandler.sendQueuePosition(positionUpdate(ticket.getLessonId(), ticket.getToken(),
+                    "queue_admitted", 0L));
+        }
+        // 입장 이후에는 순번 알림이 필요 없으므로 등록 해제
+        remainingTickets.forEach(webSocketHandler::releaseQueueTicket);
+    }
+
+    /**
+     * 강습의 운영 구간. 존재하지 않거나 신청 기간이 끝난 강습은 대기실 대상이 아니다 (null).
+     */
+    private RoomWindow roomFor(Long lessonId) {
+        if (lessonId == null) {
+            return null;
+        }
+        RoomWindow window = windows.get(lessonId);
+        if (window == null || System.currentTimeMillis() - window.loadedAt >= LESSON_RELOAD_INTERVAL_MS) {
+            Optional<Lesson> lesson = lessonRepository.findById(lessonId);
+            if (!lesson.isPresent()) {
+                windows.remove(lessonId);
+                return null;
+            }
+            window = cacheWindow(lesson.get());
+        }
+        return window.isRegistrationEnded(LocalDateTime.now()) ? null : window;
+    }
+
+    private RoomWindow cacheWindow(Lesson lesson) {
+        RoomWindow window = new RoomWindow(lesson.getRegistrationStartDateTime(),
+                lesson.getRegistrationEndDateTime(), openBeforeMinutes, openForMinutes);
+        windows.put(lesson.getLessonId(), window);
+        return window;
+    }
+
+    private WaitingRoomTicket findOwnedTicket(Long lessonId, String token, User user) {
+        if (token == null || user == null) {
+            return null;
+        }
+        return ticketRepository.findByToken(token)
+                .filter(ticket -> ticket.getLessonId().equals(lessonId) && ticket.getUserUuid().equals(user.getUuid()))
+                .orElse(null);
+    }
+
+    private WaitingRoomTicketDto openTicket(Long lessonId) {
+        return WaitingRoomTicketDto.builder()
+                .lessonId(lessonId)
+                .status(STATUS_OPEN)
+                .build();
+    }
+
+    private WaitingRoomTicketDto toDto(RoomWindow window, WaitingRoomTicket ticket) {
+        boolean admitted = ticket.isAdmitted();
+        return WaitingRoomTicketDto.builder()
+                .lessonId(ticket.getLessonId())
+                .ticket(ticket.getToken())
+                .status(admitted ? STATUS_ADMITTED : STATUS_WAITING)
+                .position(admitted ? null
+                        : ticketRepository.countWaitingAhead(ticket.getLessonId(), ticket.getTicketId()) + 1)
+                .openAt(window.openAt)
+                .admittedUntil(ticket.getAdmittedUntil())
+                .build();
+    }
+
+    private QueuePositionUpdateDto positionUpdate(Long lessonId, String token, String type, long position) {
+        return QueuePositionUpdateDto.builder()
+                .lessonId(lessonId)
+                .type(type)
+                .ticket(token)
+                .position(position)
+                .timestamp(System.currentTimeMillis())
+                .build();
+    }
+
+    private static final class RoomWindow {
+        private final LocalDateTime openAt;
+        private final LocalDateTime activeFrom;
+        private final LocalDateTime activeUntil;
+        private final LocalDateTime registrationEnd;
+        private final long loadedAt = System.currentTimeMillis();
+
+        // 신청 시작 시각이 없는 강습은 운영 구간이 없으므로 항상 통과된다
+        RoomWindow(LocalDateTime openAt, LocalDateTime registrationEnd, long openBeforeMinutes, long openForMinutes) {
+            this.openAt = openAt;
+            this.activeFrom = openAt != null ? openAt.minusMinutes(openBeforeMinutes) : null;
+            this.activeUntil = openAt != null ? openAt.plusMinutes(openForMinutes) : null;
+            this.registrationEnd = registrationEnd;
+        }
+
+        boolean isActive(LocalDateTime now) {
+            return activeFrom != null && !now.isBefore(activeFrom) && now.isBefore(activeUntil);
+        }
+
+        boolean isAdmitting(LocalDateTime now) {
+            return openAt != null && !now.isBefore(openAt) && now.isBefore(activeUntil);
+        }
+
+        boolean isRegistrationEnded(LocalDateTime now) {
+            return registrationEnd != null && now.isAfter(registrationEnd);
+        }
+    }
+}
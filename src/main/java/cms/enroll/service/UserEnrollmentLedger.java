@@ -0,0 +1,126 @@
+package cms.enroll.service;
+
+import cms.enroll.domain.Enroll;
+import cms.enroll.repository.EnrollRepository;
+import cms.swimming.dto.UserEnrollmentSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 사용자별 월 신청 현황 캐시 (신청 자격 확인용).
+ *
+ * - 취소 요청 대기, 관리자 취소 후 환불 미완료, 해당 월 활성/결제 완료 건수를 한 번의 집계 쿼리로 만든다.
+ * - (사용자, 월) 단위로 ttl 동안 보관하며, 신청 건이 저장/삭제되면 EnrollChangeListener 가 사용자 단위로 즉시 무효화한다.
+ *   무효화는 변경 시점과 트랜잭션 종료 시점 두 번 수행하여 커밋 전 상태가 캐시에 남지 않게 한다.
+ * - 캐시는 노드 메모리에 있으므로 다른 노드의 변경은 ttl 이 지나야 반영된다.
+ *   따라서 신청 생성처럼 판단 결과로 데이터를 쓰는 경로는 loadSnapshot 으로 DB 를 직접 읽어야 한다.
+ */
+@Component
+public class UserEnrollmentLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserEnrollmentLedger.class);
+
+    private final EnrollRepository enrollRepository;
+    private final ConcurrentHashMap<String, UserEntry> entries = new ConcurrentHashMap<>();
+
+    @Value("${app.enrollment.eligibility-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.enrollment.eligibility-cache.ttl:60000}")
+    private long ttlMs;
+
+    public UserEnrollmentLedger(EnrollRepository enrollRepository) {
+        this.enrollRepository = enrollRepository;
+    }
+
+    /**
+     * 캐시된 현황 조회 (없거나 만료되었으면 DB 집계 후 보관). 화면/사전 확인용.
+     */
+    public UserEnrollmentSnapshot getSnapshot(String userUuid, LocalDate lessonStartDate) {
+        if (!enabled) {
+            return summarize(userUuid, YearMonth.from(lessonStartDate));
+        }
+        YearMonth month = YearMonth.from(lessonStartDate);
+        UserEntry entry = entries.computeIfAbsent(userUuid, k -> new UserEntry());
+        CachedSnapshot cached = entry.months.get(month);
+        if (cached != null && !cached.isExpired()) {
+            return cached.snapshot;
+        }
+        return load(entry, userUuid, month);
+    }
+
+    /**
+     * DB 에서 현황을 다시 집계 (호출자 트랜잭션에서 조회). 판단 결과로 신청을 생성하는 경로용.
+     */
+    public UserEnrollmentSnapshot loadSnapshot(String userUuid, LocalDate lessonStartDate) {
+        YearMonth month = YearMonth.from(lessonStartDate);
+        if (!enabled) {
+            return summarize(userUuid, month);
+        }
+        return load(entries.computeIfAbsent(userUuid, k -> new UserEntry()), userUuid, month);
+    }
+
+    /**
+     * 사용자의 모든 월 현황을 무효화. 트랜잭션 안에서 호출되면 트랜잭션 종료 후에도 한 번 더 무효화한다.
+     */
+    public void invalidate(String userUuid) {
+        if (userUuid == null) {
+            return;
+        }
+        entries.remove(userUuid);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entries.remove(userUuid);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.enrollment.eligibility-cache.ttl:60000}")
+    public void evictExpired() {
+        entries.values().forEach(entry -> entry.months.values().removeIf(CachedSnapshot::isExpired));
+        entries.values().removeIf(entry -> entry.months.isEmpty());
+    }
+
+    // 집계 전에 잡아 둔 entry 에만 기록한다. 집계 도중 무효화되면 entry 가 맵에서 빠지므로 오래된 값은 버려진다.
+    private UserEnrollmentSnapshot load(UserEntry entry, String userUuid, YearMonth month) {
+        UserEnrollmentSnapshot snapshot = summarize(userUuid, month);
+        entry.months.put(month, new CachedSnapshot(snapshot, System.currentTimeMillis() + ttlMs));
+        logger.debug("[EligibilityLedger] Loaded snapshot for user {} ({}): {}", userUuid, month, snapshot);
+        return snapshot;
+    }
+
+    private UserEnrollmentSnapshot summarize(String userUuid, YearMonth month) {
+        return enrollRepository.summarizeUserEnrollments(userUuid, month.atDay(1), month.atEndOfMonth(),
+                Enroll.CancelStatusType.REQ, Enroll.CancelStatusType.ADMIN_CANCELED);
+    }
+
+    private static final class UserEntry {
+        private final ConcurrentHashMap<YearMonth, CachedSnapshot> months = new ConcurrentHashMap<>();
+    }
+
+    private static final class CachedSnapshot {
+        private final UserEnrollmentSnapshot snapshot;
+        private final long expiresAt;
+
+        CachedSnapshot(UserEnrollmentSnapshot snapshot, long expiresAt) {
+            this.snapshot = snapshot;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
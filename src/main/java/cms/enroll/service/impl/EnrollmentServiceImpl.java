@@ -4,9 +4,11 @@ import cms.enroll.domain.Enroll;
 import cms.enroll.domain.Enroll.CancelStatusType;
 import cms.enroll.repository.EnrollRepository;
 import cms.enroll.service.EnrollmentService;
+import cms.enroll.service.UserEnrollmentLedger;
 
 // Domain entities
 import cms.swimming.domain.Lesson;
+import cms.swimming.domain.LessonTimeSlot;
 import cms.user.domain.User;
 
 // Repositories
@@ -16,6 +18,10 @@ import cms.payment.repository.PaymentRepository;
 
 // Services
 import cms.swimming.service.LessonService;
+import cms.swimming.service.LessonSeatLedgerService;
+import cms.swimming.domain.LessonSeatLedger.SeatState;
+import cms.swimming.dto.LessonSeatSnapshot;
+import cms.swimming.dto.UserEnrollmentSnapshot;
 import cms.locker.service.LockerService;
 
 // DTOs - directly import from specified packages
@@ -35,9 +41,14 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import cms.common.dto.OffsetPageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
 import javax.persistence.EntityNotFoundException;
@@ -49,11 +60,12 @@ import java.time.ZoneOffset; // Import for ZoneOffset
 import java.time.temporal.ChronoUnit; // Added for calculating daysBetween
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.ArrayList;
-import java.util.stream.Stream;
 
 import cms.common.exception.BusinessRuleException;
 import cms.common.exception.ErrorCode;
@@ -72,8 +84,6 @@ import cms.websocket.handler.LessonCapacityWebSocketHandler;
 import cms.admin.enrollment.dto.CalculatedRefundDetailsDto; // 새로 추가한 DTO
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter; // Added for formatting
-import java.util.regex.Matcher; // Added for regex parsing
-import java.util.regex.Pattern; // Added for regex parsing
 import java.util.Arrays; // For Arrays.asList
 import cms.payment.service.PaymentService;
 import cms.admin.enrollment.dto.AdminCancelRequestDto;
@@ -91,6 +101,8 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     private final LessonRepository lessonRepository;
     private final LessonCapacityWebSocketHandler webSocketHandler;
     private final PaymentService paymentService;
+    private final LessonSeatLedgerService lessonSeatLedgerService;
+    private final UserEnrollmentLedger userEnrollmentLedger;
 
     @Value("${app.default-locker-fee:5000}") // Default to 5000 if not set in properties
     private int defaultLockerFee;
@@ -101,6 +113,21 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     @Value("${app.enrollment.retry-delay:1000}")
     private long retryDelay;
 
+    /**
+     * 좌석 점유 방식
+     * - PESSIMISTIC: 강습 행 비관적 잠금 + SERIALIZABLE 트랜잭션 (기존 방식)
+     * - CONDITIONAL: 좌석 원장 조건부 UPDATE 한 문장으로 점유, READ_COMMITTED 트랜잭션
+     */
+    public enum SeatClaimMode {
+        PESSIMISTIC, CONDITIONAL
+    }
+
+    @Value("${app.enrollment.claim-mode:PESSIMISTIC}")
+    private SeatClaimMode claimMode;
+
+    private final TransactionTemplate serializableTransaction;
+    private final TransactionTemplate readCommittedTransaction;
+
     private static final Logger logger = LoggerFactory.getLogger(EnrollmentServiceImpl.class);
     private static final BigDecimal LESSON_DAILY_RATE = new BigDecimal("3500");
     // private static final BigDecimal LOCKER_DAILY_RATE = new BigDecimal("170"); //
@@ -115,7 +142,10 @@ public class EnrollmentServiceImpl implements EnrollmentService {
             UserRepository userRepository,
             LessonRepository lessonRepository,
             LessonCapacityWebSocketHandler webSocketHandler,
-            PaymentService paymentService
+            PaymentService paymentService,
+            LessonSeatLedgerService lessonSeatLedgerService,
+            UserEnrollmentLedger userEnrollmentLedger,
+            PlatformTransactionManager transactionManager
     /* , KispgService kispgService */) { // 주입
         this.enrollRepository = enrollRepository;
         this.paymentRepository = paymentRepository;
@@ -125,6 +155,12 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         this.lessonRepository = lessonRepository;
         this.webSocketHandler = webSocketHandler;
         this.paymentService = paymentService;
+        this.lessonSeatLedgerService = lessonSeatLedgerService;
+        this.userEnrollmentLedger = userEnrollmentLedger;
+        this.serializableTransaction = new TransactionTemplate(transactionManager);
+        this.serializableTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+        this.readCommittedTransaction = new TransactionTemplate(transactionManager);
+        this.readCommittedTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
         // this.kispgService = kispgService;
     }
 
@@ -135,69 +171,109 @@ public class EnrollmentServiceImpl implements EnrollmentService {
             throw new BusinessRuleException(ErrorCode.AUTHENTICATION_FAILED, HttpStatus.UNAUTHORIZED);
         }
 
-        List<Enroll> userEnrollments = enrollRepository.findByUserUuid(user.getUuid());
-
-        List<EnrollDto> dtoList = userEnrollments.stream()
-                .map(this::convertToMypageEnrollDto)
-                .collect(Collectors.toList());
-
         LocalDate today = LocalDate.now();
         YearMonth currentMonth = YearMonth.from(today);
 
         boolean isRenewalWindowActive = today.getDayOfMonth() >= 20 && today.getDayOfMonth() <= 24;
+        List<Lesson> renewalLessons = isRenewalWindowActive
+                ? findRenewalPreviewLessons(user, currentMonth)
+                : Collections.<Lesson>emptyList();
+
+        // 강습 시작일 내림차순 (같은 날짜는 신청 건이 재수강 미리보기보다 먼저)
+        Sort sort = Sort.by(Sort.Order.desc("lesson.startDate"), Sort.Order.asc("enrollId"));
+        long pageStart = pageable.getOffset();
+        long pageEnd = pageStart + pageable.getPageSize();
+
+        // 미리보기 각각의 전체 목록 내 위치 = 앞선 미리보기 수 + 시작일이 같거나 늦은 신청 건수
+        Map<Long, Lesson> previewsByPosition = new HashMap<>();
+        int previewsBeforePage = 0;
+        for (int i = 0; i < renewalLessons.size(); i++) {
+            Lesson renewalLesson = renewalLessons.get(i);
+            long position = i + enrollRepository.countByUserUuidAndLesson_StartDateGreaterThanEqual(
+                    user.getUuid(), renewalLesson.getStartDate());
+            if (position < pageStart) {
+                previewsBeforePage++;
+            } else if (position < pageEnd) {
+                previewsByPosition.put(position, renewalLesson);
+            }
+        }
+
+        int enrollLimit = pageable.getPageSize() - previewsByPosition.size();
+        List<Enroll> pageEnrollments;
+        long totalEnrollments;
+        if (enrollLimit > 0) {
+            Page<Enroll> enrollPage = enrollRepository.findPageByUserUuidWithLesson(user.getUuid(),
+                    new OffsetPageRequest(pageStart - previewsBeforePage, enrollLimit, sort));
+            pageEnrollments = enrollPage.getContent();
+            totalEnrollments = enrollPage.getTotalElements();
+        } else {
+            pageEnrollments = Collections.emptyList();
+            totalEnrollments = enrollRepository.countByUserUuid(user.getUuid());
+        }
+
+        // 페이지에 포함된 강습의 좌석 현황 일괄 조회
+        List<Long> pageLessonIds = new ArrayList<>();
+        pageEnrollments.forEach(enroll -> pageLessonIds.add(enroll.getLesson().getLessonId()));
+        previewsByPosition.values().forEach(lesson -> pageLessonIds.add(lesson.getLessonId()));
+        Map<Long, LessonSeatSnapshot> seatsByLessonId = lessonSeatLedgerService.getSnapshots(pageLessonIds);
+
+        List<EnrollDto> pagedDtoList = new ArrayList<>();
+        int enrollIndex = 0;
+        for (long position = pageStart; position < pageEnd; position++) {
+            Lesson previewLesson = previewsByPosition.get(position);
+            if (previewLesson != null) {
+                pagedDtoList.add(createRenewalPreviewDto(previewLesson, true,
+                        seatsByLessonId.get(previewLesson.getLessonId())));
+            } else if (enrollIndex < pageEnrollments.size()) {
+                Enroll enroll = pageEnrollments.get(enrollIndex++);
+                pagedDtoList.add(convertToMypageEnrollDto(enroll,
+                        seatsByLessonId.get(enroll.getLesson().getLessonId())));
+            }
+        }
+
+        return new PageImpl<>(pagedDtoList, pageable, totalEnrollments + renewalLessons.size());
+    }
+
+    /**
+     * 이번 달 결제 완료 강습을 원본으로 복제된 다음 달 강습 중 아직 결제하지 않은 강습 (시작일 내림차순).
+     * 계보 키(previous_lesson_id) 조회 1회 + 결제 여부 집합 조회 1회로 처리한다.
+     */
+    private List<Lesson> findRenewalPreviewLessons(User user, YearMonth currentMonth) {
+        List<Long> currentLessonIds = enrollRepository.findPaidLessonsByUserUuidAndStartDateBetween(
+                user.getUuid(), currentMonth.atDay(1), currentMonth.atEndOfMonth())
+                .stream().map(Lesson::getLessonId).collect(Collectors.toList());
+        if (currentLessonIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        YearMonth nextMonth = currentMonth.plusMonths(1);
+        // 원본 강습당 하나의 다음 달 강습 (여러 번 복제된 경우 먼저 생성된 강습)
+        Map<Long, Lesson> nextMonthLessonsByPrevious = new HashMap<>();
+        lessonRepository.findByPreviousLessonIdInAndStartDateBetween(currentLessonIds,
+                nextMonth.atDay(1), nextMonth.atEndOfMonth()).stream()
+                .sorted(Comparator.comparing(Lesson::getLessonId))
+                .forEach(lesson -> nextMonthLessonsByPrevious.putIfAbsent(lesson.getPreviousLessonId(), lesson));
+        if (nextMonthLessonsByPrevious.isEmpty()) {
+            logger.debug("No next month's lesson cloned from lessons {}", currentLessonIds);
+            return Collections.emptyList();
+        }
 
-        if (isRenewalWindowActive) {
-            List<EnrollDto> renewalPreviews = userEnrollments.stream()
-                    .filter(enroll -> "PAID".equals(enroll.getPayStatus())
-                            && YearMonth.from(enroll.getLesson().getStartDate()).equals(currentMonth))
-                    .map(Enroll::getLesson)
-                    .distinct()
-                    .flatMap(currentLesson -> {
-                        LocalDate nextMonthStart = currentMonth.plusMonths(1).atDay(1);
-                        LocalDate nextMonthEnd = currentMonth.plusMonths(1).atEndOfMonth();
-
-                        logger.debug(
-                                "Searching for next month's lesson with: Title='{}', Instructor='{}', Time='{}', Location='{}'",
-                                currentLesson.getTitle(), currentLesson.getInstructorName(),
-                                currentLesson.getLessonTime(), currentLesson.getLocationName());
-
-                        return lessonRepository.findNextMonthLesson(
-                                currentLesson.getTitle(),
-                                currentLesson.getInstructorName(),
-                                currentLesson.getLessonTime(),
-                                currentLesson.getLocationName(),
-                                nextMonthStart,
-                                nextMonthEnd).map(Stream::of).orElseGet(Stream::empty);
-                    })
-                    .filter(nextMonthLesson -> {
-                        boolean alreadyEnrolledAndPaid = enrollRepository.findByUserUuid(user.getUuid()).stream()
-                                .anyMatch(e -> "PAID".equals(e.getPayStatus()) &&
-                                        e.getLesson().getLessonId().equals(nextMonthLesson.getLessonId()));
-                        if (alreadyEnrolledAndPaid) {
-                            logger.debug("User {} has already paid for lesson {}, skipping renewal preview.",
-                                    user.getUsername(), nextMonthLesson.getLessonId());
-                        }
-                        return !alreadyEnrolledAndPaid;
-                    })
-                    .map(nextMonthLesson -> createRenewalPreviewDto(nextMonthLesson, true))
-                    .collect(Collectors.toList());
-
-            dtoList.addAll(renewalPreviews);
-        }
-
-        dtoList.sort(Comparator.comparing(dto -> dto.getLesson().getStartDate(), Comparator.reverseOrder()));
-
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), dtoList.size());
-        List<EnrollDto> pagedDtoList = dtoList.isEmpty() ? Collections.emptyList()
-                : dtoList.subList(start, end);
-
-        return new PageImpl<>(pagedDtoList, pageable, dtoList.size());
+        List<Long> paidLessonIds = enrollRepository.findPaidLessonIdsByUserUuidAndLessonIds(user.getUuid(),
+                nextMonthLessonsByPrevious.values().stream().map(Lesson::getLessonId).collect(Collectors.toList()));
+        if (!paidLessonIds.isEmpty()) {
+            logger.debug("User {} has already paid for lessons {}, skipping renewal preview.",
+                    user.getUsername(), paidLessonIds);
+        }
+        return nextMonthLessonsByPrevious.values().stream()
+                .filter(lesson -> !paidLessonIds.contains(lesson.getLessonId()))
+                .sorted(Comparator.comparing(Lesson::getStartDate, Comparator.reverseOrder())
+                        .thenComparing(Lesson::getLessonId))
+                .collect(Collectors.toList());
     }
 
-    private EnrollDto createRenewalPreviewDto(Lesson lesson, boolean isRenewalOpen) {
+    private EnrollDto createRenewalPreviewDto(Lesson lesson, boolean isRenewalOpen, LessonSeatSnapshot seats) {
 
-        EnrollDto.LessonDetails lessonDetails = convertToLessonDetails(lesson);
+        EnrollDto.LessonDetails lessonDetails = convertToLessonDetails(lesson, seats);
 
         EnrollDto.RenewalWindow renewalWindow = null;
         if (lesson.getStartDate() != null) {
@@ -227,6 +303,11 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     }
 
     private EnrollDto.LessonDetails convertToLessonDetails(Lesson lesson) {
+        return convertToLessonDetails(lesson,
+                lesson != null ? lessonSeatLedgerService.getSnapshot(lesson.getLessonId()) : null);
+    }
+
+    private EnrollDto.LessonDetails convertToLessonDetails(Lesson lesson, LessonSeatSnapshot seats) {
         if (lesson == null) {
             logger.error("Attempted to convert a null Lesson to LessonDetails.");
             return EnrollDto.LessonDetails.builder().build();
@@ -238,33 +319,17 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         }
 
         Integer remainingSpots = null;
-        if (lesson.getCapacity() != null) {
-            long paidEnrollments = enrollRepository.countByLessonLessonIdAndPayStatus(lesson.getLessonId(), "PAID");
-            long unpaidActiveEnrollments = enrollRepository.countByLessonLessonIdAndStatusAndPayStatusAndExpireDtAfter(
-                    lesson.getLessonId(), "APPLIED", "UNPAID", LocalDateTime.now());
-            remainingSpots = lesson.getCapacity() - (int) paidEnrollments - (int) unpaidActiveEnrollments;
-            if (remainingSpots < 0)
-                remainingSpots = 0;
-        }
-
-        String days = null;
-        String timePrefix = null;
-        String timeSlot = null;
-        if (lesson.getLessonTime() != null && !lesson.getLessonTime().isEmpty()) {
-            String lessonTimeString = lesson.getLessonTime();
-            Pattern pattern = Pattern
-                    .compile("^(?:(\\(.*?\\))\\s*)?(?:(오전|오후)\\s*)?(\\d{1,2}:\\d{2}\\s*[~-]\\s*\\d{1,2}:\\d{2})$");
-            Matcher matcher = pattern.matcher(lessonTimeString.trim());
-            if (matcher.find()) {
-                days = matcher.group(1);
-                timePrefix = matcher.group(2);
-                timeSlot = matcher.group(3);
-            } else if (lessonTimeString.matches("^\\d{1,2}:\\d{2}\\s*[~-]\\s*\\d{1,2}:\\d{2}$")) {
-                timeSlot = lessonTimeString.trim();
-            } else {
-                logger.warn("LessonTime '{}' did not match expected patterns. Full string stored in time field.",
-                        lessonTimeString);
-            }
+        if (lesson.getCapacity() != null && seats != null) {
+            remainingSpots = seats.getRemainingSeats();
+        }
+
+        LessonTimeSlot slot = lesson.timeSlot();
+        String days = slot.getDays();
+        String timePrefix = slot.getTimePrefix();
+        String timeSlot = slot.getTimeSlot();
+        if (!slot.isParsed() && lesson.getLessonTime() != null && !lesson.getLessonTime().isEmpty()) {
+            logger.warn("LessonTime '{}' did not match expected patterns. Full string stored in time field.",
+                    lesson.getLessonTime());
         }
 
         String displayName = (lesson.getDisplayName() != null && !lesson.getDisplayName().isEmpty())
@@ -324,9 +389,12 @@ public class EnrollmentServiceImpl implements EnrollmentService {
      *             - DeadlockLoserDataAccessException: 교착상태 감지 시 재시도
      *             - CannotAcquireLockException: 잠금 획득 실패 시 재시도
      *             - JpaOptimisticLockingFailureException: 낙관적 잠금 실패 시 재시도
+     *
+     * 트랜잭션 격리 수준은 app.enrollment.claim-mode 에 따라 결정되므로 선언적 트랜잭션 대신
+     * 재시도 시도마다 새 트랜잭션을 직접 연다 (claimModeTransaction 참고).
      */
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @Retryable(value = {
             DeadlockLoserDataAccessException.class,
             CannotAcquireLockException.class,
@@ -339,7 +407,8 @@ public class EnrollmentServiceImpl implements EnrollmentService {
 
         long startTime = System.currentTimeMillis();
         try {
-            return createInitialEnrollmentInternal(user, initialEnrollRequest, ipAddress);
+            return claimModeTransaction()
+                    .execute(status -> createInitialEnrollmentInternal(user, initialEnrollRequest, ipAddress));
         } catch (DeadlockLoserDataAccessException e) {
             logger.warn("[Enrollment] Deadlock detected for user: {}, lesson: {}, retrying...",
                     user.getUuid(), initialEnrollRequest.getLessonId());
@@ -374,13 +443,13 @@ public class EnrollmentServiceImpl implements EnrollmentService {
      * 'ACTIVE') 업데이트하고, expireDt를 null 또는 매우 먼 미래로 변경하여 더 이상 만료되지 않도록 처리해야 합니다.
      * 4. 결제 실패 시 사용자에게 알리고, 신청은 UNPAID 상태로 두거나, 특정 횟수 실패 시 취소 처리할 수 있습니다.
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
     protected EnrollResponseDto createInitialEnrollmentInternal(User user, EnrollRequestDto initialEnrollRequest,
             String ipAddress) {
         logger.info("Starting initial enrollment process for user: {} with request: {}", user.getUuid(),
                 initialEnrollRequest);
-        // *** 비관적 잠금으로 동시성 문제 해결 ***
-        Lesson lesson = lessonRepository.findByIdWithLock(initialEnrollRequest.getLessonId())
+        boolean conditionalClaim = claimMode == SeatClaimMode.CONDITIONAL;
+        // *** 비관적 잠금으로 동시성 문제 해결 (조건부 점유 모드에서는 좌석 원장 UPDATE 가 직렬화 지점) ***
+        Lesson lesson = findLessonForClaim(initialEnrollRequest.getLessonId())
                 .orElseThrow(
                         () -> new EntityNotFoundException("강습을 찾을 수 없습니다. ID: " + initialEnrollRequest.getLessonId()));
 
@@ -434,17 +503,9 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         }
         // *** END 신규 등록 기간 정책 검사 ***
 
-        // *** 잠금 상태에서 정원 체크 (동시성 안전) ***
-        long currentPaidEnrollments = enrollRepository.countByLessonLessonIdAndPayStatus(lesson.getLessonId(), "PAID");
-        long currentUnpaidActiveEnrollments = enrollRepository
-                .countByLessonLessonIdAndStatusAndPayStatusAndExpireDtAfter(
-                        lesson.getLessonId(), "APPLIED", "UNPAID", LocalDateTime.now());
-        long totalCurrentEnrollments = currentPaidEnrollments + currentUnpaidActiveEnrollments;
-        long availableSlots = lesson.getCapacity() - totalCurrentEnrollments;
-
-        if (availableSlots <= 0) {
-            throw new BusinessRuleException(ErrorCode.PAYMENT_PAGE_SLOT_UNAVAILABLE,
-                    "정원이 마감되었습니다. 현재 신청된 (결제완료 및 결제대기 포함) 인원: " + totalCurrentEnrollments);
+        if (conditionalClaim) {
+            // 조건부 점유 모드에서는 강습 행을 잠그지 않으므로, 같은 사용자의 동시 신청만 사용자 행 잠금으로 직렬화한다
+            userRepository.lockByUuid(user.getUuid());
         }
 
         // *** 기존 신청 체크 (중복 방지) ***
@@ -453,9 +514,10 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                     "이미 해당 강습에 대한 활성 신청(결제 완료 또는 대기 포함) 내역이 존재합니다.");
         }
 
-        // *** 월별 신청 제한 체크 ***
-        long monthlyEnrollments = enrollRepository.countUserEnrollmentsInMonth(user.getUuid(), lesson.getStartDate());
-        if (monthlyEnrollments > 0) {
+        // *** 월별 신청 제한 체크 (캐시가 아닌 현재 트랜잭션에서 재집계) ***
+        UserEnrollmentSnapshot userEnrollments = userEnrollmentLedger.loadSnapshot(user.getUuid(),
+                lesson.getStartDate());
+        if (userEnrollments.hasActiveEnrollmentInMonth()) {
             throw new BusinessRuleException(ErrorCode.MONTHLY_ENROLLMENT_LIMIT_EXCEEDED,
                     "같은 달에 이미 다른 강습을 신청하셨습니다. 한 달에 한 개의 강습만 신청 가능합니다.");
         }
@@ -471,6 +533,24 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                     "유효하지 않은 할인 유형입니다: " + initialEnrollRequest.getMembershipType());
         }
 
+        if (conditionalClaim) {
+            // *** 조건부 좌석 점유: 값싼 검증을 모두 통과한 뒤 마지막에 원장 행을 잠근다 ***
+            // 원장 행 잠금 구간을 UPDATE 한 번과 커밋까지로 줄여, 같은 강습의 다른 신청이 검증 쿼리를 기다리지 않게 한다.
+            if (!lessonSeatLedgerService.tryClaimHeldSeat(lesson.getLessonId())) {
+                throw new BusinessRuleException(ErrorCode.PAYMENT_PAGE_SLOT_UNAVAILABLE, "정원이 마감되었습니다.");
+            }
+        } else {
+            // *** 잠금 상태에서 정원 체크 (동시성 안전, 좌석 원장 PK 조회) ***
+            LessonSeatSnapshot seats = lessonSeatLedgerService.getSnapshot(lesson.getLessonId());
+            long totalCurrentEnrollments = seats.getPaidCount() + seats.getHeldCount();
+            long availableSlots = lesson.getCapacity() - totalCurrentEnrollments;
+
+            if (availableSlots <= 0) {
+                throw new BusinessRuleException(ErrorCode.PAYMENT_PAGE_SLOT_UNAVAILABLE,
+                        "정원이 마감되었습니다. 현재 신청된 (결제완료 및 결제대기 포함) 인원: " + totalCurrentEnrollments);
+            }
+        }
+
         // Calculate final price
         int lessonPrice = lesson.getPrice();
         int discountPercentage = membershipTypeEnum.getDiscountPercentage();
@@ -494,13 +574,16 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                 .build();
 
         Enroll savedEnroll = enrollRepository.save(enroll);
+        if (!conditionalClaim) {
+            lessonSeatLedgerService.applyTransition(lesson.getLessonId(), SeatState.NONE, SeatState.HELD);
+        }
         logger.info("Enrollment record created with ID: {} for user: {}, lesson: {}, membership: {}, finalAmount: {}",
                 savedEnroll.getEnrollId(), user.getUuid(), lesson.getLessonId(), membershipTypeEnum, finalAmount);
 
-        // WebSocket으로 용량 업데이트 전송 (이전 로직 복원 및 사용)
-        long finalPaidCount = enrollRepository.countByLessonLessonIdAndPayStatus(lesson.getLessonId(), "PAID");
-        long finalUnpaidActiveCount = enrollRepository.countByLessonLessonIdAndStatusAndPayStatusAndExpireDtAfter(
-                lesson.getLessonId(), "APPLIED", "UNPAID", LocalDateTime.now());
+        // WebSocket으로 용량 업데이트 전송 (좌석 원장 기준)
+        LessonSeatSnapshot updatedSeats = lessonSeatLedgerService.getSnapshot(lesson.getLessonId());
+        long finalPaidCount = updatedSeats.getPaidCount();
+        long finalUnpaidActiveCount = updatedSeats.getHeldCount();
 
         if (webSocketHandler != null) {
             try {
@@ -510,7 +593,7 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                         (int) finalPaidCount,
                         (int) finalUnpaidActiveCount);
                 logger.info(
-                        "Sent capacity update via WebSocket for lessonId: {}, total: {}, paid: {}, unpaidActive: {}",
+                        "Queued capacity update via WebSocket for lessonId: {}, total: {}, paid: {}, unpaidActive: {}",
                         lesson.getLessonId(), lesson.getCapacity(), finalPaidCount, finalUnpaidActiveCount);
             } catch (Exception e) {
                 logger.warn("[WebSocket] Failed to broadcast capacity update for lesson {}: {}",
@@ -539,9 +622,11 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                     ErrorCode.NOT_UNPAID_ENROLLMENT_STATUS);
         }
         if (enroll.getExpireDt().isBefore(LocalDateTime.now())) {
+            SeatState seatBefore = lessonSeatLedgerService.seatStateOf(enroll);
             enroll.setStatus("EXPIRED");
             enroll.setPayStatus("EXPIRED");
             enrollRepository.save(enroll);
+            lessonSeatLedgerService.applyTransition(enroll.getLesson().getLessonId(), seatBefore, SeatState.NONE);
             throw new BusinessRuleException("결제 가능 시간이 만료되었습니다 (ID: " + enrollId + ")",
                     ErrorCode.ENROLLMENT_PAYMENT_EXPIRED);
         }
@@ -614,6 +699,7 @@ public class EnrollmentServiceImpl implements EnrollmentService {
             throw new ResourceNotFoundException("Lesson not found for enrollment ID: " + enrollId,
                     ErrorCode.LESSON_NOT_FOUND);
         }
+        SeatState seatBefore = lessonSeatLedgerService.seatStateOf(enroll);
 
         if ("UNPAID".equalsIgnoreCase(enroll.getPayStatus())) {
             // Check for associated payments for this UNPAID enrollment. This should ideally
@@ -645,6 +731,7 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                 logger.info("미결제 건(enrollId: {}) 사용자 취소 - 사물함 재고는 변경하지 않음 (환불이 아님)", enrollId);
 
                 enrollRepository.delete(enroll); // Delete the enrollment record
+                lessonSeatLedgerService.applyTransition(lesson.getLessonId(), seatBefore, SeatState.NONE);
                 // No need to save 'enroll' object after deletion.
                 return; // Exit after deletion
             }
@@ -680,6 +767,8 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                     "Cancellation is not allowed for the current payment status: " + enroll.getPayStatus());
         }
         enrollRepository.save(enroll); // Save changes if not deleted
+        lessonSeatLedgerService.applyTransition(lesson.getLessonId(), seatBefore,
+                lessonSeatLedgerService.seatStateOf(enroll));
     }
 
     /**
@@ -757,10 +846,44 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     }
 
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CalculatedRefundDetailsDto calculateRefund(Enroll enroll, Payment payment, Integer manualUsedDays,
+            LocalDate calculationDate) {
+        return calculateRefundInternal(enroll, payment, manualUsedDays, calculationDate);
+    }
+
+    /**
+     * 관리자 환불 승인. PG 환불 왕복 동안 DB 커넥션과 수강신청 행을 잡고 있지 않도록 세 단계로 처리합니다.
+     * 1. 짧은 트랜잭션: 상태 검증과 환불 금액 계산 (결제 내역이 없으면 여기서 취소 완료)
+     * 2. PaymentService.requestCancelPayment: 취소 요청 기록 → PG 호출(트랜잭션 밖) → 결제 반영
+     * 3. 짧은 트랜잭션: 수강신청 취소 상태, 사물함 반납, 좌석 원장 반영
+     * 3단계가 실패해도 결제는 취소 상태로 남으므로, 다시 승인하면 PG 호출 없이 3단계만 수행합니다.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void approveEnrollmentCancellationAdmin(Long enrollId, AdminCancelRequestDto cancelRequestDto) {
+        AdminRefundPlan plan = readCommittedTransaction
+                .execute(status -> planAdminRefund(enrollId, cancelRequestDto));
+        if (plan == null) {
+            return;
+        }
+
+        if (plan.refundAmount > 0 && !plan.alreadyRefundedAtPg) {
+            paymentService.requestCancelPayment(plan.paymentId, plan.refundAmount, plan.cancelReason, plan.partial);
+        } else if (plan.alreadyRefundedAtPg) {
+            logger.info("결제(ID: {})는 이미 PG 환불이 완료되어 수강신청(ID: {}) 상태만 반영합니다.", plan.paymentId, enrollId);
+        }
+
+        readCommittedTransaction.execute(status -> {
+            completeAdminCancellation(enrollId, plan);
+            return null;
+        });
+    }
+
+    private AdminRefundPlan planAdminRefund(Long enrollId, AdminCancelRequestDto cancelRequestDto) {
         Enroll enroll = enrollRepository.findById(enrollId)
                 .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found with id: " + enrollId));
+        SeatState seatBefore = lessonSeatLedgerService.seatStateOf(enroll);
 
         // 1. 환불 중복 처리 방지: 이미 환불 절차가 시작되었거나 완료된 건인지 payStatus로 확인
         List<String> nonRefundablePayStatuses = Arrays.asList("REFUNDED", "PARTIAL_REFUNDED");
@@ -788,21 +911,30 @@ public class EnrollmentServiceImpl implements EnrollmentService {
             enroll.setCancelApprovedAt(LocalDateTime.now());
             enroll.setRefundAmount(0);
             enrollRepository.save(enroll);
+            lessonSeatLedgerService.applyTransition(enroll.getLesson().getLessonId(), seatBefore,
+                    lessonSeatLedgerService.seatStateOf(enroll));
             logger.info("취소 승인: 결제 내역 없는 수강신청(ID: {})이 취소 처리되었습니다.", enrollId);
-            return;
+            return null;
         }
 
         Payment payment = payments.get(0);
+        if (payment.getStatus() == PaymentStatus.CANCELED || payment.getStatus() == PaymentStatus.PARTIAL_REFUNDED) {
+            // 이전 승인에서 PG 환불 후 수강신청 반영만 실패한 경우
+            int refunded = payment.getRefundedAmt() != null ? payment.getRefundedAmt() : 0;
+            return new AdminRefundPlan(payment.getId(), refunded, false, enroll.getDaysUsedForRefund(), null, true);
+        }
+
         int totalPaidAmount = payment.getPaidAmt() != null ? payment.getPaidAmt() : 0;
         int finalRefundAmountForPg;
         boolean isPartial;
+        Integer daysUsedForRefund;
 
         if (cancelRequestDto.getFinalRefundAmount() != null) {
             // 관리자가 직접 환불액 입력
             finalRefundAmountForPg = cancelRequestDto.getFinalRefundAmount();
             isPartial = (cancelRequestDto.getIsFullRefund() == null) || !cancelRequestDto.getIsFullRefund();
 
-            enroll.setDaysUsedForRefund(cancelRequestDto.getManualUsedDays());
+            daysUsedForRefund = cancelRequestDto.getManualUsedDays();
             logger.info("관리자 직접 환불 처리. enrollId: {}, finalRefundAmount: {}, isPartial: {}", enrollId,
                     finalRefundAmountForPg, isPartial);
 
@@ -813,35 +945,43 @@ public class EnrollmentServiceImpl implements EnrollmentService {
             finalRefundAmountForPg = refundDetails.getFinalRefundAmount().intValue();
             isPartial = finalRefundAmountForPg < totalPaidAmount;
 
-            enroll.setDaysUsedForRefund(refundDetails.getEffectiveUsedDays());
+            daysUsedForRefund = refundDetails.getEffectiveUsedDays();
         }
 
-        enroll.setRefundAmount(finalRefundAmountForPg);
-
+        String cancelReason = null;
         if (finalRefundAmountForPg > 0) {
             if (payment.getTid() == null || payment.getTid().trim().isEmpty()) {
                 throw new BusinessRuleException(ErrorCode.PAYMENT_CANCEL_NOT_ALLOWED,
                         "PG사 거래 ID(TID)가 없어 자동 환불 불가 (enrollId: " + enrollId + ")");
             }
-            String cancelReason = "관리자 승인에 의한 환불 처리";
+            cancelReason = "관리자 승인에 의한 환불 처리";
             if (enroll.getCancelReason() != null && !enroll.getCancelReason().isEmpty()) {
                 cancelReason = enroll.getCancelReason();
             }
-            paymentService.requestCancelPayment(payment.getId(), finalRefundAmountForPg, cancelReason, isPartial);
-
-        } else { // 환불 금액이 0원인 경우
-            enroll.setPayStatus("REFUNDED");
-            if (payment != null) {
-                payment.setStatus(PaymentStatus.CANCELED); // 0원 환불 시에도 payment 상태를 CANCELED로 업데이트
-                paymentRepository.save(payment);
-            }
         }
+        return new AdminRefundPlan(payment.getId(), finalRefundAmountForPg, isPartial, daysUsedForRefund,
+                cancelReason, false);
+    }
+
+    private void completeAdminCancellation(Long enrollId, AdminRefundPlan plan) {
+        Enroll enroll = enrollRepository.findById(enrollId)
+                .orElseThrow(() -> new ResourceNotFoundException("Enrollment not found with id: " + enrollId));
+        SeatState seatBefore = lessonSeatLedgerService.seatStateOf(enroll);
+
+        enroll.setDaysUsedForRefund(plan.daysUsedForRefund);
+        enroll.setRefundAmount(plan.refundAmount);
 
         // PG사 연동 성공 후 Enroll 상태 변경 (PaymentService에서 Exception이 나지 않은 경우)
-        Payment updatedPayment = paymentRepository.findById(payment.getId())
+        Payment updatedPayment = paymentRepository.findById(plan.paymentId)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment record not found after cancellation",
                         ErrorCode.PAYMENT_INFO_NOT_FOUND));
 
+        if (plan.refundAmount <= 0 && !plan.alreadyRefundedAtPg) { // 환불 금액이 0원인 경우
+            enroll.setPayStatus("REFUNDED");
+            updatedPayment.setStatus(PaymentStatus.CANCELED); // 0원 환불 시에도 payment 상태를 CANCELED로 업데이트
+            paymentRepository.save(updatedPayment);
+        }
+
         if (updatedPayment.getStatus() == PaymentStatus.CANCELED) {
             enroll.setPayStatus("REFUNDED");
         } else if (updatedPayment.getStatus() == PaymentStatus.PARTIAL_REFUNDED) {
@@ -886,11 +1026,32 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         enroll.setUpdatedAt(LocalDateTime.now());
 
         enrollRepository.save(enroll);
+        lessonSeatLedgerService.applyTransition(enroll.getLesson().getLessonId(), seatBefore,
+                lessonSeatLedgerService.seatStateOf(enroll));
 
         logger.info("환불 요청 거부 완료. enrollId: {}, 복원된 상태: status={}, payStatus={}, usesLocker={}, lockerAllocated={}",
                 enrollId, enroll.getStatus(), enroll.getPayStatus(), enroll.isUsesLocker(), enroll.isLockerAllocated());
     }
 
+    private static final class AdminRefundPlan {
+        private final Long paymentId;
+        private final int refundAmount;
+        private final boolean partial;
+        private final Integer daysUsedForRefund;
+        private final String cancelReason;
+        private final boolean alreadyRefundedAtPg;
+
+        AdminRefundPlan(Long paymentId, int refundAmount, boolean partial, Integer daysUsedForRefund,
+                String cancelReason, boolean alreadyRefundedAtPg) {
+            this.paymentId = paymentId;
+            this.refundAmount = refundAmount;
+            this.partial = partial;
+            this.daysUsedForRefund = daysUsedForRefund;
+            this.cancelReason = cancelReason;
+            this.alreadyRefundedAtPg = alreadyRefundedAtPg;
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public CalculatedRefundDetailsDto getRefundPreview(Long enrollId, Integer manualUsedDaysPreview) {
@@ -941,6 +1102,7 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     public void denyEnrollmentCancellationAdmin(Long enrollId, String comment) {
         Enroll enroll = enrollRepository.findById(enrollId)
                 .orElseThrow(() -> new EntityNotFoundException("Enrollment not found with ID: " + enrollId));
+        SeatState seatBefore = lessonSeatLedgerService.seatStateOf(enroll);
 
         // 거부 가능한 상태 확인: REQ(요청), DENIED(이미 거부됨), ADMIN_CANCELED(관리자 취소됨) - 모두 재처리 허용
         if (enroll.getCancelStatus() != Enroll.CancelStatusType.REQ &&
@@ -1041,6 +1203,8 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         enroll.setUpdatedAt(LocalDateTime.now());
 
         enrollRepository.save(enroll);
+        lessonSeatLedgerService.applyTransition(enroll.getLesson().getLessonId(), seatBefore,
+                lessonSeatLedgerService.seatStateOf(enroll));
 
         logger.info("환불 요청 거부 완료. enrollId: {}, 복원된 상태: status={}, payStatus={}, usesLocker={}, lockerAllocated={}",
                 enrollId, enroll.getStatus(), enroll.getPayStatus(), enroll.isUsesLocker(), enroll.isLockerAllocated());
@@ -1072,7 +1236,13 @@ public class EnrollmentServiceImpl implements EnrollmentService {
 
     private EnrollDto convertToMypageEnrollDto(Enroll enroll) {
         Lesson lesson = enroll.getLesson();
-        EnrollDto.LessonDetails lessonDetails = convertToLessonDetails(lesson);
+        return convertToMypageEnrollDto(enroll,
+                lesson != null ? lessonSeatLedgerService.getSnapshot(lesson.getLessonId()) : null);
+    }
+
+    private EnrollDto convertToMypageEnrollDto(Enroll enroll, LessonSeatSnapshot seats) {
+        Lesson lesson = enroll.getLesson();
+        EnrollDto.LessonDetails lessonDetails = convertToLessonDetails(lesson, seats);
 
         // Renewal window logic
         EnrollDto.RenewalWindow renewalWindowDto = null;
@@ -1121,14 +1291,29 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                 .build();
     }
 
+    // claim-mode 에 맞는 격리 수준의 트랜잭션 (조건부 점유는 원장 UPDATE 로 정원을 보장하므로 READ_COMMITTED 로 충분)
+    private TransactionTemplate claimModeTransaction() {
+        return claimMode == SeatClaimMode.CONDITIONAL ? readCommittedTransaction : serializableTransaction;
+    }
+
+    private Optional<Lesson> findLessonForClaim(Long lessonId) {
+        return claimMode == SeatClaimMode.CONDITIONAL
+                ? lessonRepository.findById(lessonId)
+                : lessonRepository.findByIdWithLock(lessonId);
+    }
+
     @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public EnrollInitiationResponseDto processRenewal(User user, RenewalRequestDto renewalRequestDto) {
         if (user == null || user.getUuid() == null) {
             throw new BusinessRuleException(ErrorCode.AUTHENTICATION_FAILED, HttpStatus.UNAUTHORIZED);
         }
+        return claimModeTransaction().execute(status -> processRenewalInternal(user, renewalRequestDto));
+    }
 
-        Lesson lesson = lessonRepository.findByIdWithLock(renewalRequestDto.getLessonId())
+    private EnrollInitiationResponseDto processRenewalInternal(User user, RenewalRequestDto renewalRequestDto) {
+        boolean conditionalClaim = claimMode == SeatClaimMode.CONDITIONAL;
+        Lesson lesson = findLessonForClaim(renewalRequestDto.getLessonId())
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "재수강 대상 강좌를 찾을 수 없습니다 (ID: " + renewalRequestDto.getLessonId() + ")",
                         ErrorCode.LESSON_NOT_FOUND));
@@ -1147,19 +1332,26 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                     "재수강 신청 기간이 아닙니다. (다음 달 강습: 현월 20~24일)");
         }
 
-        long paidEnrollments = enrollRepository.countByLessonLessonIdAndPayStatus(lesson.getLessonId(), "PAID");
-        long unpaidExpiringEnrollments = enrollRepository.countByLessonLessonIdAndStatusAndPayStatusAndExpireDtAfter(
-                lesson.getLessonId(), "APPLIED", "UNPAID", LocalDateTime.now());
-        long availableSlotsForRenewal = lesson.getCapacity() - paidEnrollments - unpaidExpiringEnrollments;
-
-        if (availableSlotsForRenewal <= 0) {
-            throw new BusinessRuleException(ErrorCode.PAYMENT_PAGE_SLOT_UNAVAILABLE,
-                    "재수강 정원이 마감되었습니다. 현재 정원: " + lesson.getCapacity() + ", 결제완료: " + paidEnrollments + ", 결제대기(만료전): "
-                            + unpaidExpiringEnrollments);
+        if (conditionalClaim) {
+            if (!lessonSeatLedgerService.tryClaimHeldSeat(lesson.getLessonId())) {
+                throw new BusinessRuleException(ErrorCode.PAYMENT_PAGE_SLOT_UNAVAILABLE, "재수강 정원이 마감되었습니다.");
+            }
+        } else {
+            LessonSeatSnapshot seats = lessonSeatLedgerService.getSnapshot(lesson.getLessonId());
+            long paidEnrollments = seats.getPaidCount();
+            long unpaidExpiringEnrollments = seats.getHeldCount();
+            long availableSlotsForRenewal = lesson.getCapacity() - paidEnrollments - unpaidExpiringEnrollments;
+
+            if (availableSlotsForRenewal <= 0) {
+                throw new BusinessRuleException(ErrorCode.PAYMENT_PAGE_SLOT_UNAVAILABLE,
+                        "재수강 정원이 마감되었습니다. 현재 정원: " + lesson.getCapacity() + ", 결제완료: " + paidEnrollments
+                                + ", 결제대기(만료전): " + unpaidExpiringEnrollments);
+            }
         }
 
         Enroll enroll = enrollRepository.findFirstByUserAndLesson(user, lesson)
                 .orElseGet(() -> Enroll.builder().user(user).lesson(lesson).build());
+        SeatState seatBefore = lessonSeatLedgerService.seatStateOf(enroll);
 
         enroll.setStatus("APPLIED");
         enroll.setPayStatus("UNPAID");
@@ -1174,13 +1366,9 @@ public class EnrollmentServiceImpl implements EnrollmentService {
 
         try {
             Enroll savedEnroll = enrollRepository.save(enroll);
-
-            long finalPaidCountAfterRenewal = enrollRepository.countByLessonLessonIdAndPayStatus(lesson.getLessonId(),
-                    "PAID");
-            long finalUnpaidActiveCountAfterRenewal = enrollRepository
-                    .countByLessonLessonIdAndStatusAndPayStatusAndExpireDtAfter(
-                            lesson.getLessonId(), "APPLIED", "UNPAID", LocalDateTime.now());
-            long finalTotalEnrollmentsAfterRenewal = finalPaidCountAfterRenewal + finalUnpaidActiveCountAfterRenewal;
+            // 조건부 점유 모드에서는 새 HELD 좌석을 이미 점유했으므로 기존 좌석 상태만 해제한다
+            lessonSeatLedgerService.applyTransition(lesson.getLessonId(), seatBefore,
+                    conditionalClaim ? SeatState.NONE : SeatState.HELD);
 
             return EnrollInitiationResponseDto.builder()
                     .enrollId(savedEnroll.getEnrollId())
@@ -1230,23 +1418,21 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                 .orElseThrow(() -> new ResourceNotFoundException("강습을 찾을 수 없습니다. ID: " + lessonId,
                         ErrorCode.LESSON_NOT_FOUND));
 
+        UserEnrollmentSnapshot userEnrollments = userEnrollmentLedger.getSnapshot(user.getUuid(),
+                lesson.getStartDate());
+
         // 사용자가 취소 요청하여 처리 대기중인 건이 있는지 확인
-        List<Enroll.CancelStatusType> requestedStatus = Arrays.asList(Enroll.CancelStatusType.REQ);
-        if (enrollRepository.existsByUserUuidAndCancelStatusIn(user.getUuid(), requestedStatus)) {
+        if (userEnrollments.hasPendingCancelRequest()) {
             return new CheckEnrollmentEligibilityDto(false, "현재 취소 요청 처리중인 강습이 있어 신규 신청이 불가능합니다.");
         }
 
         // 관리자가 취소했으나 아직 환불 처리가 완료되지 않은 건이 있는지 확인
-        List<String> refundedPayStatuses = Arrays.asList("REFUNDED", "PARTIAL_REFUNDED");
-        if (enrollRepository.existsByUserUuidAndCancelStatusAndPayStatusNotIn(user.getUuid(),
-                Enroll.CancelStatusType.ADMIN_CANCELED, refundedPayStatuses)) {
+        if (userEnrollments.hasUnrefundedAdminCancel()) {
             return new CheckEnrollmentEligibilityDto(false, "관리자에 의해 취소된 강습의 환불이 완료되지 않아 신규 신청이 불가능합니다.");
         }
 
         // 해당 월에 이미 결제 완료한 강습이 있는지 확인
-        boolean hasPaidEnrollment = enrollRepository.existsPaidEnrollmentInMonth(user.getUuid(), lesson.getStartDate());
-
-        if (hasPaidEnrollment) {
+        if (userEnrollments.hasPaidEnrollmentInMonth()) {
             return new CheckEnrollmentEligibilityDto(false, "이미 해당 월에 결제 완료한 강습이 있습니다.");
         }
 
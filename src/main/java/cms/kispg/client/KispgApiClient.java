@@ -0,0 +1,256 @@
+package cms.kispg.client;
+
+import cms.common.exception.BusinessRuleException;
+import cms.common.exception.ErrorCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * KISPG API 공용 HTTP 클라이언트.
+ *
+ * - 커넥션 풀(keep-alive 재사용)과 연결/응답 대기 시간 제한을 둔 RestTemplate 하나를 모든 호출이 공유한다.
+ * - 연속 실패(연결 오류, 시간 초과, 5xx)가 failure-threshold 에 이르면 open-duration 동안 호출하지 않고 즉시 실패시킨다.
+ *   이후 한 건만 시험 호출하여 성공하면 다시 연다.
+ * - 호출별(operation) 응답 시간은 kispg.client.requests 히스토그램으로, 풀 상태는 kispg.client.pool.* 로 노출한다.
+ */
+@Component
+public class KispgApiClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(KispgApiClient.class);
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${kispg.url}")
+    private String kispgUrl;
+
+    @Value("${kispg.client.connect-timeout:3000}")
+    private int connectTimeoutMs;
+
+    @Value("${kispg.client.read-timeout:15000}")
+    private int readTimeoutMs;
+
+    @Value("${kispg.client.connection-request-timeout:2000}")
+    private int connectionRequestTimeoutMs;
+
+    @Value("${kispg.client.max-total:50}")
+    private int maxTotal;
+
+    @Value("${kispg.client.max-per-route:20}")
+    private int maxPerRoute;
+
+    @Value("${kispg.client.idle-timeout:30000}")
+    private long idleTimeoutMs;
+
+    @Value("${kispg.client.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${kispg.client.circuit-breaker.open-duration:30000}")
+    private long openDurationMs;
+
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    private CircuitBreaker circuitBreaker;
+
+    public KispgApiClient(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        // 오래 쉬던 커넥션은 재사용 전에 확인 (PG 쪽에서 먼저 끊은 커넥션으로 보내지 않도록)
+        connectionManager.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .setConnectionRequestTimeout(connectionRequestTimeoutMs)
+                .build();
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeoutMs, TimeUnit.MILLISECONDS)
+                .build();
+        restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        circuitBreaker = new CircuitBreaker(failureThreshold, openDurationMs);
+
+        Gauge.builder("kispg.client.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                .description("KISPG 풀에서 사용 중인 커넥션 수").register(meterRegistry);
+        Gauge.builder("kispg.client.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                .description("KISPG 풀에서 재사용 대기 중인 커넥션 수").register(meterRegistry);
+        Gauge.builder("kispg.client.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                .description("KISPG 풀 커넥션을 기다리는 요청 수").register(meterRegistry);
+        Gauge.builder("kispg.client.circuit.open", circuitBreaker, cb -> cb.isOpen() ? 1 : 0)
+                .description("KISPG 차단기 열림 여부 (1 이면 호출 차단)").register(meterRegistry);
+
+        logger.info("KISPG API client initialized. connectTimeout={}ms, readTimeout={}ms, pool={}/{}",
+                connectTimeoutMs, readTimeoutMs, maxPerRoute, maxTotal);
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            if (httpClient != null) {
+                httpClient.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to close KISPG HTTP client: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * KISPG API 에 JSON 본문을 POST 하고 응답 본문을 responseType 으로 변환한다.
+     *
+     * @param operation 메트릭/로그용 호출 이름 (approval, cancel, query 등)
+     * @param path      kispg.url 이후 경로 (예: /v2/payment)
+     * @throws BusinessRuleException 차단기가 열려 있는 경우 (PAYMENT_GATEWAY_UNAVAILABLE)
+     * @throws RestClientException   통신 오류, 시간 초과, 4xx/5xx 응답, 응답 변환 실패
+     */
+    public <T> T post(String operation, String path, Object body, Class<T> responseType) {
+        CircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+        if (permit == CircuitBreaker.Permit.REJECTED) {
+            meterRegistry.counter("kispg.client.rejected", "operation", operation).increment();
+            logger.warn("KISPG {} call rejected: circuit open after consecutive failures", operation);
+            throw new BusinessRuleException(ErrorCode.PAYMENT_GATEWAY_UNAVAILABLE);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            HttpEntity<String> request = new HttpEntity<>(objectMapper.writeValueAsString(body), headers);
+
+            ResponseEntity<String> response = restTemplate.postForEntity(kispgUrl + path, request, String.class);
+            circuitBreaker.onSuccess();
+            if (response.getBody() == null) {
+                return null;
+            }
+            return objectMapper.readValue(response.getBody(), responseType);
+        } catch (ResourceAccessException | HttpServerErrorException e) {
+            // PG 응답 없음(연결 실패, 시간 초과) 또는 PG 내부 오류만 차단기 실패로 센다
+            outcome = e instanceof ResourceAccessException ? "io_error" : "server_error";
+            circuitBreaker.onFailure();
+            throw e;
+        } catch (RestClientException e) {
+            outcome = "client_error";
+            circuitBreaker.onSuccess();
+            throw e;
+        } catch (JsonProcessingException e) {
+            outcome = "invalid_response";
+            circuitBreaker.onSuccess();
+            throw new RestClientException("KISPG " + operation + " 응답을 해석할 수 없습니다: " + e.getOriginalMessage(), e);
+        } finally {
+            // 이 호출이 시험 호출 자리를 잡은 경우에만 돌려준다 (분류하지 못한 예외로 끝나도 차단기가 영구히 열린 채 남지 않도록)
+            if (permit == CircuitBreaker.Permit.PROBE) {
+                circuitBreaker.releaseProbe();
+            }
+            sample.stop(Timer.builder("kispg.client.requests")
+                    .description("KISPG API 호출 응답 시간")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 연속 실패 횟수 기반 차단기. 열린 뒤 open-duration 이 지나면 한 건만 시험 호출을 허용한다.
+     */
+    private static final class CircuitBreaker {
+        enum Permit {
+            // 닫힌 상태의 일반 호출
+            ALLOWED,
+            // 열린 뒤 open-duration 이 지나 이 호출이 시험 호출 자리를 잡음
+            PROBE,
+            REJECTED
+        }
+
+        private final int failureThreshold;
+        private final long openDurationMs;
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicBoolean probeInFlight = new AtomicBoolean();
+        // 0 이면 닫힘, 아니면 이 시각까지 호출 차단
+        private volatile long openUntil;
+
+        CircuitBreaker(int failureThreshold, long openDurationMs) {
+            this.failureThreshold = failureThreshold;
+            this.openDurationMs = openDurationMs;
+        }
+
+        boolean isOpen() {
+            return openUntil != 0;
+        }
+
+        Permit tryAcquire() {
+            long until = openUntil;
+            if (until == 0) {
+                return Permit.ALLOWED;
+            }
+            if (System.currentTimeMillis() < until) {
+                return Permit.REJECTED;
+            }
+            return probeInFlight.compareAndSet(false, true) ? Permit.PROBE : Permit.REJECTED;
+        }
+
+        void onSuccess() {
+            consecutiveFailures.set(0);
+            if (openUntil != 0) {
+                logger.info("KISPG circuit closed: trial call succeeded");
+                openUntil = 0;
+            }
+        }
+
+        void onFailure() {
+            if (consecutiveFailures.incrementAndGet() >= failureThreshold || openUntil != 0) {
+                if (openUntil == 0) {
+                    logger.warn("KISPG circuit opened for {}ms after {} consecutive failures",
+                            openDurationMs, consecutiveFailures.get());
+                }
+                openUntil = System.currentTimeMillis() + openDurationMs;
+            }
+        }
+
+        /**
+         * tryAcquire 가 PROBE 를 준 호출이 끝날 때 자리를 반납한다. 실패로 끝났으면 열림 상태가 연장되어
+         * open-duration 뒤 다음 호출이 다시 시험한다. 차단기가 열리기 전에 시작한 일반 호출은 자리를 건드리지 않는다.
+         */
+        void releaseProbe() {
+            probeInFlight.set(false);
+        }
+    }
+}
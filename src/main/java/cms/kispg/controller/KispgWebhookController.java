@@ -1,7 +1,7 @@
 package cms.kispg.controller;
 
 import cms.kispg.dto.KispgNotificationRequest;
-import cms.kispg.service.KispgWebhookService;
+import cms.kispg.service.KispgWebhookInboxService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,7 +20,7 @@ import javax.servlet.http.HttpServletRequest;
 public class KispgWebhookController {
 
     private static final Logger logger = LoggerFactory.getLogger(KispgWebhookController.class);
-    private final KispgWebhookService kispgWebhookService;
+    private final KispgWebhookInboxService kispgWebhookInboxService;
 
     @PostMapping(value = "/payment-notification", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
     @Operation(summary = "KISPG 결제 결과 통지 (Webhook)",
@@ -51,10 +51,10 @@ public class KispgWebhookController {
             logger.info("  - BuyerName: {}", notificationRequest.getBuyerName());
             // ... 기타 모든 필드 로깅 ...
 
-            // 3. KispgWebhookService 호출
-            String responseToKispg = kispgWebhookService.processPaymentNotification(notificationRequest, clientIp);
+            // 3. 수신함에 저장 후 바로 응답 (수강신청/결제 반영은 작업 스레드가 처리)
+            String responseToKispg = kispgWebhookInboxService.receivePaymentNotification(notificationRequest, clientIp);
             
-            logger.info("✅ KISPG Webhook 처리 완료 - 응답: {}", responseToKispg);
+            logger.info("✅ KISPG Webhook 수신 완료 - 응답: {}", responseToKispg);
             return ResponseEntity.ok(responseToKispg);
             
         } catch (Exception e) {
@@ -0,0 +1,62 @@
+package cms.kispg.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * KISPG 결제 통지 수신함.
+ * 통지를 받으면 원문을 한 건 저장하고 바로 응답하며, 실제 처리(수강신청/결제 반영)는 작업 스레드가 이 행을 읽어 수행한다.
+ * 같은 TID 재전송은 tid 유일 키로 걸러진다.
+ */
+@Entity
+@Table(name = "kispg_webhook_inbox")
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class KispgWebhookInbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tid", nullable = false, unique = true, length = 100)
+    private String tid;
+
+    @Column(name = "moid", length = 100)
+    private String moid;
+
+    @Column(name = "result_code", length = 10)
+    private String resultCode;
+
+    @Lob
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "client_ip", length = 45)
+    private String clientIp;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private KispgWebhookInboxStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,8 @@
+package cms.kispg.domain;
+
+public enum KispgWebhookInboxStatus {
+    PENDING,    // 처리 대기 (신규 수신 또는 재시도 대기)
+    PROCESSING, // 작업 스레드가 처리 중
+    DONE,       // 처리 완료
+    DEAD        // 재시도 횟수를 모두 소진하여 수동 확인 필요
+}
@@ -0,0 +1,48 @@
+package cms.kispg.repository;
+
+import cms.kispg.domain.KispgWebhookInbox;
+import cms.kispg.domain.KispgWebhookInboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface KispgWebhookInboxRepository extends JpaRepository<KispgWebhookInbox, Long> {
+
+    boolean existsByTid(String tid);
+
+    // 처리 시각이 된 대기 행 (오래된 순)
+    @Query("SELECT i.id FROM KispgWebhookInbox i WHERE i.status = :status AND i.nextAttemptAt <= :now ORDER BY i.id ASC")
+    List<Long> findDueIds(@Param("status") KispgWebhookInboxStatus status, @Param("now") LocalDateTime now,
+            Pageable pageable);
+
+    /**
+     * 대기 행을 처리 중으로 선점. 여러 노드/스레드가 같은 행을 잡아도 한 곳만 1 을 받는다.
+     */
+    @Modifying
+    @Query("UPDATE KispgWebhookInbox i SET i.status = :processing, i.attempts = i.attempts + 1, i.updatedAt = :now " +
+            "WHERE i.id = :id AND i.status = :pending AND i.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("pending") KispgWebhookInboxStatus pending,
+            @Param("processing") KispgWebhookInboxStatus processing, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE KispgWebhookInbox i SET i.status = :status, i.lastError = :lastError, i.nextAttemptAt = :nextAttemptAt, " +
+            "i.processedAt = :processedAt, i.updatedAt = :now WHERE i.id = :id")
+    int updateResult(@Param("id") Long id, @Param("status") KispgWebhookInboxStatus status,
+            @Param("lastError") String lastError, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+            @Param("processedAt") LocalDateTime processedAt, @Param("now") LocalDateTime now);
+
+    // 처리 중 노드가 죽어 오래 PROCESSING 으로 남은 행을 다시 대기로 돌림
+    @Modifying
+    @Query("UPDATE KispgWebhookInbox i SET i.status = :pending, i.nextAttemptAt = :now, i.updatedAt = :now " +
+            "WHERE i.status = :processing AND i.updatedAt < :staleBefore")
+    int releaseStale(@Param("pending") KispgWebhookInboxStatus pending,
+            @Param("processing") KispgWebhookInboxStatus processing, @Param("staleBefore") LocalDateTime staleBefore,
+            @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,14 @@
+package cms.kispg.service;
+
+import cms.kispg.dto.KispgNotificationRequest;
+
+public interface KispgWebhookInboxService {
+    /**
+     * KISPG 결제 결과 통지를 검증 후 수신함에 저장하고 바로 응답합니다.
+     * 실제 처리는 작업 스레드가 {@link KispgWebhookService#processPaymentNotification} 로 수행합니다.
+     * @param notificationRequest KISPG로부터 받은 알림 데이터
+     * @param clientIp 요청 IP 주소
+     * @return KISPG에 응답할 문자열 ("OK": 저장 또는 이미 수신함, "FAIL": 검증 실패)
+     */
+    String receivePaymentNotification(KispgNotificationRequest notificationRequest, String clientIp);
+}
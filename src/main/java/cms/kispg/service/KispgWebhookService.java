@@ -10,4 +10,17 @@ public interface KispgWebhookService {
      * @return KISPG에 응답할 문자열 (예: "OK", "SUCCESS")
      */
     String processPaymentNotification(KispgNotificationRequest notificationRequest, String clientIp);
+
+    /**
+     * PG 거래 조회로 직접 확인한 결제 결과를 결제 통지와 같은 경로로 반영합니다.
+     * 발신 IP/해시 검증을 하지 않으므로 PG 조회 응답으로 만든 요청에만 사용해야 합니다.
+     * @return 처리 결과 ("OK" 이면 반영 완료)
+     */
+    String processVerifiedPaymentNotification(KispgNotificationRequest notificationRequest);
+
+    /**
+     * 발신 IP 허용 목록과 통지 해시(encData)를 검증합니다. DB 를 조회하지 않으므로 수신 즉시 호출할 수 있습니다.
+     * @return 신뢰할 수 있는 통지이면 true
+     */
+    boolean isTrustedNotification(KispgNotificationRequest notificationRequest, String clientIp);
 } 
\ No newline at end of file
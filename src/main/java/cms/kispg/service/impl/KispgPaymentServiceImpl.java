@@ -6,6 +6,8 @@ import cms.common.exception.ResourceNotFoundException;
 import cms.enroll.domain.Enroll;
 import cms.enroll.domain.MembershipType;
 import cms.enroll.repository.EnrollRepository;
+import cms.enroll.service.UserEnrollmentLedger;
+import cms.kispg.client.KispgApiClient;
 import cms.kispg.dto.KispgInitParamsDto;
 import cms.kispg.dto.PaymentApprovalRequestDto;
 import cms.kispg.dto.KispgPaymentResultDto;
@@ -13,11 +15,18 @@ import cms.kispg.service.KispgPaymentService;
 import cms.locker.service.LockerService;
 import cms.mypage.dto.EnrollDto;
 import cms.payment.domain.Payment;
+import cms.payment.domain.PaymentIntent;
+import cms.payment.domain.PaymentIntentStatus;
 import cms.payment.domain.PaymentStatus;
+import cms.payment.repository.PaymentIntentRepository;
 import cms.payment.repository.PaymentRepository;
 import cms.swimming.domain.Lesson;
 import cms.swimming.dto.EnrollRequestDto;
 import cms.swimming.repository.LessonRepository;
+import cms.swimming.domain.LessonSeatLedger.SeatState;
+import cms.swimming.dto.LessonSeatSnapshot;
+import cms.swimming.dto.UserEnrollmentSnapshot;
+import cms.swimming.service.LessonSeatLedgerService;
 import cms.user.domain.User;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -25,15 +34,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import cms.kispg.dto.KispgCancelRequestDto;
@@ -68,7 +76,16 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
     private final LessonRepository lessonRepository;
     private final LockerService lockerService;
     private final PaymentRepository paymentRepository;
+    private final PaymentIntentRepository paymentIntentRepository;
     private final ObjectMapper objectMapper;
+    private final LessonSeatLedgerService lessonSeatLedgerService;
+    private final UserEnrollmentLedger userEnrollmentLedger;
+    private final KispgApiClient kispgApiClient;
+    private final PlatformTransactionManager transactionManager;
+
+    // PG 호출 전후의 짧은 트랜잭션용 (PG 왕복 동안 커넥션을 잡지 않도록)
+    private TransactionTemplate transactionTemplate;
+    private TransactionTemplate readOnlyTransactionTemplate;
 
     @Value("${kispg.url}")
     private String kispgUrl;
@@ -87,11 +104,14 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
 
     @PostConstruct
     public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
         log.info("KISPG Service Initialized. API URL: [{}], MID: [{}]", kispgUrl, kispgMid);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public KispgInitParamsDto generateInitParams(Long enrollId, User currentUser, String userIp) {
         Enroll enroll = enrollRepository.findById(enrollId)
                 .orElseThrow(() -> new ResourceNotFoundException("수강 신청 정보를 찾을 수 없습니다: " + enrollId,
@@ -113,16 +133,16 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
         Lesson lesson = enroll.getLesson();
 
         // [추가] 월별 중복 신청 방지 로직
-        long monthlyEnrollments = enrollRepository.countUserEnrollmentsInMonth(currentUser.getUuid(),
+        UserEnrollmentSnapshot userEnrollments = userEnrollmentLedger.getSnapshot(currentUser.getUuid(),
                 lesson.getStartDate());
-        if (monthlyEnrollments > 0) {
+        if (userEnrollments.hasActiveEnrollmentInMonth()) {
             throw new BusinessRuleException(ErrorCode.MONTHLY_ENROLLMENT_LIMIT_EXCEEDED,
                     "이미 해당 월에 신청한 강습이 있습니다. 한 달에 한 개의 강습만 신청 가능합니다.");
         }
 
-        long paidCount = enrollRepository.countByLessonLessonIdAndPayStatus(lesson.getLessonId(), "PAID");
-        long unpaidActiveCount = enrollRepository.countByLessonLessonIdAndStatusAndPayStatusAndExpireDtAfter(
-                lesson.getLessonId(), "APPLIED", "UNPAID", LocalDateTime.now());
+        LessonSeatSnapshot seats = lessonSeatLedgerService.getSnapshot(lesson.getLessonId());
+        long paidCount = seats.getPaidCount();
+        long unpaidActiveCount = seats.getHeldCount();
 
         long availableSlots = lesson.getCapacity() - paidCount - unpaidActiveCount;
         if (availableSlots <= 0) {
@@ -135,6 +155,20 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
 
         String moid = generateMoid(enrollId);
         int totalAmount = calculateTotalAmount(enroll);
+        // 결제 통지가 유실되어도 MOID 로 PG 에 재조회할 수 있도록 결제 의도를 남김
+        paymentIntentRepository.save(PaymentIntent.builder()
+                .moid(moid)
+                .user(enroll.getUser())
+                .lesson(lesson)
+                .usesLocker(enroll.isUsesLocker())
+                .membershipType(enroll.getMembershipType() != null ? enroll.getMembershipType()
+                        : MembershipType.GENERAL)
+                .expectedAmount(totalAmount)
+                .status(PaymentIntentStatus.PENDING)
+                .enrollId(enrollId)
+                .createdIp(userIp)
+                .createdAt(LocalDateTime.now())
+                .build());
 
         int vatAmount = totalAmount / 11;
         int supplyAmount = totalAmount - vatAmount;
@@ -182,7 +216,7 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public KispgInitParamsDto preparePaymentWithoutEnroll(EnrollRequestDto enrollRequest, User currentUser,
             String userIp) {
         log.info(
@@ -202,9 +236,9 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
             throw new BusinessRuleException(ErrorCode.REGISTRATION_PERIOD_INVALID, "등록 마감 시간이 지났습니다.");
         }
 
-        long paidCount = enrollRepository.countByLessonLessonIdAndPayStatus(lesson.getLessonId(), "PAID");
-        long unpaidActiveCount = enrollRepository.countByLessonLessonIdAndStatusAndPayStatusAndExpireDtAfter(
-                lesson.getLessonId(), "APPLIED", "UNPAID", LocalDateTime.now());
+        LessonSeatSnapshot seats = lessonSeatLedgerService.getSnapshot(lesson.getLessonId());
+        long paidCount = seats.getPaidCount();
+        long unpaidActiveCount = seats.getHeldCount();
 
         long availableSlots = lesson.getCapacity() - paidCount - unpaidActiveCount;
         if (availableSlots <= 0) {
@@ -225,10 +259,14 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
 
         int lessonPrice = lesson.getPrice();
         int totalAmount = lessonPrice;
+        MembershipType selectedMembership = MembershipType.GENERAL;
 
         if (enrollRequest.getMembershipType() != null && !enrollRequest.getMembershipType().isEmpty()) {
             try {
                 MembershipType membership = MembershipType.fromValue(enrollRequest.getMembershipType());
+                if (membership != null) {
+                    selectedMembership = membership;
+                }
                 if (membership != null && membership.getDiscountPercentage() > 0) {
                     int discountPercentage = membership.getDiscountPercentage();
                     int discountedLessonPrice = lessonPrice - (lessonPrice * discountPercentage / 100);
@@ -248,6 +286,18 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
         }
 
         String tempMoid = generateTempMoid(lesson.getLessonId(), currentUser.getUuid());
+        // 결제 통지/승인 시 MOID 로 바로 찾을 수 있도록 사용자 선택 정보를 저장
+        paymentIntentRepository.save(PaymentIntent.builder()
+                .moid(tempMoid)
+                .user(currentUser)
+                .lesson(lesson)
+                .usesLocker(Boolean.TRUE.equals(enrollRequest.getUsesLocker()))
+                .membershipType(selectedMembership)
+                .expectedAmount(totalAmount)
+                .status(PaymentIntentStatus.PENDING)
+                .createdIp(userIp)
+                .createdAt(now)
+                .build());
         int vatAmount = totalAmount / 11;
         int supplyAmount = totalAmount - vatAmount;
 
@@ -383,13 +433,29 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
         return convertToMypageEnrollDto(enroll);
     }
 
+    /**
+     * PG 승인은 트랜잭션 밖에서 호출하고, 승인 전 검증과 승인 후 수강신청/결제 생성은 각각 짧은 트랜잭션으로 처리합니다.
+     * 승인 후 반영에 실패하면 결제 의도를 확인 필요(FLAGGED)로 남기고 PG 승인을 취소합니다 (보상 단계).
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public EnrollDto approvePaymentAndCreateEnrollment(PaymentApprovalRequestDto approvalRequest, User currentUser,
             String userIp) {
         log.info("Starting payment approval and enrollment creation for MOID: {}", approvalRequest.getMoid());
 
-        // 1. KISPG에 결제 승인 요청
+        // 1. 결제 의도 확인 (PG 승인 전에 사용자와 금액을 검증)
+        boolean hasIntent = Boolean.TRUE.equals(readOnlyTransactionTemplate.execute(
+                status -> validateApprovalIntent(approvalRequest, currentUser)));
+
+        // 2. KISPG에 결제 승인 요청 (트랜잭션 밖). 응답을 못 받아도 재조회 대상임을 알 수 있도록 호출 전에 남긴다
+        if (hasIntent) {
+            transactionTemplate.execute(status -> {
+                paymentIntentRepository.findForUpdate(approvalRequest.getMoid())
+                        .filter(PaymentIntent::isPending)
+                        .ifPresent(PaymentIntent::markApprovalRequested);
+                return null;
+            });
+        }
         boolean isApprovedAtPg = callKispgApprovalApi(
                 approvalRequest.getTid(),
                 approvalRequest.getMoid(),
@@ -402,30 +468,119 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
         }
         log.info("KISPG 결제 승인 성공. MOID: {}", approvalRequest.getMoid());
 
-        // 2. 예약 데이터 파싱 및 정보 추출
+        // 3. 수강신청/결제 반영
+        try {
+            return transactionTemplate.execute(
+                    status -> applyApprovedPayment(approvalRequest, currentUser, userIp, hasIntent));
+        } catch (RuntimeException e) {
+            compensateApproval(approvalRequest, e);
+            throw e;
+        }
+    }
+
+    private boolean validateApprovalIntent(PaymentApprovalRequestDto approvalRequest, User currentUser) {
+        PaymentIntent intent = paymentIntentRepository.findById(approvalRequest.getMoid()).orElse(null);
+        if (intent == null) {
+            return false;
+        }
+        if (!intent.getUser().getUuid().equals(currentUser.getUuid())) {
+            throw new BusinessRuleException(ErrorCode.ACCESS_DENIED, "해당 결제에 대한 권한이 없습니다.");
+        }
+        if (!String.valueOf(intent.getExpectedAmount()).equals(approvalRequest.getAmt())) {
+            log.error("결제 요청 금액 불일치. MOID: {}, 요청 금액: {}, 승인 요청 금액: {}", approvalRequest.getMoid(),
+                    intent.getExpectedAmount(), approvalRequest.getAmt());
+            throw new BusinessRuleException(ErrorCode.PAYMENT_AMOUNT_MISMATCH);
+        }
+        return true;
+    }
+
+    /**
+     * PG 승인 후 반영에 실패했을 때의 보상 처리.
+     * 다른 경로(결제 통지)가 이미 반영했으면 취소하지 않고, 아니면 결제 의도를 FLAGGED 로 남겨
+     * 늦게 도착한 통지가 수강신청을 만들지 않게 한 뒤 PG 승인을 취소한다.
+     */
+    private void compensateApproval(PaymentApprovalRequestDto approvalRequest, RuntimeException cause) {
+        String moid = approvalRequest.getMoid();
+        String tid = approvalRequest.getTid();
+        Boolean shouldCancel;
+        try {
+            shouldCancel = transactionTemplate.execute(status -> {
+                if (paymentRepository.findByTid(tid).isPresent()) {
+                    return false;
+                }
+                PaymentIntent intent = paymentIntentRepository.findForUpdate(moid).orElse(null);
+                if (intent != null && intent.isCompleted()) {
+                    return false;
+                }
+                if (intent != null && intent.isPending()) {
+                    intent.flag("승인 후 수강신청 반영 실패로 PG 승인 취소: " + cause.getMessage());
+                }
+                return true;
+            });
+        } catch (RuntimeException e) {
+            log.error("승인 보상 처리 전 상태 확인 실패. MOID: {}, TID: {}. 수동 확인이 필요합니다.", moid, tid, e);
+            return;
+        }
+        if (!Boolean.TRUE.equals(shouldCancel)) {
+            log.warn("MOID {} (TID: {}) 는 다른 경로로 이미 반영되어 PG 승인을 취소하지 않습니다.", moid, tid);
+            return;
+        }
+
+        String payMethod = approvalRequest.getKispgPaymentResult().getPayMethod();
+        try {
+            cancelPayment(tid, moid, payMethod != null ? payMethod.toLowerCase() : null,
+                    Integer.parseInt(approvalRequest.getAmt()), "수강신청 처리 실패로 인한 승인 취소", false);
+            log.warn("수강신청 반영 실패로 PG 승인을 취소했습니다. MOID: {}, TID: {}", moid, tid);
+        } catch (RuntimeException e) {
+            log.error("PG 승인 취소(보상) 실패. MOID: {}, TID: {}. 수동 환불이 필요합니다.", moid, tid, e);
+        }
+    }
+
+    private EnrollDto applyApprovedPayment(PaymentApprovalRequestDto approvalRequest, User currentUser,
+            String userIp, boolean hasIntent) {
+        // 3. 사용자 선택 정보 (결제 의도, 없으면 이전 방식의 mbsReserved/MOID 해석)
         boolean usesLocker = false;
         String membershipTypeStr = "general"; // 기본값
-        try {
-            String reservedDataJson = approvalRequest.getKispgPaymentResult().getMbsReserved();
-            if (reservedDataJson != null && !reservedDataJson.isEmpty()) {
-                Map<String, Object> reservedData = objectMapper.readValue(reservedDataJson,
-                        new TypeReference<Map<String, Object>>() {
-                        });
-                usesLocker = (Boolean) reservedData.getOrDefault("usesLocker", false);
-                membershipTypeStr = (String) reservedData.getOrDefault("membershipType", "general");
+        Lesson lesson;
+        PaymentIntent intent = hasIntent
+                ? paymentIntentRepository.findForUpdate(approvalRequest.getMoid()).orElse(null)
+                : null;
+        if (intent != null) {
+            if (intent.isCompleted()) {
+                // 결제 통지 처리가 먼저 수강신청을 만든 경우
+                log.info("MOID {} 는 이미 수강신청(enrollId: {})이 생성되었습니다.", approvalRequest.getMoid(),
+                        intent.getEnrollId());
+                Enroll existing = enrollRepository.findById(intent.getEnrollId())
+                        .orElseThrow(() -> new ResourceNotFoundException("수강신청 정보를 찾을 수 없습니다.",
+                                ErrorCode.ENROLLMENT_NOT_FOUND));
+                return convertToMypageEnrollDto(existing);
+            }
+            usesLocker = intent.isUsesLocker();
+            membershipTypeStr = intent.getMembershipType().getValue();
+            lesson = intent.getLesson();
+        } else {
+            log.warn("MOID {} 에 대한 결제 의도가 없어 mbsReserved 와 MOID 로 신청 정보를 해석합니다.", approvalRequest.getMoid());
+            try {
+                String reservedDataJson = approvalRequest.getKispgPaymentResult().getMbsReserved();
+                if (reservedDataJson != null && !reservedDataJson.isEmpty()) {
+                    Map<String, Object> reservedData = objectMapper.readValue(reservedDataJson,
+                            new TypeReference<Map<String, Object>>() {
+                            });
+                    usesLocker = (Boolean) reservedData.getOrDefault("usesLocker", false);
+                    membershipTypeStr = (String) reservedData.getOrDefault("membershipType", "general");
+                }
+            } catch (Exception e) {
+                log.error("Failed to parse mbsReserved data. MOID: {}, JSON: {}. Error: {}",
+                        approvalRequest.getMoid(), approvalRequest.getKispgPaymentResult().getMbsReserved(),
+                        e.getMessage());
+                // 파싱 실패 시 기본값으로 계속 진행하거나, 비즈니스 규칙에 따라 예외 처리 가능
             }
-        } catch (Exception e) {
-            log.error("Failed to parse mbsReserved data. MOID: {}, JSON: {}. Error: {}",
-                    approvalRequest.getMoid(), approvalRequest.getKispgPaymentResult().getMbsReserved(),
-                    e.getMessage());
-            // 파싱 실패 시 기본값으로 계속 진행하거나, 비즈니스 규칙에 따라 예외 처리 가능
-        }
 
-        // 3. 임시 MOID에서 강습 ID 추출
-        Long lessonId = parseLessonIdFromTempMoid(approvalRequest.getMoid());
-        Lesson lesson = lessonRepository.findById(lessonId)
-                .orElseThrow(
-                        () -> new ResourceNotFoundException("강습을 찾을 수 없습니다: " + lessonId, ErrorCode.LESSON_NOT_FOUND));
+            Long lessonId = parseLessonIdFromTempMoid(approvalRequest.getMoid());
+            lesson = lessonRepository.findById(lessonId)
+                    .orElseThrow(() -> new ResourceNotFoundException("강습을 찾을 수 없습니다: " + lessonId,
+                            ErrorCode.LESSON_NOT_FOUND));
+        }
 
         // 4. 할인율 결정
         MembershipType selectedMembership = MembershipType.fromValue(membershipTypeStr);
@@ -443,6 +598,9 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
 
         // 6. Payment 객체 생성
         createAndSavePayment(approvalRequest, savedEnroll, usesLocker && lockerAllocated, currentUser, userIp);
+        if (intent != null) {
+            intent.complete(savedEnroll.getEnrollId());
+        }
 
         log.info("Successfully created/updated enrollment and payment record for MOID: {}", approvalRequest.getMoid());
 
@@ -454,8 +612,9 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
             throw new IllegalArgumentException("유효하지 않은 임시 MOID 형식입니다: " + tempMoid);
         }
         try {
+            // temp_{lessonId}_{userUuidPrefix}_{timestamp}
             String[] parts = tempMoid.split("_");
-            return Long.parseLong(parts[0]);
+            return Long.parseLong(parts[1]);
         } catch (Exception e) {
             log.error("임시 MOID에서 강습 ID를 파싱할 수 없습니다: {}", tempMoid, e);
             throw new NumberFormatException("임시 MOID에서 강습 ID를 파싱할 수 없습니다: " + tempMoid);
@@ -481,7 +640,9 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
                 .createdBy(user.getUuid())
                 .createdIp("N/A") // IP 주소 필요시 전달받아야 함
                 .build();
-        return enrollRepository.save(newEnroll);
+        Enroll savedEnroll = enrollRepository.save(newEnroll);
+        lessonSeatLedgerService.applyTransition(lesson.getLessonId(), SeatState.NONE, SeatState.PAID);
+        return savedEnroll;
     }
 
     private void createAndSavePayment(PaymentApprovalRequestDto approvalRequest, Enroll enroll, boolean lockerUsed,
@@ -532,10 +693,6 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
         log.info("  - HashData (Raw): {}{}{}{}", kispgMid, ediDate, amt, merchantKey);
         log.info("  - encData (Hashed): {} (길이: {})", encData, encData.length());
 
-        RestTemplate restTemplate = new RestTemplate();
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
         Map<String, String> body = new HashMap<>();
         body.put("mid", kispgMid);
         body.put("tid", tid);
@@ -544,59 +701,51 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
         body.put("encData", encData);
         body.put("charset", "UTF-8");
 
-        HttpEntity<Map<String, String>> requestEntity = new HttpEntity<>(body, headers);
-
-        String url = kispgUrl + "/v2/payment";
         log.info("📤 KISPG 승인 API 요청:");
-        log.info("  - URL: {}", url);
+        log.info("  - URL: {}", kispgUrl + "/v2/payment");
         log.info("  - Method: POST");
         log.info("  - Content-Type: application/json");
         log.info("  - Body: {}", body);
 
         long startTime = System.currentTimeMillis();
         try {
-            ResponseEntity<String> response = restTemplate.postForEntity(url, requestEntity, String.class);
+            KispgPaymentResultDto resultDto = kispgApiClient.post("approval", "/v2/payment", body,
+                    KispgPaymentResultDto.class);
             long endTime = System.currentTimeMillis();
 
+            if (resultDto == null) {
+                log.error("KISPG 승인 API 응답 본문이 비어있습니다. ({}ms)", endTime - startTime);
+                throw new BusinessRuleException(ErrorCode.PAYMENT_GATEWAY_ERROR,
+                        "PG사 승인 응답을 받지 못했습니다. 결제 결과를 확인 중입니다.");
+            }
+
             log.info("📥 KISPG 승인 API 응답 ({}ms):", endTime - startTime);
-            log.info("  - Status Code: {}", response.getStatusCode());
-            log.info("  - Response Body: {}", response.getBody());
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                try {
-                    ObjectMapper objectMapper = new ObjectMapper();
-                    KispgPaymentResultDto resultDto = objectMapper.readValue(response.getBody(),
-                            KispgPaymentResultDto.class);
-
-                    log.info("📋 KISPG 승인 결과 파싱:");
-                    log.info("  - resultCd: {}", resultDto.getResultCd());
-                    log.info("  - resultMsg: {}", resultDto.getResultMsg());
-                    log.debug(objectMapper.writeValueAsString(resultDto));
-
-                    if ("0000".equals(resultDto.getResultCd()) || "3001".equals(resultDto.getResultCd())
-                            || "6001".equals(resultDto.getResultCd())) {
-                        log.info("✅ KISPG 승인 성공: [{}] {}", resultDto.getResultCd(), resultDto.getResultMsg());
-                        return true;
-                    } else {
-                        log.error("❌ KISPG 승인 실패: [{}] {}", resultDto.getResultCd(), resultDto.getResultMsg());
-                        throw new BusinessRuleException(ErrorCode.PAYMENT_GATEWAY_APPROVAL_FAILED,
-                                "결제 게이트웨이 승인에 실패했습니다: " + resultDto.getResultMsg());
-                    }
-                } catch (Exception e) {
-                    log.error("KISPG 응답 파싱 중 에러 발생", e);
-                    throw new BusinessRuleException(ErrorCode.PAYMENT_FAILED, "결제 게이트웨이 응답 처리 중 오류가 발생했습니다.");
-                }
+            log.info("  - resultCd: {}", resultDto.getResultCd());
+            log.info("  - resultMsg: {}", resultDto.getResultMsg());
+            log.debug(objectMapper.writeValueAsString(resultDto));
+
+            if ("0000".equals(resultDto.getResultCd()) || "3001".equals(resultDto.getResultCd())
+                    || "6001".equals(resultDto.getResultCd())) {
+                log.info("✅ KISPG 승인 성공: [{}] {}", resultDto.getResultCd(), resultDto.getResultMsg());
+                return true;
             } else {
-                log.error("KISPG 승인 API 호출 실패. 응답 코드: {}", response.getStatusCode());
-                return false;
+                log.error("❌ KISPG 승인 실패: [{}] {}", resultDto.getResultCd(), resultDto.getResultMsg());
+                throw new BusinessRuleException(ErrorCode.PAYMENT_GATEWAY_APPROVAL_FAILED,
+                        "결제 게이트웨이 승인에 실패했습니다: " + resultDto.getResultMsg());
             }
+        } catch (BusinessRuleException e) {
+            throw e;
+        } catch (ResourceAccessException | HttpServerErrorException e) {
+            // 요청이 PG 에 도달해 승인되었을 수 있으므로 거절과 구분한다 (결과는 PG 상태 재조회로 확정)
+            log.error("KISPG 승인 API 응답 없음 또는 PG 내부 오류. 승인 여부 확인 필요. TID: {}, MOID: {}", tid, moid, e);
+            throw new BusinessRuleException(ErrorCode.PAYMENT_GATEWAY_ERROR,
+                    "PG사 승인 응답을 받지 못했습니다. 결제 결과를 확인 중입니다.");
         } catch (HttpClientErrorException e) {
             log.error("KISPG 승인 API 호출 중 클라이언트 에러 발생: {} - {}", e.getStatusCode(), e.getResponseBodyAsString(), e);
-            throw new BusinessRuleException(ErrorCode.PAYMENT_GATEWAY_ERROR,
-                    "결제 게이트웨이 통신 중 오류가 발생했습니다: " + e.getMessage());
+            throw new BusinessRuleException(ErrorCode.PAYMENT_GATEWAY_APPROVAL_FAILED,
+                    "결제 게이트웨이가 승인 요청을 거절했습니다: " + e.getMessage());
         } catch (Exception e) {
             log.error("KISPG 승인 API 호출 중 알 수 없는 에러 발생", e);
-            e.printStackTrace();
 
             throw new BusinessRuleException(ErrorCode.PAYMENT_FAILED, "결제 게이트웨이 처리 중 알 수 없는 오류가 발생했습니다.");
         }
@@ -666,7 +815,7 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
     }
 
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public KispgCancelResponseDto cancelPayment(String tid, String moid, String payMethod, int cancelAmount,
             String reason, boolean isPartial) {
         String ediDate = generateEdiDate();
@@ -696,20 +845,10 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
         log.info("KISPG 취소 API 호출. URL: {}, 요청 데이터: {}", url, requestDto);
 
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            ObjectMapper objectMapper = new ObjectMapper();
-            String jsonBody = objectMapper.writeValueAsString(requestDto);
-
-            HttpEntity<String> entity = new HttpEntity<>(jsonBody, headers);
-            RestTemplate restTemplate = new RestTemplate();
-
-            ResponseEntity<KispgCancelResponseDto> response = restTemplate.postForEntity(url, entity,
+            KispgCancelResponseDto responseBody = kispgApiClient.post("cancel", "/v2/cancel", requestDto,
                     KispgCancelResponseDto.class);
 
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                KispgCancelResponseDto responseBody = response.getBody();
+            if (responseBody != null) {
                 log.info("KISPG 취소 API 응답 성공. 응답: {}", responseBody);
 
                 if ("2001".equals(responseBody.getResultCd()) || "2002".equals(responseBody.getResultCd())) {
@@ -722,9 +861,16 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
                     throw new BusinessRuleException(ErrorCode.PAYMENT_CANCEL_FAILED, pgErrorMessage);
                 }
             } else {
-                log.error("KISPG 취소 API 호출 실패. 응답 코드: {}, 응답 본문: {}", response.getStatusCode(), response.getBody());
+                log.error("KISPG 취소 API 응답 본문이 비어있습니다.");
                 throw new BusinessRuleException(ErrorCode.PAYMENT_GATEWAY_ERROR, "PG사로부터 응답을 받지 못했습니다.");
             }
+        } catch (BusinessRuleException e) {
+            throw e;
+        } catch (ResourceAccessException | HttpServerErrorException e) {
+            // 요청이 PG 에 도달했는지 알 수 없으므로 거절(PAYMENT_CANCEL_FAILED)과 구분한다
+            log.error("KISPG 취소 API 응답 없음 또는 PG 내부 오류. 취소 여부 확인 필요", e);
+            throw new BusinessRuleException(ErrorCode.PAYMENT_GATEWAY_ERROR,
+                    "PG사 취소 응답을 받지 못했습니다: " + e.getMessage());
         } catch (Exception e) {
             log.error("KISPG 취소 API 호출 중 예외 발생", e);
             throw new BusinessRuleException(ErrorCode.PAYMENT_CANCEL_FAILED, "PG사 취소 처리 중 오류 발생: " + e.getMessage());
@@ -742,7 +888,7 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> queryTransactionAtPg(KispgQueryRequestDto requestDto) {
         log.info("KISPG 결제 내역 조회 요청. TID: {}, MOID: {}", requestDto.getTid(), requestDto.getMoid());
 
@@ -761,9 +907,6 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
         String encData = generateHash(requestHashData);
         log.info("[KISPG 거래조회 요청] 생성된 해시: {}", encData);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
         Map<String, String> body = new HashMap<>();
         body.put("mid", kispgMid);
         body.put("ver", "2");
@@ -779,15 +922,11 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
         body.put("signData", "");
 
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            String jsonBody = objectMapper.writeValueAsString(body);
-            HttpEntity<String> request = new HttpEntity<>(jsonBody, headers);
-            log.info("[KISPG 거래조회 요청] PG 요청 전문: {}", request.toString());
+            log.info("[KISPG 거래조회 요청] PG 요청 전문: {}", body);
 
-            RestTemplate restTemplate = new RestTemplate();
-            ResponseEntity<Map> response = restTemplate.postForEntity(kispgUrl + "/v2/order", request, Map.class);
-            log.info("[KISPG 거래조회 요청] PG 응답 전문: {}", response.toString());
-            Map<String, Object> responseBody = response.getBody();
+            @SuppressWarnings("unchecked")
+            Map<String, Object> responseBody = kispgApiClient.post("query", "/v2/order", body, Map.class);
+            log.info("[KISPG 거래조회 요청] PG 응답 전문: {}", responseBody);
 
             if (responseBody == null) {
                 log.error("KISPG 조회 API 응답 본문이 비어있습니다.");
@@ -815,6 +954,8 @@ public class KispgPaymentServiceImpl implements KispgPaymentService {
                 log.error("KISPG 조회 실패. Result Code: {}, Message: {}", resultCd, resultMsg);
                 throw new BusinessRuleException(ErrorCode.PG_TRANSACTION_NOT_FOUND, "PG사 조회 실패: " + resultMsg);
             }
+        } catch (BusinessRuleException e) {
+            throw e;
         } catch (Exception e) {
             log.error("KISPG 조회 API 호출 중 예외 발생", e);
             throw new BusinessRuleException(ErrorCode.PAYMENT_GATEWAY_ERROR,
@@ -0,0 +1,207 @@
+package cms.kispg.service.impl;
+
+import cms.common.service.ClaimedRowWorker;
+import cms.kispg.domain.KispgWebhookInbox;
+import cms.kispg.domain.KispgWebhookInboxStatus;
+import cms.kispg.dto.KispgNotificationRequest;
+import cms.kispg.repository.KispgWebhookInboxRepository;
+import cms.kispg.service.KispgWebhookInboxService;
+import cms.kispg.service.KispgWebhookService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * KISPG 결제 통지 수신함.
+ *
+ * - 수신: IP/해시 검증 후 원문을 kispg_webhook_inbox 에 한 건 저장하고 바로 "OK" 를 응답한다. 같은 TID 는 한 번만 저장된다.
+ * - 처리: ClaimedRowWorker 가 행을 선점(PENDING -> PROCESSING)하여 기존 통지 처리 로직을 실행한다.
+ *   풀 대기열이 가득 차면 행은 PENDING 으로 남고 poll-interval 마다 다시 꺼내진다.
+ * - 실패: retry-initial-delay 부터 두 배씩(최대 retry-max-delay) 늦춰 재시도하고, max-attempts 를 넘기면 DEAD 로 남긴다.
+ */
+@Service
+public class KispgWebhookInboxServiceImpl implements KispgWebhookInboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(KispgWebhookInboxServiceImpl.class);
+
+    private final KispgWebhookInboxRepository inboxRepository;
+    private final KispgWebhookService kispgWebhookService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private ClaimedRowWorker worker;
+
+    @Value("${kispg.webhook.worker-threads:4}")
+    private int workerThreads;
+
+    @Value("${kispg.webhook.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${kispg.webhook.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${kispg.webhook.retry-initial-delay:10000}")
+    private long retryInitialDelayMs;
+
+    @Value("${kispg.webhook.retry-max-delay:600000}")
+    private long retryMaxDelayMs;
+
+    @Value("${kispg.webhook.batch-size:50}")
+    private int batchSize;
+
+    @Value("${kispg.webhook.processing-timeout:300000}")
+    private long processingTimeoutMs;
+
+    public KispgWebhookInboxServiceImpl(KispgWebhookInboxRepository inboxRepository,
+            KispgWebhookService kispgWebhookService, ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.inboxRepository = inboxRepository;
+        this.kispgWebhookService = kispgWebhookService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        worker = ClaimedRowWorker.builder()
+                .name("KISPG Inbox")
+                .threadPrefix("kispg-webhook-")
+                .threads(workerThreads)
+                .queueCapacity(queueCapacity)
+                .retryInitialDelayMs(retryInitialDelayMs)
+                .retryMaxDelayMs(retryMaxDelayMs)
+                .processingTimeoutMs(processingTimeoutMs)
+                .processor(this::process)
+                .build();
+        logger.info("KISPG webhook inbox initialized. workers={}, queueCapacity={}, maxAttempts={}",
+                workerThreads, queueCapacity, maxAttempts);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdown();
+    }
+
+    @Override
+    public String receivePaymentNotification(KispgNotificationRequest notification, String clientIp) {
+        if (!kispgWebhookService.isTrustedNotification(notification, clientIp)) {
+            return "FAIL";
+        }
+        String tid = notification.getTid();
+        if (tid == null || tid.trim().isEmpty()) {
+            logger.warn("[KISPG Inbox] Notification without TID rejected. moid: {}", notification.getMoid());
+            return "FAIL";
+        }
+        if (inboxRepository.existsByTid(tid)) {
+            logger.info("[KISPG Inbox] Duplicate notification for tid: {} (moid: {}) acknowledged.", tid,
+                    notification.getMoid());
+            return "OK";
+        }
+
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(notification);
+        } catch (JsonProcessingException e) {
+            logger.error("[KISPG Inbox] Failed to serialize notification for tid: {}", tid, e);
+            return "FAIL";
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        KispgWebhookInbox saved;
+        try {
+            saved = inboxRepository.saveAndFlush(KispgWebhookInbox.builder()
+                    .tid(tid)
+                    .moid(notification.getMoid())
+                    .resultCode(notification.getResultCode())
+                    .payload(payload)
+                    .clientIp(clientIp)
+                    .status(KispgWebhookInboxStatus.PENDING)
+                    .attempts(0)
+                    .nextAttemptAt(now)
+                    .receivedAt(now)
+                    .updatedAt(now)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // 같은 TID 재전송이 동시에 도착한 경우
+            logger.info("[KISPG Inbox] Concurrent duplicate notification for tid: {} acknowledged.", tid);
+            return "OK";
+        }
+
+        logger.info("[KISPG Inbox] Stored notification {} for tid: {}, moid: {}", saved.getId(), tid,
+                notification.getMoid());
+        worker.dispatch(saved.getId());
+        return "OK";
+    }
+
+    @Scheduled(fixedDelayString = "${kispg.webhook.poll-interval:5000}")
+    public void pollInbox() {
+        try {
+            worker.releaseStale((staleBefore, now) -> transactionTemplate.execute(status -> inboxRepository
+                    .releaseStale(KispgWebhookInboxStatus.PENDING, KispgWebhookInboxStatus.PROCESSING, staleBefore,
+                            now)));
+            worker.dispatchAll(inboxRepository.findDueIds(KispgWebhookInboxStatus.PENDING, LocalDateTime.now(),
+                    PageRequest.of(0, batchSize)));
+        } catch (RuntimeException e) {
+            logger.warn("[KISPG Inbox] Failed to poll webhook inbox: {}", e.getMessage());
+        }
+    }
+
+    private void process(Long id) {
+        LocalDateTime claimedAt = LocalDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> inboxRepository.claim(id,
+                KispgWebhookInboxStatus.PENDING, KispgWebhookInboxStatus.PROCESSING, claimedAt));
+        if (claimed == null || claimed == 0) {
+            return; // 다른 스레드/노드가 이미 처리 중이거나 재시도 시각 전
+        }
+        KispgWebhookInbox inbox = inboxRepository.findById(id).orElse(null);
+        if (inbox == null) {
+            return;
+        }
+
+        String failure;
+        try {
+            KispgNotificationRequest notification = objectMapper.readValue(inbox.getPayload(),
+                    KispgNotificationRequest.class);
+            String result = kispgWebhookService.processPaymentNotification(notification, inbox.getClientIp());
+            failure = "OK".equals(result) ? null : "Notification processing returned " + result;
+        } catch (Exception e) {
+            logger.error("[KISPG Inbox] Error while processing notification {} (tid: {})", id, inbox.getTid(), e);
+            failure = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (failure == null) {
+            transactionTemplate.execute(status -> inboxRepository.updateResult(id, KispgWebhookInboxStatus.DONE,
+                    null, inbox.getNextAttemptAt(), now, now));
+            logger.info("[KISPG Inbox] Processed notification {} (tid: {}, attempt {})", id, inbox.getTid(),
+                    inbox.getAttempts());
+            return;
+        }
+
+        String lastError = ClaimedRowWorker.truncateError(failure);
+        if (inbox.getAttempts() >= maxAttempts) {
+            transactionTemplate.execute(status -> inboxRepository.updateResult(id, KispgWebhookInboxStatus.DEAD,
+                    lastError, inbox.getNextAttemptAt(), now, now));
+            logger.error("[KISPG Inbox] Notification {} (tid: {}, moid: {}) moved to DEAD after {} attempts: {}",
+                    id, inbox.getTid(), inbox.getMoid(), inbox.getAttempts(), lastError);
+        } else {
+            long delayMs = worker.retryDelayMs(inbox.getAttempts());
+            transactionTemplate.execute(status -> inboxRepository.updateResult(id, KispgWebhookInboxStatus.PENDING,
+                    lastError, now.plus(delayMs, ChronoUnit.MILLIS), null, now));
+            logger.warn("[KISPG Inbox] Notification {} (tid: {}) failed on attempt {}; retrying in {}ms: {}",
+                    id, inbox.getTid(), inbox.getAttempts(), delayMs, lastError);
+        }
+    }
+}
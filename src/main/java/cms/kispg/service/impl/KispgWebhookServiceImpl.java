@@ -10,11 +10,16 @@ import cms.kispg.service.KispgWebhookService;
 import cms.kispg.util.KispgSecurityUtil;
 import cms.locker.service.LockerService;
 import cms.payment.domain.Payment;
+import cms.payment.domain.PaymentIntent;
+import cms.payment.domain.PaymentIntentStatus;
+import cms.payment.repository.PaymentIntentRepository;
 import cms.payment.repository.PaymentRepository;
 import cms.user.domain.User;
 import cms.user.repository.UserRepository;
 import cms.swimming.domain.Lesson;
 import cms.swimming.repository.LessonRepository;
+import cms.swimming.domain.LessonSeatLedger.SeatState;
+import cms.swimming.service.LessonSeatLedgerService;
 import cms.payment.domain.PaymentStatus;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -44,6 +49,8 @@ public class KispgWebhookServiceImpl implements KispgWebhookService {
     private final UserRepository userRepository;
     private final LessonRepository lessonRepository;
     private final PaymentService paymentService;
+    private final LessonSeatLedgerService lessonSeatLedgerService;
+    private final PaymentIntentRepository paymentIntentRepository;
 
     @Value("${kispg.merchantKey}") // Example: load merchantKey from properties
     private String merchantKey;
@@ -82,24 +89,21 @@ public class KispgWebhookServiceImpl implements KispgWebhookService {
         logger.debug("[KISPG Webhook DETAIL] Full notification: {}", notification);
 
         // 1. Security Validation
-        // IP Whitelisting (only in prod, if configured)
-        if ("prod".equalsIgnoreCase(activeProfile) && !allowedIpList.isEmpty() && !allowedIpList.contains(clientIp)) {
-            logger.warn("[KISPG Webhook] Denied access from unauthorized IP: {} for moid: {}. Allowed IPs: {}",
-                    clientIp, notification.getMoid(), allowedIpList);
-            // KISPG might expect specific error string or just a non-200 response.
-            // Returning "FAIL" or "ERROR" as a generic failure indicator.
+        if (!isTrustedNotification(notification, clientIp)) {
             return "FAIL";
         }
+        return applyNotification(notification);
+    }
 
-        // Hash validation (encData) - 실제 해시 검증 활성화
-        boolean isValidSignature = kispgSecurityUtil.verifyNotificationHash(notification);
-        if (!isValidSignature) {
-            logger.warn("[KISPG Webhook] Invalid signature (encData) for moid: {}. IP: {}", notification.getMoid(),
-                    clientIp);
-            return "FAIL";
-        }
-        logger.info("[KISPG Webhook] Signature validation successful for moid: {}", notification.getMoid());
+    @Override
+    @Transactional
+    public String processVerifiedPaymentNotification(KispgNotificationRequest notification) {
+        logger.info("[KISPG Reconcile] Applying PG-confirmed payment for moid: {}, tid: {}", notification.getMoid(),
+                notification.getTid());
+        return applyNotification(notification);
+    }
 
+    private String applyNotification(KispgNotificationRequest notification) {
         // 2. Parameter & Enrollment/Payment Record Check
         // Attempt to parse moid to get enrollment information
         // New format: temp_{lessonId}_{userUuid_prefix}_{timestamp} OR existing:
@@ -211,11 +215,30 @@ public class KispgWebhookServiceImpl implements KispgWebhookService {
                 // **** PAYMENT SUCCESS for temp_moid ****
                 logger.info("[KISPG Webhook] Payment success for temp moid: {}", notification.getMoid());
                 try {
-                    enroll = createEnrollmentFromTempMoid(notification, lessonId, userUuidPrefix);
+                    // 결제 준비 시 저장한 결제 의도 (승인 처리와 동시에 수강신청을 만들지 않도록 잠금)
+                    PaymentIntent intent = paymentIntentRepository.findForUpdate(notification.getMoid()).orElse(null);
+                    if (intent != null && intent.isCompleted()) {
+                        logger.info(
+                                "[KISPG Webhook] Enrollment for temp moid: {} already created (enrollId: {}). Skipping.",
+                                notification.getMoid(), intent.getEnrollId());
+                        return "OK";
+                    }
+                    if (intent != null && intent.getStatus() == PaymentIntentStatus.FLAGGED) {
+                        // 승인 반영 실패로 PG 승인을 취소했거나 관리자 확인이 필요한 주문
+                        logger.warn("[KISPG Webhook] Payment intent for temp moid: {} is flagged ({}). Skipping.",
+                                notification.getMoid(), intent.getStatusNote());
+                        return "OK";
+                    }
+                    enroll = intent != null
+                            ? createEnrollmentFromIntent(notification, intent)
+                            : createEnrollmentFromTempMoid(notification, lessonId, userUuidPrefix);
                     logger.info("[KISPG Webhook] Successfully created enrollment from temp moid. New enrollId: {}",
                             enroll.getEnrollId());
                     // Enroll 생성 후, 실제 Payment 처리
                     processSuccess(notification, enroll);
+                    if (intent != null) {
+                        intent.complete(enroll.getEnrollId());
+                    }
                 } catch (Exception e) {
                     logger.error("[KISPG Webhook] Failed to create enrollment or payment from temp moid: {}. Error: {}",
                             notification.getMoid(), e.getMessage(), e);
@@ -229,7 +252,12 @@ public class KispgWebhookServiceImpl implements KispgWebhookService {
         } else {
             // enroll_moid 로직은 중앙화된 PaymentService 호출
             try {
-                paymentService.createPaymentFromWebhook(notification);
+                Payment payment = paymentService.createPaymentFromWebhook(notification);
+                if (KISPG_SUCCESS_CODE.equals(notification.getResultCode())) {
+                    paymentIntentRepository.findById(notification.getMoid())
+                            .filter(PaymentIntent::isPending)
+                            .ifPresent(intent -> intent.complete(payment.getEnroll().getEnrollId()));
+                }
                 logger.info("[KISPG Webhook] Successfully processed webhook via PaymentService for moid: {}",
                         notification.getMoid());
             } catch (Exception e) {
@@ -243,6 +271,26 @@ public class KispgWebhookServiceImpl implements KispgWebhookService {
         return "OK";
     }
 
+    @Override
+    public boolean isTrustedNotification(KispgNotificationRequest notification, String clientIp) {
+        // IP Whitelisting (only in prod, if configured)
+        if ("prod".equalsIgnoreCase(activeProfile) && !allowedIpList.isEmpty() && !allowedIpList.contains(clientIp)) {
+            logger.warn("[KISPG Webhook] Denied access from unauthorized IP: {} for moid: {}. Allowed IPs: {}",
+                    clientIp, notification.getMoid(), allowedIpList);
+            return false;
+        }
+
+        // Hash validation (encData) - 실제 해시 검증 활성화
+        boolean isValidSignature = kispgSecurityUtil.verifyNotificationHash(notification);
+        if (!isValidSignature) {
+            logger.warn("[KISPG Webhook] Invalid signature (encData) for moid: {}. IP: {}", notification.getMoid(),
+                    clientIp);
+            return false;
+        }
+        logger.info("[KISPG Webhook] Signature validation successful for moid: {}", notification.getMoid());
+        return true;
+    }
+
     private void processSuccess(KispgNotificationRequest notification, Enroll enroll) {
         // 기존 processSuccess 로직에서 Payment 생성 및 저장 부분을 가져옴.
         // 이 부분도 장기적으로는 PaymentService로 통합하는 것을 고려.
@@ -263,8 +311,10 @@ public class KispgWebhookServiceImpl implements KispgWebhookService {
                 .build();
         paymentRepository.save(payment);
 
+        SeatState seatBefore = lessonSeatLedgerService.seatStateOf(enroll);
         enroll.setPayStatus("PAID");
         enrollRepository.save(enroll);
+        lessonSeatLedgerService.applyTransition(enroll.getLesson().getLessonId(), seatBefore, SeatState.PAID);
 
         // 사물함 할당 로직 등 추가 처리
         if (enroll.isUsesLocker()) {
@@ -272,8 +322,70 @@ public class KispgWebhookServiceImpl implements KispgWebhookService {
         }
     }
 
+    /**
+     * 결제 준비 시 저장한 결제 의도로부터 수강신청을 생성합니다.
+     */
+    private Enroll createEnrollmentFromIntent(KispgNotificationRequest notification, PaymentIntent intent) {
+        User user = intent.getUser();
+        Lesson lesson = intent.getLesson();
+        logger.info("[KISPG Webhook] Creating enrollment from payment intent {} for lessonId: {}, user: {}",
+                intent.getMoid(), lesson.getLessonId(), user.getUsername());
+
+        if (!String.valueOf(intent.getExpectedAmount()).equals(notification.getAmt())) {
+            logger.error("[KISPG Webhook] Amount mismatch for moid: {}. Expected: {}, Notified: {}",
+                    intent.getMoid(), intent.getExpectedAmount(), notification.getAmt());
+            throw new BusinessRuleException(ErrorCode.PAYMENT_AMOUNT_MISMATCH);
+        }
+
+        boolean usesLocker = intent.isUsesLocker();
+        boolean lockerAllocated = false;
+        if (usesLocker) {
+            if (user.getGender() != null && !user.getGender().trim().isEmpty()) {
+                // 예외 없이 결과만 받으므로 배정 실패가 웹훅 트랜잭션을 rollback-only 로 만들지 않는다
+                lockerAllocated = lockerService.tryIncrementUsedQuantity(user.getGender().toUpperCase());
+                if (!lockerAllocated) {
+                    logger.error("[KISPG Webhook] Failed to allocate locker for user: {} (no locker available)",
+                            user.getUsername());
+                    usesLocker = false;
+                }
+            } else {
+                logger.warn("[KISPG Webhook] User {} has no gender info. Cannot allocate locker.", user.getUsername());
+                usesLocker = false;
+            }
+        }
+
+        // 사물함을 선택했지만 배정되지 않았으면 사물함 요금을 제외
+        int finalAmount = intent.getExpectedAmount();
+        if (intent.isUsesLocker() && !lockerAllocated) {
+            finalAmount -= defaultLockerFee;
+        }
+
+        Enroll enroll = Enroll.builder()
+                .user(user)
+                .lesson(lesson)
+                .status("APPLIED")
+                .payStatus("PAID") // 결제 완료 상태로 바로 생성
+                .expireDt(null) // 결제 완료되었으므로 만료시간 불필요
+                .usesLocker(usesLocker)
+                .lockerAllocated(lockerAllocated)
+                .membershipType(intent.getMembershipType())
+                .finalAmount(finalAmount)
+                .discountAppliedPercentage(intent.getMembershipType().getDiscountPercentage())
+                .createdBy(user.getUuid())
+                .createdIp("KISPG_WEBHOOK") // 웹훅에서 생성됨을 표시
+                .build();
+
+        Enroll savedEnroll = enrollRepository.save(enroll);
+        lessonSeatLedgerService.applyTransition(lesson.getLessonId(), SeatState.NONE, SeatState.PAID);
+        logger.info(
+                "[KISPG Webhook] Successfully created enrollment: enrollId={}, user={}, lesson={}, usesLocker={}, lockerAllocated={}",
+                savedEnroll.getEnrollId(), user.getUsername(), lesson.getLessonId(), usesLocker, lockerAllocated);
+        return savedEnroll;
+    }
+
     /**
      * temp moid로부터 수강신청을 생성합니다.
+     * 결제 의도(payment_intent)가 도입되기 전에 결제창에 진입한 주문에만 사용됩니다.
      */
     private Enroll createEnrollmentFromTempMoid(KispgNotificationRequest notification, Long lessonId,
             String userUuidPrefix) {
@@ -318,14 +430,14 @@ public class KispgWebhookServiceImpl implements KispgWebhookService {
         boolean lockerAllocated = false;
         if (usesLocker) {
             if (user.getGender() != null && !user.getGender().trim().isEmpty()) {
-                try {
-                    lockerService.incrementUsedQuantity(user.getGender().toUpperCase());
-                    lockerAllocated = true;
+                // 예외 없이 결과만 받으므로 배정 실패가 웹훅 트랜잭션을 rollback-only 로 만들지 않는다
+                lockerAllocated = lockerService.tryIncrementUsedQuantity(user.getGender().toUpperCase());
+                if (lockerAllocated) {
                     logger.info("[KISPG Webhook] Locker allocated for user: {} (gender: {})", user.getUsername(),
                             user.getGender());
-                } catch (Exception e) {
-                    logger.error("[KISPG Webhook] Failed to allocate locker for user: {}. Error: {}",
-                            user.getUsername(), e.getMessage());
+                } else {
+                    logger.error("[KISPG Webhook] Failed to allocate locker for user: {} (no locker available)",
+                            user.getUsername());
                     // 사물함 배정 실패 시에도 수강신청은 생성하되 사물함 없이 진행
                     usesLocker = false;
                 }
@@ -358,6 +470,7 @@ public class KispgWebhookServiceImpl implements KispgWebhookService {
                 .build();
 
         Enroll savedEnroll = enrollRepository.save(enroll);
+        lessonSeatLedgerService.applyTransition(lesson.getLessonId(), SeatState.NONE, SeatState.PAID);
         logger.info(
                 "[KISPG Webhook] Successfully created enrollment: enrollId={}, user={}, lesson={}, usesLocker={}, lockerAllocated={}",
                 savedEnroll.getEnrollId(), user.getUsername(), lesson.getLessonId(), usesLocker, lockerAllocated);
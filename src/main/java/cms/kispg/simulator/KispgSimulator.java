@@ -0,0 +1,597 @@
+package cms.kispg.simulator;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 부하/장애 시험용 KISPG 모의 서버. Spring 없이도 생성해 start()/stop() 할 수 있다.
+ *
+ * - /sim/pay: 결제창 인증을 대신한다. 요청 해시(mid + ediDate + amt + merchantKey)를 검증하고 TID 를 발급한다.
+ * - /v2/payment, /v2/cancel, /v2/order: 승인/취소/조회 API. 실제 KISPG 와 같은 해시 규칙으로 요청을 검증한다.
+ * - 승인 시 notify-url 로 결제 통지를 form 으로 보낸다. "OK" 응답이 아니면 notify-max-attempts 까지 다시 보낸다.
+ * - 장애 주입: 응답 지연(latency-min ~ latency-max), error-rate 확률의 HTTP 500(상태 변경 없음),
+ *   response-loss-rate 확률로 처리 후 응답 지연(hang) — PG 에는 반영되었지만 응답을 못 받은 경우,
+ *   decline-rate 확률의 승인 거절, duplicate-rate 확률의 중복 통지, out-of-order-rate 확률로 reorder-delay 만큼 늦은 통지.
+ * - /sim/stats: 호출/결과별 누적 건수. http.connections 는 요청을 보낸 클라이언트 커넥션(원격 주소) 수로, keep-alive 재사용 확인용.
+ */
+public class KispgSimulator {
+
+    private static final Logger logger = LoggerFactory.getLogger(KispgSimulator.class);
+    private static final DateTimeFormatter EDI_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    static final String SUCCESS = "0000";
+    static final String CANCEL_SUCCESS = "2001";
+    static final String PARTIAL_CANCEL_SUCCESS = "2002";
+    // 모의 서버 전용 실패 코드 (실제 KISPG 코드와 겹치지 않도록 9xxx 사용)
+    static final String INVALID_MID = "9001";
+    static final String HASH_MISMATCH = "9002";
+    static final String UNKNOWN_TRANSACTION = "9003";
+    static final String AMOUNT_MISMATCH = "9004";
+    static final String INVALID_STATE = "9005";
+    static final String DECLINED = "9006";
+    static final String SIMULATED_ERROR = "9999";
+
+    private final Options options;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Transaction> transactionsByTid = new ConcurrentHashMap<>();
+    private final Map<String, String> tidByMoid = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> stats = new ConcurrentHashMap<>();
+    private final Set<InetSocketAddress> clientConnections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong tidSeq = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ScheduledExecutorService notifier;
+
+    public KispgSimulator(Options options) {
+        this.options = options;
+    }
+
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress(options.getPort()), 0);
+        serverExecutor = Executors.newFixedThreadPool(options.getServerThreads(), daemonThreads("kispg-sim-http-"));
+        notifier = Executors.newScheduledThreadPool(options.getNotifyThreads(), daemonThreads("kispg-sim-notify-"));
+
+        server.createContext("/sim/pay", exchange -> handle(exchange, "authorize", false, this::authorize));
+        server.createContext("/v2/payment", exchange -> handle(exchange, "approval", true, this::approve));
+        server.createContext("/v2/cancel", exchange -> handle(exchange, "cancel", true, this::cancel));
+        server.createContext("/v2/order", exchange -> handle(exchange, "query", true, this::query));
+        server.createContext("/sim/stats", this::handleStats);
+        server.setExecutor(serverExecutor);
+        server.start();
+        logger.info("KISPG simulator listening on {} (notify-url: {}, error-rate: {}, response-loss-rate: {}, "
+                + "decline-rate: {}, duplicate-rate: {}, out-of-order-rate: {})", getBaseUrl(), options.getNotifyUrl(),
+                options.getErrorRate(), options.getResponseLossRate(), options.getDeclineRate(),
+                options.getDuplicateRate(), options.getOutOfOrderRate());
+    }
+
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        notifier.shutdownNow();
+        server = null;
+        logger.info("KISPG simulator stopped. stats={}", getStats());
+    }
+
+    /**
+     * kispg.url 에 넣을 주소 (포트 0 으로 시작한 경우 실제 할당된 포트)
+     */
+    public String getBaseUrl() {
+        int port = server != null ? server.getAddress().getPort() : options.getPort();
+        return "http://localhost:" + port;
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        stats.forEach((key, value) -> snapshot.put(key, value.get()));
+        return snapshot;
+    }
+
+    // ---------------------------------------------------------------- endpoints
+
+    private Map<String, Object> authorize(Map<String, String> body) {
+        String mid = body.get("mid");
+        String moid = body.get("moid");
+        String amt = body.get("amt");
+        String ediDate = body.get("ediDate");
+        if (!options.getMid().equals(mid)) {
+            return result(INVALID_MID, "상점 ID 가 일치하지 않습니다.");
+        }
+        if (!hashMatches(body.get("encData"), mid + ediDate + amt + options.getMerchantKey())) {
+            return result(HASH_MISMATCH, "요청 해시가 일치하지 않습니다.");
+        }
+        if (moid == null || parseAmount(amt) <= 0) {
+            return result(AMOUNT_MISMATCH, "주문번호 또는 결제 금액이 올바르지 않습니다.");
+        }
+
+        String tid = "SIM" + LocalDateTime.now().format(EDI_DATE_FORMAT)
+                + String.format("%08d", tidSeq.incrementAndGet());
+        Transaction tx = new Transaction(tid, moid, parseAmount(amt), body.get("mbsReserved1"));
+        transactionsByTid.put(tid, tx);
+        tidByMoid.put(moid, tid);
+
+        Map<String, Object> result = result(SUCCESS, "인증 성공");
+        result.put("payMethod", "CARD");
+        result.put("tid", tid);
+        result.put("ordNo", moid);
+        result.put("amt", amt);
+        result.put("ediDate", ediDate);
+        result.put("mbsReserved", tx.mbsReserved);
+        return result;
+    }
+
+    private Map<String, Object> approve(Map<String, String> body) {
+        String mid = body.get("mid");
+        String goodsAmt = body.get("goodsAmt");
+        if (!options.getMid().equals(mid)) {
+            return result(INVALID_MID, "상점 ID 가 일치하지 않습니다.");
+        }
+        if (!hashMatches(body.get("encData"), mid + body.get("ediDate") + goodsAmt + options.getMerchantKey())) {
+            return result(HASH_MISMATCH, "요청 해시가 일치하지 않습니다.");
+        }
+        Transaction tx = body.get("tid") == null ? null : transactionsByTid.get(body.get("tid"));
+        if (tx == null) {
+            return result(UNKNOWN_TRANSACTION, "거래를 찾을 수 없습니다.");
+        }
+
+        boolean notify = false;
+        synchronized (tx) {
+            if (tx.amount != parseAmount(goodsAmt)) {
+                return result(AMOUNT_MISMATCH, "승인 금액이 인증 금액과 다릅니다.");
+            }
+            if (tx.state == TransactionState.AUTHORIZED) {
+                if (chance(options.getDeclineRate())) {
+                    tx.state = TransactionState.DECLINED;
+                    return result(DECLINED, "카드사 승인 거절 (모의)");
+                }
+                tx.state = TransactionState.APPROVED;
+                tx.appNo = String.format("%08d", ThreadLocalRandom.current().nextInt(100_000_000));
+                tx.appDtm = LocalDateTime.now().format(EDI_DATE_FORMAT);
+                notify = true;
+            } else if (tx.state != TransactionState.APPROVED) {
+                return result(INVALID_STATE, "승인할 수 없는 거래 상태입니다: " + tx.state);
+            }
+            // 이미 승인된 거래의 재승인 요청은 같은 결과를 돌려준다 (통지는 다시 보내지 않음)
+        }
+        if (notify) {
+            scheduleNotifications(tx);
+        }
+
+        String ediDate = LocalDateTime.now().format(EDI_DATE_FORMAT);
+        Map<String, Object> result = result(SUCCESS, "정상 승인");
+        result.put("payMethod", "CARD");
+        result.put("tid", tx.tid);
+        result.put("ordNo", tx.moid);
+        result.put("amt", String.valueOf(tx.amount));
+        result.put("appNo", tx.appNo);
+        result.put("appDtm", tx.appDtm);
+        result.put("ediDate", ediDate);
+        result.put("encData", sha256(mid + ediDate + tx.amount + options.getMerchantKey()));
+        result.put("mbsReserved", tx.mbsReserved);
+        return result;
+    }
+
+    private Map<String, Object> cancel(Map<String, String> body) {
+        String mid = body.get("mid");
+        String canAmt = body.get("canAmt");
+        if (!options.getMid().equals(mid)) {
+            return result(INVALID_MID, "상점 ID 가 일치하지 않습니다.");
+        }
+        if (!hashMatches(body.get("encData"), mid + body.get("ediDate") + canAmt + options.getMerchantKey())) {
+            return result(HASH_MISMATCH, "요청 해시가 일치하지 않습니다.");
+        }
+        Transaction tx = body.get("tid") == null ? null : transactionsByTid.get(body.get("tid"));
+        if (tx == null) {
+            return result(UNKNOWN_TRANSACTION, "거래를 찾을 수 없습니다.");
+        }
+
+        long cancelAmount = parseAmount(canAmt);
+        boolean partial = "1".equals(body.get("partCanFlg"));
+        boolean fullyCanceled;
+        synchronized (tx) {
+            if (tx.state != TransactionState.APPROVED && tx.state != TransactionState.PARTIAL_CANCELED) {
+                return result(INVALID_STATE, "취소할 수 없는 거래 상태입니다: " + tx.state);
+            }
+            long remaining = tx.amount - tx.canceledAmount;
+            if (cancelAmount <= 0 || cancelAmount > remaining) {
+                return result(AMOUNT_MISMATCH, "취소 가능 금액(" + remaining + ")을 넘었습니다.");
+            }
+            if (!partial && cancelAmount != remaining) {
+                return result(AMOUNT_MISMATCH, "전체 취소 금액이 취소 가능 금액(" + remaining + ")과 다릅니다.");
+            }
+            tx.canceledAmount += cancelAmount;
+            fullyCanceled = tx.canceledAmount == tx.amount;
+            tx.state = fullyCanceled ? TransactionState.CANCELED : TransactionState.PARTIAL_CANCELED;
+        }
+
+        Map<String, Object> result = fullyCanceled ? result(CANCEL_SUCCESS, "취소 성공")
+                : result(PARTIAL_CANCEL_SUCCESS, "부분 취소 성공");
+        result.put("payMethod", "CARD");
+        result.put("tid", tx.tid);
+        result.put("appDtm", LocalDateTime.now().format(EDI_DATE_FORMAT));
+        result.put("appNo", tx.appNo);
+        result.put("ordNo", tx.moid);
+        result.put("amt", canAmt);
+        result.put("cancelYN", "Y");
+        return result;
+    }
+
+    private Map<String, Object> query(Map<String, String> body) {
+        String mid = body.get("mid");
+        if (!options.getMid().equals(mid)) {
+            return result(INVALID_MID, "상점 ID 가 일치하지 않습니다.");
+        }
+        if (!hashMatches(body.get("encData"), mid + body.get("ediDate") + body.get("amt") + options.getMerchantKey())) {
+            return result(HASH_MISMATCH, "요청 해시가 일치하지 않습니다.");
+        }
+        String tid = body.get("tid");
+        if (tid == null && body.get("moid") != null) {
+            tid = tidByMoid.get(body.get("moid"));
+        }
+        Transaction tx = tid == null ? null : transactionsByTid.get(tid);
+        if (tx == null || tx.state == TransactionState.AUTHORIZED || tx.state == TransactionState.DECLINED) {
+            return result(UNKNOWN_TRANSACTION, "승인된 거래가 없습니다.");
+        }
+
+        String ediDate = LocalDateTime.now().format(EDI_DATE_FORMAT);
+        Map<String, Object> result = result(SUCCESS, "조회 성공");
+        synchronized (tx) {
+            result.put("payMethod", "CARD");
+            result.put("tid", tx.tid);
+            result.put("moid", tx.moid);
+            result.put("amt", String.valueOf(tx.amount));
+            result.put("appNo", tx.appNo);
+            result.put("appDtm", tx.appDtm);
+            result.put("cancelYN", tx.canceledAmount > 0 ? "Y" : "N");
+            result.put("cancelAmt", String.valueOf(tx.canceledAmount));
+        }
+        result.put("ediDate", ediDate);
+        result.put("encData", sha256(mid + tx.moid + tx.amount + ediDate + options.getMerchantKey()));
+        return result;
+    }
+
+    // ---------------------------------------------------------------- notifications
+
+    private void scheduleNotifications(Transaction tx) {
+        String notifyUrl = options.getNotifyUrl();
+        if (notifyUrl == null || notifyUrl.trim().isEmpty()) {
+            return;
+        }
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("mid", options.getMid());
+        form.put("tid", tx.tid);
+        form.put("moid", tx.moid);
+        form.put("amt", String.valueOf(tx.amount));
+        form.put("resultCode", SUCCESS);
+        form.put("resultMsg", "정상 승인");
+        form.put("payMethod", "CARD");
+        form.put("approveNo", tx.appNo);
+        form.put("cardQuota", "00");
+        form.put("encData", sha256(options.getMid() + tx.tid + tx.moid + tx.amount + options.getMerchantKey()));
+
+        long delay = randomBetween(options.getNotifyDelayMinMs(), options.getNotifyDelayMaxMs());
+        if (chance(options.getOutOfOrderRate())) {
+            // 늦게 보낸 통지는 이후 거래의 통지(및 자신의 중복 통지)보다 뒤에 도착한다
+            delay += options.getReorderDelayMs();
+            increment("notify.reordered");
+        }
+        scheduleDelivery(form, delay, 1);
+        if (chance(options.getDuplicateRate())) {
+            scheduleDelivery(form, randomBetween(options.getNotifyDelayMinMs(),
+                    options.getNotifyDelayMaxMs() + options.getReorderDelayMs()), 1);
+            increment("notify.duplicated");
+        }
+    }
+
+    private void scheduleDelivery(Map<String, String> form, long delayMs, int attempt) {
+        try {
+            notifier.schedule(() -> deliver(form, attempt), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            logger.debug("KISPG simulator notification for tid {} dropped: {}", form.get("tid"), e.getMessage());
+        }
+    }
+
+    private void deliver(Map<String, String> form, int attempt) {
+        String response = null;
+        try {
+            response = postForm(options.getNotifyUrl(), form);
+        } catch (IOException e) {
+            logger.debug("KISPG simulator notification for tid {} failed on attempt {}: {}", form.get("tid"), attempt,
+                    e.getMessage());
+        }
+        if (response != null && "OK".equals(response.trim())) {
+            increment("notify.delivered");
+        } else if (attempt < options.getNotifyMaxAttempts()) {
+            increment("notify.retried");
+            scheduleDelivery(form, options.getNotifyRetryDelayMs() * attempt, attempt + 1);
+        } else {
+            increment("notify.failed");
+            logger.warn("KISPG simulator gave up notifying tid {} (moid {}) after {} attempts. Last response: {}",
+                    form.get("tid"), form.get("moid"), attempt, response);
+        }
+    }
+
+    private String postForm(String url, Map<String, String> form) throws IOException {
+        StringBuilder encoded = new StringBuilder();
+        for (Map.Entry<String, String> entry : form.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+            if (encoded.length() > 0) {
+                encoded.append('&');
+            }
+            encoded.append(URLEncoder.encode(entry.getKey(), "UTF-8")).append('=')
+                    .append(URLEncoder.encode(entry.getValue(), "UTF-8"));
+        }
+        byte[] payload = encoded.toString().getBytes(StandardCharsets.UTF_8);
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setConnectTimeout(3000);
+            connection.setReadTimeout(10000);
+            connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(payload);
+            }
+            int status = connection.getResponseCode();
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            String body = in == null ? "" : readFully(in);
+            return status == 200 ? body : "HTTP " + status + " " + body;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    // ---------------------------------------------------------------- http plumbing
+
+    private void handle(HttpExchange exchange, String operation, boolean injectFaults,
+            Function<Map<String, String>, Map<String, Object>> handler) throws IOException {
+        try {
+            if (clientConnections.add(exchange.getRemoteAddress())) {
+                increment("http.connections");
+            }
+            if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                respond(exchange, 405, result(SIMULATED_ERROR, "POST only"));
+                return;
+            }
+            Map<String, String> body = readBody(exchange);
+            if (injectFaults) {
+                sleep(randomBetween(options.getLatencyMinMs(), options.getLatencyMaxMs()));
+                if (chance(options.getErrorRate())) {
+                    increment(operation + ".http_500");
+                    respond(exchange, 500, result(SIMULATED_ERROR, "모의 PG 내부 오류"));
+                    return;
+                }
+            }
+
+            Map<String, Object> result = handler.apply(body);
+            increment(operation + "." + result.get("resultCd"));
+
+            if (injectFaults && chance(options.getResponseLossRate())) {
+                // 처리는 끝났지만 호출 측은 read-timeout 으로 결과를 모르게 된다
+                increment(operation + ".response_lost");
+                sleep(options.getHangMs());
+            }
+            respond(exchange, 200, result);
+        } catch (RuntimeException e) {
+            logger.warn("KISPG simulator {} handler failed", operation, e);
+            respond(exchange, 500, result(SIMULATED_ERROR, e.getClass().getSimpleName() + ": " + e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try {
+            respond(exchange, 200, new LinkedHashMap<String, Object>(getStats()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        String raw = readFully(exchange.getRequestBody());
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        Map<String, String> body = new LinkedHashMap<>();
+        if (raw.trim().isEmpty()) {
+            return body;
+        }
+        if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+            for (String pair : raw.split("&")) {
+                int eq = pair.indexOf('=');
+                if (eq > 0) {
+                    body.put(URLDecoder.decode(pair.substring(0, eq), "UTF-8"),
+                            URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+                }
+            }
+            return body;
+        }
+        Map<String, Object> json = objectMapper.readValue(raw, new TypeReference<Map<String, Object>>() {
+        });
+        json.forEach((key, value) -> body.put(key, value == null ? null : String.valueOf(value)));
+        return body;
+    }
+
+    private void respond(HttpExchange exchange, int status, Map<String, Object> result) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(result);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        } catch (IOException e) {
+            // 응답 유실 시뮬레이션 등으로 호출 측이 먼저 끊은 경우
+            logger.debug("KISPG simulator could not write response: {}", e.getMessage());
+        }
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            buffer.write(chunk, 0, read);
+        }
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    // ---------------------------------------------------------------- helpers
+
+    private static Map<String, Object> result(String resultCd, String resultMsg) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("resultCd", resultCd);
+        result.put("resultMsg", resultMsg);
+        return result;
+    }
+
+    private static boolean hashMatches(String received, String raw) {
+        return received != null && received.equalsIgnoreCase(sha256(raw));
+    }
+
+    private static String sha256(String raw) {
+        return DigestUtils.sha256Hex(raw);
+    }
+
+    private static long parseAmount(String amt) {
+        try {
+            return amt == null ? -1 : Long.parseLong(amt.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static boolean chance(double rate) {
+        return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private static long randomBetween(long min, long max) {
+        return max <= min ? Math.max(min, 0) : ThreadLocalRandom.current().nextLong(min, max + 1);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void increment(String key) {
+        stats.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + seq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private enum TransactionState {
+        AUTHORIZED, DECLINED, APPROVED, PARTIAL_CANCELED, CANCELED
+    }
+
+    private static final class Transaction {
+        private final String tid;
+        private final String moid;
+        private final long amount;
+        private final String mbsReserved;
+        private TransactionState state = TransactionState.AUTHORIZED;
+        private long canceledAmount;
+        private String appNo;
+        private String appDtm;
+
+        Transaction(String tid, String moid, long amount, String mbsReserved) {
+            this.tid = tid;
+            this.moid = moid;
+            this.amount = amount;
+            this.mbsReserved = mbsReserved;
+        }
+    }
+
+    @Getter
+    @Builder
+    public static class Options {
+        @Builder.Default
+        private final int port = 18090; // 0 이면 빈 포트 자동 할당 (테스트용)
+        private final String mid;
+        private final String merchantKey;
+        private final String notifyUrl; // 비어 있으면 통지를 보내지 않음
+        @Builder.Default
+        private final int serverThreads = 32;
+        @Builder.Default
+        private final int notifyThreads = 4;
+        @Builder.Default
+        private final long latencyMinMs = 0;
+        @Builder.Default
+        private final long latencyMaxMs = 0;
+        @Builder.Default
+        private final double errorRate = 0;
+        @Builder.Default
+        private final double responseLossRate = 0;
+        @Builder.Default
+        private final long hangMs = 20000;
+        @Builder.Default
+        private final double declineRate = 0;
+        @Builder.Default
+        private final long notifyDelayMinMs = 0;
+        @Builder.Default
+        private final long notifyDelayMaxMs = 500;
+        @Builder.Default
+        private final double duplicateRate = 0;
+        @Builder.Default
+        private final double outOfOrderRate = 0;
+        @Builder.Default
+        private final long reorderDelayMs = 5000;
+        @Builder.Default
+        private final int notifyMaxAttempts = 3;
+        @Builder.Default
+        private final long notifyRetryDelayMs = 2000;
+    }
+}
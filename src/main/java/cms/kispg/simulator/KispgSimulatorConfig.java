@@ -0,0 +1,55 @@
+package cms.kispg.simulator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * 개발 환경에서 KISPG 모의 서버를 함께 띄운다. (kispg.simulator.enabled=true 일 때만)
+ * 애플리케이션이 모의 서버를 호출하도록 KISPG_URL 을 http://localhost:{kispg.simulator.port} 로 지정해야 한다.
+ */
+@Configuration
+@Profile("dev")
+@ConditionalOnProperty(name = "kispg.simulator.enabled", havingValue = "true")
+public class KispgSimulatorConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public KispgSimulator kispgSimulator(
+            @Value("${kispg.mid}") String mid,
+            @Value("${kispg.merchantKey}") String merchantKey,
+            @Value("${kispg.simulator.port:18090}") int port,
+            @Value("${kispg.simulator.notify-url:${app.api.base-url}/api/v1/kispg/payment-notification}") String notifyUrl,
+            @Value("${kispg.simulator.latency-min:0}") long latencyMinMs,
+            @Value("${kispg.simulator.latency-max:0}") long latencyMaxMs,
+            @Value("${kispg.simulator.error-rate:0}") double errorRate,
+            @Value("${kispg.simulator.response-loss-rate:0}") double responseLossRate,
+            @Value("${kispg.simulator.hang:20000}") long hangMs,
+            @Value("${kispg.simulator.decline-rate:0}") double declineRate,
+            @Value("${kispg.simulator.notify-delay-min:0}") long notifyDelayMinMs,
+            @Value("${kispg.simulator.notify-delay-max:500}") long notifyDelayMaxMs,
+            @Value("${kispg.simulator.duplicate-rate:0}") double duplicateRate,
+            @Value("${kispg.simulator.out-of-order-rate:0}") double outOfOrderRate,
+            @Value("${kispg.simulator.reorder-delay:5000}") long reorderDelayMs,
+            @Value("${kispg.simulator.notify-max-attempts:3}") int notifyMaxAttempts) {
+        return new KispgSimulator(KispgSimulator.Options.builder()
+                .port(port)
+                .mid(mid)
+                .merchantKey(merchantKey)
+                .notifyUrl(notifyUrl)
+                .latencyMinMs(latencyMinMs)
+                .latencyMaxMs(latencyMaxMs)
+                .errorRate(errorRate)
+                .responseLossRate(responseLossRate)
+                .hangMs(hangMs)
+                .declineRate(declineRate)
+                .notifyDelayMinMs(notifyDelayMinMs)
+                .notifyDelayMaxMs(notifyDelayMaxMs)
+                .duplicateRate(duplicateRate)
+                .outOfOrderRate(outOfOrderRate)
+                .reorderDelayMs(reorderDelayMs)
+                .notifyMaxAttempts(notifyMaxAttempts)
+                .build());
+    }
+}
@@ -0,0 +1,38 @@
+package cms.locker.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 사물함 사용 수량 보정 이력.
+ * 증감 카운터(locker_inventory.used_quantity)가 실제 배정 건수와 어긋나 동기화 작업이 보정한 경우 한 건씩 남긴다.
+ */
+@Entity
+@Table(name = "locker_usage_drift")
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class LockerUsageDrift {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "gender", nullable = false, length = 10)
+    private String gender;
+
+    @Column(name = "expected_quantity", nullable = false)
+    private int expectedQuantity;
+
+    @Column(name = "stored_quantity", nullable = false)
+    private int storedQuantity;
+
+    @Column(name = "delta", nullable = false)
+    private int delta;
+
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+}
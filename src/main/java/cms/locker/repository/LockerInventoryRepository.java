@@ -3,6 +3,9 @@ package cms.locker.repository;
 import cms.locker.domain.LockerInventory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.LockModeType;
@@ -10,7 +13,49 @@ import java.util.Optional;
 
 @Repository
 public interface LockerInventoryRepository extends JpaRepository<LockerInventory, String> {
-    // 성별(PK)로 LockerInventory 조회 시 비관적 쓰기 잠금 적용
+    // 성별(PK)로 LockerInventory 조회 시 비관적 쓰기 잠금 적용 (관리자 총 수량 변경용)
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<LockerInventory> findByGender(String gender);
-} 
\ No newline at end of file
+
+    /**
+     * 여유가 있을 때만 사용 수량 1 증가. 판정과 증가가 한 문장이므로 동시 배정에도 총 수량을 넘지 않는다.
+     *
+     * @return 1 이면 배정 성공, 0 이면 재고 없음 또는 해당 성별 재고 정보 없음
+     */
+    @Modifying
+    @Query(value = "UPDATE locker_inventory SET used_quantity = used_quantity + 1, updated_at = NOW() " +
+            "WHERE gender = :gender AND used_quantity < total_quantity", nativeQuery = true)
+    int incrementUsedQuantityIfAvailable(@Param("gender") String gender);
+
+    /**
+     * 사용 수량이 남아 있을 때만 1 감소.
+     *
+     * @return 1 이면 반납 성공, 0 이면 이미 0 이거나 해당 성별 재고 정보 없음
+     */
+    @Modifying
+    @Query(value = "UPDATE locker_inventory SET used_quantity = used_quantity - 1, updated_at = NOW() " +
+            "WHERE gender = :gender AND used_quantity > 0", nativeQuery = true)
+    int decrementUsedQuantityIfUsed(@Param("gender") String gender);
+
+    /**
+     * 사용 수량을 한 번에 count 만큼 감소 (0 미만으로 내려가지 않음). 강습 종료 일괄 반납용.
+     *
+     * @return 1 이면 반납 반영, 0 이면 이미 0 이거나 해당 성별 재고 정보 없음
+     */
+    @Modifying
+    @Query(value = "UPDATE locker_inventory SET used_quantity = GREATEST(used_quantity - :count, 0), updated_at = NOW() " +
+            "WHERE gender = :gender AND used_quantity > 0", nativeQuery = true)
+    int decrementUsedQuantityBy(@Param("gender") String gender, @Param("count") int count);
+
+    /**
+     * 사용 수량을 집계 값으로 직접 맞춘다 (정합성 동기화용).
+     * 읽은 시점의 값(observed)에서 바뀌지 않았을 때만 반영하므로, 그 사이의 배정/반납이나 관리자 총 수량 변경을 덮어쓰지 않는다.
+     *
+     * @return 1 이면 보정 반영, 0 이면 그 사이 값이 바뀌어 이번 동기화를 건너뜀
+     */
+    @Modifying
+    @Query(value = "UPDATE locker_inventory SET used_quantity = :usedQuantity, updated_at = NOW() " +
+            "WHERE gender = :gender AND used_quantity = :observed", nativeQuery = true)
+    int syncUsedQuantityIfUnchanged(@Param("gender") String gender, @Param("observed") int observed,
+            @Param("usedQuantity") int usedQuantity);
+}
@@ -0,0 +1,9 @@
+package cms.locker.repository;
+
+import cms.locker.domain.LockerUsageDrift;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LockerUsageDriftRepository extends JpaRepository<LockerUsageDrift, Long> {
+}
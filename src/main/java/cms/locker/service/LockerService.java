@@ -5,9 +5,20 @@ import cms.locker.dto.LockerAvailabilityDto;
 public interface LockerService {
     LockerAvailabilityDto getLockerAvailabilityByGender(String gender);
 
+    // 재고가 없으면 LOCKER_NOT_AVAILABLE 예외
     void incrementUsedQuantity(String gender);
 
-    void decrementUsedQuantity(String gender);
+    // 재고가 없으면 false (예외 없이 호출자가 사물함 없이 진행할 수 있음)
+    boolean tryIncrementUsedQuantity(String gender);
+
+    // 반납할 사용 수량이 없으면 false
+    boolean decrementUsedQuantity(String gender);
+
+    // count 개를 한 문장으로 반납 (강습 종료 일괄 반납). 반납할 사용 수량이 없으면 false
+    boolean releaseUsedQuantity(String gender, int count);
 
     void syncUsedQuantity(java.util.Map<String, Long> usageByGender);
-}
\ No newline at end of file
+
+    // 관리자 총 수량 변경 등 외부에서 재고를 바꾼 경우 가용 수량 캐시 무효화
+    void evictAvailabilityCache(String gender);
+}
@@ -1,8 +1,10 @@
 package cms.locker.service.impl;
 
 import cms.locker.domain.LockerInventory;
+import cms.locker.domain.LockerUsageDrift;
 import cms.locker.dto.LockerAvailabilityDto;
 import cms.locker.repository.LockerInventoryRepository;
+import cms.locker.repository.LockerUsageDriftRepository;
 import cms.locker.service.LockerService;
 import cms.common.exception.BusinessRuleException;
 import cms.common.exception.ErrorCode;
@@ -10,12 +12,25 @@ import cms.common.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 성별 사물함 재고 관리.
+ *
+ * 사용 수량 증감은 조건부 UPDATE 한 문장으로 처리하여 (읽기-판정-저장 없이) 동시 결제에도 총 수량을 넘지 않는다.
+ * 가용 수량 조회는 메모리 캐시로 응답하며, 재고가 바뀌면 즉시 그리고 트랜잭션 종료 후에 한 번 더 무효화한다.
+ * 다른 노드의 변경은 app.locker.availability-cache-ttl 이 지나면 반영된다.
+ */
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
@@ -23,55 +38,90 @@ public class LockerServiceImpl implements LockerService {
 
     private static final Logger logger = LoggerFactory.getLogger(LockerServiceImpl.class);
     private final LockerInventoryRepository lockerInventoryRepository;
+    private final LockerUsageDriftRepository lockerUsageDriftRepository;
+
+    private final ConcurrentHashMap<String, CachedAvailability> availabilityCache = new ConcurrentHashMap<>();
+    // 무효화 세대. 조회 도중 무효화되었으면 읽은 값을 캐시에 넣지 않는다.
+    private final AtomicLong cacheGeneration = new AtomicLong();
+
+    @Value("${app.locker.availability-cache-ttl:30000}")
+    private long availabilityCacheTtlMs;
 
     @Override
     public LockerAvailabilityDto getLockerAvailabilityByGender(String gender) {
-        LockerInventory inventory = lockerInventoryRepository.findByGender(gender.toUpperCase())
+        String normalizedGender = gender.toUpperCase();
+        CachedAvailability cached = availabilityCache.get(normalizedGender);
+        if (cached != null && System.currentTimeMillis() - cached.cachedAt <= availabilityCacheTtlMs) {
+            return cached.availability;
+        }
+
+        long generation = cacheGeneration.get();
+        LockerInventory inventory = lockerInventoryRepository.findById(normalizedGender)
                 .orElseThrow(() -> new ResourceNotFoundException("해당 성별의 사물함 재고 정보를 찾을 수 없습니다: " + gender,
                         ErrorCode.LOCKER_INVENTORY_NOT_FOUND));
 
-        return LockerAvailabilityDto.builder()
-                .gender(inventory.getGender())
-                .totalQuantity(inventory.getTotalQuantity())
-                .usedQuantity(inventory.getUsedQuantity())
-                .availableQuantity(inventory.getAvailableQuantity())
-                .build();
+        LockerAvailabilityDto availability = LockerAvailabilityDto.fromEntity(inventory);
+        if (cacheGeneration.get() == generation) {
+            availabilityCache.put(normalizedGender, new CachedAvailability(availability));
+        }
+        return availability;
     }
 
     @Override
     @Transactional // 쓰기 트랜잭션
     public void incrementUsedQuantity(String gender) {
-        LockerInventory inventory = lockerInventoryRepository.findByGender(gender.toUpperCase())
-                .orElseThrow(() -> new ResourceNotFoundException("해당 성별의 사물함 재고 정보를 찾을 수 없습니다: " + gender,
-                        ErrorCode.LOCKER_INVENTORY_NOT_FOUND));
-
-        if (inventory.getUsedQuantity() >= inventory.getTotalQuantity()) {
+        if (!tryIncrementUsedQuantity(gender)) {
+            if (!lockerInventoryRepository.existsById(gender.toUpperCase())) {
+                throw new ResourceNotFoundException("해당 성별의 사물함 재고 정보를 찾을 수 없습니다: " + gender,
+                        ErrorCode.LOCKER_INVENTORY_NOT_FOUND);
+            }
             throw new BusinessRuleException(ErrorCode.LOCKER_NOT_AVAILABLE, "해당 성별의 사용 가능한 사물함이 없습니다.");
         }
-
-        logger.info("Incrementing locker usage for gender: {}. Used: {}/{}",
-                gender, inventory.getUsedQuantity() + 1, inventory.getTotalQuantity());
-
-        inventory.setUsedQuantity(inventory.getUsedQuantity() + 1);
-        lockerInventoryRepository.save(inventory);
     }
 
     @Override
     @Transactional // 쓰기 트랜잭션
-    public void decrementUsedQuantity(String gender) {
-        LockerInventory inventory = lockerInventoryRepository.findByGender(gender.toUpperCase())
-                .orElseThrow(() -> new ResourceNotFoundException("해당 성별의 사물함 재고 정보를 찾을 수 없습니다: " + gender,
-                        ErrorCode.LOCKER_INVENTORY_NOT_FOUND));
-
-        if (inventory.getUsedQuantity() > 0) {
-            logger.info("Decrementing locker usage for gender: {}. Used: {}/{}",
-                    gender, inventory.getUsedQuantity() - 1, inventory.getTotalQuantity());
+    public boolean tryIncrementUsedQuantity(String gender) {
+        String normalizedGender = gender.toUpperCase();
+        boolean allocated = lockerInventoryRepository.incrementUsedQuantityIfAvailable(normalizedGender) > 0;
+        if (allocated) {
+            logger.info("Incremented locker usage for gender: {}", normalizedGender);
+            evictAvailabilityCache(normalizedGender);
+        } else {
+            logger.warn("No locker available (or inventory missing) for gender: {}", normalizedGender);
+        }
+        return allocated;
+    }
 
-            inventory.setUsedQuantity(inventory.getUsedQuantity() - 1);
-            lockerInventoryRepository.save(inventory);
+    @Override
+    @Transactional // 쓰기 트랜잭션
+    public boolean decrementUsedQuantity(String gender) {
+        String normalizedGender = gender.toUpperCase();
+        boolean released = lockerInventoryRepository.decrementUsedQuantityIfUsed(normalizedGender) > 0;
+        if (released) {
+            logger.info("Decremented locker usage for gender: {}", normalizedGender);
+            evictAvailabilityCache(normalizedGender);
         } else {
             logger.warn("Attempted to decrement locker usage for gender: {} but usedQuantity is already 0", gender);
         }
+        return released;
+    }
+
+    @Override
+    @Transactional // 쓰기 트랜잭션
+    public boolean releaseUsedQuantity(String gender, int count) {
+        if (count <= 0) {
+            return false;
+        }
+        String normalizedGender = gender.toUpperCase();
+        boolean released = lockerInventoryRepository.decrementUsedQuantityBy(normalizedGender, count) > 0;
+        if (released) {
+            logger.info("Released {} lockers for gender: {}", count, normalizedGender);
+            evictAvailabilityCache(normalizedGender);
+        } else {
+            logger.warn("Attempted to release {} lockers for gender: {} but usedQuantity is already 0", count, gender);
+        }
+        return released;
     }
 
     @Override
@@ -79,16 +129,31 @@ public class LockerServiceImpl implements LockerService {
     public void syncUsedQuantity(Map<String, Long> usageByGender) {
         List<LockerInventory> inventories = lockerInventoryRepository.findAll();
         logger.info("Starting locker usage synchronization. Found {} inventory types.", inventories.size());
+        LocalDateTime detectedAt = LocalDateTime.now();
 
         for (LockerInventory inventory : inventories) {
             String gender = inventory.getGender();
             int newUsage = usageByGender.getOrDefault(gender, 0L).intValue();
 
-            if (inventory.getUsedQuantity() != newUsage) {
+            int storedUsage = inventory.getUsedQuantity();
+            if (storedUsage != newUsage) {
+                if (lockerInventoryRepository.syncUsedQuantityIfUnchanged(gender, storedUsage, newUsage) == 0) {
+                    // 읽은 뒤 배정/반납이 끼어들었으면 다음 동기화에서 다시 비교한다
+                    logger.info("Locker usage for gender: {} changed during sync (was {}). Skipping this round.",
+                            gender, storedUsage);
+                    continue;
+                }
                 logger.info("Syncing locker usage for gender: {}. Old: {}, New: {}. Total: {}",
-                        gender, inventory.getUsedQuantity(), newUsage, inventory.getTotalQuantity());
-                inventory.setUsedQuantity(newUsage);
-                lockerInventoryRepository.save(inventory);
+                        gender, storedUsage, newUsage, inventory.getTotalQuantity());
+                // 증감 카운터가 어긋난 빈도를 추적하기 위해 보정 이력을 남긴다
+                lockerUsageDriftRepository.save(LockerUsageDrift.builder()
+                        .gender(gender)
+                        .expectedQuantity(newUsage)
+                        .storedQuantity(storedUsage)
+                        .delta(newUsage - storedUsage)
+                        .detectedAt(detectedAt)
+                        .build());
+                evictAvailabilityCache(gender);
             } else {
                 logger.info("Locker usage for gender: {} is already up-to-date. Used: {}, Total: {}",
                         gender, inventory.getUsedQuantity(), inventory.getTotalQuantity());
@@ -96,4 +161,30 @@ public class LockerServiceImpl implements LockerService {
         }
         logger.info("Finished locker usage synchronization.");
     }
-}
\ No newline at end of file
+
+    @Override
+    public void evictAvailabilityCache(String gender) {
+        String normalizedGender = gender.toUpperCase();
+        cacheGeneration.incrementAndGet();
+        availabilityCache.remove(normalizedGender);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 커밋(또는 롤백) 전에 다른 요청이 읽어 간 값이 남지 않도록 종료 후 한 번 더 무효화
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cacheGeneration.incrementAndGet();
+                    availabilityCache.remove(normalizedGender);
+                }
+            });
+        }
+    }
+
+    private static final class CachedAvailability {
+        private final LockerAvailabilityDto availability;
+        private final long cachedAt = System.currentTimeMillis();
+
+        CachedAvailability(LockerAvailabilityDto availability) {
+            this.availability = availability;
+        }
+    }
+}
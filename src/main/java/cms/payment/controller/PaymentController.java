@@ -1,8 +1,10 @@
 package cms.payment.controller;
 
 import cms.common.dto.ApiResponseSchema;
+import cms.common.service.IdempotentRequestExecutor;
 import cms.kispg.dto.KispgInitParamsDto;
 import cms.kispg.service.KispgPaymentService;
+import cms.enroll.service.EnrollmentWaitingRoom;
 import cms.user.domain.User;
 import cms.swimming.dto.EnrollRequestDto;
 import cms.mypage.dto.EnrollDto;
@@ -34,6 +36,8 @@ import cms.kispg.dto.KispgPaymentResultDto;
 public class PaymentController {
 
     private final KispgPaymentService kispgPaymentService;
+    private final EnrollmentWaitingRoom enrollmentWaitingRoom;
+    private final IdempotentRequestExecutor idempotentRequestExecutor;
     private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
 
     @GetMapping("/kispg-init-params/{enrollId}")
@@ -64,12 +68,14 @@ public class PaymentController {
     @SecurityRequirement(name = "bearerAuth")
     public ResponseEntity<ApiResponseSchema<KispgInitParamsDto>> prepareKispgPayment(
             @Valid @RequestBody EnrollRequestDto enrollRequest,
+            @RequestHeader(value = "X-Waiting-Room-Token", required = false) String waitingRoomToken,
             @AuthenticationPrincipal User currentUser,
             HttpServletRequest request) {
 
         String userIp = getClientIp(request);
-        KispgInitParamsDto initParams = kispgPaymentService.preparePaymentWithoutEnroll(enrollRequest, currentUser,
-                userIp);
+        KispgInitParamsDto initParams = enrollmentWaitingRoom.withAdmission(enrollRequest.getLessonId(), currentUser,
+                waitingRoomToken, () -> kispgPaymentService.preparePaymentWithoutEnroll(enrollRequest, currentUser,
+                        userIp));
 
         return ResponseEntity.ok(ApiResponseSchema.success(initParams, "KISPG 결제가 준비되었습니다."));
     }
@@ -190,6 +196,7 @@ public class PaymentController {
     @SecurityRequirement(name = "bearerAuth")
     public ResponseEntity<ApiResponseSchema<EnrollDto>> approveAndCreateEnrollment(
             @RequestBody PaymentApprovalRequestDto approvalRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @AuthenticationPrincipal User currentUser,
             HttpServletRequest request) {
 
@@ -203,9 +210,13 @@ public class PaymentController {
 
         try {
             String userIp = getClientIp(request);
-            EnrollDto enrollDto = kispgPaymentService.approvePaymentAndCreateEnrollment(
-                    approvalRequest,
-                    currentUser, userIp);
+            // 같은 결제(TID/MOID)에 대한 중복 승인 요청은 첫 요청의 결과를 그대로 받는다
+            IdempotentRequestExecutor.RequestKey requestKey = IdempotentRequestExecutor.keyOf("payment-approve", currentUser.getUuid(),
+                    idempotencyKey, approvalRequest.getTid(), approvalRequest.getMoid(), approvalRequest.getAmt());
+            EnrollDto enrollDto = idempotentRequestExecutor.execute(requestKey,
+                    () -> kispgPaymentService.approvePaymentAndCreateEnrollment(
+                            approvalRequest,
+                            currentUser, userIp));
 
             logger.info("✅ KISPG 결제 승인 및 수강 등록 성공 - EnrollID: {}", enrollDto.getEnrollId());
             return ResponseEntity.ok(ApiResponseSchema.success(enrollDto, "결제 승인 및 수강 등록이 완료되었습니다."));
@@ -0,0 +1,59 @@
+package cms.payment.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 일괄 환불 작업 항목. 작업 생성 시 계산한 환불액으로 수강신청 한 건을 환불한다.
+ */
+@Entity
+@Table(name = "bulk_refund_item")
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class BulkRefundItem {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "enroll_id", nullable = false)
+    private Long enrollId;
+
+    @Column(name = "payment_id")
+    private Long paymentId;
+
+    @Column(name = "refund_amount", nullable = false)
+    private int refundAmount;
+
+    @Column(name = "partial_refund", nullable = false)
+    private boolean partialRefund;
+
+    @Column(name = "used_days")
+    private Integer usedDays;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private BulkRefundItemStatus status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,9 @@
+package cms.payment.domain;
+
+public enum BulkRefundItemStatus {
+    PENDING,    // 처리 대기 (재시도 대기 포함)
+    PROCESSING, // 작업 스레드가 선점하여 처리 중
+    SUCCEEDED,  // 환불 및 수강신청 취소 완료
+    FAILED,     // 재시도 한도 초과 또는 재시도할 수 없는 오류
+    SKIPPED     // 작업 생성 시 환불 대상이 아니어서 제외
+}
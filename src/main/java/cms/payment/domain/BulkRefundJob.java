@@ -0,0 +1,51 @@
+package cms.payment.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 일괄 환불 작업. 대상별 진행 상태는 bulk_refund_item 에 남으므로 재기동 후에도 이어서 처리된다.
+ */
+@Entity
+@Table(name = "bulk_refund_job")
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class BulkRefundJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "lesson_id")
+    private Long lessonId;
+
+    @Column(name = "reason", nullable = false)
+    private String reason;
+
+    @Column(name = "full_refund", nullable = false)
+    private boolean fullRefund;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private BulkRefundJobStatus status;
+
+    @Column(name = "total_count", nullable = false)
+    private int totalCount;
+
+    @Column(name = "requested_by", length = 100)
+    private String requestedBy;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public void updateTotalCount(int totalCount) {
+        this.totalCount = totalCount;
+    }
+}
@@ -0,0 +1,6 @@
+package cms.payment.domain;
+
+public enum BulkRefundJobStatus {
+    RUNNING,   // 처리 대기 또는 처리 중인 항목이 남아 있음
+    COMPLETED  // 모든 항목이 성공/실패/제외로 끝남
+}
@@ -0,0 +1,66 @@
+package cms.payment.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * PG 취소(환불) 요청.
+ * PG 호출 전에 REQUESTED 로 기록하여 같은 결제에 대한 중복 취소를 막고,
+ * 호출 결과(성공/거절/응답 없음)와 결제 반영 여부를 남긴다.
+ */
+@Entity
+@Table(name = "payment_cancel_request")
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class PaymentCancelRequest {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+
+    @Column(name = "enroll_id", nullable = false)
+    private Long enrollId;
+
+    @Column(name = "tid", nullable = false, length = 100)
+    private String tid;
+
+    @Column(name = "cancel_amount", nullable = false)
+    private int cancelAmount;
+
+    @Column(name = "partial_cancel", nullable = false)
+    private boolean partialCancel;
+
+    @Column(name = "reason")
+    private String reason;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private PaymentCancelRequestStatus status;
+
+    @Column(name = "pg_result_code", length = 20)
+    private String pgResultCode;
+
+    @Column(name = "pg_result_msg", length = 500)
+    private String pgResultMsg;
+
+    @Column(name = "requested_at", nullable = false)
+    private LocalDateTime requestedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    public void finish(PaymentCancelRequestStatus status, String pgResultCode, String pgResultMsg) {
+        this.status = status;
+        this.pgResultCode = pgResultCode;
+        this.pgResultMsg = pgResultMsg != null && pgResultMsg.length() > 500 ? pgResultMsg.substring(0, 500)
+                : pgResultMsg;
+        this.completedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,9 @@
+package cms.payment.domain;
+
+public enum PaymentCancelRequestStatus {
+    REQUESTED,   // 기록 후 PG 취소 호출 전/중
+    SUCCEEDED,   // PG 취소 성공, 결제에 반영 완료
+    FAILED,      // PG 가 취소를 거절 (결제는 그대로)
+    UNKNOWN,     // PG 응답을 받지 못해 취소 여부 불명 (PG 조회/대사로 확인 필요)
+    APPLY_FAILED // PG 취소는 성공했으나 결제 반영 실패 (대사로 복구 필요)
+}
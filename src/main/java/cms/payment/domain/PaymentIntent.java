@@ -0,0 +1,113 @@
+package cms.payment.domain;
+
+import cms.enroll.domain.MembershipType;
+import cms.swimming.domain.Lesson;
+import cms.user.domain.User;
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 결제 의도. 결제창 진입 시 MOID 별로 한 행을 남긴다.
+ * 신청 전 결제(temp_ MOID)는 사용자/강습/사물함/회원 유형/요청 금액을 저장해 두고,
+ * 결제 통지와 승인 처리에서 MOID 문자열을 해석하거나 금액으로 사물함 사용을 추정하지 않고 그대로 사용한다.
+ * 기존 신청 결제(enroll_ MOID)는 enrollId 를 함께 저장하며, 통지가 유실된 주문을 PG 에 재조회하는 데 쓴다.
+ */
+@Entity
+@Table(name = "payment_intent")
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class PaymentIntent {
+
+    @Id
+    @Column(name = "moid", length = 100)
+    private String moid;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_uuid", referencedColumnName = "uuid", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "lesson_id", nullable = false)
+    private Lesson lesson;
+
+    @Column(name = "uses_locker", nullable = false)
+    private boolean usesLocker;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "membership_type", nullable = false, length = 50)
+    private MembershipType membershipType;
+
+    @Column(name = "expected_amount", nullable = false)
+    private int expectedAmount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private PaymentIntentStatus status;
+
+    @Column(name = "enroll_id")
+    private Long enrollId;
+
+    @Column(name = "created_ip", length = 45)
+    private String createdIp;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    // PG 승인 API 호출 시각. 응답을 받지 못한 승인은 이 시각 이후로 PG 재조회 결과를 기다린다
+    @Column(name = "approval_requested_at")
+    private LocalDateTime approvalRequestedAt;
+
+    @Column(name = "check_count", nullable = false)
+    private int checkCount;
+
+    @Column(name = "last_checked_at")
+    private LocalDateTime lastCheckedAt;
+
+    @Column(name = "status_note", length = 500)
+    private String statusNote;
+
+    public boolean isCompleted() {
+        return status == PaymentIntentStatus.COMPLETED;
+    }
+
+    public void complete(Long enrollId) {
+        this.status = PaymentIntentStatus.COMPLETED;
+        this.enrollId = enrollId;
+        this.completedAt = LocalDateTime.now();
+    }
+
+    public boolean isPending() {
+        return status == PaymentIntentStatus.PENDING;
+    }
+
+    public void markApprovalRequested() {
+        this.approvalRequestedAt = LocalDateTime.now();
+    }
+
+    public void recordCheck(String note) {
+        this.checkCount++;
+        this.lastCheckedAt = LocalDateTime.now();
+        this.statusNote = truncate(note);
+    }
+
+    public void expire(String note) {
+        recordCheck(note);
+        this.status = PaymentIntentStatus.EXPIRED;
+    }
+
+    public void flag(String note) {
+        recordCheck(note);
+        this.status = PaymentIntentStatus.FLAGGED;
+    }
+
+    private static String truncate(String note) {
+        return note != null && note.length() > 500 ? note.substring(0, 500) : note;
+    }
+}
@@ -0,0 +1,8 @@
+package cms.payment.domain;
+
+public enum PaymentIntentStatus {
+    PENDING,   // 결제창 진입, 아직 결제 결과 미반영
+    COMPLETED, // 결제 승인/통지로 수강신청 생성(또는 결제 반영) 완료
+    EXPIRED,   // PG 에 거래가 없는 채로 결제 가능 시간이 지남
+    FLAGGED    // PG 조회 결과를 자동 반영할 수 없어 관리자 확인 필요
+}
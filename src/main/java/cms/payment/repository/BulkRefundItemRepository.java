@@ -0,0 +1,72 @@
+package cms.payment.repository;
+
+import cms.payment.domain.BulkRefundItem;
+import cms.payment.domain.BulkRefundItemStatus;
+import cms.payment.domain.BulkRefundJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BulkRefundItemRepository extends JpaRepository<BulkRefundItem, Long> {
+
+    List<BulkRefundItem> findByJobIdOrderByIdAsc(Long jobId);
+
+    boolean existsByJobIdAndStatusIn(Long jobId, Collection<BulkRefundItemStatus> statuses);
+
+    // 작업 진행 현황 (상태별 항목 수)
+    @Query("SELECT i.status, COUNT(i) FROM BulkRefundItem i WHERE i.jobId = :jobId GROUP BY i.status")
+    List<Object[]> countByStatus(@Param("jobId") Long jobId);
+
+    // 진행 중인 작업에서 아직 끝나지 않은 항목이 있는 신청 (작업 생성 시 중복 확인)
+    @Query("SELECT DISTINCT i.jobId FROM BulkRefundItem i WHERE i.enrollId IN :enrollIds AND i.status IN :statuses " +
+            "AND i.jobId IN (SELECT j.id FROM BulkRefundJob j WHERE j.status = :jobStatus)")
+    List<Long> findJobIdsWithOpenItems(@Param("enrollIds") Collection<Long> enrollIds,
+            @Param("statuses") Collection<BulkRefundItemStatus> statuses,
+            @Param("jobStatus") BulkRefundJobStatus jobStatus);
+
+    // 처리 시각이 된 대기 항목 (오래된 순)
+    @Query("SELECT i.id FROM BulkRefundItem i WHERE i.status = :status AND i.nextAttemptAt <= :now ORDER BY i.id ASC")
+    List<Long> findDueIds(@Param("status") BulkRefundItemStatus status, @Param("now") LocalDateTime now,
+            Pageable pageable);
+
+    /**
+     * 대기 항목을 처리 중으로 선점. 여러 노드/스레드가 같은 항목을 잡아도 한 곳만 1 을 받는다.
+     */
+    @Modifying
+    @Query("UPDATE BulkRefundItem i SET i.status = :processing, i.attempts = i.attempts + 1, i.updatedAt = :now " +
+            "WHERE i.id = :id AND i.status = :pending AND i.nextAttemptAt <= :now AND i.attempts < :maxAttempts")
+    int claim(@Param("id") Long id, @Param("pending") BulkRefundItemStatus pending,
+            @Param("processing") BulkRefundItemStatus processing, @Param("now") LocalDateTime now,
+            @Param("maxAttempts") int maxAttempts);
+
+    // 처리 중 중단이 반복되어 시도 횟수를 다 쓴 대기 항목을 실패로 종료 (작업이 끝나지 않고 남지 않도록)
+    @Modifying
+    @Query("UPDATE BulkRefundItem i SET i.status = :failed, i.lastError = :lastError, i.processedAt = :now, " +
+            "i.updatedAt = :now WHERE i.status = :pending AND i.attempts >= :maxAttempts")
+    int failExhausted(@Param("pending") BulkRefundItemStatus pending, @Param("failed") BulkRefundItemStatus failed,
+            @Param("maxAttempts") int maxAttempts, @Param("lastError") String lastError,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE BulkRefundItem i SET i.status = :status, i.lastError = :lastError, i.nextAttemptAt = :nextAttemptAt, " +
+            "i.processedAt = :processedAt, i.updatedAt = :now WHERE i.id = :id")
+    int updateResult(@Param("id") Long id, @Param("status") BulkRefundItemStatus status,
+            @Param("lastError") String lastError, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+            @Param("processedAt") LocalDateTime processedAt, @Param("now") LocalDateTime now);
+
+    // 처리 중 노드가 죽어 오래 PROCESSING 으로 남은 항목을 다시 대기로 돌림
+    @Modifying
+    @Query("UPDATE BulkRefundItem i SET i.status = :pending, i.nextAttemptAt = :now, i.updatedAt = :now " +
+            "WHERE i.status = :processing AND i.updatedAt < :staleBefore")
+    int releaseStale(@Param("pending") BulkRefundItemStatus pending,
+            @Param("processing") BulkRefundItemStatus processing, @Param("staleBefore") LocalDateTime staleBefore,
+            @Param("now") LocalDateTime now);
+}
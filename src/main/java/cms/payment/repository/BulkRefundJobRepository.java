@@ -0,0 +1,29 @@
+package cms.payment.repository;
+
+import cms.payment.domain.BulkRefundJob;
+import cms.payment.domain.BulkRefundJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BulkRefundJobRepository extends JpaRepository<BulkRefundJob, Long> {
+
+    @Query("SELECT j.id FROM BulkRefundJob j WHERE j.status = :status")
+    List<Long> findIdsByStatus(@Param("status") BulkRefundJobStatus status);
+
+    @Query("SELECT j.id FROM BulkRefundJob j WHERE j.lessonId = :lessonId AND j.status = :status")
+    List<Long> findIdsByLessonIdAndStatus(@Param("lessonId") Long lessonId,
+            @Param("status") BulkRefundJobStatus status);
+
+    @Modifying
+    @Query("UPDATE BulkRefundJob j SET j.status = :completed, j.finishedAt = :now " +
+            "WHERE j.id = :id AND j.status = :running")
+    int markCompleted(@Param("id") Long id, @Param("running") BulkRefundJobStatus running,
+            @Param("completed") BulkRefundJobStatus completed, @Param("now") LocalDateTime now);
+}
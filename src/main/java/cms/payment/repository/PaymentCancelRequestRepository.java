@@ -0,0 +1,29 @@
+package cms.payment.repository;
+
+import cms.payment.domain.PaymentCancelRequest;
+import cms.payment.domain.PaymentCancelRequestStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PaymentCancelRequestRepository extends JpaRepository<PaymentCancelRequest, Long> {
+
+    // 진행 중이거나 결과가 불명한 취소 요청이 있으면 같은 결제를 다시 취소하지 않는다
+    boolean existsByPaymentIdAndStatusIn(Long paymentId, Collection<PaymentCancelRequestStatus> statuses);
+
+    // PG 조회로 확정할 취소 요청: UNKNOWN 전부와 staleBefore 이전에 기록된 채 남은 REQUESTED (id 키셋 페이지)
+    @Query("SELECT r FROM PaymentCancelRequest r WHERE r.id > :afterId AND (r.status = :unknown " +
+            "OR (r.status = :requested AND r.requestedAt < :staleBefore)) ORDER BY r.id")
+    List<PaymentCancelRequest> findUnresolved(@Param("unknown") PaymentCancelRequestStatus unknown,
+            @Param("requested") PaymentCancelRequestStatus requested,
+            @Param("staleBefore") LocalDateTime staleBefore,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+}
@@ -0,0 +1,38 @@
+package cms.payment.repository;
+
+import cms.payment.domain.PaymentIntent;
+import cms.payment.domain.PaymentIntentStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentIntentRepository extends JpaRepository<PaymentIntent, String> {
+
+    // 결제 통지와 승인 처리가 동시에 같은 MOID 로 수강신청을 만들지 않도록 행 잠금 후 상태 확인
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM PaymentIntent p WHERE p.moid = :moid")
+    Optional<PaymentIntent> findForUpdate(@Param("moid") String moid);
+
+    // PG 상태 재조회 대상: 기간 내 진입한 주문을 moid 키셋으로 페이지 조회
+    @Query("SELECT p FROM PaymentIntent p WHERE p.status = :status " +
+            "AND p.createdAt >= :createdFrom AND p.createdAt < :createdTo AND p.moid > :afterMoid " +
+            "ORDER BY p.moid")
+    List<PaymentIntent> findReconcileCandidates(@Param("status") PaymentIntentStatus status,
+            @Param("createdFrom") LocalDateTime createdFrom,
+            @Param("createdTo") LocalDateTime createdTo,
+            @Param("afterMoid") String afterMoid,
+            Pageable pageable);
+
+    // 만료 대상 신청 중 PG 재조회를 기다리는 결제 의도 (ExpiredUnpaidEnrollmentCleanupJob)
+    List<PaymentIntent> findByEnrollIdInAndStatus(Collection<Long> enrollIds, PaymentIntentStatus status);
+}
@@ -4,10 +4,15 @@ import cms.payment.domain.Payment;
 import cms.payment.domain.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import cms.enroll.domain.Enroll;
 import java.util.Optional;
+import javax.persistence.LockModeType;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long>, JpaSpecificationExecutor<Payment> {
@@ -22,6 +27,24 @@ public interface PaymentRepository extends JpaRepository<Payment, Long>, JpaSpec
 
     Optional<Payment> findByMoid(String moid);
 
+    // 취소 요청 기록 시 같은 결제에 대한 동시 취소를 막기 위한 행 잠금
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> findByIdForUpdate(@Param("id") Long id);
+
+    // 대사(reconciliation) 청크 단위 일괄 조회
+    List<Payment> findByTidIn(Collection<String> tids);
+
+    List<Payment> findByMoidIn(Collection<String> moids);
+
+    // 일괄 환불 대상 신청들의 결제를 한 번에 조회
+    List<Payment> findByEnroll_EnrollIdIn(Collection<Long> enrollIds);
+
+    // 신청별 최신 결제 (목록 한 페이지분을 한 번에, 생성 시각이 같은 결제가 있으면 여러 건이 올 수 있음)
+    @Query("SELECT p FROM Payment p WHERE p.enroll.enrollId IN :enrollIds AND p.createdAt = " +
+            "(SELECT MAX(p2.createdAt) FROM Payment p2 WHERE p2.enroll.enrollId = p.enroll.enrollId)")
+    List<Payment> findLatestByEnrollIds(@Param("enrollIds") Collection<Long> enrollIds);
+
     long countByEnrollEnrollId(Long enrollId);
 
     // Status-based queries
@@ -5,6 +5,7 @@ import cms.user.domain.User; // User 엔티티 필요 시 (현재는 enrollId로
 import cms.kispg.dto.KispgCancelResponseDto;
 import cms.kispg.dto.KispgNotificationRequest;
 import cms.payment.domain.Payment;
+import cms.payment.domain.PaymentCancelRequestStatus;
 
 public interface PaymentService {
     PaymentPageDetailsDto getPaymentPageDetails(Long enrollId, User currentUser); // 사용자 권한 검증 등을 위해 User 추가
@@ -14,5 +15,8 @@ public interface PaymentService {
 
     KispgCancelResponseDto requestCancelPayment(Long paymentId, int cancelAmount, String reason, boolean isPartial);
 
+    // 결과가 불명한 취소 요청(REQUESTED/UNKNOWN)을 PG 조회로 확정. 확정하지 못하면 현재 상태를 그대로 반환
+    PaymentCancelRequestStatus resolveCancelRequest(Long requestId);
+
     Payment createPaymentFromWebhook(KispgNotificationRequest notification);
 }
\ No newline at end of file
@@ -12,20 +12,33 @@ import cms.user.domain.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
 import cms.common.exception.BusinessRuleException; // 접근 권한 예외를 위해 추가
 import java.time.LocalDateTime; // enroll.getExpireDt() 타입 호환용
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import cms.payment.domain.Payment;
+import cms.payment.domain.PaymentCancelRequest;
+import cms.payment.domain.PaymentCancelRequestStatus;
+import cms.payment.repository.PaymentCancelRequestRepository;
 import cms.payment.repository.PaymentRepository;
 import cms.kispg.service.KispgPaymentService;
+import cms.admin.payment.dto.KispgQueryRequestDto;
 import cms.kispg.dto.KispgCancelResponseDto;
 import cms.payment.domain.PaymentStatus;
 import cms.kispg.dto.KispgNotificationRequest;
 import cms.swimming.repository.LessonRepository;
+import cms.swimming.domain.LessonSeatLedger.SeatState;
+import cms.swimming.service.LessonSeatLedgerService;
 import cms.user.repository.UserRepository;
 
 @Service
@@ -38,11 +51,22 @@ public class PaymentServiceImpl implements PaymentService {
     private final KispgPaymentService kispgPaymentService;
     private final LessonRepository lessonRepository;
     private final UserRepository userRepository;
+    private final LessonSeatLedgerService lessonSeatLedgerService;
+    private final PaymentCancelRequestRepository paymentCancelRequestRepository;
+    private final PlatformTransactionManager transactionManager;
     private static final Logger logger = LoggerFactory.getLogger(PaymentServiceImpl.class);
 
     @Value("${app.locker.fee:5000}") // Default to 5000 if not set
     private int lockerFeeConfig;
 
+    // PG 호출 전후의 짧은 트랜잭션용
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public PaymentPageDetailsDto getPaymentPageDetails(Long enrollId, User currentUser) {
@@ -156,13 +180,68 @@ public class PaymentServiceImpl implements PaymentService {
         enrollRepository.save(enroll);
     }
 
+    /**
+     * PG 취소를 세 단계로 나누어 처리합니다. PG 왕복 동안 DB 커넥션과 행 잠금을 잡고 있지 않도록
+     * 이 메소드 자체는 트랜잭션 없이 실행됩니다 (호출자 트랜잭션도 중단됨).
+     * 1. 짧은 트랜잭션: 결제 행을 잠그고 검증한 뒤 취소 요청(REQUESTED)을 기록
+     * 2. 트랜잭션 밖: KISPG 취소 API 호출
+     * 3. 짧은 트랜잭션: 결과를 결제에 반영하고 요청을 SUCCEEDED 로 종료.
+     *    PG 거절은 FAILED, 응답 없음은 UNKNOWN, PG 취소 후 반영 실패는 APPLY_FAILED 로 남긴다 (보상 단계).
+     */
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public KispgCancelResponseDto requestCancelPayment(Long paymentId, int cancelAmount, String reason,
             boolean isPartial) {
         logger.info("결제 취소 요청 처리 시작 (Payment ID: {}, 금액: {}, 부분환불: {})", paymentId, cancelAmount, isPartial);
 
-        Payment payment = paymentRepository.findById(paymentId)
+        // 1. 취소 요청 기록
+        CancelTarget target = transactionTemplate.execute(status -> recordCancelRequest(paymentId, cancelAmount,
+                reason, isPartial));
+
+        // 2. PG사 취소 API 호출 (트랜잭션 밖)
+        KispgCancelResponseDto cancelResponse;
+        try {
+            cancelResponse = kispgPaymentService.cancelPayment(target.tid, target.moid, target.payMethod,
+                    cancelAmount, reason, isPartial);
+        } catch (RuntimeException e) {
+            // 응답을 받지 못한 경우 PG 에서 취소되었을 수 있으므로 재시도를 막고 확인 대상으로 남긴다
+            PaymentCancelRequestStatus outcome = e instanceof BusinessRuleException
+                    && ((BusinessRuleException) e).getErrorCode() == ErrorCode.PAYMENT_GATEWAY_ERROR
+                            ? PaymentCancelRequestStatus.UNKNOWN
+                            : PaymentCancelRequestStatus.FAILED;
+            finishCancelRequest(target.requestId, outcome, null, e.getMessage());
+            throw e;
+        }
+
+        if (!isCancelSuccess(cancelResponse.getResultCd())) {
+            // PG사 취소 실패 시 BusinessRuleException 발생
+            logger.error("PG사 결제 취소 실패: [Code: {}, Msg: {}]", cancelResponse.getResultCd(),
+                    cancelResponse.getResultMsg());
+            finishCancelRequest(target.requestId, PaymentCancelRequestStatus.FAILED, cancelResponse.getResultCd(),
+                    cancelResponse.getResultMsg());
+            throw new BusinessRuleException(ErrorCode.PAYMENT_CANCEL_FAILED,
+                    "PG사 결제 취소 실패: " + cancelResponse.getResultMsg());
+        }
+
+        // 3. PG사 취소 성공 시, Payment 상태 업데이트
+        try {
+            transactionTemplate.execute(status -> {
+                applyCancelResult(target.requestId, paymentId, cancelAmount, cancelResponse.getResultCd(),
+                        cancelResponse.getResultMsg());
+                return null;
+            });
+        } catch (RuntimeException e) {
+            logger.error("PG사 환불은 성공했으나 결제 반영 실패 (Payment ID: {}, TID: {}). 대사로 복구가 필요합니다.",
+                    paymentId, target.tid, e);
+            finishCancelRequest(target.requestId, PaymentCancelRequestStatus.APPLY_FAILED,
+                    cancelResponse.getResultCd(), e.getMessage());
+            throw e;
+        }
+        return cancelResponse;
+    }
+
+    private CancelTarget recordCancelRequest(Long paymentId, int cancelAmount, String reason, boolean isPartial) {
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
                 .orElseThrow(() -> new ResourceNotFoundException("취소할 결제 정보를 찾을 수 없습니다: " + paymentId,
                         ErrorCode.PAYMENT_INFO_NOT_FOUND));
 
@@ -180,39 +259,176 @@ public class PaymentServiceImpl implements PaymentService {
             throw new BusinessRuleException(ErrorCode.PAYMENT_CANCEL_NOT_ALLOWED, "결제수단(payMethod) 정보가 없어 취소할 수 없습니다.");
         }
 
-        // 1. PG사 취소 API 호출
-        KispgCancelResponseDto cancelResponse = kispgPaymentService.cancelPayment(payment.getTid(), moid,
-                payMethod.toLowerCase(), cancelAmount,
-                reason, isPartial);
-
-        // 2. PG사 취소 성공 시, Payment 상태 업데이트
-        if ("2001".equals(cancelResponse.getResultCd())) {
-            logger.info("PG사 환불 성공. Payment 상태 업데이트 (Payment ID: {}, 금액: {}, 부분환불: {})", paymentId, cancelAmount,
-                    isPartial);
-            int totalPaidAmount = payment.getPaidAmt() != null ? payment.getPaidAmt() : 0;
-            int newRefundedAmount = (payment.getRefundedAmt() == null ? 0 : payment.getRefundedAmt()) + cancelAmount;
-
-            payment.setRefundedAmt(newRefundedAmount);
-            payment.setRefundDt(LocalDateTime.now());
-            payment.setPgResultCode(cancelResponse.getResultCd());
-            payment.setPgResultMsg(cancelResponse.getResultMsg());
-
-            // 전액 환불되었는지, 부분 환불인지에 따라 상태 변경
-            if (newRefundedAmount >= totalPaidAmount) {
-                payment.setStatus(PaymentStatus.CANCELED);
-            } else {
-                payment.setStatus(PaymentStatus.PARTIAL_REFUNDED);
+        if (payment.getStatus() == PaymentStatus.CANCELED) {
+            throw new BusinessRuleException(ErrorCode.PAYMENT_ALREADY_PROCESSED, "이미 취소된 결제입니다: " + paymentId);
+        }
+        int paidAmount = payment.getPaidAmt() != null ? payment.getPaidAmt() : 0;
+        int refundedAmount = payment.getRefundedAmt() != null ? payment.getRefundedAmt() : 0;
+        if (cancelAmount <= 0 || refundedAmount + cancelAmount > paidAmount) {
+            throw new BusinessRuleException(ErrorCode.PAYMENT_CANCEL_NOT_ALLOWED,
+                    "취소 가능 금액을 초과했습니다. 결제: " + paidAmount + ", 기환불: " + refundedAmount + ", 요청: " + cancelAmount);
+        }
+        if (paymentCancelRequestRepository.existsByPaymentIdAndStatusIn(paymentId, Arrays.asList(
+                PaymentCancelRequestStatus.REQUESTED, PaymentCancelRequestStatus.UNKNOWN))) {
+            throw new BusinessRuleException(ErrorCode.PAYMENT_ALREADY_PROCESSED,
+                    "처리 중이거나 결과 확인이 필요한 취소 요청이 있습니다: " + paymentId);
+        }
+
+        PaymentCancelRequest request = paymentCancelRequestRepository.save(PaymentCancelRequest.builder()
+                .paymentId(paymentId)
+                .enrollId(payment.getEnroll().getEnrollId())
+                .tid(payment.getTid())
+                .cancelAmount(cancelAmount)
+                .partialCancel(isPartial)
+                .reason(reason)
+                .status(PaymentCancelRequestStatus.REQUESTED)
+                .requestedAt(LocalDateTime.now())
+                .build());
+        return new CancelTarget(request.getId(), payment.getTid(), moid, payMethod.toLowerCase());
+    }
+
+    /**
+     * REQUESTED/UNKNOWN 으로 남은 취소 요청을 TID 로 PG 에 조회해 확정합니다 (PaymentCancelRequestResolveJob).
+     * PG 누적 취소 금액이 기환불 금액 + 요청 금액에 이르면 결제에 반영하고 SUCCEEDED, 기환불 금액 그대로면 FAILED.
+     * 그 사이 금액이거나 PG 조회가 실패하면 상태를 바꾸지 않습니다 (조회 예외는 호출자에게 전달).
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PaymentCancelRequestStatus resolveCancelRequest(Long requestId) {
+        KispgQueryRequestDto query = transactionTemplate.execute(status -> {
+            PaymentCancelRequest request = paymentCancelRequestRepository.findById(requestId).orElse(null);
+            if (request == null || !isUnresolved(request.getStatus())) {
+                return null;
+            }
+            Payment payment = paymentRepository.findById(request.getPaymentId()).orElse(null);
+            if (payment == null) {
+                return null;
+            }
+            KispgQueryRequestDto dto = new KispgQueryRequestDto();
+            dto.setTid(request.getTid());
+            dto.setAmt(String.valueOf(payment.getPaidAmt() != null ? payment.getPaidAmt() : 0));
+            return dto;
+        });
+        if (query == null) {
+            return null;
+        }
+
+        // PG 조회 (트랜잭션 밖)
+        Map<String, Object> response = kispgPaymentService.queryTransactionAtPg(query);
+        long pgCanceledAmount = canceledAmountAtPg(response);
+
+        return transactionTemplate.execute(status -> {
+            PaymentCancelRequest request = paymentCancelRequestRepository.findById(requestId).orElse(null);
+            if (request == null || !isUnresolved(request.getStatus())) {
+                return request != null ? request.getStatus() : null;
+            }
+            Payment payment = paymentRepository.findByIdForUpdate(request.getPaymentId()).orElse(null);
+            if (payment == null) {
+                return request.getStatus();
+            }
+            int refundedAmount = payment.getRefundedAmt() != null ? payment.getRefundedAmt() : 0;
+            String resultMsg = "PG 조회로 확정 (PG 누적 취소 " + pgCanceledAmount + "원)";
+            if (pgCanceledAmount >= refundedAmount + request.getCancelAmount()) {
+                applyCancelResult(requestId, payment.getId(), request.getCancelAmount(),
+                        asString(response.get("resultCd")), resultMsg);
+                logger.info("취소 요청(ID: {}) PG 취소 확인, 결제(ID: {})에 반영", requestId, payment.getId());
+                return PaymentCancelRequestStatus.SUCCEEDED;
+            }
+            if (pgCanceledAmount <= refundedAmount) {
+                request.finish(PaymentCancelRequestStatus.FAILED, asString(response.get("resultCd")), resultMsg);
+                logger.info("취소 요청(ID: {}) PG 에서 취소되지 않음, FAILED 로 종료", requestId);
+                return PaymentCancelRequestStatus.FAILED;
+            }
+            logger.warn("취소 요청(ID: {}) PG 누적 취소 {}원이 요청 금액과 맞지 않아 확정하지 못함 (기환불: {}, 요청: {})",
+                    requestId, pgCanceledAmount, refundedAmount, request.getCancelAmount());
+            return request.getStatus();
+        });
+    }
+
+    // 취소 API 성공 코드: 2001 전체취소, 2002 부분취소
+    private static boolean isCancelSuccess(String resultCd) {
+        return "2001".equals(resultCd) || "2002".equals(resultCd);
+    }
+
+    private static boolean isUnresolved(PaymentCancelRequestStatus status) {
+        return status == PaymentCancelRequestStatus.REQUESTED || status == PaymentCancelRequestStatus.UNKNOWN;
+    }
+
+    // 조회 응답의 누적 취소 금액. cancelAmt 가 없으면 cancelYN 으로 전액/0 을 판단
+    private static long canceledAmountAtPg(Map<String, Object> response) {
+        String cancelAmt = asString(response.get("cancelAmt"));
+        if (cancelAmt != null && !cancelAmt.trim().isEmpty()) {
+            try {
+                return Math.abs(Long.parseLong(cancelAmt.trim().replace(",", "")));
+            } catch (NumberFormatException e) {
+                logger.warn("PG 조회 응답의 취소 금액을 해석할 수 없습니다: {}", cancelAmt);
+            }
+        }
+        if ("Y".equalsIgnoreCase(asString(response.get("cancelYN")))) {
+            try {
+                return Long.parseLong(asString(response.get("amt")));
+            } catch (NumberFormatException e) {
+                return 0;
             }
-            paymentRepository.save(payment);
+        }
+        return 0;
+    }
+
+    private static String asString(Object value) {
+        return value == null ? null : String.valueOf(value);
+    }
+
+    private void applyCancelResult(Long requestId, Long paymentId, int cancelAmount, String resultCd,
+            String resultMsg) {
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
+                .orElseThrow(() -> new ResourceNotFoundException("취소할 결제 정보를 찾을 수 없습니다: " + paymentId,
+                        ErrorCode.PAYMENT_INFO_NOT_FOUND));
+        logger.info("PG사 환불 성공. Payment 상태 업데이트 (Payment ID: {}, 금액: {})", paymentId, cancelAmount);
+        int totalPaidAmount = payment.getPaidAmt() != null ? payment.getPaidAmt() : 0;
+        int newRefundedAmount = (payment.getRefundedAmt() == null ? 0 : payment.getRefundedAmt()) + cancelAmount;
+
+        payment.setRefundedAmt(newRefundedAmount);
+        payment.setRefundDt(LocalDateTime.now());
+        payment.setPgResultCode(resultCd);
+        payment.setPgResultMsg(resultMsg);
+
+        // 전액 환불되었는지, 부분 환불인지에 따라 상태 변경
+        if (newRefundedAmount >= totalPaidAmount) {
+            payment.setStatus(PaymentStatus.CANCELED);
         } else {
-            // PG사 취소 실패 시 BusinessRuleException 발생
-            logger.error("PG사 결제 취소 실패: [Code: {}, Msg: {}]", cancelResponse.getResultCd(),
-                    cancelResponse.getResultMsg());
-            throw new BusinessRuleException(ErrorCode.PAYMENT_CANCEL_FAILED,
-                    "PG사 결제 취소 실패: " + cancelResponse.getResultMsg());
+            payment.setStatus(PaymentStatus.PARTIAL_REFUNDED);
         }
+        paymentRepository.save(payment);
 
-        return cancelResponse;
+        paymentCancelRequestRepository.findById(requestId).ifPresent(request -> request.finish(
+                PaymentCancelRequestStatus.SUCCEEDED, resultCd, resultMsg));
+    }
+
+    private void finishCancelRequest(Long requestId, PaymentCancelRequestStatus outcome, String resultCode,
+            String resultMsg) {
+        try {
+            transactionTemplate.execute(status -> {
+                paymentCancelRequestRepository.findById(requestId)
+                        .ifPresent(request -> request.finish(outcome, resultCode, resultMsg));
+                return null;
+            });
+        } catch (RuntimeException e) {
+            logger.error("취소 요청(ID: {}) 결과 {} 기록 실패", requestId, outcome, e);
+        }
+    }
+
+    private static final class CancelTarget {
+        private final Long requestId;
+        private final String tid;
+        private final String moid;
+        private final String payMethod;
+
+        CancelTarget(Long requestId, String tid, String moid, String payMethod) {
+            this.requestId = requestId;
+            this.tid = tid;
+            this.moid = moid;
+            this.payMethod = payMethod;
+        }
     }
 
     @Override
@@ -256,6 +472,7 @@ public class PaymentServiceImpl implements PaymentService {
         }
 
         // 2. 결제 성공/실패에 따른 Payment 객체 생성 및 상태 설정
+        SeatState seatBefore = lessonSeatLedgerService.seatStateOf(enroll);
         Payment payment;
         final String KISPG_SUCCESS_CODE = "0000";
         if (KISPG_SUCCESS_CODE.equals(notification.getResultCode())) {
@@ -271,6 +488,8 @@ public class PaymentServiceImpl implements PaymentService {
         }
 
         enrollRepository.save(enroll);
+        lessonSeatLedgerService.applyTransition(enroll.getLesson().getLessonId(), seatBefore,
+                lessonSeatLedgerService.seatStateOf(enroll));
         return paymentRepository.save(payment);
     }
 
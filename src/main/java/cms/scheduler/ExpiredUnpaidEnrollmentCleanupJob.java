@@ -2,16 +2,28 @@ package cms.scheduler;
 
 import cms.enroll.domain.Enroll;
 import cms.enroll.repository.EnrollRepository;
+import cms.enroll.service.UserEnrollmentLedger;
 import cms.locker.service.LockerService;
-import cms.user.domain.User;
+import cms.payment.domain.PaymentIntent;
+import cms.payment.domain.PaymentIntentStatus;
+import cms.payment.repository.PaymentIntentRepository;
+import cms.swimming.domain.LessonSeatLedger.SeatState;
+import cms.swimming.service.LessonSeatLedgerService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ExpiredUnpaidEnrollmentCleanupJob {
@@ -20,54 +32,133 @@ public class ExpiredUnpaidEnrollmentCleanupJob {
 
     private final EnrollRepository enrollRepository;
     private final LockerService lockerService;
+    private final LessonSeatLedgerService lessonSeatLedgerService;
+    private final PaymentIntentRepository paymentIntentRepository;
+    private final UserEnrollmentLedger userEnrollmentLedger;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
 
-    public ExpiredUnpaidEnrollmentCleanupJob(EnrollRepository enrollRepository, LockerService lockerService) {
+    @Value("${kispg.reconcile.enabled:true}")
+    private boolean reconcileEnabled;
+
+    @Value("${kispg.reconcile.hold-extension:600000}")
+    private long reconcileHoldExtensionMs;
+
+    public ExpiredUnpaidEnrollmentCleanupJob(EnrollRepository enrollRepository, LockerService lockerService,
+            LessonSeatLedgerService lessonSeatLedgerService, PaymentIntentRepository paymentIntentRepository,
+            UserEnrollmentLedger userEnrollmentLedger, PlatformTransactionManager transactionManager) {
         this.enrollRepository = enrollRepository;
         this.lockerService = lockerService;
+        this.lessonSeatLedgerService = lessonSeatLedgerService;
+        this.paymentIntentRepository = paymentIntentRepository;
+        this.userEnrollmentLedger = userEnrollmentLedger;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
     }
 
     /**
      * Periodically checks for UNPAID enrollments that have passed their expiration
      * time.
-     * Updates their status to EXPIRED and releases any allocated lockers.
-     * Runs every 5 minutes, for example.
+     * Updates their status to EXPIRED and releases the held seat in the lesson seat ledger.
+     * Runs every minute on every node: each enrollment is expired by a guarded UPDATE in its own
+     * short transaction, and the ledger is only decremented when that UPDATE changed exactly one row,
+     * so a concurrent run or a payment notification for the same enrollment never releases its seat twice.
+     * An enrollment whose payment intent is still PENDING is kept until PgPaymentStatusReconcileJob
+     * has queried KISPG after the hold expired (or kispg.reconcile.hold-extension has passed), so a
+     * payment whose notification was lost is promoted instead of being blocked by an EXPIRED enrollment.
      */
-    @Scheduled(cron = "0 */5 * * * ?") // Every 5 minutes
-    @Transactional
+    @Scheduled(cron = "0 * * * * ?") // Every minute
     public void cleanupExpiredUnpaidEnrollments() {
         LocalDateTime now = LocalDateTime.now();
         logger.debug("Running ExpiredUnpaidEnrollmentCleanupJob at {}", now);
 
         // Find UNPAID enrollments that are APPLIED and whose expireDt has passed
-        List<Enroll> expiredEnrollments = enrollRepository.findByPayStatusAndStatusAndExpireDtBefore("UNPAID",
-                "APPLIED", now);
-
-        if (expiredEnrollments.isEmpty()) {
+        List<ExpiredHold> expiredHolds = readTransaction.execute(status -> {
+            List<Enroll> expiredEnrollments = enrollRepository.findByPayStatusAndStatusAndExpireDtBefore("UNPAID",
+                    "APPLIED", now);
+            if (expiredEnrollments.isEmpty()) {
+                return Collections.<ExpiredHold>emptyList();
+            }
+            Map<Long, PaymentIntent> pendingIntents = reconcileEnabled
+                    ? paymentIntentRepository.findByEnrollIdInAndStatus(
+                            expiredEnrollments.stream().map(Enroll::getEnrollId).collect(Collectors.toList()),
+                            PaymentIntentStatus.PENDING).stream()
+                            .collect(Collectors.toMap(PaymentIntent::getEnrollId, Function.identity(), (a, b) -> a))
+                    : Collections.<Long, PaymentIntent>emptyMap();
+            List<ExpiredHold> holds = new ArrayList<>(expiredEnrollments.size());
+            for (Enroll enroll : expiredEnrollments) {
+                holds.add(new ExpiredHold(enroll.getEnrollId(), enroll.getLesson().getLessonId(),
+                        enroll.getUser().getUuid(), enroll.getExpireDt(),
+                        awaitsPgReconcile(enroll, pendingIntents.get(enroll.getEnrollId()), now)));
+            }
+            return holds;
+        });
+
+        if (expiredHolds == null || expiredHolds.isEmpty()) {
             logger.debug("No expired UNPAID enrollments found to clean up.");
             return;
         }
 
-        logger.info("Found {} expired UNPAID enrollments to process.", expiredEnrollments.size());
+        logger.info("Found {} expired UNPAID enrollments to process.", expiredHolds.size());
 
         int processedCount = 0;
-
-        for (Enroll enroll : expiredEnrollments) {
+        int deferredCount = 0;
+        int skippedCount = 0;
+
+        for (ExpiredHold hold : expiredHolds) {
+            if (hold.awaitsPgReconcile) {
+                deferredCount++;
+                continue;
+            }
             logger.info("Processing expired UNPAID enrollment ID: {}, User: {}, Lesson: {}, Expires: {}",
-                    enroll.getEnrollId(), enroll.getUser().getUuid(), enroll.getLesson().getLessonId(),
-                    enroll.getExpireDt());
-
-            enroll.setStatus("EXPIRED");
-            // enroll.setPayStatus("EXPIRED"); // Consider if payStatus should also change,
-            // or remain UNPAID with status EXPIRED
+                    hold.enrollId, hold.userUuid, hold.lessonId, hold.expireDt);
+
+            // 만료 처리는 환불이 아니므로 사물함 재고에 영향을 주지 않음
+            Boolean expired = writeTransaction.execute(status -> {
+                if (enrollRepository.expireIfUnpaid(hold.enrollId, LocalDateTime.now()) != 1) {
+                    return false; // 다른 노드가 먼저 만료했거나 그 사이 결제됨
+                }
+                lessonSeatLedgerService.applyTransition(hold.lessonId, SeatState.HELD, SeatState.NONE);
+                return true;
+            });
+            if (Boolean.TRUE.equals(expired)) {
+                userEnrollmentLedger.invalidate(hold.userUuid);
+                processedCount++;
+            } else {
+                skippedCount++;
+            }
+        }
 
-            // ❌ 만료 처리는 환불이 아니므로 사물함 재고에 영향을 주지 않음
-            // 만료된 미결제 건도 사물함 재고는 변경하지 않음 (향후 실제 환불 시에만 처리)
-            logger.info("만료된 UNPAID enrollment ID: {} - 사물함 재고는 변경하지 않음 (환불이 아님)", enroll.getEnrollId());
+        logger.info("ExpiredUnpaidEnrollmentCleanupJob 완료. 처리된 enrollment: {}, 이미 처리됨: {}, PG 재조회 대기: {}",
+                processedCount, skippedCount, deferredCount);
+    }
 
-            enrollRepository.save(enroll);
-            processedCount++;
+    // 결제창에서 결제했지만 통지가 유실된 경우를 위해, 만료 시각 이후 PG 재조회가 한 번 끝날 때까지 만료를 미룬다
+    private boolean awaitsPgReconcile(Enroll enroll, PaymentIntent intent, LocalDateTime now) {
+        if (intent == null || enroll.getExpireDt() == null) {
+            return false;
+        }
+        if (enroll.getExpireDt().plusNanos(reconcileHoldExtensionMs * 1_000_000L).isBefore(now)) {
+            return false;
         }
+        return intent.getLastCheckedAt() == null || intent.getLastCheckedAt().isBefore(enroll.getExpireDt());
+    }
 
-        logger.info("ExpiredUnpaidEnrollmentCleanupJob 완료. 처리된 enrollment: {}", processedCount);
+    private static final class ExpiredHold {
+        private final Long enrollId;
+        private final Long lessonId;
+        private final String userUuid;
+        private final LocalDateTime expireDt;
+        private final boolean awaitsPgReconcile;
+
+        ExpiredHold(Long enrollId, Long lessonId, String userUuid, LocalDateTime expireDt,
+                boolean awaitsPgReconcile) {
+            this.enrollId = enrollId;
+            this.lessonId = lessonId;
+            this.userUuid = userUuid;
+            this.expireDt = expireDt;
+            this.awaitsPgReconcile = awaitsPgReconcile;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package cms.scheduler;
+
+import cms.enroll.repository.EnrollRepository;
+import cms.locker.service.LockerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class LessonCompletionLockerReleaseSweepJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(LessonCompletionLockerReleaseSweepJob.class);
+
+    private final EnrollRepository enrollRepository;
+    private final LockerService lockerService;
+    private final TransactionTemplate chunkTransaction;
+
+    @Value("${app.locker.release-sweep.chunk-size:500}")
+    private int chunkSize;
+
+    public LessonCompletionLockerReleaseSweepJob(EnrollRepository enrollRepository, LockerService lockerService,
+            PlatformTransactionManager transactionManager) {
+        this.enrollRepository = enrollRepository;
+        this.lockerService = lockerService;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Daily job that returns the lockers of enrollments whose lesson has ended.
+     * Enrollments are read in enrollId keyset pages of app.locker.release-sweep.chunk-size
+     * and every chunk is committed in its own short transaction: the locker flags are
+     * cleared with one bulk UPDATE per gender and the inventory is decremented once per
+     * gender by the number of rows actually cleared (rows changed concurrently, e.g. by a
+     * cancellation that already returned the locker, are not counted twice).
+     * Runs every day at 00:05, so lockers of lessons ending at month end return right away.
+     */
+    @Scheduled(cron = "0 5 0 * * ?")
+    public void releaseLockersOfCompletedLessons() {
+        logger.info("========== Starting LessonCompletionLockerReleaseSweepJob ==========");
+
+        LocalDate today = LocalDate.now();
+        long afterEnrollId = 0L;
+        int chunks = 0;
+        int totalReleased = 0;
+        int totalCleared = 0;
+
+        while (true) {
+            final long cursor = afterEnrollId;
+            ChunkResult result = chunkTransaction.execute(status -> sweepChunk(today, cursor));
+            if (result == null || result.scanned == 0) {
+                break;
+            }
+            chunks++;
+            totalReleased += result.released;
+            totalCleared += result.cleared;
+            afterEnrollId = result.lastEnrollId;
+            if (result.scanned < chunkSize) {
+                break;
+            }
+        }
+
+        logger.info("Released {} lockers and cleared {} stale locker flags in {} chunks (lessons ended before {}).",
+                totalReleased, totalCleared, chunks, today);
+        logger.info("========== Finished LessonCompletionLockerReleaseSweepJob ==========");
+    }
+
+    private ChunkResult sweepChunk(LocalDate lessonEndBefore, long afterEnrollId) {
+        List<Object[]> rows = enrollRepository.findLockerAllocatedAfterLessonEnd(lessonEndBefore, afterEnrollId,
+                PageRequest.of(0, chunkSize));
+        ChunkResult result = new ChunkResult();
+        if (rows.isEmpty()) {
+            return result;
+        }
+
+        Map<String, List<Long>> paidByGender = new HashMap<>();
+        List<Long> notHoldingInventory = new ArrayList<>();
+        for (Object[] row : rows) {
+            Long enrollId = (Long) row[0];
+            String genderCode = (String) row[1];
+            String payStatus = (String) row[2];
+            result.lastEnrollId = enrollId;
+
+            String gender = null;
+            if ("1".equals(genderCode)) {
+                gender = "MALE";
+            } else if ("0".equals(genderCode)) {
+                gender = "FEMALE";
+            }
+
+            if (!"PAID".equals(payStatus)) {
+                // 취소/환불된 신청은 취소 시점에 이미 반납되었으므로 표시만 해제
+                notHoldingInventory.add(enrollId);
+            } else if (gender == null) {
+                logger.warn("  -> Clearing locker of enrollment {} with unknown gender code '{}' without inventory return",
+                        enrollId, genderCode);
+                notHoldingInventory.add(enrollId);
+            } else {
+                paidByGender.computeIfAbsent(gender, k -> new ArrayList<>()).add(enrollId);
+            }
+        }
+        result.scanned = rows.size();
+
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<String, List<Long>> entry : paidByGender.entrySet()) {
+            int released = enrollRepository.releasePaidLockers(entry.getValue(), now);
+            if (released > 0) {
+                lockerService.releaseUsedQuantity(entry.getKey(), released);
+                result.released += released;
+            }
+        }
+        if (!notHoldingInventory.isEmpty()) {
+            result.cleared += enrollRepository.clearLockerAllocated(notHoldingInventory, now);
+        }
+        return result;
+    }
+
+    private static final class ChunkResult {
+        private int scanned;
+        private int released;
+        private int cleared;
+        private long lastEnrollId;
+    }
+}
@@ -0,0 +1,105 @@
+package cms.scheduler;
+
+import cms.swimming.domain.Lesson;
+import cms.swimming.repository.LessonRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 계보(previous_lesson_id, series_id)가 없는 기존 강습을 기동 시 한 번 연결한다 (V16 이전 데이터).
+ * 예전 재수강 조회와 같은 기준으로, 직전 달에 (강습명, 강사, 시간, 장소)가 같은 강습을 원본으로 본다.
+ * 원본이 없는 강습은 새 시리즈의 시작이 되며, 모든 강습에 series_id 가 채워지면 이후 기동 시에는 아무 작업도 하지 않는다.
+ *
+ * series_id 가 비어 있는 강습만 시작일 순으로 page-size 건씩 읽어 페이지마다 별도 트랜잭션으로 처리하고,
+ * series_id 는 previous_lesson_id 를 따라 계보의 시작 강습까지 올라가 정한다.
+ */
+@Slf4j
+@Component
+public class LessonLineageBackfillJob {
+
+        private static final int PAGE_SIZE = 500;
+
+        private final LessonRepository lessonRepository;
+        private final TransactionTemplate pageTransaction;
+
+        public LessonLineageBackfillJob(LessonRepository lessonRepository,
+                        PlatformTransactionManager transactionManager) {
+                this.lessonRepository = lessonRepository;
+                this.pageTransaction = new TransactionTemplate(transactionManager);
+        }
+
+        @EventListener(ApplicationReadyEvent.class)
+        public void backfillLessonLineage() {
+                if (!lessonRepository.existsBySeriesIdIsNull()) {
+                        return;
+                }
+
+                int[] counts = new int[2]; // [직전 달 원본에 연결, 시리즈 시작]
+                while (true) {
+                        // 처리한 강습은 series_id 가 채워져 조회 대상에서 빠지므로 항상 첫 페이지를 읽는다
+                        Integer processed = pageTransaction.execute(status -> backfillPage(counts));
+                        if (processed == null || processed < PAGE_SIZE) {
+                                break;
+                        }
+                }
+                log.info("Backfilled lesson lineage: {} lessons linked to previous month, {} series roots.",
+                                counts[0], counts[1]);
+        }
+
+        private int backfillPage(int[] counts) {
+                List<Lesson> lessons = lessonRepository.findBySeriesIdIsNull(
+                                PageRequest.of(0, PAGE_SIZE, Sort.by("startDate", "lessonId")));
+                for (Lesson lesson : lessons) {
+                        if (lesson.getPreviousLessonId() == null) {
+                                Optional<Lesson> previous = findPreviousMonthLesson(lesson);
+                                if (previous.isPresent()) {
+                                        lesson.setPreviousLessonId(previous.get().getLessonId());
+                                        counts[0]++;
+                                } else {
+                                        counts[1]++;
+                                }
+                        }
+                        lesson.setSeriesId(resolveSeriesId(lesson));
+                }
+                return lessons.size();
+        }
+
+        private Optional<Lesson> findPreviousMonthLesson(Lesson lesson) {
+                YearMonth previousMonth = YearMonth.from(lesson.getStartDate()).minusMonths(1);
+                return lessonRepository.findSameLessonStartingBetween(lesson.getTitle(), lesson.getInstructorName(),
+                                lesson.getLessonTime(), lesson.getLocationName(), previousMonth.atDay(1),
+                                previousMonth.atEndOfMonth(), PageRequest.of(0, 1))
+                                .stream().findFirst();
+        }
+
+        /**
+         * previous_lesson_id 를 따라 올라가 처음 만나는 series_id, 없으면 계보 시작 강습의 ID.
+         * 순환 참조나 지워진 원본을 만나면 그 직전 강습을 시작으로 본다.
+         */
+        private Long resolveSeriesId(Lesson lesson) {
+                Lesson current = lesson;
+                Set<Long> visited = new HashSet<>();
+                visited.add(current.getLessonId());
+                while (current.getSeriesId() == null && current.getPreviousLessonId() != null
+                                && visited.add(current.getPreviousLessonId())) {
+                        Optional<Lesson> previous = lessonRepository.findById(current.getPreviousLessonId());
+                        if (!previous.isPresent()) {
+                                break;
+                        }
+                        current = previous.get();
+                }
+                return current.seriesIdForClone();
+        }
+}
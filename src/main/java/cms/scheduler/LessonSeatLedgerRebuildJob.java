@@ -0,0 +1,57 @@
+package cms.scheduler;
+
+import cms.swimming.dto.LessonSeatSnapshot;
+import cms.swimming.repository.LessonSeatLedgerRepository;
+import cms.swimming.service.LessonSeatLedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+public class LessonSeatLedgerRebuildJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(LessonSeatLedgerRebuildJob.class);
+
+    private final LessonSeatLedgerRepository lessonSeatLedgerRepository;
+    private final LessonSeatLedgerService lessonSeatLedgerService;
+    private final TransactionTemplate lessonTransaction;
+
+    public LessonSeatLedgerRebuildJob(LessonSeatLedgerRepository lessonSeatLedgerRepository,
+            LessonSeatLedgerService lessonSeatLedgerService, PlatformTransactionManager transactionManager) {
+        this.lessonSeatLedgerRepository = lessonSeatLedgerRepository;
+        this.lessonSeatLedgerService = lessonSeatLedgerService;
+        this.lessonTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Nightly drift repair for the seat ledger. Every ledger row of a lesson that has not
+     * ended yet is recomputed from the enroll table, one lesson per short transaction, so a
+     * missed transition (e.g. a status change written outside LessonSeatLedgerService) does
+     * not keep skewing the remaining-seat count. Runs at 03:30 when registration is quiet.
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void rebuildActiveLedgers() {
+        logger.info("========== Starting LessonSeatLedgerRebuildJob ==========");
+
+        List<Long> lessonIds = lessonSeatLedgerRepository.findLessonIdsEndingOnOrAfter(LocalDate.now());
+        int failed = 0;
+        for (Long lessonId : lessonIds) {
+            try {
+                LessonSeatSnapshot snapshot = lessonTransaction.execute(status -> lessonSeatLedgerService.rebuild(lessonId));
+                logger.debug("  -> Lesson {} ledger rebuilt: {}", lessonId, snapshot);
+            } catch (RuntimeException e) {
+                failed++;
+                logger.warn("  -> Failed to rebuild seat ledger of lesson {}: {}", lessonId, e.getMessage());
+            }
+        }
+
+        logger.info("Rebuilt {} seat ledgers ({} failed).", lessonIds.size() - failed, failed);
+        logger.info("========== Finished LessonSeatLedgerRebuildJob ==========");
+    }
+}
@@ -0,0 +1,45 @@
+package cms.scheduler;
+
+import cms.swimming.domain.Lesson;
+import cms.swimming.repository.LessonRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 기동 시 lesson_time 파싱 컬럼(day_mask, start_minute, end_minute)이 비어 있는 강습을 채운다.
+ * 신규/수정 강습은 Lesson 저장 시점에 갱신되므로 V15 이전 데이터에만 해당한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LessonTimeSlotBackfillJob {
+
+        private final LessonRepository lessonRepository;
+
+        @EventListener(ApplicationReadyEvent.class)
+        @Transactional
+        public void backfillLessonTimeSlots() {
+                List<Lesson> lessons = lessonRepository.findByLessonTimeIsNotNullAndStartMinuteIsNull();
+                if (lessons.isEmpty()) {
+                        return;
+                }
+
+                int parsed = 0;
+                for (Lesson lesson : lessons) {
+                        lesson.syncLessonTimeSlot();
+                        if (lesson.getStartMinute() != null) {
+                                parsed++;
+                        } else {
+                                log.warn("LessonTime '{}' of lesson {} did not match expected patterns.",
+                                                lesson.getLessonTime(), lesson.getLessonId());
+                        }
+                }
+                log.info("Backfilled lesson time slots: {} of {} lessons parsed.", parsed, lessons.size());
+        }
+}
@@ -1,9 +1,7 @@
 package cms.scheduler;
 
-import cms.enroll.domain.Enroll;
 import cms.enroll.repository.EnrollRepository;
 import cms.locker.service.LockerService;
-import cms.user.domain.User;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -12,9 +10,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 public class LockerUsageSyncJob {
@@ -31,9 +29,12 @@ public class LockerUsageSyncJob {
 
     /**
      * Hourly job to sync locker usage for the current month.
-     * It counts all paid enrollments with an allocated locker for lessons active in
-     * the current month
-     * and updates the locker inventory usage stats.
+     * It counts all paid enrollments with an allocated locker for lessons of the
+     * current month that have not ended yet (lockers of ended lessons are released by
+     * LessonCompletionLockerReleaseSweepJob) with a single GROUP BY gender query (cost
+     * does not grow with the number of enrollments) and updates the locker inventory
+     * usage stats.
+     * Every correction is recorded in locker_usage_drift by LockerService.
      * Runs at the top of every hour.
      */
     @Scheduled(cron = "0 52 * * * ?") // Cron expression for every hour at minute 0
@@ -42,41 +43,27 @@ public class LockerUsageSyncJob {
         logger.info("========== Starting LockerUsageSyncJob ==========");
 
         YearMonth currentMonth = YearMonth.now();
-        LocalDate startDate = currentMonth.atDay(1);
+        // 오늘 이전에 끝난 강습의 사물함은 반납 대상이므로 집계하지 않는다
+        LocalDate startDate = LocalDate.now();
         LocalDate endDate = currentMonth.atEndOfMonth();
         logger.info("Target period: {} to {}", startDate, endDate);
 
-        List<Enroll> activeEnrollments = enrollRepository.findActivePaidLockerUsersInDateRange(startDate, endDate);
-        logger.info("[STEP 1] Found {} active enrollments from repository.", activeEnrollments.size());
+        List<Object[]> usageRows = enrollRepository.countActivePaidLockerUsersByGender(startDate, endDate);
 
-        if (!activeEnrollments.isEmpty()) {
-            activeEnrollments.stream().limit(5).forEach(e -> {
-                User u = e.getUser();
-                String gender = (u != null && u.getGender() != null) ? u.getGender() : "NULL";
-                logger.info("  -> Enroll ID: {}, User UUID: {}, User Gender: '{}'", e.getEnrollId(),
-                        u != null ? u.getUuid() : "NULL", gender);
-            });
+        Map<String, Long> usageByGender = new HashMap<>();
+        for (Object[] row : usageRows) {
+            String genderCode = (String) row[0];
+            long count = row[1] instanceof Number ? ((Number) row[1]).longValue() : 0L;
+            if ("1".equals(genderCode)) {
+                usageByGender.merge("MALE", count, Long::sum);
+            } else if ("0".equals(genderCode)) {
+                usageByGender.merge("FEMALE", count, Long::sum);
+            } else {
+                logger.warn("  -> Skipping {} locker enrollments with unknown gender code '{}'", count, genderCode);
+            }
         }
 
-        Map<String, Long> usageByGender = activeEnrollments.stream()
-                .map(Enroll::getUser)
-                .filter(user -> user != null && user.getGender() != null)
-                .collect(Collectors.groupingBy(
-                        user -> {
-                            if ("1".equals(user.getGender())) {
-                                return "MALE";
-                            } else if ("0".equals(user.getGender())) {
-                                return "FEMALE";
-                            } else {
-                                return "UNKNOWN"; // Should not happen
-                            }
-                        },
-                        Collectors.counting()));
-
-        // Remove UNKNOWN group if it exists
-        usageByGender.remove("UNKNOWN");
-
-        logger.info("[STEP 2] Calculated locker usage by gender: MALE={}, FEMALE={}",
+        logger.info("Calculated locker usage by gender: MALE={}, FEMALE={}",
                 usageByGender.getOrDefault("MALE", 0L),
                 usageByGender.getOrDefault("FEMALE", 0L));
 
@@ -84,4 +71,4 @@ public class LockerUsageSyncJob {
 
         logger.info("========== Finished LockerUsageSyncJob ==========");
     }
-}
\ No newline at end of file
+}
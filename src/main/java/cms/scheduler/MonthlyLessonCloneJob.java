@@ -3,6 +3,7 @@ package cms.scheduler;
 import cms.swimming.domain.Lesson;
 import cms.swimming.repository.LessonRepository;
 import cms.swimming.repository.specification.LessonSpecification;
+import cms.swimming.service.LessonSeatLedgerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -20,6 +21,7 @@ import java.util.List;
 public class MonthlyLessonCloneJob {
 
         private final LessonRepository lessonRepository;
+        private final LessonSeatLedgerService lessonSeatLedgerService;
 
         @Scheduled(cron = "0 0 0 20 * ?")
         @Transactional
@@ -61,6 +63,8 @@ public class MonthlyLessonCloneJob {
                                         .instructorName(originalLesson.getInstructorName())
                                         .lessonTime(originalLesson.getLessonTime())
                                         .locationName(originalLesson.getLocationName())
+                                        .previousLessonId(originalLesson.getLessonId())
+                                        .seriesId(originalLesson.seriesIdForClone())
                                         .registrationStartDateTime(registrationStart)
                                         .registrationEndDateTime(registrationEnd)
                                         .createdBy("SYSTEM_SCHEDULER")
@@ -72,7 +76,8 @@ public class MonthlyLessonCloneJob {
                                         originalLesson.getInstructorName(),
                                         originalLesson.getLessonTime(), originalLesson.getLocationName(), nextMonth);
 
-                        lessonRepository.save(clonedLesson);
+                        Lesson savedLesson = lessonRepository.save(clonedLesson);
+                        lessonSeatLedgerService.syncCapacity(savedLesson.getLessonId(), savedLesson.getCapacity());
                         log.debug("Cloned lesson ID {} to new lesson for next month with registration period: {} ~ {}",
                                         originalLesson.getLessonId(),
                                         registrationStart,
@@ -0,0 +1,92 @@
+package cms.scheduler;
+
+import cms.payment.domain.PaymentCancelRequest;
+import cms.payment.domain.PaymentCancelRequestStatus;
+import cms.payment.repository.PaymentCancelRequestRepository;
+import cms.payment.service.PaymentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class PaymentCancelRequestResolveJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentCancelRequestResolveJob.class);
+
+    private final PaymentCancelRequestRepository paymentCancelRequestRepository;
+    private final PaymentService paymentService;
+
+    @Value("${kispg.cancel-resolve.enabled:true}")
+    private boolean enabled;
+
+    @Value("${kispg.cancel-resolve.stale-after:300000}")
+    private long staleAfterMs;
+
+    @Value("${kispg.cancel-resolve.batch-size:100}")
+    private int batchSize;
+
+    public PaymentCancelRequestResolveJob(PaymentCancelRequestRepository paymentCancelRequestRepository,
+            PaymentService paymentService) {
+        this.paymentCancelRequestRepository = paymentCancelRequestRepository;
+        this.paymentService = paymentService;
+    }
+
+    /**
+     * Settles cancel (refund) requests whose outcome was never recorded. UNKNOWN requests (no PG
+     * response) and REQUESTED requests older than kispg.cancel-resolve.stale-after (the process
+     * died mid-call) block every later refund of the same payment, so each one is looked up at
+     * KISPG by TID and moved to SUCCEEDED (payment updated) or FAILED. Requests the PG answer
+     * cannot settle, or whose query fails, are left for the next run.
+     */
+    @Scheduled(fixedDelayString = "${kispg.cancel-resolve.fixed-delay:60000}", initialDelay = 90000)
+    public void resolveUnsettledCancelRequests() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime staleBefore = LocalDateTime.now().minusNanos(staleAfterMs * 1_000_000L);
+        Map<String, Integer> totals = new HashMap<>();
+        Long afterId = 0L;
+
+        while (true) {
+            List<PaymentCancelRequest> batch = paymentCancelRequestRepository.findUnresolved(
+                    PaymentCancelRequestStatus.UNKNOWN, PaymentCancelRequestStatus.REQUESTED, staleBefore, afterId,
+                    PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            if (totals.isEmpty()) {
+                logger.info("========== Starting PaymentCancelRequestResolveJob ==========");
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+
+            for (PaymentCancelRequest request : batch) {
+                String outcome;
+                try {
+                    PaymentCancelRequestStatus resolved = paymentService.resolveCancelRequest(request.getId());
+                    outcome = resolved == null || resolved == request.getStatus() ? "UNCHANGED" : resolved.name();
+                } catch (RuntimeException e) {
+                    outcome = "ERROR";
+                    logger.warn("  -> Failed to resolve cancel request {} (tid: {}): {}", request.getId(),
+                            request.getTid(), e.getMessage());
+                }
+                totals.merge(outcome, 1, Integer::sum);
+            }
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (!totals.isEmpty()) {
+            logger.info("Resolved unsettled cancel requests: {}", totals);
+            logger.info("========== Finished PaymentCancelRequestResolveJob ==========");
+        }
+    }
+}
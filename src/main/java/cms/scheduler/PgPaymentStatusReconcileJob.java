@@ -0,0 +1,422 @@
+package cms.scheduler;
+
+import cms.admin.payment.dto.KispgQueryRequestDto;
+import cms.common.exception.BusinessRuleException;
+import cms.common.exception.ErrorCode;
+import cms.enroll.domain.Enroll;
+import cms.enroll.repository.EnrollRepository;
+import cms.kispg.dto.KispgNotificationRequest;
+import cms.kispg.service.KispgPaymentService;
+import cms.kispg.service.KispgWebhookService;
+import cms.payment.domain.Payment;
+import cms.payment.domain.PaymentIntent;
+import cms.payment.domain.PaymentIntentStatus;
+import cms.payment.domain.PaymentStatus;
+import cms.payment.repository.PaymentIntentRepository;
+import cms.payment.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Service
+public class PgPaymentStatusReconcileJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PgPaymentStatusReconcileJob.class);
+    private static final String KISPG_SUCCESS_CODE = "0000";
+
+    private final PaymentIntentRepository paymentIntentRepository;
+    private final PaymentRepository paymentRepository;
+    private final EnrollRepository enrollRepository;
+    private final KispgPaymentService kispgPaymentService;
+    private final KispgWebhookService kispgWebhookService;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    @Value("${kispg.reconcile.enabled:true}")
+    private boolean enabled;
+
+    @Value("${kispg.reconcile.grace-period:60000}")
+    private long gracePeriodMs;
+
+    @Value("${kispg.reconcile.lookback:86400000}")
+    private long lookbackMs;
+
+    @Value("${kispg.reconcile.expire-after:3600000}")
+    private long expireAfterMs;
+
+    @Value("${kispg.reconcile.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${kispg.reconcile.parallelism:4}")
+    private int parallelism;
+
+    @Value("${kispg.reconcile.rate-per-second:5}")
+    private int ratePerSecond;
+
+    @Value("${kispg.reconcile.max-checks:10}")
+    private int maxChecks;
+
+    private ExecutorService queryExecutor;
+    private RateLimiter rateLimiter;
+
+    public PgPaymentStatusReconcileJob(PaymentIntentRepository paymentIntentRepository,
+            PaymentRepository paymentRepository, EnrollRepository enrollRepository,
+            KispgPaymentService kispgPaymentService, KispgWebhookService kispgWebhookService,
+            MeterRegistry meterRegistry, PlatformTransactionManager transactionManager) {
+        this.paymentIntentRepository = paymentIntentRepository;
+        this.paymentRepository = paymentRepository;
+        this.enrollRepository = enrollRepository;
+        this.kispgPaymentService = kispgPaymentService;
+        this.kispgWebhookService = kispgWebhookService;
+        this.meterRegistry = meterRegistry;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        queryExecutor = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread thread = new Thread(r, "pg-reconcile-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        rateLimiter = new RateLimiter(Math.max(1, ratePerSecond));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queryExecutor.shutdownNow();
+    }
+
+    /**
+     * Periodic job that closes lost-webhook gaps by asking KISPG about pending payment intents.
+     * Intents entered between kispg.reconcile.lookback and kispg.reconcile.grace-period ago are
+     * read in moid keyset pages of kispg.reconcile.chunk-size. Intents already reflected locally
+     * (a PAID payment with the same moid) are completed without a PG call; the rest are queried
+     * outside any DB transaction on kispg.reconcile.parallelism threads, throttled to
+     * kispg.reconcile.rate-per-second. Each result is then applied in its own short transaction:
+     * - approved (and not canceled) at PG with the expected amount: promoted through the regular
+     *   notification path
+     * - canceled at PG: expired (fully canceled) or flagged (partially canceled)
+     * - not found at PG after kispg.reconcile.expire-after: expired
+     * - anything that cannot be applied automatically (amount mismatch, enrollment already
+     *   expired/canceled, repeated query errors): flagged for an administrator
+     */
+    @Scheduled(fixedDelayString = "${kispg.reconcile.fixed-delay:60000}", initialDelay = 60000)
+    public void reconcilePendingPayments() {
+        if (!enabled) {
+            return;
+        }
+        logger.info("========== Starting PgPaymentStatusReconcileJob ==========");
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime createdFrom = now.minusNanos(lookbackMs * 1_000_000L);
+        LocalDateTime createdTo = now.minusNanos(gracePeriodMs * 1_000_000L);
+        Map<Outcome, Integer> totals = new HashMap<>();
+        String afterMoid = "";
+        int scanned = 0;
+
+        while (true) {
+            final String cursor = afterMoid;
+            List<PaymentIntent> chunk = readTransaction.execute(status -> paymentIntentRepository
+                    .findReconcileCandidates(PaymentIntentStatus.PENDING, createdFrom, createdTo, cursor,
+                            PageRequest.of(0, chunkSize)));
+            if (chunk == null || chunk.isEmpty()) {
+                break;
+            }
+            scanned += chunk.size();
+            afterMoid = chunk.get(chunk.size() - 1).getMoid();
+
+            for (Map.Entry<Outcome, Integer> entry : reconcileChunk(chunk, now).entrySet()) {
+                totals.merge(entry.getKey(), entry.getValue(), Integer::sum);
+            }
+            if (chunk.size() < chunkSize || Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+
+        logger.info("Reconciled {} pending payment intents: {}", scanned, totals);
+        logger.info("========== Finished PgPaymentStatusReconcileJob ==========");
+    }
+
+    private Map<Outcome, Integer> reconcileChunk(List<PaymentIntent> chunk, LocalDateTime now) {
+        Map<Outcome, Integer> outcomes = new HashMap<>();
+
+        // 이미 결제가 반영된 주문(승인 API 로 처리되었거나 통지 처리 후 의도만 남은 경우)은 PG 조회 없이 완료 처리
+        List<String> moids = chunk.stream().map(PaymentIntent::getMoid).collect(Collectors.toList());
+        Map<String, Long> paidEnrollByMoid = readTransaction.execute(status -> paymentRepository.findByMoidIn(moids)
+                .stream()
+                .filter(p -> PaymentStatus.PAID == p.getStatus() && p.getEnroll() != null)
+                .collect(Collectors.toMap(Payment::getMoid, p -> p.getEnroll().getEnrollId(), (a, b) -> a)));
+
+        List<PaymentIntent> toQuery = new ArrayList<>();
+        for (PaymentIntent intent : chunk) {
+            Long paidEnrollId = paidEnrollByMoid != null ? paidEnrollByMoid.get(intent.getMoid()) : null;
+            if (paidEnrollId != null) {
+                record(outcomes, updateIntent(intent.getMoid(), i -> i.complete(paidEnrollId)) ? Outcome.COMPLETED
+                        : Outcome.SKIPPED);
+            } else {
+                toQuery.add(intent);
+            }
+        }
+
+        // PG 조회는 트랜잭션 밖에서 제한된 병렬도와 호출률로 수행
+        List<Future<PgCheck>> futures = new ArrayList<>(toQuery.size());
+        for (PaymentIntent intent : toQuery) {
+            futures.add(queryExecutor.submit(() -> queryPg(intent)));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            PaymentIntent intent = toQuery.get(i);
+            PgCheck check;
+            try {
+                check = futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.subList(i, futures.size()).forEach(f -> f.cancel(true));
+                break;
+            } catch (ExecutionException e) {
+                check = PgCheck.error(String.valueOf(e.getCause()));
+            }
+            record(outcomes, apply(intent, check, now));
+        }
+        return outcomes;
+    }
+
+    private PgCheck queryPg(PaymentIntent intent) throws InterruptedException {
+        rateLimiter.acquire();
+        KispgQueryRequestDto request = new KispgQueryRequestDto();
+        request.setMoid(intent.getMoid());
+        request.setAmt(String.valueOf(intent.getExpectedAmount()));
+        try {
+            return PgCheck.found(kispgPaymentService.queryTransactionAtPg(request));
+        } catch (BusinessRuleException e) {
+            if (e.getErrorCode() == ErrorCode.PG_TRANSACTION_NOT_FOUND) {
+                return PgCheck.notFound(e.getMessage());
+            }
+            return PgCheck.error(e.getErrorCode() + ": " + e.getMessage());
+        } catch (RuntimeException e) {
+            return PgCheck.error(e.getMessage());
+        }
+    }
+
+    private Outcome apply(PaymentIntent intent, PgCheck check, LocalDateTime now) {
+        String moid = intent.getMoid();
+        switch (check.kind) {
+            case FOUND:
+                return promote(intent, check.response);
+            case NOT_FOUND:
+                // 승인 API 를 호출한 주문은 호출 시각부터 기다린다 (결제창에 오래 머문 뒤 승인된 경우)
+                LocalDateTime waitingSince = intent.getApprovalRequestedAt() != null
+                        ? intent.getApprovalRequestedAt() : intent.getCreatedAt();
+                if (waitingSince.plusNanos(expireAfterMs * 1_000_000L).isBefore(now)) {
+                    logger.info("  -> Expiring payment intent {}: no transaction at PG", moid);
+                    return updateIntent(moid, i -> i.expire("PG 거래 없음: " + check.message)) ? Outcome.EXPIRED
+                            : Outcome.SKIPPED;
+                }
+                updateIntent(moid, i -> i.recordCheck(check.message));
+                return Outcome.UNCHANGED;
+            default:
+                if (intent.getCheckCount() + 1 >= maxChecks) {
+                    logger.warn("  -> Flagging payment intent {} after {} failed PG queries: {}", moid, maxChecks,
+                            check.message);
+                    return flag(moid, "PG 조회 반복 실패: " + check.message);
+                }
+                logger.warn("  -> PG query for payment intent {} failed: {}", moid, check.message);
+                updateIntent(moid, i -> i.recordCheck("PG 조회 실패: " + check.message));
+                return Outcome.ERROR;
+        }
+    }
+
+    private Outcome promote(PaymentIntent intent, Map<String, Object> response) {
+        String moid = intent.getMoid();
+        String tid = asString(response.get("tid"));
+        String amt = asString(response.get("amt"));
+        String appNo = asString(response.get("appNo"));
+        if ("Y".equalsIgnoreCase(asString(response.get("cancelYN")))) {
+            // 승인 후 취소된 거래는 결제로 반영하지 않는다
+            String cancelAmt = asString(response.get("cancelAmt"));
+            if (cancelAmt == null || cancelAmt.equals(amt)) {
+                logger.info("  -> Expiring payment intent {}: canceled at PG (tid: {})", moid, tid);
+                return updateIntent(moid, i -> i.expire("PG 취소된 거래 (tid=" + tid + ")")) ? Outcome.EXPIRED
+                        : Outcome.SKIPPED;
+            }
+            logger.warn("  -> Flagging payment intent {}: partially canceled at PG (tid: {}, cancelAmt: {})", moid,
+                    tid, cancelAmt);
+            return flag(moid, "PG 부분취소된 거래 (tid=" + tid + ", amt=" + amt + ", cancelAmt=" + cancelAmt + ")");
+        }
+        if (appNo == null || appNo.trim().isEmpty()) {
+            // 승인번호가 없으면 인증만 되고 승인되지 않은 거래
+            logger.info("  -> Payment intent {} not approved at PG yet (tid: {})", moid, tid);
+            updateIntent(moid, i -> i.recordCheck("PG 승인 전 거래 (tid=" + tid + ")"));
+            return Outcome.UNCHANGED;
+        }
+        if (tid == null || !String.valueOf(intent.getExpectedAmount()).equals(amt)) {
+            logger.warn("  -> Flagging payment intent {}: PG tid={}, amt={} (expected {})", moid, tid, amt,
+                    intent.getExpectedAmount());
+            return flag(moid, "PG 결제 확인, 금액/거래번호 불일치 (tid=" + tid + ", amt=" + amt + ", 요청 금액="
+                    + intent.getExpectedAmount() + ")");
+        }
+
+        KispgNotificationRequest notification = new KispgNotificationRequest();
+        notification.setMoid(moid);
+        notification.setTid(tid);
+        notification.setAmt(amt);
+        notification.setResultCode(KISPG_SUCCESS_CODE);
+        notification.setResultMsg("PG 거래 조회로 확인된 결제");
+        notification.setPayMethod(asString(response.get("payMethod")));
+        notification.setApproveNo(asString(response.get("appNo")));
+
+        String blockedReason = null;
+        String result;
+        try {
+            String[] holder = new String[1];
+            result = writeTransaction.execute(status -> {
+                PaymentIntent locked = paymentIntentRepository.findForUpdate(moid).orElse(null);
+                if (locked == null || !locked.isPending()) {
+                    return "SKIPPED";
+                }
+                if (locked.getEnrollId() != null) {
+                    // 만료/취소된 신청을 되살리면 정원을 넘을 수 있으므로 자동 반영하지 않는다
+                    Enroll enroll = enrollRepository.findById(locked.getEnrollId()).orElse(null);
+                    if (enroll == null || !"APPLIED".equals(enroll.getStatus())
+                            || !"UNPAID".equals(enroll.getPayStatus())) {
+                        holder[0] = enroll == null ? "신청 없음"
+                                : "신청 상태 " + enroll.getStatus() + "/" + enroll.getPayStatus();
+                        return "BLOCKED";
+                    }
+                }
+                String applied = kispgWebhookService.processVerifiedPaymentNotification(notification);
+                if (!"OK".equals(applied)) {
+                    status.setRollbackOnly();
+                }
+                return applied;
+            });
+            blockedReason = holder[0];
+        } catch (RuntimeException e) {
+            result = "FAIL";
+            blockedReason = e.getMessage();
+        }
+
+        if ("OK".equals(result)) {
+            logger.info("  -> Promoted payment intent {} (tid: {}) from PG query", moid, tid);
+            return Outcome.PROMOTED;
+        }
+        if ("SKIPPED".equals(result)) {
+            return Outcome.SKIPPED;
+        }
+        logger.warn("  -> Flagging payment intent {}: paid at PG (tid: {}) but not applied ({})", moid, tid,
+                blockedReason != null ? blockedReason : result);
+        return flag(moid, "PG 결제 확인, 자동 반영 불가 (tid=" + tid + "): "
+                + (blockedReason != null ? blockedReason : "결제 반영 실패"));
+    }
+
+    private Outcome flag(String moid, String note) {
+        return updateIntent(moid, i -> i.flag(note)) ? Outcome.FLAGGED : Outcome.SKIPPED;
+    }
+
+    /**
+     * 대기 중인 결제 의도를 잠근 뒤 갱신합니다. 그 사이 통지/승인으로 처리되었으면 건드리지 않습니다.
+     */
+    private boolean updateIntent(String moid, Consumer<PaymentIntent> change) {
+        Boolean updated = writeTransaction.execute(status -> {
+            PaymentIntent intent = paymentIntentRepository.findForUpdate(moid).orElse(null);
+            if (intent == null || !intent.isPending()) {
+                return false;
+            }
+            change.accept(intent);
+            return true;
+        });
+        return Boolean.TRUE.equals(updated);
+    }
+
+    private void record(Map<Outcome, Integer> outcomes, Outcome outcome) {
+        outcomes.merge(outcome, 1, Integer::sum);
+        meterRegistry.counter("payment.reconcile.outcome", "outcome", outcome.name().toLowerCase()).increment();
+    }
+
+    private static String asString(Object value) {
+        return value == null ? null : String.valueOf(value);
+    }
+
+    private enum Outcome {
+        COMPLETED, PROMOTED, EXPIRED, FLAGGED, UNCHANGED, ERROR, SKIPPED
+    }
+
+    private enum CheckKind {
+        FOUND, NOT_FOUND, ERROR
+    }
+
+    private static final class PgCheck {
+        private final CheckKind kind;
+        private final Map<String, Object> response;
+        private final String message;
+
+        private PgCheck(CheckKind kind, Map<String, Object> response, String message) {
+            this.kind = kind;
+            this.response = response;
+            this.message = message;
+        }
+
+        static PgCheck found(Map<String, Object> response) {
+            return new PgCheck(CheckKind.FOUND, response, null);
+        }
+
+        static PgCheck notFound(String message) {
+            return new PgCheck(CheckKind.NOT_FOUND, null, message);
+        }
+
+        static PgCheck error(String message) {
+            return new PgCheck(CheckKind.ERROR, null, message);
+        }
+    }
+
+    /**
+     * 초당 호출 수 제한. 호출마다 다음 허용 시각을 1/rate 초씩 미루고, 그 시각까지 기다린다.
+     */
+    private static final class RateLimiter {
+        private final long intervalNanos;
+        private long nextPermitAt = System.nanoTime();
+
+        RateLimiter(int permitsPerSecond) {
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        }
+
+        void acquire() throws InterruptedException {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long permitAt = Math.max(now, nextPermitAt);
+                nextPermitAt = permitAt + intervalNanos;
+                waitNanos = permitAt - now;
+            }
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+}
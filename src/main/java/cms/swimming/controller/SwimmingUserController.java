@@ -1,13 +1,17 @@
 package cms.swimming.controller;
 
 import cms.common.dto.ApiResponseSchema;
+import cms.common.service.IdempotentRequestExecutor;
 import cms.swimming.dto.CancelRequestDto;
 import cms.swimming.dto.CheckEnrollmentEligibilityDto;
 import cms.swimming.dto.EnrollRequestDto;
 import cms.swimming.dto.EnrollResponseDto;
 import cms.swimming.dto.LessonDto;
+import cms.swimming.dto.WaitingRoomTicketDto;
 // import cms.swimming.dto.LockerDto; // Remains commented as its primary use 'getAvailableLockers' list was removed
+import cms.enroll.service.EnrollmentAdmissionGate;
 import cms.enroll.service.EnrollmentService;
+import cms.enroll.service.EnrollmentWaitingRoom;
 import cms.swimming.service.LessonService;
 import cms.user.domain.User;
 import io.swagger.v3.oas.annotations.Operation;
@@ -18,6 +22,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -28,6 +33,7 @@ import org.springframework.web.bind.annotation.*;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 
 @RestController
@@ -42,17 +48,24 @@ public class SwimmingUserController {
     // private final LockerService lockerService; // lockerService 주입 삭제 (만약 다른 곳에서
     // 사용하지 않는다면)
     private final EnrollmentService enrollmentService;
+    private final EnrollmentAdmissionGate enrollmentAdmissionGate;
+    private final EnrollmentWaitingRoom enrollmentWaitingRoom;
+    private final IdempotentRequestExecutor idempotentRequestExecutor;
 
     // 1. 수업 조회 API
-    @Operation(summary = "수업 목록 조회", description = "다양한 조건(상태, 연도, 월, 기간)으로 필터링된 수업 목록을 페이징하여 제공합니다. 월은 여러 개를 콤마로 구분하여 전달할 수 있습니다 (예: month=5,6).")
+    @Operation(summary = "수업 목록 조회", description = "다양한 조건(상태, 연도, 월, 기간, 요일, 시간대)으로 필터링된 수업 목록을 페이징하여 제공합니다. 월은 여러 개를 콤마로 구분하여 전달할 수 있습니다 (예: month=5,6).")
     @GetMapping("/lessons")
     public ResponseEntity<ApiResponseSchema<Page<LessonDto>>> getLessons(
             @RequestParam(required = false) String status,
             @Parameter(description = "조회할 월 (여러 개 가능, 콤마로 구분)") @RequestParam(required = false) List<Integer> months,
             @Parameter(description = "조회 시작 날짜 (YYYY-MM-DD)") @RequestParam(required = false) LocalDate startDate,
             @Parameter(description = "조회 종료 날짜 (YYYY-MM-DD)") @RequestParam(required = false) LocalDate endDate,
+            @Parameter(description = "요일 (1=월 ~ 7=일, 여러 개 가능, 콤마로 구분)") @RequestParam(required = false) List<Integer> weekdays,
+            @Parameter(description = "강습 시작 시각 하한 (HH:mm)") @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm") LocalTime timeFrom,
+            @Parameter(description = "강습 종료 시각 상한 (HH:mm)") @RequestParam(required = false) @DateTimeFormat(pattern = "HH:mm") LocalTime timeTo,
             @PageableDefault(size = 10, sort = "startDate", direction = Sort.Direction.ASC) Pageable pageable) {
-        Page<LessonDto> lessons = lessonService.getLessons(months, startDate, endDate, pageable);
+        Page<LessonDto> lessons = lessonService.getLessons(months, startDate, endDate, weekdays, timeFrom, timeTo,
+                pageable);
         return ResponseEntity.ok(ApiResponseSchema.success(lessons, "수업 목록 조회 성공"));
     }
 
@@ -69,17 +82,46 @@ public class SwimmingUserController {
     @PostMapping("/enroll")
     public ResponseEntity<ApiResponseSchema<EnrollResponseDto>> createEnroll(
             @Valid @RequestBody EnrollRequestDto enrollRequest,
+            @Parameter(description = "대기실 입장 티켓 (신청 시작 직후 대기실 운영 중에만 필요)") @RequestHeader(value = "X-Waiting-Room-Token", required = false) String waitingRoomToken,
+            @Parameter(description = "멱등 키 (생략 시 요청 내용으로 중복 판단)") @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication,
             HttpServletRequest request) {
         User currentUser = getAuthenticatedUser(authentication);
         String clientIp = request.getRemoteAddr();
 
-        EnrollResponseDto enrollResponse = enrollmentService.createInitialEnrollment(currentUser, enrollRequest,
-                clientIp);
+        // 중복 요청은 첫 요청 결과를 재사용하고(대기실 티켓도 다시 차감하지 않음), 매진 강습은 트랜잭션(DB 커넥션) 진입 전에 게이트에서 거절
+        IdempotentRequestExecutor.RequestKey requestKey = IdempotentRequestExecutor.keyOf("enroll", currentUser.getUuid(), idempotencyKey,
+                enrollRequest.getLessonId(), enrollRequest.getMembershipType(), enrollRequest.getUsesLocker());
+        EnrollResponseDto enrollResponse = idempotentRequestExecutor.execute(requestKey,
+                () -> enrollmentWaitingRoom.withAdmission(enrollRequest.getLessonId(), currentUser, waitingRoomToken,
+                        () -> enrollmentAdmissionGate.admit(enrollRequest.getLessonId(),
+                                () -> enrollmentService.createInitialEnrollment(currentUser, enrollRequest, clientIp))));
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponseSchema.success(enrollResponse, "수업 신청 및 결제가 완료되었습니다."));
     }
 
+    // 대기실 API (신청 시작 직후 동시 접속 분산)
+    @Operation(summary = "대기실 티켓 발급", description = "신청 시작 시각 전후 대기실 운영 중이면 대기 순번 티켓을 발급합니다. 운영 중이 아니면 status=OPEN 을 반환하며 티켓 없이 신청할 수 있습니다. 순번 알림은 /ws/lesson-capacity 에 'waiting:{ticket}' 을 전송하여 받을 수 있습니다.")
+    @PostMapping("/waiting-room/{lessonId}/ticket")
+    public ResponseEntity<ApiResponseSchema<WaitingRoomTicketDto>> issueWaitingRoomTicket(
+            @Parameter(description = "신청할 수업 ID") @PathVariable Long lessonId,
+            Authentication authentication) {
+        User currentUser = getAuthenticatedUser(authentication);
+        WaitingRoomTicketDto ticket = enrollmentWaitingRoom.issueTicket(lessonId, currentUser);
+        return ResponseEntity.ok(ApiResponseSchema.success(ticket, "대기실 티켓 발급 성공"));
+    }
+
+    @Operation(summary = "대기실 티켓 상태 조회", description = "대기 순번 및 입장 여부를 조회합니다. (WebSocket 미사용 클라이언트용)")
+    @GetMapping("/waiting-room/{lessonId}/ticket")
+    public ResponseEntity<ApiResponseSchema<WaitingRoomTicketDto>> getWaitingRoomTicket(
+            @Parameter(description = "신청할 수업 ID") @PathVariable Long lessonId,
+            @Parameter(description = "발급받은 티켓", required = true) @RequestParam String ticket,
+            Authentication authentication) {
+        User currentUser = getAuthenticatedUser(authentication);
+        WaitingRoomTicketDto status = enrollmentWaitingRoom.getTicket(lessonId, ticket, currentUser);
+        return ResponseEntity.ok(ApiResponseSchema.success(status, "대기실 티켓 조회 성공"));
+    }
+
     @Operation(summary = "신청 취소", description = "수업 신청을 취소합니다. 개강 전 신청 건에 한해 사용자 직접 취소가 가능합니다.")
     @PostMapping("/enroll/{enrollId}/cancel")
     public ResponseEntity<ApiResponseSchema<Void>> cancelEnroll(
@@ -46,9 +46,27 @@ public class Lesson {
     @Column(name = "lesson_time", length = 100)
     private String lessonTime;
 
+    // lesson_time 파싱 결과 (저장 시 syncLessonTimeSlot 에서 갱신, 요일/시간대 검색용)
+    @Column(name = "day_mask")
+    private Integer dayMask;
+
+    @Column(name = "start_minute")
+    private Integer startMinute;
+
+    @Column(name = "end_minute")
+    private Integer endMinute;
+
     @Column(name = "location_name", length = 100)
     private String locationName;
 
+    // 복제 원본(직전 회차) 강습 ID, 재수강 대상 조회 키
+    @Column(name = "previous_lesson_id")
+    private Long previousLessonId;
+
+    // 시리즈 최초 강습 ID (최초 강습은 자기 자신)
+    @Column(name = "series_id")
+    private Long seriesId;
+
     @Column(name = "registration_start_datetime")
     private LocalDateTime registrationStartDateTime;
 
@@ -75,6 +93,35 @@ public class Lesson {
     @Column(name = "updated_ip", length = 45)
     private String updatedIp;
 
+    /**
+     * 이 강습을 원본으로 복제되는 강습의 시리즈 ID
+     */
+    public Long seriesIdForClone() {
+        return seriesId != null ? seriesId : lessonId;
+    }
+
+    /**
+     * 표시용 강습 시간. 저장된 파싱 컬럼을 사용하고, 아직 채워지지 않은 행(V15 이전 데이터)만 문자열을 파싱한다.
+     */
+    public LessonTimeSlot timeSlot() {
+        if (startMinute != null) {
+            return LessonTimeSlot.fromColumns(dayMask, startMinute, endMinute);
+        }
+        return LessonTimeSlot.parse(lessonTime);
+    }
+
+    /**
+     * lesson_time 문자열을 요일 마스크/시작·종료 분으로 파싱하여 반영 (쓰기 시점에 한 번만 파싱)
+     */
+    @PrePersist
+    @PreUpdate
+    public void syncLessonTimeSlot() {
+        LessonTimeSlot slot = LessonTimeSlot.parse(this.lessonTime);
+        this.dayMask = slot.getDayMask();
+        this.startMinute = slot.getStartMinute();
+        this.endMinute = slot.getEndMinute();
+    }
+
     // 수업 정보 업데이트 메소드
     public void updateDetails(
             String title,
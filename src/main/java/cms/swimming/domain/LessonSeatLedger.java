@@ -0,0 +1,63 @@
+package cms.swimming.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 강습별 좌석 원장.
+ * 결제 완료(PAID) 인원과 결제 대기(APPLIED/UNPAID) 점유 인원을 유지하여
+ * 잔여 정원을 enroll 테이블 COUNT 없이 PK 단건 조회로 계산한다.
+ * 모든 신청 상태 전이는 LessonSeatLedgerService 를 통해 같은 트랜잭션 안에서 반영되어야 한다.
+ */
+@Entity
+@Table(name = "lesson_seat_ledger")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class LessonSeatLedger {
+
+    @Id
+    @Column(name = "lesson_id")
+    private Long lessonId;
+
+    @Column(name = "capacity", nullable = false)
+    private int capacity;
+
+    @Column(name = "paid_count", nullable = false)
+    private int paidCount;
+
+    @Column(name = "held_count", nullable = false)
+    private int heldCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * 신청 건이 좌석 원장에서 차지하는 상태.
+     * 기존 COUNT 쿼리 기준과 동일: PAID 는 payStatus = 'PAID',
+     * HELD 는 status = 'APPLIED' AND payStatus = 'UNPAID'.
+     */
+    public enum SeatState {
+        NONE, HELD, PAID;
+
+        public static SeatState of(String status, String payStatus) {
+            if ("PAID".equals(payStatus)) {
+                return PAID;
+            }
+            if ("APPLIED".equals(status) && "UNPAID".equals(payStatus)) {
+                return HELD;
+            }
+            return NONE;
+        }
+    }
+}
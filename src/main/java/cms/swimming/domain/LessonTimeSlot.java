@@ -0,0 +1,185 @@
+package cms.swimming.domain;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 자유 입력 강습 시간(lesson.lesson_time) 파싱 결과.
+ * 예: "(월,화,수,목,금) 오전 06:00~06:50" -> days "(월,화,수,목,금)", timePrefix "오전", timeSlot "06:00~06:50",
+ * dayMask 월~금, startMinute 360, endMinute 410.
+ *
+ * 요일 비트: 월=1, 화=2, 수=4, 목=8, 금=16, 토=32, 일=64 (DayOfWeek.getValue() - 1 번째 비트)
+ */
+@Getter
+@ToString
+public final class LessonTimeSlot {
+
+    public static final int ALL_DAYS_MASK = 0x7F;
+
+    private static final LessonTimeSlot EMPTY = new LessonTimeSlot(null, null, null, null, null, null);
+
+    private static final Pattern LESSON_TIME_PATTERN = Pattern
+            .compile("^(?:(\\(.*?\\))\\s*)?(?:(오전|오후)\\s*)?(\\d{1,2}:\\d{2}\\s*[~-]\\s*\\d{1,2}:\\d{2})$");
+    private static final Pattern TIME_RANGE_PATTERN = Pattern
+            .compile("^(\\d{1,2}):(\\d{2})\\s*[~-]\\s*(\\d{1,2}):(\\d{2})$");
+    private static final String DAY_CHARS = "월화수목금토일";
+
+    private final String days;
+    private final String timePrefix;
+    private final String timeSlot;
+    private final Integer dayMask;
+    private final Integer startMinute;
+    private final Integer endMinute;
+
+    private LessonTimeSlot(String days, String timePrefix, String timeSlot, Integer dayMask, Integer startMinute,
+            Integer endMinute) {
+        this.days = days;
+        this.timePrefix = timePrefix;
+        this.timeSlot = timeSlot;
+        this.dayMask = dayMask;
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
+    }
+
+    /**
+     * 강습 시간 문자열 파싱. 형식이 맞지 않으면 모든 값이 null 인 결과를 반환한다.
+     */
+    public static LessonTimeSlot parse(String lessonTime) {
+        if (lessonTime == null || lessonTime.trim().isEmpty()) {
+            return EMPTY;
+        }
+        Matcher matcher = LESSON_TIME_PATTERN.matcher(lessonTime.trim());
+        if (!matcher.find()) {
+            return EMPTY;
+        }
+        String days = matcher.group(1);
+        String timePrefix = matcher.group(2);
+        String timeSlot = matcher.group(3);
+
+        Integer startMinute = null;
+        Integer endMinute = null;
+        Matcher range = TIME_RANGE_PATTERN.matcher(timeSlot);
+        if (range.find()) {
+            startMinute = toMinuteOfDay(Integer.parseInt(range.group(1)), Integer.parseInt(range.group(2)), timePrefix);
+            endMinute = toMinuteOfDay(Integer.parseInt(range.group(3)), Integer.parseInt(range.group(4)), timePrefix);
+        }
+        return new LessonTimeSlot(days, timePrefix, timeSlot, parseDayMask(days), startMinute, endMinute);
+    }
+
+    /**
+     * 저장된 파싱 컬럼(day_mask, start_minute, end_minute)으로 표시용 값을 만든다 (조회 경로에서 정규식 파싱 없이 사용).
+     * 예: 월~금, 360, 410 -> days "(월,화,수,목,금)", timePrefix "오전", timeSlot "06:00~06:50".
+     * 시작/종료 분이 없으면 EMPTY 를 반환한다.
+     */
+    public static LessonTimeSlot fromColumns(Integer dayMask, Integer startMinute, Integer endMinute) {
+        if (startMinute == null || endMinute == null) {
+            return EMPTY;
+        }
+        String timePrefix = startMinute < 12 * 60 ? "오전" : "오후";
+        String timeSlot = formatClock(startMinute) + "~" + formatClock(endMinute);
+        return new LessonTimeSlot(formatDays(dayMask), timePrefix, timeSlot, dayMask, startMinute, endMinute);
+    }
+
+    public boolean isParsed() {
+        return timeSlot != null;
+    }
+
+    public static int maskOf(Collection<DayOfWeek> daysOfWeek) {
+        int mask = 0;
+        for (DayOfWeek day : daysOfWeek) {
+            mask |= 1 << (day.getValue() - 1);
+        }
+        return mask;
+    }
+
+    /**
+     * 주어진 요일 중 하나라도 포함하는 모든 요일 마스크 값 (IN 조건용, 최대 127개)
+     */
+    public static List<Integer> masksIntersecting(int mask) {
+        List<Integer> masks = new ArrayList<>();
+        for (int candidate = 1; candidate <= ALL_DAYS_MASK; candidate++) {
+            if ((candidate & mask) != 0) {
+                masks.add(candidate);
+            }
+        }
+        return masks;
+    }
+
+    public static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    private static int toMinuteOfDay(int hour, int minute, String timePrefix) {
+        if ("오후".equals(timePrefix) && hour < 12) {
+            hour += 12;
+        } else if ("오전".equals(timePrefix) && hour == 12) {
+            hour = 0;
+        }
+        return hour * 60 + minute;
+    }
+
+    // 오전/오후 표기와 함께 쓰는 12시간제 (12:00~12:59 는 12 로 표기)
+    private static String formatClock(int minuteOfDay) {
+        int hour = (minuteOfDay / 60) % 12;
+        return String.format("%02d:%02d", hour == 0 ? 12 : hour, minuteOfDay % 60);
+    }
+
+    private static String formatDays(Integer dayMask) {
+        if (dayMask == null || dayMask == 0) {
+            return null;
+        }
+        StringBuilder days = new StringBuilder("(");
+        for (int d = 0; d < DAY_CHARS.length(); d++) {
+            if ((dayMask & (1 << d)) != 0) {
+                if (days.length() > 1) {
+                    days.append(',');
+                }
+                days.append(DAY_CHARS.charAt(d));
+            }
+        }
+        return days.append(')').toString();
+    }
+
+    // "(월,수,금)", "(월~금)", "(화목)", "(매일)", "(평일)", "(주말)" 형식 지원
+    private static Integer parseDayMask(String days) {
+        if (days == null) {
+            return null;
+        }
+        int mask = 0;
+        if (days.contains("매일")) {
+            mask = ALL_DAYS_MASK;
+        }
+        if (days.contains("평일")) {
+            mask |= 0x1F;
+        }
+        if (days.contains("주말")) {
+            mask |= 0x60;
+        }
+        int previousDay = -1;
+        boolean rangePending = false;
+        for (char c : days.toCharArray()) {
+            int day = DAY_CHARS.indexOf(c);
+            if (day >= 0) {
+                if (rangePending && previousDay >= 0) {
+                    for (int d = previousDay; d != day; d = (d + 1) % 7) {
+                        mask |= 1 << d;
+                    }
+                }
+                mask |= 1 << day;
+                previousDay = day;
+                rangePending = false;
+            } else if (c == '~' || c == '-') {
+                rangePending = true;
+            }
+        }
+        return mask != 0 ? mask : null;
+    }
+}
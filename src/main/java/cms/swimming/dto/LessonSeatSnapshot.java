@@ -0,0 +1,22 @@
+package cms.swimming.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 좌석 원장 조회 결과 (영속성 컨텍스트에 올라가지 않는 읽기 전용 값)
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class LessonSeatSnapshot {
+    private Long lessonId;
+    private int capacity;
+    private int paidCount;
+    private int heldCount;
+
+    public int getRemainingSeats() {
+        return Math.max(0, capacity - paidCount - heldCount);
+    }
+}
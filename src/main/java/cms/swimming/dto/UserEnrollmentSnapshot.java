@@ -0,0 +1,46 @@
+package cms.swimming.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 사용자별 월 신청 현황 (신청 자격 확인용 읽기 전용 값)
+ *
+ * - pendingCancelRequestCount: 취소 요청(REQ) 처리 대기 건수 (월 무관)
+ * - unrefundedAdminCancelCount: 관리자 취소 후 환불 미완료 건수 (월 무관)
+ * - activeCountInMonth: 해당 월 활성 신청 건수 (결제 완료 + 결제 대기, 취소/만료 제외)
+ * - paidCountInMonth: 해당 월 결제 완료 건수
+ */
+@Getter
+@ToString
+public class UserEnrollmentSnapshot {
+    private final long pendingCancelRequestCount;
+    private final long unrefundedAdminCancelCount;
+    private final long activeCountInMonth;
+    private final long paidCountInMonth;
+
+    // JPQL 생성자 표현식용 (집계 대상이 없으면 SUM 결과가 null)
+    public UserEnrollmentSnapshot(Long pendingCancelRequestCount, Long unrefundedAdminCancelCount,
+            Long activeCountInMonth, Long paidCountInMonth) {
+        this.pendingCancelRequestCount = pendingCancelRequestCount != null ? pendingCancelRequestCount : 0L;
+        this.unrefundedAdminCancelCount = unrefundedAdminCancelCount != null ? unrefundedAdminCancelCount : 0L;
+        this.activeCountInMonth = activeCountInMonth != null ? activeCountInMonth : 0L;
+        this.paidCountInMonth = paidCountInMonth != null ? paidCountInMonth : 0L;
+    }
+
+    public boolean hasPendingCancelRequest() {
+        return pendingCancelRequestCount > 0;
+    }
+
+    public boolean hasUnrefundedAdminCancel() {
+        return unrefundedAdminCancelCount > 0;
+    }
+
+    public boolean hasActiveEnrollmentInMonth() {
+        return activeCountInMonth > 0;
+    }
+
+    public boolean hasPaidEnrollmentInMonth() {
+        return paidCountInMonth > 0;
+    }
+}
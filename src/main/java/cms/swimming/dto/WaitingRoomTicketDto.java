@@ -0,0 +1,26 @@
+package cms.swimming.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WaitingRoomTicketDto {
+    private Long lessonId;
+    private String ticket; // 신청/결제 준비 요청 시 X-Waiting-Room-Token 헤더로 전달
+    private String status; // OPEN(대기열 미운영), WAITING, ADMITTED
+    private Long position; // 내 앞 대기 인원 포함 순번 (WAITING 인 경우)
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime openAt; // 입장 시작 시각 (강습 신청 시작 시각)
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime admittedUntil; // 입장 토큰 유효 시각 (ADMITTED 인 경우)
+}
@@ -12,6 +12,8 @@ import org.springframework.stereotype.Repository;
 
 import javax.persistence.LockModeType;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,11 +36,31 @@ public interface LessonRepository extends JpaRepository<Lesson, Long>, JpaSpecif
     @Query("SELECT l FROM Lesson l WHERE l.lessonId = :lessonId")
     Optional<Lesson> findByIdWithLock(@Param("lessonId") Long lessonId);
 
-    @Query("SELECT l FROM Lesson l WHERE l.title = :title AND l.instructorName = :instructorName AND l.lessonTime = :lessonTime AND l.locationName = :locationName AND l.startDate >= :nextMonthStart AND l.startDate <= :nextMonthEnd")
-    Optional<Lesson> findNextMonthLesson(@Param("title") String title,
-            @Param("instructorName") String instructorName,
-            @Param("lessonTime") String lessonTime,
-            @Param("locationName") String locationName,
-            @Param("nextMonthStart") LocalDate nextMonthStart,
-            @Param("nextMonthEnd") LocalDate nextMonthEnd);
+    // 요일/시간대 파싱 컬럼이 아직 채워지지 않은 강습 (V15 이전 데이터)
+    List<Lesson> findByLessonTimeIsNotNullAndStartMinuteIsNull();
+
+    // 주어진 강습들을 원본으로 복제된 기간 내 강습 (재수강 대상 조회, idx_lesson_previous_lesson)
+    List<Lesson> findByPreviousLessonIdInAndStartDateBetween(Collection<Long> previousLessonIds,
+            LocalDate startDate, LocalDate endDate);
+
+    // 계보 미설정 강습 존재 여부 (LessonLineageBackfillJob)
+    boolean existsBySeriesIdIsNull();
+
+    // 계보 미설정 강습 (LessonLineageBackfillJob 페이지 단위 처리)
+    List<Lesson> findBySeriesIdIsNull(Pageable pageable);
+
+    // 주어진 기간에 시작하는 같은 (강습명, 강사, 시간, 장소) 강습, 시작일 순 (계보 백필의 직전 달 원본 조회)
+    @Query("SELECT l FROM Lesson l WHERE l.startDate BETWEEN :from AND :to " +
+            "AND ((:title IS NULL AND l.title IS NULL) OR l.title = :title) " +
+            "AND ((:instructorName IS NULL AND l.instructorName IS NULL) OR l.instructorName = :instructorName) " +
+            "AND ((:lessonTime IS NULL AND l.lessonTime IS NULL) OR l.lessonTime = :lessonTime) " +
+            "AND ((:locationName IS NULL AND l.locationName IS NULL) OR l.locationName = :locationName) " +
+            "ORDER BY l.startDate ASC, l.lessonId ASC")
+    List<Lesson> findSameLessonStartingBetween(@Param("title") String title,
+            @Param("instructorName") String instructorName, @Param("lessonTime") String lessonTime,
+            @Param("locationName") String locationName, @Param("from") LocalDate from, @Param("to") LocalDate to,
+            Pageable pageable);
+
+    // 신청 시작 시각이 구간 안에 있는 강습 (대기실 운영 대상)
+    List<Lesson> findByRegistrationStartDateTimeBetween(LocalDateTime from, LocalDateTime to);
 }
\ No newline at end of file
@@ -0,0 +1,105 @@
+package cms.swimming.repository;
+
+import cms.swimming.domain.LessonSeatLedger;
+import cms.swimming.dto.LessonSeatSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LessonSeatLedgerRepository extends JpaRepository<LessonSeatLedger, Long> {
+
+    // 항상 DB 에서 최신 값을 읽도록 엔티티가 아닌 값 객체로 조회 (같은 트랜잭션 내 증감 직후 재조회 용도)
+    @Query("SELECT new cms.swimming.dto.LessonSeatSnapshot(s.lessonId, s.capacity, s.paidCount, s.heldCount) " +
+            "FROM LessonSeatLedger s WHERE s.lessonId = :lessonId")
+    Optional<LessonSeatSnapshot> findSnapshot(@Param("lessonId") Long lessonId);
+
+    @Query("SELECT new cms.swimming.dto.LessonSeatSnapshot(s.lessonId, s.capacity, s.paidCount, s.heldCount) " +
+            "FROM LessonSeatLedger s WHERE s.lessonId IN :lessonIds")
+    List<LessonSeatSnapshot> findSnapshots(@Param("lessonIds") Collection<Long> lessonIds);
+
+    /**
+     * 인원 증감을 단일 UPDATE 로 반영 (행 잠금은 해당 강습 원장 한 행으로 한정).
+     * 음수가 되는 차감은 0 으로 맞추지 않고 chk_lesson_seat_ledger_counts 위반으로 실패시킨다
+     * (같은 전이가 두 번 반영된 것이므로 조용히 넘기면 조건부 점유가 정원을 넘긴다).
+     *
+     * @return 갱신된 행 수 (0 이면 원장 미생성)
+     */
+    @Modifying
+    @Query(value = "UPDATE lesson_seat_ledger SET " +
+            "paid_count = paid_count + :paidDelta, " +
+            "held_count = held_count + :heldDelta, " +
+            "updated_at = NOW() " +
+            "WHERE lesson_id = :lessonId", nativeQuery = true)
+    int applyDelta(@Param("lessonId") Long lessonId,
+            @Param("paidDelta") int paidDelta,
+            @Param("heldDelta") int heldDelta);
+
+    /**
+     * 잔여 좌석이 있을 때만 결제 대기 좌석 1개를 점유하는 조건부 차감.
+     * 정원 판정과 증가가 한 문장에서 이뤄지므로 강습 행 잠금이나 SERIALIZABLE 없이도 초과 점유가 발생하지 않는다.
+     *
+     * @return 1 이면 점유 성공, 0 이면 매진 또는 원장 미생성
+     */
+    @Modifying
+    @Query(value = "UPDATE lesson_seat_ledger SET held_count = held_count + 1, updated_at = NOW() " +
+            "WHERE lesson_id = :lessonId AND paid_count + held_count < capacity", nativeQuery = true)
+    int claimHeldSeat(@Param("lessonId") Long lessonId);
+
+    /**
+     * 잔여 좌석이 있을 때만 좌석 1개를 지정한 상태(결제 완료 또는 결제 대기)로 점유 (강습 변경 시 새 강습 쪽)
+     *
+     * @return 1 이면 점유 성공, 0 이면 매진 또는 원장 미생성
+     */
+    @Modifying
+    @Query(value = "UPDATE lesson_seat_ledger SET paid_count = paid_count + :paidDelta, " +
+            "held_count = held_count + :heldDelta, updated_at = NOW() " +
+            "WHERE lesson_id = :lessonId AND paid_count + held_count < capacity", nativeQuery = true)
+    int claimSeat(@Param("lessonId") Long lessonId, @Param("paidDelta") int paidDelta,
+            @Param("heldDelta") int heldDelta);
+
+    @Modifying
+    @Query(value = "UPDATE lesson_seat_ledger SET capacity = :capacity, updated_at = NOW() " +
+            "WHERE lesson_id = :lessonId", nativeQuery = true)
+    int updateCapacity(@Param("lessonId") Long lessonId, @Param("capacity") int capacity);
+
+    /**
+     * enroll 테이블 기준으로 원장 행 생성 (이미 존재하면 무시).
+     * 만료 시각이 지났더라도 아직 EXPIRED 로 전환되지 않은 결제 대기 건은 점유로 집계한다
+     * (정리 작업의 차감과 짝을 맞추기 위함).
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO lesson_seat_ledger (lesson_id, capacity, paid_count, held_count, updated_at) " +
+            "SELECT l.lesson_id, l.capacity, " +
+            "(SELECT COUNT(*) FROM enroll e WHERE e.lesson_id = l.lesson_id AND e.pay_status = 'PAID'), " +
+            "(SELECT COUNT(*) FROM enroll e WHERE e.lesson_id = l.lesson_id AND e.status = 'APPLIED' " +
+            "   AND e.pay_status = 'UNPAID'), " +
+            "NOW() " +
+            "FROM lesson l WHERE l.lesson_id = :lessonId", nativeQuery = true)
+    int seedFromEnrollments(@Param("lessonId") Long lessonId);
+
+    /**
+     * enroll 테이블 기준으로 원장 값을 재계산 (드리프트 보정용)
+     */
+    @Modifying
+    @Query(value = "UPDATE lesson_seat_ledger s JOIN lesson l ON l.lesson_id = s.lesson_id SET " +
+            "s.capacity = l.capacity, " +
+            "s.paid_count = (SELECT COUNT(*) FROM enroll e WHERE e.lesson_id = s.lesson_id AND e.pay_status = 'PAID'), " +
+            "s.held_count = (SELECT COUNT(*) FROM enroll e WHERE e.lesson_id = s.lesson_id AND e.status = 'APPLIED' " +
+            "   AND e.pay_status = 'UNPAID'), " +
+            "s.updated_at = NOW() " +
+            "WHERE s.lesson_id = :lessonId", nativeQuery = true)
+    int rebuildFromEnrollments(@Param("lessonId") Long lessonId);
+
+    // 드리프트 보정 대상: 아직 끝나지 않은 강습의 원장
+    @Query(value = "SELECT s.lesson_id FROM lesson_seat_ledger s JOIN lesson l ON l.lesson_id = s.lesson_id " +
+            "WHERE l.end_date >= :today ORDER BY s.lesson_id", nativeQuery = true)
+    List<Long> findLessonIdsEndingOnOrAfter(@Param("today") LocalDate today);
+}
@@ -0,0 +1,35 @@
+package cms.swimming.service;
+
+import cms.enroll.domain.Enroll;
+import cms.swimming.domain.LessonSeatLedger.SeatState;
+import cms.swimming.dto.LessonSeatSnapshot;
+
+import java.util.Collection;
+import java.util.Map;
+
+public interface LessonSeatLedgerService {
+
+    // 강습 좌석 현황 조회 (PK 단건 조회, 원장이 없으면 enroll 기준으로 계산)
+    LessonSeatSnapshot getSnapshot(Long lessonId);
+
+    // 목록 화면용 일괄 조회 (lessonId -> 좌석 현황), 강습 수와 무관하게 고정 쿼리 수로 처리
+    Map<Long, LessonSeatSnapshot> getSnapshots(Collection<Long> lessonIds);
+
+    // 신청 건의 현재 좌석 상태
+    SeatState seatStateOf(Enroll enroll);
+
+    // 신청 상태 전이를 원장에 반영 (호출자 트랜잭션에 참여)
+    void applyTransition(Long lessonId, SeatState from, SeatState to);
+
+    // 잔여 좌석이 있으면 결제 대기 좌석 1개를 조건부로 점유 (NONE -> HELD 전이 포함), 매진이면 false
+    boolean tryClaimHeldSeat(Long lessonId);
+
+    // 신청을 다른 강습으로 옮길 때 좌석 이동 (새 강습은 조건부 점유), 새 강습이 매진이면 false
+    boolean tryMoveSeat(Long fromLessonId, Long toLessonId, SeatState state);
+
+    // 강습 생성/수정 시 정원 동기화
+    void syncCapacity(Long lessonId, int capacity);
+
+    // enroll 테이블 기준으로 원장 재계산
+    LessonSeatSnapshot rebuild(Long lessonId);
+}
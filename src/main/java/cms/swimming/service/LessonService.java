@@ -5,6 +5,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 // List import might be unused if getLessonsByDateRange is fully removed
 // import java.util.List; 
@@ -19,7 +20,9 @@ public interface LessonService {
     // String status);
 
     // Consolidated method for fetching lessons with various filters
-    Page<LessonDto> getLessons(List<Integer> months, LocalDate startDate, LocalDate endDate, Pageable pageable);
+    // weekdays: 1(월) ~ 7(일), 하나라도 포함하는 강습 / timeFrom ~ timeTo: 강습 시간이 범위 안에 있는 강습
+    Page<LessonDto> getLessons(List<Integer> months, LocalDate startDate, LocalDate endDate,
+            List<Integer> weekdays, LocalTime timeFrom, LocalTime timeTo, Pageable pageable);
 
     // 특정 강습 상세 조회
     LessonDto getLessonById(Long lessonId);
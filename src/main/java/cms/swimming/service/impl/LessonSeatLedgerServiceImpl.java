@@ -0,0 +1,197 @@
+package cms.swimming.service.impl;
+
+import cms.enroll.domain.Enroll;
+import cms.enroll.repository.EnrollRepository;
+import cms.swimming.domain.Lesson;
+import cms.swimming.domain.LessonSeatLedger.SeatState;
+import cms.swimming.dto.LessonSeatSnapshot;
+import cms.swimming.repository.LessonRepository;
+import cms.swimming.repository.LessonSeatLedgerRepository;
+import cms.swimming.service.LessonSeatLedgerService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 강습별 좌석 원장 관리.
+ * 잔여 정원 = capacity - paid_count - held_count 를 PK 단건 조회로 제공한다.
+ * 만료된 결제 대기 건은 ExpiredUnpaidEnrollmentCleanupJob 이 EXPIRED 로 전환할 때 held_count 에서 빠진다.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class LessonSeatLedgerServiceImpl implements LessonSeatLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LessonSeatLedgerServiceImpl.class);
+    private final LessonSeatLedgerRepository lessonSeatLedgerRepository;
+    private final LessonRepository lessonRepository;
+    private final EnrollRepository enrollRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public LessonSeatSnapshot getSnapshot(Long lessonId) {
+        return lessonSeatLedgerRepository.findSnapshot(lessonId)
+                .orElseGet(() -> countSnapshot(lessonId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, LessonSeatSnapshot> getSnapshots(Collection<Long> lessonIds) {
+        Map<Long, LessonSeatSnapshot> snapshots = new HashMap<>();
+        if (lessonIds == null || lessonIds.isEmpty()) {
+            return snapshots;
+        }
+        for (LessonSeatSnapshot snapshot : lessonSeatLedgerRepository.findSnapshots(lessonIds)) {
+            snapshots.put(snapshot.getLessonId(), snapshot);
+        }
+        if (snapshots.size() < lessonIds.size()) {
+            List<Long> missingIds = lessonIds.stream()
+                    .filter(id -> !snapshots.containsKey(id))
+                    .distinct()
+                    .collect(Collectors.toList());
+            snapshots.putAll(countSnapshots(missingIds));
+        }
+        return snapshots;
+    }
+
+    @Override
+    public SeatState seatStateOf(Enroll enroll) {
+        if (enroll == null) {
+            return SeatState.NONE;
+        }
+        return SeatState.of(enroll.getStatus(), enroll.getPayStatus());
+    }
+
+    @Override
+    public void applyTransition(Long lessonId, SeatState from, SeatState to) {
+        if (lessonId == null || from == to) {
+            return;
+        }
+        int paidDelta = (to == SeatState.PAID ? 1 : 0) - (from == SeatState.PAID ? 1 : 0);
+        int heldDelta = (to == SeatState.HELD ? 1 : 0) - (from == SeatState.HELD ? 1 : 0);
+
+        int updated;
+        try {
+            updated = lessonSeatLedgerRepository.applyDelta(lessonId, paidDelta, heldDelta);
+        } catch (DataIntegrityViolationException e) {
+            logger.error("[SeatLedger] lesson {} {} -> {} would make a count negative (paid {}, held {}); "
+                    + "the transition was applied twice", lessonId, from, to, paidDelta, heldDelta);
+            throw e;
+        }
+        if (updated == 0) {
+            // 원장이 없던 강습: enroll 기준으로 생성 (이미 flush 된 현재 전이도 집계에 포함됨)
+            ensureLedger(lessonId);
+        }
+        logger.debug("[SeatLedger] lesson {} {} -> {} (paid {}, held {})", lessonId, from, to, paidDelta, heldDelta);
+    }
+
+    @Override
+    public boolean tryClaimHeldSeat(Long lessonId) {
+        if (lessonSeatLedgerRepository.claimHeldSeat(lessonId) > 0) {
+            return true;
+        }
+        // 0 건: 매진이거나 원장이 아직 없는 강습. 원장을 생성한 경우에만 한 번 더 시도한다.
+        if (lessonSeatLedgerRepository.existsById(lessonId)) {
+            return false;
+        }
+        ensureLedger(lessonId);
+        return lessonSeatLedgerRepository.claimHeldSeat(lessonId) > 0;
+    }
+
+    @Override
+    public boolean tryMoveSeat(Long fromLessonId, Long toLessonId, SeatState state) {
+        if (state == SeatState.NONE || fromLessonId.equals(toLessonId)) {
+            return true;
+        }
+        // 두 원장 행은 항상 lessonId 순서로 잠가 반대 방향 이동끼리 교착되지 않게 한다.
+        // 새 강습 점유에 실패하면 호출자 트랜잭션이 롤백되어 기존 강습 반납도 함께 취소된다.
+        if (fromLessonId < toLessonId) {
+            applyTransition(fromLessonId, state, SeatState.NONE);
+            return claimSeat(toLessonId, state);
+        }
+        if (!claimSeat(toLessonId, state)) {
+            return false;
+        }
+        applyTransition(fromLessonId, state, SeatState.NONE);
+        return true;
+    }
+
+    private boolean claimSeat(Long lessonId, SeatState state) {
+        int paidDelta = state == SeatState.PAID ? 1 : 0;
+        int heldDelta = state == SeatState.HELD ? 1 : 0;
+        if (lessonSeatLedgerRepository.claimSeat(lessonId, paidDelta, heldDelta) > 0) {
+            return true;
+        }
+        if (lessonSeatLedgerRepository.existsById(lessonId)) {
+            return false;
+        }
+        ensureLedger(lessonId);
+        return lessonSeatLedgerRepository.claimSeat(lessonId, paidDelta, heldDelta) > 0;
+    }
+
+    @Override
+    public void syncCapacity(Long lessonId, int capacity) {
+        if (lessonSeatLedgerRepository.updateCapacity(lessonId, capacity) == 0) {
+            ensureLedger(lessonId);
+        }
+    }
+
+    @Override
+    public LessonSeatSnapshot rebuild(Long lessonId) {
+        if (lessonSeatLedgerRepository.rebuildFromEnrollments(lessonId) == 0) {
+            ensureLedger(lessonId);
+        }
+        LessonSeatSnapshot snapshot = getSnapshot(lessonId);
+        logger.info("[SeatLedger] Rebuilt ledger for lesson {}: {}", lessonId, snapshot);
+        return snapshot;
+    }
+
+    /**
+     * 원장이 아직 없는 강습(쓰기 전이 전)의 조회용 대체 경로.
+     * 읽기 전용 트랜잭션에서도 호출되므로 원장을 생성하지 않고 enroll 기준으로 계산만 한다.
+     */
+    private LessonSeatSnapshot countSnapshot(Long lessonId) {
+        LessonSeatSnapshot snapshot = countSnapshots(Collections.singletonList(lessonId)).get(lessonId);
+        if (snapshot == null) {
+            throw new EntityNotFoundException("강습을 찾을 수 없습니다. ID: " + lessonId);
+        }
+        return snapshot;
+    }
+
+    // enroll 테이블 GROUP BY 한 번으로 여러 강습의 좌석 현황 계산
+    private Map<Long, LessonSeatSnapshot> countSnapshots(List<Long> lessonIds) {
+        Map<Long, long[]> usage = new HashMap<>();
+        for (Object[] row : enrollRepository.countSeatUsageByLessonIds(lessonIds)) {
+            usage.put((Long) row[0], new long[] { toLong(row[1]), toLong(row[2]) });
+        }
+        Map<Long, LessonSeatSnapshot> snapshots = new HashMap<>();
+        for (Lesson lesson : lessonRepository.findAllById(lessonIds)) {
+            long[] counts = usage.getOrDefault(lesson.getLessonId(), new long[] { 0L, 0L });
+            int capacity = lesson.getCapacity() != null ? lesson.getCapacity() : 0;
+            snapshots.put(lesson.getLessonId(),
+                    new LessonSeatSnapshot(lesson.getLessonId(), capacity, (int) counts[0], (int) counts[1]));
+        }
+        return snapshots;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private void ensureLedger(Long lessonId) {
+        if (lessonSeatLedgerRepository.seedFromEnrollments(lessonId) > 0) {
+            logger.info("[SeatLedger] Seeded ledger for lesson {} from enroll table", lessonId);
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package cms.swimming.service.impl;
 
+import cms.common.exception.BusinessRuleException;
+import cms.common.exception.ErrorCode;
 import cms.swimming.domain.Lesson;
+import cms.swimming.domain.LessonTimeSlot;
 import cms.swimming.dto.LessonDto;
+import cms.swimming.dto.LessonSeatSnapshot;
 import cms.swimming.repository.LessonRepository;
+import cms.swimming.service.LessonSeatLedgerService;
 import cms.swimming.service.LessonService;
 import cms.enroll.repository.EnrollRepository;
 import lombok.RequiredArgsConstructor;
@@ -15,13 +20,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityNotFoundException;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.LocalDateTime; // For remaining spots calculation
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
 import javax.persistence.criteria.Predicate;
 import java.util.ArrayList;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -33,49 +38,31 @@ public class LessonServiceImpl implements LessonService {
     private static final Logger logger = LoggerFactory.getLogger(LessonServiceImpl.class);
     private final LessonRepository lessonRepository;
     private final EnrollRepository enrollRepository;
+    private final LessonSeatLedgerService lessonSeatLedgerService;
 
-    private LessonDto convertToLessonDto(Lesson lesson) {
+    private LessonDto convertToLessonDto(Lesson lesson, LessonSeatSnapshot seats) {
         if (lesson == null)
             return null;
 
         Integer remainingSpots = null;
-        if (lesson.getCapacity() != null) {
-            long paidEnrollments = enrollRepository.countByLessonLessonIdAndPayStatus(lesson.getLessonId(), "PAID");
-            long unpaidActiveEnrollments = enrollRepository.countByLessonLessonIdAndStatusAndPayStatusAndExpireDtAfter(
-                    lesson.getLessonId(), "APPLIED", "UNPAID", LocalDateTime.now());
-            remainingSpots = lesson.getCapacity() - (int) paidEnrollments - (int) unpaidActiveEnrollments;
-            if (remainingSpots < 0)
-                remainingSpots = 0;
+        if (lesson.getCapacity() != null && seats != null) {
+            remainingSpots = seats.getRemainingSeats();
         }
 
-        String days = null;
-        String timePrefix = null;
-        String timeSlot = null;
-        if (lesson.getLessonTime() != null && !lesson.getLessonTime().isEmpty()) {
-            String lessonTimeString = lesson.getLessonTime();
-            Pattern pattern = Pattern
-                    .compile("^(?:(\\(.*?\\))\\s*)?(?:(오전|오후)\\s*)?(\\d{1,2}:\\d{2}\\s*[~-]\\s*\\d{1,2}:\\d{2})$");
-            Matcher matcher = pattern.matcher(lessonTimeString.trim());
-            if (matcher.find()) {
-                days = matcher.group(1);
-                timePrefix = matcher.group(2);
-                timeSlot = matcher.group(3);
-            } else {
-                if (lessonTimeString.matches("^\\d{1,2}:\\d{2}\\s*[~-]\\s*\\d{1,2}:\\d{2}$")) {
-                    timeSlot = lessonTimeString.trim();
-                } else {
-                    logger.warn(
-                            "LessonTime '{}' did not match expected patterns in LessonServiceImpl. Full string used in lessonTime field.",
-                            lessonTimeString);
-                }
-            }
+        LessonTimeSlot slot = lesson.timeSlot();
+        if (!slot.isParsed() && lesson.getLessonTime() != null && !lesson.getLessonTime().isEmpty()) {
+            logger.warn(
+                    "LessonTime '{}' did not match expected patterns in LessonServiceImpl. Full string used in lessonTime field.",
+                    lesson.getLessonTime());
         }
 
-        return LessonDto.fromEntity(lesson, remainingSpots, days, timePrefix, timeSlot);
+        return LessonDto.fromEntity(lesson, remainingSpots, slot.getDays(), slot.getTimePrefix(), slot.getTimeSlot());
     }
 
     @Override
-    public Page<LessonDto> getLessons(List<Integer> months, LocalDate startDate, LocalDate endDate, Pageable pageable) {
+    public Page<LessonDto> getLessons(List<Integer> months, LocalDate startDate, LocalDate endDate,
+            List<Integer> weekdays, LocalTime timeFrom, LocalTime timeTo, Pageable pageable) {
+        List<Integer> dayMasks = resolveDayMasks(weekdays);
         Specification<Lesson> spec = (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
@@ -126,29 +113,60 @@ public class LessonServiceImpl implements LessonService {
                 predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("startDate"), endDate));
             }
 
+            // 요일/시간대 조건은 저장 시 파싱된 컬럼(idx_lesson_time_slot)으로 조회
+            if (dayMasks != null) {
+                predicates.add(root.get("dayMask").in(dayMasks));
+            }
+            if (timeFrom != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("startMinute"),
+                        LessonTimeSlot.minuteOfDay(timeFrom)));
+            }
+            if (timeTo != null) {
+                predicates.add(criteriaBuilder.lessThanOrEqualTo(root.get("endMinute"),
+                        LessonTimeSlot.minuteOfDay(timeTo)));
+            }
+
             return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
         };
         Page<Lesson> lessonPage = lessonRepository.findAll(spec, pageable);
+        // 페이지 전체 강습의 좌석 현황을 한 번에 조회 (강습별 COUNT N+1 방지)
+        Map<Long, LessonSeatSnapshot> seatsByLessonId = lessonSeatLedgerService.getSnapshots(
+                lessonPage.getContent().stream().map(Lesson::getLessonId).collect(Collectors.toList()));
         List<LessonDto> dtoList = lessonPage.getContent().stream()
-                .map(this::convertToLessonDto)
+                .map(lesson -> convertToLessonDto(lesson, seatsByLessonId.get(lesson.getLessonId())))
                 .collect(Collectors.toList());
         return new PageImpl<>(dtoList, pageable, lessonPage.getTotalElements());
     }
 
+    // 요청 요일(1=월 ~ 7=일) 중 하나라도 포함하는 요일 마스크 목록
+    private List<Integer> resolveDayMasks(List<Integer> weekdays) {
+        if (weekdays == null || weekdays.isEmpty()) {
+            return null;
+        }
+        List<DayOfWeek> daysOfWeek = new ArrayList<>();
+        for (Integer weekday : weekdays) {
+            if (weekday == null || weekday < 1 || weekday > 7) {
+                throw new BusinessRuleException(ErrorCode.INVALID_INPUT_VALUE, "요일은 1(월)부터 7(일) 사이여야 합니다: " + weekday);
+            }
+            daysOfWeek.add(DayOfWeek.of(weekday));
+        }
+        return LessonTimeSlot.masksIntersecting(LessonTimeSlot.maskOf(daysOfWeek));
+    }
+
     @Override
     public LessonDto getLessonById(Long lessonId) {
         Lesson lesson = lessonRepository.findById(lessonId)
                 .orElseThrow(() -> new EntityNotFoundException("강습을 찾을 수 없습니다. ID: " + lessonId));
-        return convertToLessonDto(lesson);
+        return convertToLessonDto(lesson, lessonSeatLedgerService.getSnapshot(lessonId));
     }
 
     @Override
     public long countCurrentEnrollments(Long lessonId) {
-        // This counts only PAID enrollments for the specific lessonId.
+        // This counts only PAID enrollments for the specific lessonId (좌석 원장 기준).
         // It does not consider lesson status or date ranges directly.
         // If "current" means active lessons, additional checks on Lesson status/dates
         // might be needed here or in calling code.
-        return enrollRepository.countByLessonLessonIdAndPayStatus(lessonId, "PAID");
+        return lessonSeatLedgerService.getSnapshot(lessonId).getPaidCount();
     }
 
     @Override
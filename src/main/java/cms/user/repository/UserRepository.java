@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +18,8 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, String>, JpaSpecificationExecutor<User> {
         Optional<User> findByUsername(String username);
 
+        List<User> findByUsernameIn(Collection<String> usernames);
+
         Optional<User> findByEmail(String email);
 
         Optional<User> findByResetToken(String resetToken);
@@ -39,6 +42,10 @@ public interface UserRepository extends JpaRepository<User, String>, JpaSpecific
 
         Optional<User> findByUuid(String uuid);
 
+        // 같은 사용자의 동시 신청 직렬화용 행 잠금 (엔티티를 읽지 않고 잠금만 획득)
+        @Query(value = "SELECT u.uuid FROM user u WHERE u.uuid = :uuid FOR UPDATE", nativeQuery = true)
+        Optional<String> lockByUuid(@Param("uuid") String uuid);
+
         Optional<User> findByPhone(String phone);
 
         // UUID prefix로 사용자를 찾는 메서드 (웹훅 temp moid 처리용)
@@ -0,0 +1,49 @@
+package cms.websocket.domain;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 강습 정원 변경 이벤트 로그.
+ * 발행 노드가 신청 트랜잭션 커밋 후 강습별로 모아 별도 트랜잭션으로 기록하고, 모든 노드가 event_id 순으로 폴링하여 로컬 구독자에게 재전송한다.
+ */
+@Entity
+@Table(name = "lesson_capacity_event")
+@Getter
+@Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+public class LessonCapacityEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "lesson_id", nullable = false)
+    private Long lessonId;
+
+    @Column(name = "capacity", nullable = false)
+    private int capacity;
+
+    @Column(name = "paid_count", nullable = false)
+    private int paidCount;
+
+    @Column(name = "held_count", nullable = false)
+    private int heldCount;
+
+    @Column(name = "node_id", nullable = false, length = 64)
+    private String nodeId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package cms.websocket.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 여러 강습 일괄 구독(subscribe:1,2,3) 응답. 구독한 강습들의 현재 정원 정보를 한 프레임으로 보낸다.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LessonCapacitySnapshotDto {
+    private String type; // "snapshot"
+    private List<LessonCapacityUpdateDto> lessons;
+    private long timestamp;
+}
@@ -0,0 +1,18 @@
+package cms.websocket.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueuePositionUpdateDto {
+    private Long lessonId;
+    private String type; // "queue_position", "queue_admitted"
+    private String ticket;
+    private long position;
+    private long timestamp;
+}
@@ -1,34 +1,144 @@
 package cms.websocket.handler;
 
+import cms.swimming.dto.LessonSeatSnapshot;
+import cms.swimming.service.LessonSeatLedgerService;
+import cms.websocket.dto.LessonCapacitySnapshotDto;
 import cms.websocket.dto.LessonCapacityUpdateDto;
+import cms.websocket.dto.QueuePositionUpdateDto;
+import cms.websocket.service.LessonCapacityEventBus;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.socket.*;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * 강습 정원 실시간 알림.
+ *
+ * - 정원 변경은 강습별로 모아 두었다가 coalesce-window 마다 최신 값 하나만 전송한다 (같은 강습의 이전 값은 버림).
+ * - 전송 payload 는 강습당 한 번만 직렬화하여 모든 구독자에게 같은 TextMessage 를 보낸다.
+ * - 실제 전송은 세션별 송신 대기열을 전용 스레드 풀에서 순서대로 비우는 방식으로, 호출 스레드(신청 트랜잭션)를 막지 않는다.
+ *   정원 알림은 세션마다 강습별 최신 값 하나만 남기고, 구독 응답/대기실 순번 같은 제어 메시지는 버리지 않는다
+ *   (send-queue-limit 를 넘게 쌓이면 세션을 닫는다).
+ * - 소켓 쓰기는 send-time-limit 를 넘으면 실패하도록 제한하고, 그 이상 끝나지 않는 전송이 있는 세션은 감시 작업이 닫는다.
+ * - 정원 변경은 LessonCapacityEventBus 로 다른 노드에도 발행되고, 다른 노드의 변경은 같은 경로로 로컬 구독자에게 전달된다.
+ *
+ * 클라이언트 메시지:
+ * - subscribe:{id} / subscribe:{id},{id},... : 구독과 동시에 현재 정원 정보를 응답한다 (단건 "subscribed", 일괄 "snapshot").
+ *   이후에는 값이 바뀐 경우에만 "capacity_update" 를 보낸다.
+ * - unsubscribe:{id} / unsubscribe:{id},{id},...
+ * - waiting:{ticket} : 대기실 순번 알림 등록 (세션당 하나, 다시 보내면 이전 티켓은 해제)
+ */
 @Component
 public class LessonCapacityWebSocketHandler implements WebSocketHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(LessonCapacityWebSocketHandler.class);
     private final ObjectMapper objectMapper = new ObjectMapper();
-    
+
     // 레슨별 구독자 관리
-    private final ConcurrentHashMap<Long, CopyOnWriteArraySet<WebSocketSession>> lessonSubscribers = new ConcurrentHashMap<>();
-    // 전체 활성 세션 관리
-    private final CopyOnWriteArraySet<WebSocketSession> allSessions = new CopyOnWriteArraySet<>();
+    private final ConcurrentHashMap<Long, CopyOnWriteArraySet<SessionOutbox>> lessonSubscribers = new ConcurrentHashMap<>();
+    // 전체 활성 세션 관리 (세션 ID -> 송신 큐)
+    private final ConcurrentHashMap<String, SessionOutbox> outboxes = new ConcurrentHashMap<>();
+    // 대기열 티켓별 세션 (순번 알림 대상)
+    private final ConcurrentHashMap<String, SessionOutbox> waitingSessions = new ConcurrentHashMap<>();
+    // 전송 대기 중인 강습별 최신 정원 정보
+    private final ConcurrentHashMap<Long, LessonCapacityUpdateDto> pendingCapacityUpdates = new ConcurrentHashMap<>();
+    // 강습별 마지막으로 구독자에게 보낸 정원 정보 (값이 같으면 다시 보내지 않음)
+    private final ConcurrentHashMap<Long, LessonCapacityUpdateDto> lastSentCapacity = new ConcurrentHashMap<>();
+    // 구독 응답용 정원 정보 캐시 (변경 알림으로 갱신, snapshot-ttl 이 지나면 좌석 원장에서 다시 읽음)
+    private final ConcurrentHashMap<Long, CachedCapacity> capacityCache = new ConcurrentHashMap<>();
+
+    // 한 프레임으로 구독할 수 있는 최대 강습 수
+    private static final int MAX_LESSONS_PER_FRAME = 100;
+
+    @Value("${app.enrollment.websocket.send-threads:4}")
+    private int sendThreads;
+
+    @Value("${app.enrollment.websocket.send-queue-limit:32}")
+    private int sendQueueLimit;
+
+    @Value("${app.enrollment.websocket.send-time-limit:10000}")
+    private long sendTimeLimitMs;
+
+    @Value("${app.enrollment.websocket.snapshot-ttl:2000}")
+    private long snapshotTtlMs;
+
+    // Tomcat JSR-356 세션의 블로킹 전송 제한 시간 (ms, Long)
+    private static final String BLOCKING_SEND_TIMEOUT_PROPERTY = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final LessonCapacityEventBus capacityEventBus;
+    private final LessonSeatLedgerService lessonSeatLedgerService;
+    private ExecutorService sendExecutor;
+    private ExecutorService closeExecutor;
+
+    public LessonCapacityWebSocketHandler(LessonCapacityEventBus capacityEventBus,
+            LessonSeatLedgerService lessonSeatLedgerService) {
+        this.capacityEventBus = capacityEventBus;
+        this.lessonSeatLedgerService = lessonSeatLedgerService;
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "ws-capacity-send-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // 세션당 동시에 하나의 작업만 제출되므로 작업 큐 길이는 세션 수를 넘지 않는다
+        sendExecutor = Executors.newFixedThreadPool(Math.max(1, sendThreads), threadFactory);
+        closeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ws-capacity-close");
+            thread.setDaemon(true);
+            return thread;
+        });
+        capacityEventBus.subscribe(this::queueCapacityUpdate);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sendExecutor.shutdown();
+        closeExecutor.shutdown();
+        try {
+            sendExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        allSessions.add(session);
+        limitBlockingSend(session);
+        SessionOutbox outbox = new SessionOutbox(session);
+        outboxes.put(session.getId(), outbox);
         logger.info("[WebSocket] New connection established: {}", session.getId());
-        
+
         // 연결 확인 메시지 전송
-        sendMessage(session, new LessonCapacityUpdateDto(null, "connected", 0, 0, 0));
+        sendMessage(outbox, new LessonCapacityUpdateDto(null, "connected", 0, 0, 0));
     }
 
     @Override
@@ -36,14 +146,21 @@ public class LessonCapacityWebSocketHandler implements WebSocketHandler {
         try {
             String payload = message.getPayload().toString();
             logger.debug("[WebSocket] Message received from {}: {}", session.getId(), payload);
-            
-            // 클라이언트에서 특정 레슨 구독 요청 처리
+            SessionOutbox outbox = outboxes.get(session.getId());
+            if (outbox == null) {
+                return;
+            }
+
+            // 클라이언트에서 레슨 구독 요청 처리 (쉼표로 여러 강습 일괄 처리)
             if (payload.startsWith("subscribe:")) {
-                Long lessonId = Long.parseLong(payload.substring(10));
-                subscribeLessonUpdates(session, lessonId);
+                subscribeLessonUpdates(outbox, parseLessonIds(payload.substring(10)));
             } else if (payload.startsWith("unsubscribe:")) {
-                Long lessonId = Long.parseLong(payload.substring(12));
-                unsubscribeLessonUpdates(session, lessonId);
+                for (Long lessonId : parseLessonIds(payload.substring(12))) {
+                    unsubscribeLessonUpdates(outbox, lessonId);
+                }
+            } else if (payload.startsWith("waiting:")) {
+                // 대기열 순번 알림 등록 (waiting:{ticket}). 세션당 티켓 하나만 유지하고 이전 등록은 해제한다
+                registerWaitingTicket(outbox, payload.substring(8));
             }
         } catch (Exception e) {
             logger.error("[WebSocket] Error handling message from {}: {}", session.getId(), e.getMessage());
@@ -57,11 +174,19 @@ public class LessonCapacityWebSocketHandler implements WebSocketHandler {
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
-        allSessions.remove(session);
-        
-        // 모든 레슨 구독에서 제거
-        lessonSubscribers.values().forEach(subscribers -> subscribers.remove(session));
-        
+        SessionOutbox outbox = outboxes.remove(session.getId());
+
+        // 구독했던 레슨에서만 제거 (세션 -> 레슨 역색인)
+        if (outbox != null) {
+            outbox.clear();
+            for (Long lessonId : outbox.lessons) {
+                removeSubscriber(lessonId, outbox);
+            }
+        }
+        if (outbox != null && outbox.waitingTicket != null) {
+            waitingSessions.remove(outbox.waitingTicket, outbox);
+        }
+
         logger.info("[WebSocket] Connection closed: {}, reason: {}", session.getId(), closeStatus.getReason());
     }
 
@@ -71,14 +196,11 @@ public class LessonCapacityWebSocketHandler implements WebSocketHandler {
     }
 
     /**
-     * 특정 레슨의 정원 정보 업데이트를 구독자들에게 브로드캐스트
+     * 특정 레슨의 정원 정보 업데이트 예약. 실제 전송은 flushCapacityUpdates 에서 강습별 최신 값으로 한 번 이루어진다.
+     * 다른 노드의 구독자를 위해 이벤트 버스에도 발행한다.
+     * 트랜잭션 안에서 호출되면 커밋 이후에 로컬 전송 대기열과 캐시에 반영한다 (롤백된 값이 나가지 않도록).
      */
     public void broadcastLessonCapacityUpdate(Long lessonId, int capacity, int paidEnrollments, int unpaidEnrollments) {
-        CopyOnWriteArraySet<WebSocketSession> subscribers = lessonSubscribers.get(lessonId);
-        if (subscribers == null || subscribers.isEmpty()) {
-            return;
-        }
-
         LessonCapacityUpdateDto updateDto = LessonCapacityUpdateDto.builder()
                 .lessonId(lessonId)
                 .type("capacity_update")
@@ -86,56 +208,403 @@ public class LessonCapacityWebSocketHandler implements WebSocketHandler {
                 .paidEnrollments(paidEnrollments)
                 .unpaidEnrollments(unpaidEnrollments)
                 .availableSlots(capacity - paidEnrollments - unpaidEnrollments)
+                .timestamp(System.currentTimeMillis())
                 .build();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    queueCapacityUpdate(updateDto);
+                }
+            });
+        } else {
+            queueCapacityUpdate(updateDto);
+        }
+        capacityEventBus.publish(updateDto);
+    }
 
-        subscribers.forEach(session -> {
-            if (session.isOpen()) {
-                sendMessage(session, updateDto);
-            } else {
-                subscribers.remove(session);
+    // 로컬 구독자가 있는 강습만 전송 대기열에 올린다 (같은 강습은 최신 값으로 덮어씀)
+    private void queueCapacityUpdate(LessonCapacityUpdateDto updateDto) {
+        capacityCache.put(updateDto.getLessonId(), new CachedCapacity(updateDto));
+        CopyOnWriteArraySet<SessionOutbox> subscribers = lessonSubscribers.get(updateDto.getLessonId());
+        if (subscribers == null || subscribers.isEmpty()) {
+            return;
+        }
+        pendingCapacityUpdates.put(updateDto.getLessonId(), updateDto);
+    }
+
+    /**
+     * 모아 둔 정원 정보를 강습별로 한 번 직렬화하여 구독자 송신 큐에 넣는다.
+     */
+    @Scheduled(fixedDelayString = "${app.enrollment.websocket.coalesce-window:200}")
+    public void flushCapacityUpdates() {
+        for (Long lessonId : pendingCapacityUpdates.keySet()) {
+            LessonCapacityUpdateDto updateDto = pendingCapacityUpdates.remove(lessonId);
+            CopyOnWriteArraySet<SessionOutbox> subscribers = lessonSubscribers.get(lessonId);
+            if (updateDto == null || subscribers == null || subscribers.isEmpty()) {
+                continue;
             }
-        });
+            LessonCapacityUpdateDto lastSent = lastSentCapacity.put(lessonId, updateDto);
+            if (sameCounts(lastSent, updateDto)) {
+                continue;
+            }
+            TextMessage message = toTextMessage(updateDto);
+            if (message == null) {
+                continue;
+            }
+            subscribers.forEach(outbox -> {
+                if (outbox.session.isOpen()) {
+                    outbox.offerCapacity(lessonId, message);
+                } else {
+                    subscribers.remove(outbox);
+                }
+            });
+            logger.debug("[WebSocket] Broadcasted capacity update for lesson {} to {} subscribers",
+                    lessonId, subscribers.size());
+        }
+    }
+
+    /**
+     * 대기열 티켓을 등록한 세션에 순번/입장 알림 전송
+     */
+    public void sendQueuePosition(QueuePositionUpdateDto update) {
+        SessionOutbox outbox = waitingSessions.get(update.getTicket());
+        if (outbox == null) {
+            return;
+        }
+        if (outbox.session.isOpen()) {
+            sendMessage(outbox, update);
+        } else {
+            waitingSessions.remove(update.getTicket());
+        }
+    }
+
+    /**
+     * 입장 처리 또는 만료된 티켓의 알림 등록 해제
+     */
+    public void releaseQueueTicket(String ticket) {
+        waitingSessions.remove(ticket);
+    }
 
-        logger.info("[WebSocket] Broadcasted capacity update for lesson {} to {} subscribers", 
-                   lessonId, subscribers.size());
+    /**
+     * 이 노드에 알림 등록된 대기열 티켓 (복사본)
+     */
+    public Set<String> waitingTickets() {
+        return new HashSet<>(waitingSessions.keySet());
+    }
+
+    private void registerWaitingTicket(SessionOutbox outbox, String ticket) {
+        if (ticket.isEmpty()) {
+            return;
+        }
+        synchronized (outbox) {
+            String previous = outbox.waitingTicket;
+            if (previous != null && !previous.equals(ticket)) {
+                waitingSessions.remove(previous, outbox);
+            }
+            outbox.waitingTicket = ticket;
+            waitingSessions.put(ticket, outbox);
+        }
     }
 
     /**
-     * 특정 레슨 업데이트 구독
+     * 레슨 업데이트 구독. 구독 응답으로 현재 정원 정보를 바로 보낸다.
      */
-    private void subscribeLessonUpdates(WebSocketSession session, Long lessonId) {
-        lessonSubscribers.computeIfAbsent(lessonId, k -> new CopyOnWriteArraySet<>()).add(session);
-        logger.info("[WebSocket] Session {} subscribed to lesson {}", session.getId(), lessonId);
-        
-        // 구독 확인 메시지 전송
-        sendMessage(session, new LessonCapacityUpdateDto(lessonId, "subscribed", 0, 0, 0));
+    private void subscribeLessonUpdates(SessionOutbox outbox, Set<Long> lessonIds) {
+        if (lessonIds.isEmpty()) {
+            return;
+        }
+        for (Long lessonId : lessonIds) {
+            lessonSubscribers.compute(lessonId, (k, subscribers) -> {
+                CopyOnWriteArraySet<SessionOutbox> result = subscribers != null ? subscribers
+                        : new CopyOnWriteArraySet<>();
+                result.add(outbox);
+                return result;
+            });
+            outbox.lessons.add(lessonId);
+        }
+        logger.info("[WebSocket] Session {} subscribed to lessons {}", outbox.session.getId(), lessonIds);
+
+        List<LessonCapacityUpdateDto> snapshots = currentCapacities(lessonIds);
+        for (LessonCapacityUpdateDto snapshot : snapshots) {
+            // 기존 구독자가 받은 값과 다르면 기존 구독자에게도 최신 값을 보낸다 (이미 대기 중인 값이 있으면 그것이 더 최신)
+            if (!sameCounts(lastSentCapacity.get(snapshot.getLessonId()), snapshot)) {
+                pendingCapacityUpdates.putIfAbsent(snapshot.getLessonId(), snapshot);
+            }
+        }
+
+        outbox.discardCapacity(lessonIds);
+        if (lessonIds.size() == 1) {
+            Long lessonId = lessonIds.iterator().next();
+            LessonCapacityUpdateDto subscribed = snapshots.isEmpty()
+                    ? new LessonCapacityUpdateDto(lessonId, "subscribed", 0, 0, 0)
+                    : new LessonCapacityUpdateDto(lessonId, "subscribed", snapshots.get(0).getCapacity(),
+                            snapshots.get(0).getPaidEnrollments(), snapshots.get(0).getUnpaidEnrollments());
+            sendMessage(outbox, subscribed);
+        } else {
+            sendMessage(outbox, LessonCapacitySnapshotDto.builder()
+                    .type("snapshot")
+                    .lessons(snapshots)
+                    .timestamp(System.currentTimeMillis())
+                    .build());
+        }
     }
 
     /**
      * 특정 레슨 업데이트 구독 해제
      */
-    private void unsubscribeLessonUpdates(WebSocketSession session, Long lessonId) {
-        CopyOnWriteArraySet<WebSocketSession> subscribers = lessonSubscribers.get(lessonId);
-        if (subscribers != null) {
-            subscribers.remove(session);
-            if (subscribers.isEmpty()) {
-                lessonSubscribers.remove(lessonId);
+    private void unsubscribeLessonUpdates(SessionOutbox outbox, Long lessonId) {
+        outbox.lessons.remove(lessonId);
+        removeSubscriber(lessonId, outbox);
+        logger.info("[WebSocket] Session {} unsubscribed from lesson {}", outbox.session.getId(), lessonId);
+    }
+
+    private void removeSubscriber(Long lessonId, SessionOutbox outbox) {
+        lessonSubscribers.computeIfPresent(lessonId, (k, subscribers) -> {
+            subscribers.remove(outbox);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    // 캐시에 있는 값은 그대로, 없거나 오래된 강습은 좌석 원장에서 한 번에 조회
+    private List<LessonCapacityUpdateDto> currentCapacities(Set<Long> lessonIds) {
+        long now = System.currentTimeMillis();
+        List<LessonCapacityUpdateDto> capacities = new ArrayList<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long lessonId : lessonIds) {
+            CachedCapacity cached = capacityCache.get(lessonId);
+            if (cached != null && now - cached.cachedAt <= snapshotTtlMs) {
+                capacities.add(cached.capacity);
+            } else {
+                missingIds.add(lessonId);
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            try {
+                Map<Long, LessonSeatSnapshot> seats = lessonSeatLedgerService.getSnapshots(missingIds);
+                for (LessonSeatSnapshot seat : seats.values()) {
+                    LessonCapacityUpdateDto capacity = LessonCapacityUpdateDto.builder()
+                            .lessonId(seat.getLessonId())
+                            .type("capacity_update")
+                            .capacity(seat.getCapacity())
+                            .paidEnrollments(seat.getPaidCount())
+                            .unpaidEnrollments(seat.getHeldCount())
+                            .availableSlots(seat.getRemainingSeats())
+                            .timestamp(now)
+                            .build();
+                    capacityCache.put(seat.getLessonId(), new CachedCapacity(capacity));
+                    capacities.add(capacity);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("[WebSocket] Failed to load capacity snapshots for lessons {}: {}", missingIds,
+                        e.getMessage());
+            }
+        }
+        return capacities;
+    }
+
+    private static Set<Long> parseLessonIds(String value) {
+        Set<Long> lessonIds = new LinkedHashSet<>();
+        for (String token : value.split(",")) {
+            String trimmed = token.trim();
+            if (!trimmed.isEmpty() && lessonIds.size() < MAX_LESSONS_PER_FRAME) {
+                lessonIds.add(Long.parseLong(trimmed));
             }
         }
-        logger.info("[WebSocket] Session {} unsubscribed from lesson {}", session.getId(), lessonId);
+        return lessonIds;
+    }
+
+    private static boolean sameCounts(LessonCapacityUpdateDto a, LessonCapacityUpdateDto b) {
+        return a != null && b != null
+                && a.getCapacity() == b.getCapacity()
+                && a.getPaidEnrollments() == b.getPaidEnrollments()
+                && a.getUnpaidEnrollments() == b.getUnpaidEnrollments();
+    }
+
+    @Scheduled(fixedDelayString = "${app.enrollment.websocket.snapshot-ttl:2000}")
+    public void evictCapacityCache() {
+        long now = System.currentTimeMillis();
+        capacityCache.values().removeIf(cached -> now - cached.cachedAt > snapshotTtlMs);
+        lastSentCapacity.keySet().removeIf(lessonId -> !lessonSubscribers.containsKey(lessonId));
     }
 
     /**
-     * 메시지 전송 헬퍼 메소드
+     * 전송이 send-time-limit 이상 끝나지 않는 세션을 닫는다 (새 메시지가 없어도 멈춘 세션이 정리되도록).
      */
-    private void sendMessage(WebSocketSession session, LessonCapacityUpdateDto message) {
+    @Scheduled(fixedDelayString = "${app.enrollment.websocket.stall-check-interval:1000}")
+    public void closeStalledSessions() {
+        long now = System.currentTimeMillis();
+        for (SessionOutbox outbox : outboxes.values()) {
+            if (outbox.isStalled(now)) {
+                logger.warn("[WebSocket] Session {} has not accepted a message for {}ms, closing.",
+                        outbox.session.getId(), sendTimeLimitMs);
+                outbox.closeAsync(CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        }
+    }
+
+    /**
+     * 메시지 전송 헬퍼 메소드 (세션 제어 메시지 대기열에 넣고 바로 반환)
+     */
+    private void sendMessage(SessionOutbox outbox, Object message) {
+        if (!outbox.session.isOpen()) {
+            return;
+        }
+        TextMessage textMessage = toTextMessage(message);
+        if (textMessage != null) {
+            outbox.offerControl(textMessage);
+        }
+    }
+
+    // WebSocket 전송(SockJS 의 websocket 전송 포함)은 소켓 쓰기가 send-time-limit 안에 끝나지 않으면 실패시켜 송신 스레드를 돌려받는다
+    private void limitBlockingSend(WebSocketSession session) {
+        if (!(session instanceof NativeWebSocketSession)) {
+            return;
+        }
+        javax.websocket.Session nativeSession = ((NativeWebSocketSession) session)
+                .getNativeSession(javax.websocket.Session.class);
+        if (nativeSession != null) {
+            nativeSession.getUserProperties().put(BLOCKING_SEND_TIMEOUT_PROPERTY, sendTimeLimitMs);
+        }
+    }
+
+    private TextMessage toTextMessage(Object message) {
         try {
-            if (session.isOpen()) {
-                String json = objectMapper.writeValueAsString(message);
-                session.sendMessage(new TextMessage(json));
+            return new TextMessage(objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            logger.error("[WebSocket] Failed to serialize message {}: {}", message, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 구독 응답용 정원 정보와 캐시 시각
+     */
+    private static final class CachedCapacity {
+        private final LessonCapacityUpdateDto capacity;
+        private final long cachedAt = System.currentTimeMillis();
+
+        CachedCapacity(LessonCapacityUpdateDto capacity) {
+            this.capacity = capacity;
+        }
+    }
+
+    /**
+     * 세션별 송신 대기열. 버리면 안 되는 제어 메시지(구독 응답, 대기실 순번)는 순서대로, 정원 알림은 강습별 최신 값 하나만 둔다.
+     * 한 번에 하나의 작업만 송신 스레드 풀에 올라가므로 세션 내 전송 순서가 유지된다.
+     */
+    private final class SessionOutbox implements Runnable {
+        private final WebSocketSession session;
+        // 이 세션이 구독 중인 강습 (연결 종료 시 역색인으로 사용)
+        private final Set<Long> lessons = ConcurrentHashMap.newKeySet();
+        private final ConcurrentLinkedQueue<TextMessage> controlQueue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger controlQueued = new AtomicInteger();
+        // 아직 보내지 않은 강습별 최신 정원 알림 (새 값이 오면 덮어씀)
+        private final ConcurrentHashMap<Long, TextMessage> latestCapacity = new ConcurrentHashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closing = new AtomicBoolean();
+        // 진행 중인 전송의 시작 시각 (0 이면 전송 중 아님)
+        private volatile long sendStartedAt;
+        // 이 세션이 등록한 대기열 티켓 (세션당 하나)
+        private volatile String waitingTicket;
+
+        private SessionOutbox(WebSocketSession session) {
+            this.session = session;
+        }
+
+        void offerControl(TextMessage message) {
+            // 제어 메시지는 버리지 않는다. 한도를 넘게 쌓이면 받지 못하는 클라이언트로 보고 연결을 닫는다
+            if (controlQueued.incrementAndGet() > sendQueueLimit) {
+                controlQueued.decrementAndGet();
+                logger.warn("[WebSocket] Session {} has {} unsent control messages, closing.", session.getId(),
+                        sendQueueLimit);
+                closeAsync(CloseStatus.SESSION_NOT_RELIABLE);
+                return;
+            }
+            controlQueue.add(message);
+            schedule();
+        }
+
+        void offerCapacity(Long lessonId, TextMessage message) {
+            latestCapacity.put(lessonId, message);
+            schedule();
+        }
+
+        // 구독 응답에 현재 값이 실리므로 그보다 먼저 쌓인 정원 알림은 보내지 않는다
+        void discardCapacity(Set<Long> lessonIds) {
+            latestCapacity.keySet().removeAll(lessonIds);
+        }
+
+        void clear() {
+            controlQueue.clear();
+            controlQueued.set(0);
+            latestCapacity.clear();
+        }
+
+        boolean isStalled(long now) {
+            long startedAt = sendStartedAt;
+            return startedAt > 0 && now - startedAt > sendTimeLimitMs;
+        }
+
+        @Override
+        public void run() {
+            try {
+                TextMessage message;
+                while ((message = next()) != null) {
+                    if (!session.isOpen()) {
+                        clear();
+                        return;
+                    }
+                    sendStartedAt = System.currentTimeMillis();
+                    try {
+                        session.sendMessage(message);
+                    } finally {
+                        sendStartedAt = 0;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.error("[WebSocket] Failed to send message to session {}: {}", session.getId(), e.getMessage());
+            } finally {
+                draining.set(false);
+                if (session.isOpen() && (!controlQueue.isEmpty() || !latestCapacity.isEmpty())) {
+                    schedule();
+                }
+            }
+        }
+
+        // 제어 메시지를 먼저, 그다음 강습별 최신 정원 알림
+        private TextMessage next() {
+            TextMessage message = controlQueue.poll();
+            if (message != null) {
+                controlQueued.decrementAndGet();
+                return message;
+            }
+            for (Map.Entry<Long, TextMessage> entry : latestCapacity.entrySet()) {
+                if (latestCapacity.remove(entry.getKey(), entry.getValue())) {
+                    return entry.getValue();
+                }
+            }
+            return null;
+        }
+
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                sendExecutor.execute(this);
+            }
+        }
+
+        // 멈춘 연결의 종료 핸드셰이크가 호출 스레드를 붙잡지 않도록 별도 스레드에서 닫는다
+        private void closeAsync(CloseStatus status) {
+            if (!closing.compareAndSet(false, true)) {
+                return;
             }
-        } catch (IOException e) {
-            logger.error("[WebSocket] Failed to send message to session {}: {}", session.getId(), e.getMessage());
+            closeExecutor.execute(() -> {
+                try {
+                    session.close(status);
+                } catch (IOException e) {
+                    logger.debug("[WebSocket] Failed to close session {}: {}", session.getId(), e.getMessage());
+                }
+            });
         }
     }
-} 
\ No newline at end of file
+}
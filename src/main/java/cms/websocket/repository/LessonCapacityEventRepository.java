@@ -0,0 +1,31 @@
+package cms.websocket.repository;
+
+import cms.websocket.domain.LessonCapacityEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LessonCapacityEventRepository extends JpaRepository<LessonCapacityEvent, Long> {
+
+    // 커서 이후 이벤트 (event_id 순)
+    @Query("SELECT e FROM LessonCapacityEvent e WHERE e.eventId > :afterEventId ORDER BY e.eventId ASC")
+    List<LessonCapacityEvent> findAfter(@Param("afterEventId") Long afterEventId, Pageable pageable);
+
+    // 커서보다 앞 번호지만 늦게 커밋되어 이전 폴링에서 보이지 않았던 이벤트
+    List<LessonCapacityEvent> findByEventIdIn(Collection<Long> eventIds);
+
+    @Query("SELECT COALESCE(MAX(e.eventId), 0) FROM LessonCapacityEvent e")
+    Long findMaxEventId();
+
+    @Modifying
+    @Query("DELETE FROM LessonCapacityEvent e WHERE e.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,18 @@
+package cms.websocket.service;
+
+import cms.websocket.dto.LessonCapacityUpdateDto;
+
+import java.util.function.Consumer;
+
+/**
+ * 노드 간 강습 정원 변경 전달.
+ * app.enrollment.websocket.event-bus.type 으로 구현 선택: database(기본, 이벤트 로그 테이블 폴링) | local(단일 노드)
+ */
+public interface LessonCapacityEventBus {
+
+    // 다른 노드로 정원 변경 발행 (호출자 트랜잭션이 있으면 커밋 시점에 다른 노드에 보인다)
+    void publish(LessonCapacityUpdateDto update);
+
+    // 다른 노드에서 발행된 정원 변경 수신 등록
+    void subscribe(Consumer<LessonCapacityUpdateDto> listener);
+}
@@ -0,0 +1,204 @@
+package cms.websocket.service.impl;
+
+import cms.websocket.domain.LessonCapacityEvent;
+import cms.websocket.dto.LessonCapacityUpdateDto;
+import cms.websocket.repository.LessonCapacityEventRepository;
+import cms.websocket.service.LessonCapacityEventBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 이벤트 로그 테이블(lesson_capacity_event) 기반 노드 간 정원 변경 전달 (기본 구현).
+ *
+ * - 발행: 호출자 트랜잭션이 커밋된 뒤 강습별 최신 값만 모아 두었다가 publish-window 마다 한 트랜잭션으로 기록한다
+ *   (롤백된 신청은 발행되지 않고, 같은 구간의 같은 강습 변경은 한 행으로 합쳐진다).
+ * - 수신: 각 노드가 poll-interval 마다 마지막으로 읽은 event_id 이후를 순서대로 읽어 자기 노드가 발행하지 않은 이벤트만 전달한다.
+ * - 번호는 받았지만 늦게 커밋된 이벤트가 커서 뒤로 밀리지 않도록, 건너뛴 번호는 gap-timeout 동안 다시 조회한다.
+ *   강습별로 이미 전달한 이벤트보다 오래된 이벤트는 버린다.
+ * - 표준 SQL/JPQL 만 사용하므로 MariaDB, HSQLDB 모두에서 동작한다.
+ */
+@Service
+@ConditionalOnProperty(name = "app.enrollment.websocket.event-bus.type", havingValue = "database", matchIfMissing = true)
+public class DatabaseLessonCapacityEventBus implements LessonCapacityEventBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseLessonCapacityEventBus.class);
+
+    // 한 번에 건너뛴 번호가 이보다 많으면 (auto_increment_increment 등) 다시 조회하지 않는다
+    private static final long MAX_TRACKED_GAP = 1000;
+
+    private final LessonCapacityEventRepository eventRepository;
+    private final TransactionTemplate publishTransaction;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<LessonCapacityUpdateDto>> listeners = new CopyOnWriteArrayList<>();
+    // 다시 조회할 누락 번호 -> 포기 시각
+    private final Map<Long, Long> gaps = new ConcurrentHashMap<>();
+    // 기록 대기 중인 강습별 최신 정원 정보 (publish-window 마다 한 번에 기록)
+    private final Map<Long, LessonCapacityUpdateDto> pendingPublishes = new ConcurrentHashMap<>();
+    // 강습별 마지막으로 전달한 event_id
+    private final Map<Long, Long> lastDeliveredByLesson = new ConcurrentHashMap<>();
+    // 마지막으로 읽은 event_id (-1 이면 첫 폴링에서 현재 최댓값으로 초기화)
+    private volatile long cursor = -1;
+
+    @Value("${app.enrollment.websocket.event-bus.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.enrollment.websocket.event-bus.gap-timeout:5000}")
+    private long gapTimeoutMs;
+
+    @Value("${app.enrollment.websocket.event-bus.retention:600000}")
+    private long retentionMs;
+
+    public DatabaseLessonCapacityEventBus(LessonCapacityEventRepository eventRepository,
+            PlatformTransactionManager transactionManager) {
+        this.eventRepository = eventRepository;
+        this.publishTransaction = new TransactionTemplate(transactionManager);
+        this.publishTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void publish(LessonCapacityUpdateDto update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pendingPublishes.put(update.getLessonId(), update);
+                }
+            });
+        } else {
+            pendingPublishes.put(update.getLessonId(), update);
+        }
+    }
+
+    /**
+     * 모아 둔 정원 변경을 강습당 한 행씩 한 트랜잭션으로 기록한다.
+     */
+    @Scheduled(fixedDelayString = "${app.enrollment.websocket.event-bus.publish-window:200}")
+    public void flushPublishes() {
+        if (pendingPublishes.isEmpty()) {
+            return;
+        }
+        List<LessonCapacityEvent> events = new ArrayList<>();
+        for (Long lessonId : pendingPublishes.keySet()) {
+            LessonCapacityUpdateDto update = pendingPublishes.remove(lessonId);
+            if (update != null) {
+                events.add(LessonCapacityEvent.builder()
+                        .lessonId(update.getLessonId())
+                        .capacity(update.getCapacity())
+                        .paidCount(update.getPaidEnrollments())
+                        .heldCount(update.getUnpaidEnrollments())
+                        .nodeId(nodeId)
+                        .build());
+            }
+        }
+        try {
+            publishTransaction.executeWithoutResult(status -> eventRepository.saveAll(events));
+        } catch (RuntimeException e) {
+            // 알림 실패가 신청 처리에 영향을 주지 않도록 기록만 한다 (다른 노드는 다음 변경 때 최신 값을 받음)
+            logger.warn("[CapacityEventBus] Failed to publish {} capacity events: {}", events.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<LessonCapacityUpdateDto> listener) {
+        listeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${app.enrollment.websocket.event-bus.poll-interval:500}")
+    public void pollEvents() {
+        try {
+            if (cursor < 0) {
+                cursor = eventRepository.findMaxEventId();
+                logger.info("[CapacityEventBus] Node {} starts reading capacity events after {}", nodeId, cursor);
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            List<LessonCapacityEvent> events = new ArrayList<>();
+            if (!gaps.isEmpty()) {
+                gaps.values().removeIf(deadline -> deadline < now);
+                if (!gaps.isEmpty()) {
+                    for (LessonCapacityEvent late : eventRepository.findByEventIdIn(new ArrayList<>(gaps.keySet()))) {
+                        gaps.remove(late.getEventId());
+                        events.add(late);
+                    }
+                }
+            }
+
+            for (LessonCapacityEvent event : eventRepository.findAfter(cursor, PageRequest.of(0, batchSize))) {
+                long eventId = event.getEventId();
+                if (eventId - cursor - 1 <= MAX_TRACKED_GAP) {
+                    for (long missing = cursor + 1; missing < eventId; missing++) {
+                        gaps.put(missing, now + gapTimeoutMs);
+                    }
+                }
+                cursor = eventId;
+                events.add(event);
+            }
+
+            events.sort(Comparator.comparing(LessonCapacityEvent::getEventId));
+            for (LessonCapacityEvent event : events) {
+                deliver(event);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("[CapacityEventBus] Failed to poll capacity events: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.enrollment.websocket.event-bus.cleanup-interval:60000}")
+    public void purgeExpiredEvents() {
+        try {
+            Integer deleted = publishTransaction.execute(status -> eventRepository
+                    .deleteCreatedBefore(LocalDateTime.now().minus(retentionMs, ChronoUnit.MILLIS)));
+            if (deleted != null && deleted > 0) {
+                logger.debug("[CapacityEventBus] Purged {} capacity events older than {}ms", deleted, retentionMs);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("[CapacityEventBus] Failed to purge capacity events: {}", e.getMessage());
+        }
+    }
+
+    private void deliver(LessonCapacityEvent event) {
+        Long lastDelivered = lastDeliveredByLesson.get(event.getLessonId());
+        if (lastDelivered != null && lastDelivered > event.getEventId()) {
+            return;
+        }
+        lastDeliveredByLesson.put(event.getLessonId(), event.getEventId());
+        if (nodeId.equals(event.getNodeId())) {
+            return;
+        }
+
+        LessonCapacityUpdateDto update = LessonCapacityUpdateDto.builder()
+                .lessonId(event.getLessonId())
+                .type("capacity_update")
+                .capacity(event.getCapacity())
+                .paidEnrollments(event.getPaidCount())
+                .unpaidEnrollments(event.getHeldCount())
+                .availableSlots(event.getCapacity() - event.getPaidCount() - event.getHeldCount())
+                .timestamp(System.currentTimeMillis())
+                .build();
+        for (Consumer<LessonCapacityUpdateDto> listener : listeners) {
+            listener.accept(update);
+        }
+    }
+}
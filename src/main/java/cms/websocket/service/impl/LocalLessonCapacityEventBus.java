@@ -0,0 +1,26 @@
+package cms.websocket.service.impl;
+
+import cms.websocket.dto.LessonCapacityUpdateDto;
+import cms.websocket.service.LessonCapacityEventBus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.function.Consumer;
+
+/**
+ * 단일 노드 운영용. 다른 노드가 없으므로 발행/수신 모두 하지 않는다.
+ */
+@Service
+@ConditionalOnProperty(name = "app.enrollment.websocket.event-bus.type", havingValue = "local")
+public class LocalLessonCapacityEventBus implements LessonCapacityEventBus {
+
+    @Override
+    public void publish(LessonCapacityUpdateDto update) {
+        // 로컬 구독자 전송은 LessonCapacityWebSocketHandler 가 직접 처리
+    }
+
+    @Override
+    public void subscribe(Consumer<LessonCapacityUpdateDto> listener) {
+        // 수신할 원격 이벤트 없음
+    }
+}
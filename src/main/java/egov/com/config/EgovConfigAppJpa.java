@@ -3,12 +3,15 @@ package egov.com.config;
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 
+import org.hibernate.cfg.AvailableSettings;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.hibernate5.SpringBeanContainer;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
@@ -45,6 +48,9 @@ public class EgovConfigAppJpa {
     @Autowired
     private DataSource dataSource;
 
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
     @Bean
     public LocalContainerEntityManagerFactoryBean entityManagerFactory() {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
@@ -88,6 +94,8 @@ public class EgovConfigAppJpa {
         properties.setProperty("hibernate.generate_statistics", "true");
         
         em.setJpaProperties(properties);
+        // 엔티티 리스너(@EntityListeners)를 Spring 빈으로 생성 (스프링 부트 기본 JPA 설정과 동일)
+        em.getJpaPropertyMap().put(AvailableSettings.BEAN_CONTAINER, new SpringBeanContainer(beanFactory));
         
         return em;
     }
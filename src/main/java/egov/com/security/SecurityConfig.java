@@ -85,6 +85,7 @@ public class SecurityConfig {
 				"/api/v1/cms/popups/active",
 				"/api/v1/swimming/lessons/**",
 				"/api/v1/nice/checkplus/**",
+				"/api/v1/kispg/payment-notification",
 				"/api/v1/group-reservations");
 		for (String pattern : permitAllAntPatterns) {
 			matchers.add(new AntPathRequestMatcher(pattern));
@@ -184,6 +185,8 @@ public class SecurityConfig {
 				"Origin",
 				"Accept",
 				"X-Requested-With",
+				"X-Waiting-Room-Token",
+				"Idempotency-Key",
 				"Access-Control-Request-Method",
 				"Access-Control-Request-Headers"));
 		configuration.setAllowCredentials(true);
@@ -0,0 +1,18 @@
+-- 강습별 좌석 원장 (잔여 정원 조회를 enroll COUNT 대신 PK 단건 조회로 처리)
+CREATE TABLE lesson_seat_ledger (
+  lesson_id BIGINT NOT NULL PRIMARY KEY COMMENT 'PK/FK: 강습 ID',
+  capacity INT NOT NULL DEFAULT 0 COMMENT '정원 (lesson.capacity 사본)',
+  paid_count INT NOT NULL DEFAULT 0 COMMENT '결제 완료(PAID) 인원',
+  held_count INT NOT NULL DEFAULT 0 COMMENT '결제 대기(APPLIED/UNPAID) 점유 인원',
+  updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '수정 시각',
+  CONSTRAINT fk_lesson_seat_ledger_lesson FOREIGN KEY (lesson_id) REFERENCES lesson(lesson_id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='강습별 좌석 원장';
+
+-- 기존 강습 원장 초기화 (결제 대기 건은 만료 정리 작업이 EXPIRED 로 전환할 때까지 점유로 집계)
+INSERT INTO lesson_seat_ledger (lesson_id, capacity, paid_count, held_count)
+SELECT l.lesson_id,
+       l.capacity,
+       (SELECT COUNT(*) FROM enroll e WHERE e.lesson_id = l.lesson_id AND e.pay_status = 'PAID'),
+       (SELECT COUNT(*) FROM enroll e WHERE e.lesson_id = l.lesson_id AND e.status = 'APPLIED'
+            AND e.pay_status = 'UNPAID')
+FROM lesson l;
@@ -0,0 +1,9 @@
+-- lesson_time 자유 입력 문자열의 파싱 결과 (요일/시간대 검색용, 저장 시 애플리케이션에서 갱신)
+ALTER TABLE lesson
+  ADD COLUMN day_mask INT NULL COMMENT '요일 비트 마스크 (월=1, 화=2, 수=4, 목=8, 금=16, 토=32, 일=64)' AFTER lesson_time,
+  ADD COLUMN start_minute INT NULL COMMENT '시작 시각 (자정 기준 분)' AFTER day_mask,
+  ADD COLUMN end_minute INT NULL COMMENT '종료 시각 (자정 기준 분)' AFTER start_minute;
+
+CREATE INDEX idx_lesson_time_slot ON lesson (start_minute, end_minute, day_mask);
+
+-- 기존 강습은 애플리케이션 기동 시 LessonTimeSlotBackfillJob 이 채운다
@@ -0,0 +1,10 @@
+-- 강습 계보 (복제 원본 / 시리즈). 재수강 대상 다음 달 강습을 텍스트 4개 컬럼 비교 대신 키로 조회한다.
+ALTER TABLE lesson
+  ADD COLUMN previous_lesson_id BIGINT NULL COMMENT '복제 원본(직전 회차) 강습 ID' AFTER location_name,
+  ADD COLUMN series_id BIGINT NULL COMMENT '강습 시리즈 ID (최초 강습 ID)' AFTER previous_lesson_id,
+  ADD CONSTRAINT fk_lesson_previous_lesson FOREIGN KEY (previous_lesson_id) REFERENCES lesson(lesson_id) ON DELETE SET NULL;
+
+CREATE INDEX idx_lesson_previous_lesson ON lesson (previous_lesson_id, start_date);
+CREATE INDEX idx_lesson_series ON lesson (series_id, start_date);
+
+-- 기존 강습의 계보는 애플리케이션 기동 시 LessonLineageBackfillJob 이 (강습명, 강사, 시간, 장소) 기준으로 채운다
@@ -0,0 +1,11 @@
+-- 강습 정원 변경 이벤트 로그 (여러 노드가 event_id 순으로 폴링하여 각자의 WebSocket 구독자에게 재전송)
+CREATE TABLE lesson_capacity_event (
+  event_id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY COMMENT 'PK: 단조 증가 이벤트 순번',
+  lesson_id BIGINT NOT NULL COMMENT '강습 ID',
+  capacity INT NOT NULL COMMENT '정원',
+  paid_count INT NOT NULL COMMENT '결제 완료 인원',
+  held_count INT NOT NULL COMMENT '결제 대기 점유 인원',
+  node_id VARCHAR(64) NOT NULL COMMENT '발행 노드 ID (자기 이벤트는 폴링 시 건너뜀)',
+  created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '발행 시각',
+  INDEX idx_lesson_capacity_event_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='강습 정원 변경 이벤트 로그';
@@ -0,0 +1,10 @@
+-- 사물함 사용 수량 보정 이력 (LockerUsageSyncJob 이 증감 카운터와 실제 배정 건수의 차이를 보정할 때마다 기록)
+CREATE TABLE locker_usage_drift (
+  id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY COMMENT 'PK',
+  gender VARCHAR(10) NOT NULL COMMENT '성별 (MALE/FEMALE)',
+  expected_quantity INT NOT NULL COMMENT '수강 신청 기준 실제 사용 수량',
+  stored_quantity INT NOT NULL COMMENT '보정 전 locker_inventory.used_quantity',
+  delta INT NOT NULL COMMENT 'expected_quantity - stored_quantity',
+  detected_at DATETIME NOT NULL COMMENT '보정 시각',
+  INDEX idx_locker_usage_drift_detected (detected_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='사물함 사용 수량 보정 이력';
@@ -0,0 +1,18 @@
+-- KISPG 결제 통지 수신함 (수신 즉시 원문을 저장하고 응답한 뒤, 작업 스레드가 순서대로 처리)
+CREATE TABLE kispg_webhook_inbox (
+  id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY COMMENT 'PK',
+  tid VARCHAR(100) NOT NULL COMMENT 'KISPG 거래 ID (재전송 중복 제거 기준)',
+  moid VARCHAR(100) NULL COMMENT '주문번호',
+  result_code VARCHAR(10) NULL COMMENT 'KISPG 결과 코드',
+  payload TEXT NOT NULL COMMENT '수신한 통지 원문 (JSON)',
+  client_ip VARCHAR(45) NULL COMMENT '통지 발신 IP',
+  status VARCHAR(20) NOT NULL COMMENT 'PENDING, PROCESSING, DONE, DEAD',
+  attempts INT NOT NULL DEFAULT 0 COMMENT '처리 시도 횟수',
+  next_attempt_at DATETIME NOT NULL COMMENT '다음 처리 가능 시각',
+  last_error VARCHAR(1000) NULL COMMENT '마지막 처리 실패 사유',
+  received_at DATETIME NOT NULL COMMENT '수신 시각',
+  processed_at DATETIME NULL COMMENT '처리 완료(또는 포기) 시각',
+  updated_at DATETIME NOT NULL COMMENT '상태 변경 시각',
+  UNIQUE KEY uk_kispg_webhook_inbox_tid (tid),
+  INDEX idx_kispg_webhook_inbox_status_next (status, next_attempt_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='KISPG 결제 통지 수신함';
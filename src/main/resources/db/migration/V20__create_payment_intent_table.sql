@@ -0,0 +1,15 @@
+-- 신청 전 결제(temp_ MOID)의 사용자 선택 정보. 결제 통지/승인 시 MOID 로 한 번에 조회한다
+CREATE TABLE payment_intent (
+  moid VARCHAR(100) NOT NULL PRIMARY KEY COMMENT 'PK: KISPG 주문번호 (temp_...)',
+  user_uuid VARCHAR(36) NOT NULL COMMENT '결제 사용자',
+  lesson_id BIGINT NOT NULL COMMENT '신청 강습',
+  uses_locker TINYINT(1) NOT NULL DEFAULT 0 COMMENT '사물함 사용 선택 여부',
+  membership_type VARCHAR(50) NOT NULL DEFAULT 'GENERAL' COMMENT '할인 회원 유형',
+  expected_amount INT NOT NULL COMMENT '결제 요청 금액',
+  status VARCHAR(20) NOT NULL COMMENT 'PENDING, COMPLETED',
+  enroll_id BIGINT NULL COMMENT '결제 완료로 생성된 수강신청',
+  created_ip VARCHAR(45) NULL COMMENT '결제 준비 요청 IP',
+  created_at DATETIME NOT NULL COMMENT '결제 준비 시각',
+  completed_at DATETIME NULL COMMENT '수강신청 생성 시각',
+  INDEX idx_payment_intent_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='신청 전 결제 의도';
@@ -0,0 +1,8 @@
+-- 결제창 진입 시 enroll_ MOID 도 결제 의도로 남겨, 통지가 유실된 주문을 MOID 로 PG 에 재조회할 수 있게 한다
+ALTER TABLE payment_intent
+  MODIFY COLUMN status VARCHAR(20) NOT NULL COMMENT 'PENDING, COMPLETED, EXPIRED, FLAGGED',
+  MODIFY COLUMN enroll_id BIGINT NULL COMMENT '결제 대상(enroll_ MOID) 또는 결제 완료로 생성된 수강신청',
+  ADD COLUMN check_count INT NOT NULL DEFAULT 0 COMMENT 'PG 상태 재조회 횟수' AFTER completed_at,
+  ADD COLUMN last_checked_at DATETIME NULL COMMENT '마지막 PG 상태 재조회 시각' AFTER check_count,
+  ADD COLUMN status_note VARCHAR(500) NULL COMMENT '만료/확인 필요 사유' AFTER last_checked_at,
+  ADD INDEX idx_payment_intent_status_created (status, created_at);
@@ -0,0 +1,17 @@
+-- PG 취소(환불) 요청 기록. PG 호출 전 짧은 트랜잭션으로 남기고, 호출 결과를 별도 트랜잭션으로 반영한다
+CREATE TABLE payment_cancel_request (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  payment_id BIGINT NOT NULL COMMENT '취소 대상 결제',
+  enroll_id BIGINT NOT NULL COMMENT '취소 대상 수강신청',
+  tid VARCHAR(100) NOT NULL COMMENT 'KISPG 거래 ID',
+  cancel_amount INT NOT NULL COMMENT '취소 요청 금액',
+  partial_cancel TINYINT(1) NOT NULL DEFAULT 0 COMMENT '부분 취소 여부',
+  reason VARCHAR(255) NULL COMMENT '취소 사유',
+  status VARCHAR(20) NOT NULL COMMENT 'REQUESTED, SUCCEEDED, FAILED, UNKNOWN, APPLY_FAILED',
+  pg_result_code VARCHAR(20) NULL,
+  pg_result_msg VARCHAR(500) NULL,
+  requested_at DATETIME NOT NULL,
+  completed_at DATETIME NULL,
+  INDEX idx_payment_cancel_request_payment (payment_id, status),
+  INDEX idx_payment_cancel_request_status (status, requested_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='PG 취소 요청';
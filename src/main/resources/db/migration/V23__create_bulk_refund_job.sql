@@ -0,0 +1,31 @@
+-- 일괄 환불 작업 (강습 폐강 등). 대상별 환불액을 한 번에 계산해 항목으로 저장하고, 작업 스레드가 항목별로 PG 취소를 수행한다
+CREATE TABLE bulk_refund_job (
+  id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY COMMENT 'PK',
+  lesson_id BIGINT NULL COMMENT '대상 강습 (신청 ID 목록으로 요청한 경우 NULL)',
+  reason VARCHAR(255) NOT NULL COMMENT '환불 사유',
+  full_refund TINYINT(1) NOT NULL DEFAULT 0 COMMENT '사용일수 차감 없이 전액 환불 여부',
+  status VARCHAR(20) NOT NULL COMMENT 'RUNNING, COMPLETED',
+  total_count INT NOT NULL DEFAULT 0 COMMENT '대상 신청 수',
+  requested_by VARCHAR(100) NULL COMMENT '요청 관리자',
+  created_at DATETIME NOT NULL,
+  finished_at DATETIME NULL,
+  INDEX idx_bulk_refund_job_status (status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='일괄 환불 작업';
+
+CREATE TABLE bulk_refund_item (
+  id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY COMMENT 'PK',
+  job_id BIGINT NOT NULL COMMENT '일괄 환불 작업',
+  enroll_id BIGINT NOT NULL COMMENT '환불 대상 수강신청',
+  payment_id BIGINT NULL COMMENT '환불 대상 결제',
+  refund_amount INT NOT NULL DEFAULT 0 COMMENT '계산된 환불액',
+  partial_refund TINYINT(1) NOT NULL DEFAULT 0 COMMENT '부분 환불 여부',
+  used_days INT NULL COMMENT '환불 계산에 사용한 사용일수',
+  status VARCHAR(20) NOT NULL COMMENT 'PENDING, PROCESSING, SUCCEEDED, FAILED, SKIPPED',
+  attempts INT NOT NULL DEFAULT 0 COMMENT '처리 시도 횟수',
+  next_attempt_at DATETIME NOT NULL COMMENT '다음 처리 가능 시각',
+  last_error VARCHAR(1000) NULL COMMENT '마지막 실패(또는 제외) 사유',
+  processed_at DATETIME NULL COMMENT '처리 완료(또는 포기) 시각',
+  updated_at DATETIME NOT NULL COMMENT '상태 변경 시각',
+  UNIQUE KEY uk_bulk_refund_item_job_enroll (job_id, enroll_id),
+  INDEX idx_bulk_refund_item_status_next (status, next_attempt_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='일괄 환불 작업 항목';
@@ -0,0 +1,18 @@
+-- 신청 대기실 티켓. 모든 노드가 같은 대기열을 보도록 DB 에 둔다 (ticket_id 순서가 FIFO 순번)
+CREATE TABLE waiting_room_ticket (
+  ticket_id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY COMMENT 'PK (대기 순서)',
+  token VARCHAR(36) NOT NULL COMMENT '클라이언트에 발급한 티켓',
+  lesson_id BIGINT NOT NULL COMMENT '대상 강습',
+  user_uuid VARCHAR(36) NOT NULL COMMENT '티켓 소유 사용자',
+  admitted_until DATETIME NULL COMMENT '입장 허용 만료 시각 (NULL 이면 대기 중)',
+  created_at DATETIME NOT NULL COMMENT '발급 시각',
+  UNIQUE KEY uk_waiting_room_ticket_token (token),
+  UNIQUE KEY uk_waiting_room_ticket_lesson_user (lesson_id, user_uuid),
+  INDEX idx_waiting_room_ticket_queue (lesson_id, admitted_until, ticket_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='신청 대기실 티켓';
+
+-- 강습별 마지막 입장 처리 시각. 여러 노드 중 한 노드만 틱마다 입장 처리를 하도록 조건부 UPDATE 로 선점한다
+CREATE TABLE waiting_room_admission (
+  lesson_id BIGINT NOT NULL PRIMARY KEY COMMENT '대상 강습',
+  last_admitted_at DATETIME(3) NOT NULL COMMENT '마지막 입장 처리 시각'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='신청 대기실 입장 처리 선점';
@@ -0,0 +1,3 @@
+-- 원장 인원이 음수가 되는 전이(이중 차감)는 보정하지 않고 오류로 드러낸다
+ALTER TABLE lesson_seat_ledger
+  ADD CONSTRAINT chk_lesson_seat_ledger_counts CHECK (paid_count >= 0 AND held_count >= 0);
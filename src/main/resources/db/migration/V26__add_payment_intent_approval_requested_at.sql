@@ -0,0 +1,3 @@
+-- 승인 API 호출 후 응답을 받지 못한 주문을 구분할 수 있도록 호출 시각을 남긴다
+ALTER TABLE payment_intent
+  ADD COLUMN approval_requested_at DATETIME NULL COMMENT 'PG 승인 API 호출 시각' AFTER completed_at;
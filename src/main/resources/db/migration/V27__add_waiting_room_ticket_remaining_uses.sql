@@ -0,0 +1,3 @@
+-- 입장한 티켓을 admitted-ttl 동안 무제한 재사용하지 못하도록 성공한 신청/결제 준비 횟수를 차감한다
+ALTER TABLE waiting_room_ticket
+  ADD COLUMN remaining_uses INT NULL COMMENT '입장 후 남은 신청/결제 준비 횟수 (NULL 이면 대기 중)' AFTER admitted_until;
@@ -0,0 +1,246 @@
+package cms.enroll.service.impl;
+
+import cms.common.exception.BusinessRuleException;
+import cms.common.exception.ErrorCode;
+import cms.enroll.domain.Enroll;
+import cms.enroll.repository.EnrollRepository;
+import cms.enroll.service.UserEnrollmentLedger;
+import cms.enroll.service.impl.EnrollmentServiceImpl.SeatClaimMode;
+import cms.locker.service.LockerService;
+import cms.payment.repository.PaymentRepository;
+import cms.payment.service.PaymentService;
+import cms.swimming.domain.Lesson;
+import cms.swimming.domain.LessonSeatLedger.SeatState;
+import cms.swimming.dto.EnrollRequestDto;
+import cms.swimming.dto.LessonSeatSnapshot;
+import cms.swimming.dto.UserEnrollmentSnapshot;
+import cms.swimming.repository.LessonRepository;
+import cms.swimming.service.LessonSeatLedgerService;
+import cms.swimming.service.LessonService;
+import cms.user.domain.User;
+import cms.user.repository.UserRepository;
+import cms.websocket.handler.LessonCapacityWebSocketHandler;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 정원 C 인 강습 하나에 N 개 스레드가 동시에 신규 신청을 넣어 두 점유 모드를 비교한다.
+ *
+ * DB 대신 트랜잭션 끝까지 유지되는 행 잠금(강습 행, 좌석 원장 행)과 원장 인원을 메모리로 흉내 낸다.
+ * - PESSIMISTIC: findByIdWithLock 에서 강습 행을 잠그고 검증 내내 유지한다.
+ * - CONDITIONAL: tryClaimHeldSeat 의 조건부 UPDATE 에서 원장 행을 잠그고 paid + held < capacity 일 때만 늘린다.
+ * 잠금 대기가 LOCK_WAIT_TIMEOUT_MS 를 넘으면 CannotAcquireLockException 을 던지고, @Retryable 처럼 3 번까지 다시 시도한다.
+ * 두 모드 모두 초과 점유가 없어야 하며, 처리량과 재시도 횟수를 로그로 남긴다.
+ */
+class EnrollmentSeatContentionTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnrollmentSeatContentionTest.class);
+
+    private static final Long LESSON_ID = 10L;
+    private static final int CAPACITY = 20;
+    private static final int THREADS = 16;
+    private static final int REQUESTS = 400;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long LOCK_WAIT_TIMEOUT_MS = 2000;
+    // 검증 쿼리 한 번의 대략적인 왕복 시간
+    private static final long QUERY_MS = 1;
+
+    private final ReentrantLock lessonRowLock = new ReentrantLock();
+    private final ReentrantLock ledgerRowLock = new ReentrantLock();
+    private final ThreadLocal<List<ReentrantLock>> heldLocks = ThreadLocal.withInitial(ArrayList::new);
+    private volatile int paidCount;
+    private volatile int heldCount;
+
+    @ParameterizedTest
+    @EnumSource(SeatClaimMode.class)
+    void concurrentEnrollmentsNeverOversellLesson(SeatClaimMode mode) throws Exception {
+        EnrollmentServiceImpl enrollmentService = newEnrollmentService(mode);
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        AtomicInteger retries = new AtomicInteger();
+        AtomicInteger gaveUp = new AtomicInteger();
+        AtomicInteger seq = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                int n;
+                while ((n = seq.incrementAndGet()) <= REQUESTS) {
+                    User user = User.builder().uuid("user-" + n).name("사용자" + n).build();
+                    EnrollRequestDto request = EnrollRequestDto.builder()
+                            .lessonId(LESSON_ID)
+                            .membershipType("general")
+                            .usesLocker(false)
+                            .build();
+                    for (int attempt = 1;; attempt++) {
+                        try {
+                            enrollmentService.createInitialEnrollment(user, request, "127.0.0.1");
+                            succeeded.incrementAndGet();
+                        } catch (BusinessRuleException e) {
+                            assertEquals(ErrorCode.PAYMENT_PAGE_SLOT_UNAVAILABLE, e.getErrorCode());
+                            soldOut.incrementAndGet();
+                        } catch (CannotAcquireLockException e) {
+                            if (attempt < MAX_ATTEMPTS) {
+                                retries.incrementAndGet();
+                                continue;
+                            }
+                            gaveUp.incrementAndGet();
+                        }
+                        break;
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        executor.shutdown();
+
+        logger.info("[Contention] mode={} threads={} capacity={} requests={} elapsed={}ms throughput={}/s "
+                + "succeeded={} soldOut={} retries={} gaveUp={} paid={} held={}",
+                mode, THREADS, CAPACITY, REQUESTS, elapsedMs, REQUESTS * 1000L / elapsedMs,
+                succeeded.get(), soldOut.get(), retries.get(), gaveUp.get(), paidCount, heldCount);
+
+        assertTrue(paidCount + heldCount <= CAPACITY, "oversold: held " + heldCount + " of " + CAPACITY);
+        assertEquals(succeeded.get(), heldCount);
+        assertEquals(REQUESTS, succeeded.get() + soldOut.get() + gaveUp.get());
+        if (gaveUp.get() == 0) {
+            assertEquals(CAPACITY, succeeded.get());
+        }
+    }
+
+    private EnrollmentServiceImpl newEnrollmentService(SeatClaimMode mode) {
+        EnrollRepository enrollRepository = mock(EnrollRepository.class);
+        LessonRepository lessonRepository = mock(LessonRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        LessonSeatLedgerService lessonSeatLedgerService = mock(LessonSeatLedgerService.class);
+        UserEnrollmentLedger userEnrollmentLedger = mock(UserEnrollmentLedger.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+        Lesson lesson = Lesson.builder()
+                .lessonId(LESSON_ID)
+                .title("자유형 기초")
+                .startDate(LocalDate.now())
+                .endDate(LocalDate.now().plusDays(20))
+                .capacity(CAPACITY)
+                .price(60000)
+                .build();
+
+        // 커밋/롤백 시 이 트랜잭션이 잡은 행 잠금을 모두 푼다
+        doAnswer(invocation -> releaseLocks()).when(transactionManager).commit(any());
+        doAnswer(invocation -> releaseLocks()).when(transactionManager).rollback(any());
+
+        when(lessonRepository.findById(LESSON_ID)).thenAnswer(invocation -> {
+            pause();
+            return Optional.of(lesson);
+        });
+        when(lessonRepository.findByIdWithLock(LESSON_ID)).thenAnswer(invocation -> {
+            lockRow(lessonRowLock);
+            return Optional.of(lesson);
+        });
+        when(enrollRepository.existsByUserUuidAndLessonLessonIdAndCancelStatusAndPayStatusIn(anyString(), anyLong(),
+                any(), any())).thenAnswer(invocation -> {
+                    pause();
+                    return false;
+                });
+        when(enrollRepository.existsActiveEnrollment(anyString(), eq(LESSON_ID))).thenAnswer(invocation -> {
+            pause();
+            return false;
+        });
+        when(userEnrollmentLedger.loadSnapshot(any(), any())).thenAnswer(invocation -> {
+            pause();
+            return new UserEnrollmentSnapshot(0L, 0L, 0L, 0L);
+        });
+        when(enrollRepository.save(any(Enroll.class))).thenAnswer(invocation -> {
+            pause();
+            return invocation.getArgument(0);
+        });
+
+        // UPDATE lesson_seat_ledger SET held_count = held_count + 1 WHERE lesson_id = ? AND paid + held < capacity
+        when(lessonSeatLedgerService.tryClaimHeldSeat(LESSON_ID)).thenAnswer(invocation -> {
+            lockRow(ledgerRowLock);
+            pause();
+            if (paidCount + heldCount >= CAPACITY) {
+                return false;
+            }
+            heldCount++;
+            return true;
+        });
+        when(lessonSeatLedgerService.getSnapshot(LESSON_ID)).thenAnswer(invocation -> {
+            pause();
+            return new LessonSeatSnapshot(LESSON_ID, CAPACITY, paidCount, heldCount);
+        });
+        doAnswer(invocation -> {
+            lockRow(ledgerRowLock);
+            pause();
+            heldCount++;
+            return null;
+        }).when(lessonSeatLedgerService).applyTransition(LESSON_ID, SeatState.NONE, SeatState.HELD);
+
+        EnrollmentServiceImpl enrollmentService = new EnrollmentServiceImpl(enrollRepository,
+                mock(PaymentRepository.class), mock(LessonService.class), mock(LockerService.class), userRepository,
+                lessonRepository, mock(LessonCapacityWebSocketHandler.class), mock(PaymentService.class),
+                lessonSeatLedgerService, userEnrollmentLedger, transactionManager);
+        ReflectionTestUtils.setField(enrollmentService, "claimMode", mode);
+        return enrollmentService;
+    }
+
+    // SELECT ... FOR UPDATE / UPDATE 의 행 잠금: 트랜잭션이 끝날 때까지 유지, 대기 시간 초과 시 잠금 실패
+    private void lockRow(ReentrantLock rowLock) throws InterruptedException {
+        if (rowLock.isHeldByCurrentThread()) {
+            return;
+        }
+        if (!rowLock.tryLock(LOCK_WAIT_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+            throw new CannotAcquireLockException("Lock wait timeout exceeded");
+        }
+        heldLocks.get().add(rowLock);
+    }
+
+    private Object releaseLocks() {
+        List<ReentrantLock> locks = heldLocks.get();
+        for (ReentrantLock lock : locks) {
+            lock.unlock();
+        }
+        locks.clear();
+        return null;
+    }
+
+    private static void pause() throws InterruptedException {
+        Thread.sleep(QUERY_MS);
+    }
+}
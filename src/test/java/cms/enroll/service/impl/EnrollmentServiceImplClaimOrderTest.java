@@ -0,0 +1,160 @@
+package cms.enroll.service.impl;
+
+import cms.common.exception.BusinessRuleException;
+import cms.common.exception.ErrorCode;
+import cms.enroll.domain.Enroll;
+import cms.enroll.repository.EnrollRepository;
+import cms.enroll.service.UserEnrollmentLedger;
+import cms.enroll.service.impl.EnrollmentServiceImpl.SeatClaimMode;
+import cms.locker.service.LockerService;
+import cms.payment.repository.PaymentRepository;
+import cms.payment.service.PaymentService;
+import cms.swimming.domain.Lesson;
+import cms.swimming.dto.EnrollRequestDto;
+import cms.swimming.dto.LessonSeatSnapshot;
+import cms.swimming.dto.UserEnrollmentSnapshot;
+import cms.swimming.repository.LessonRepository;
+import cms.swimming.service.LessonSeatLedgerService;
+import cms.swimming.service.LessonService;
+import cms.user.domain.User;
+import cms.user.repository.UserRepository;
+import cms.websocket.handler.LessonCapacityWebSocketHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 조건부 점유 모드에서 좌석 원장 점유가 중복/월별 제한 검증 이후에 수행되는지 확인한다.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EnrollmentServiceImplClaimOrderTest {
+
+    private static final Long LESSON_ID = 10L;
+    private static final String USER_UUID = "user-1";
+
+    @Mock private EnrollRepository enrollRepository;
+    @Mock private PaymentRepository paymentRepository;
+    @Mock private LessonService lessonService;
+    @Mock private LockerService lockerService;
+    @Mock private UserRepository userRepository;
+    @Mock private LessonRepository lessonRepository;
+    @Mock private LessonCapacityWebSocketHandler webSocketHandler;
+    @Mock private PaymentService paymentService;
+    @Mock private LessonSeatLedgerService lessonSeatLedgerService;
+    @Mock private UserEnrollmentLedger userEnrollmentLedger;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private EnrollmentServiceImpl enrollmentService;
+    private User user;
+    private EnrollRequestDto request;
+
+    @BeforeEach
+    void setUp() {
+        enrollmentService = new EnrollmentServiceImpl(enrollRepository, paymentRepository, lessonService,
+                lockerService, userRepository, lessonRepository, webSocketHandler, paymentService,
+                lessonSeatLedgerService, userEnrollmentLedger, transactionManager);
+        ReflectionTestUtils.setField(enrollmentService, "claimMode", SeatClaimMode.CONDITIONAL);
+
+        // 이번 달 강습은 말일까지 신청 가능하므로 등록 기간 검사를 통과한다
+        Lesson lesson = Lesson.builder()
+                .lessonId(LESSON_ID)
+                .title("자유형 기초")
+                .startDate(LocalDate.now())
+                .endDate(LocalDate.now().plusDays(20))
+                .capacity(20)
+                .price(60000)
+                .build();
+        user = User.builder().uuid(USER_UUID).name("홍길동").build();
+        request = EnrollRequestDto.builder()
+                .lessonId(LESSON_ID)
+                .membershipType("general")
+                .usesLocker(false)
+                .build();
+
+        when(lessonRepository.findById(LESSON_ID)).thenReturn(Optional.of(lesson));
+        when(enrollRepository.existsActiveEnrollment(USER_UUID, LESSON_ID)).thenReturn(false);
+        when(userEnrollmentLedger.loadSnapshot(any(), any())).thenReturn(snapshot(0L));
+        when(lessonSeatLedgerService.tryClaimHeldSeat(LESSON_ID)).thenReturn(true);
+        when(lessonSeatLedgerService.getSnapshot(LESSON_ID)).thenReturn(new LessonSeatSnapshot(LESSON_ID, 20, 0, 1));
+        when(enrollRepository.save(any(Enroll.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void claimsSeatOnlyAfterDuplicateAndMonthlyChecks() {
+        enrollmentService.createInitialEnrollmentInternal(user, request, "127.0.0.1");
+
+        InOrder order = inOrder(userRepository, enrollRepository, userEnrollmentLedger, lessonSeatLedgerService);
+        order.verify(userRepository).lockByUuid(USER_UUID);
+        order.verify(enrollRepository).existsActiveEnrollment(USER_UUID, LESSON_ID);
+        order.verify(userEnrollmentLedger).loadSnapshot(any(), any());
+        order.verify(lessonSeatLedgerService).tryClaimHeldSeat(LESSON_ID);
+        order.verify(enrollRepository).save(any(Enroll.class));
+    }
+
+    @Test
+    void duplicateEnrollmentDoesNotTouchSeatLedger() {
+        when(enrollRepository.existsActiveEnrollment(USER_UUID, LESSON_ID)).thenReturn(true);
+
+        BusinessRuleException e = assertThrows(BusinessRuleException.class,
+                () -> enrollmentService.createInitialEnrollmentInternal(user, request, "127.0.0.1"));
+
+        assertEquals(ErrorCode.DUPLICATE_ENROLLMENT_ATTEMPT, e.getErrorCode());
+        verify(lessonSeatLedgerService, never()).tryClaimHeldSeat(anyLong());
+    }
+
+    @Test
+    void monthlyLimitDoesNotTouchSeatLedger() {
+        when(userEnrollmentLedger.loadSnapshot(any(), any())).thenReturn(snapshot(1L));
+
+        BusinessRuleException e = assertThrows(BusinessRuleException.class,
+                () -> enrollmentService.createInitialEnrollmentInternal(user, request, "127.0.0.1"));
+
+        assertEquals(ErrorCode.MONTHLY_ENROLLMENT_LIMIT_EXCEEDED, e.getErrorCode());
+        verify(lessonSeatLedgerService, never()).tryClaimHeldSeat(anyLong());
+    }
+
+    @Test
+    void invalidMembershipTypeDoesNotTouchSeatLedger() {
+        request.setMembershipType("unknown");
+
+        assertThrows(BusinessRuleException.class,
+                () -> enrollmentService.createInitialEnrollmentInternal(user, request, "127.0.0.1"));
+
+        verify(lessonSeatLedgerService, never()).tryClaimHeldSeat(anyLong());
+    }
+
+    @Test
+    void soldOutLessonIsRejectedWithoutSavingEnrollment() {
+        when(lessonSeatLedgerService.tryClaimHeldSeat(LESSON_ID)).thenReturn(false);
+
+        BusinessRuleException e = assertThrows(BusinessRuleException.class,
+                () -> enrollmentService.createInitialEnrollmentInternal(user, request, "127.0.0.1"));
+
+        assertEquals(ErrorCode.PAYMENT_PAGE_SLOT_UNAVAILABLE, e.getErrorCode());
+        verify(enrollRepository, never()).save(any(Enroll.class));
+    }
+
+    private static UserEnrollmentSnapshot snapshot(long activeCountInMonth) {
+        return new UserEnrollmentSnapshot(0L, 0L, activeCountInMonth, 0L);
+    }
+}
@@ -0,0 +1,173 @@
+package cms.kispg.client;
+
+import cms.common.exception.BusinessRuleException;
+import cms.common.exception.ErrorCode;
+import cms.kispg.simulator.KispgSimulator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * KispgSimulator 를 스텁 서버로 띄워 차단기 열림/시험 호출/복구 흐름, 커넥션 재사용, 응답 대기 시간 제한을 확인한다.
+ */
+class KispgApiClientTest {
+
+    private static final long OPEN_DURATION_MS = 200;
+    private static final int READ_TIMEOUT_MS = 500;
+
+    private KispgSimulator failingPg;
+    private KispgSimulator healthyPg;
+    private KispgSimulator hangingPg;
+    private KispgApiClient client;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        failingPg = new KispgSimulator(simulatorOptions().errorRate(1.0).build());
+        healthyPg = new KispgSimulator(simulatorOptions().build());
+        failingPg.start();
+        healthyPg.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        failingPg.stop();
+        healthyPg.stop();
+        if (hangingPg != null) {
+            hangingPg.stop();
+        }
+    }
+
+    @Test
+    void opensAfterConsecutiveServerErrorsAndClosesAfterSuccessfulProbe() throws Exception {
+        client = newClient(new ObjectMapper(), failingPg.getBaseUrl());
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpServerErrorException.class, this::query);
+        }
+        BusinessRuleException rejected = assertThrows(BusinessRuleException.class, this::query);
+        assertEquals(ErrorCode.PAYMENT_GATEWAY_UNAVAILABLE, rejected.getErrorCode());
+        assertEquals(3L, failingPg.getStats().get("query.http_500"));
+
+        Thread.sleep(OPEN_DURATION_MS + 50);
+        ReflectionTestUtils.setField(client, "kispgUrl", healthyPg.getBaseUrl());
+        assertNotNull(query());
+        assertNotNull(query());
+    }
+
+    @Test
+    void unexpectedExceptionDuringProbeDoesNotKeepCircuitOpen() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper() {
+            @Override
+            public String writeValueAsString(Object value) throws JsonProcessingException {
+                if (value instanceof Poison) {
+                    throw new IllegalStateException("serializer bug");
+                }
+                return super.writeValueAsString(value);
+            }
+        };
+        client = newClient(objectMapper, failingPg.getBaseUrl());
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpServerErrorException.class, this::query);
+        }
+
+        Thread.sleep(OPEN_DURATION_MS + 50);
+        assertThrows(IllegalStateException.class,
+                () -> client.post("query", "/v2/order", new Poison(), Map.class));
+
+        // 시험 호출 자리가 반납되었으므로 다음 호출이 다시 시험 호출로 나간다
+        ReflectionTestUtils.setField(client, "kispgUrl", healthyPg.getBaseUrl());
+        assertNotNull(query());
+    }
+
+    @Test
+    void sequentialCallsReuseOnePooledConnection() {
+        client = newClient(new ObjectMapper(), healthyPg.getBaseUrl());
+
+        for (int i = 0; i < 5; i++) {
+            assertNotNull(query());
+        }
+
+        PoolingHttpClientConnectionManager connectionManager =
+                (PoolingHttpClientConnectionManager) ReflectionTestUtils.getField(client, "connectionManager");
+        assertEquals(0, connectionManager.getTotalStats().getLeased());
+        assertEquals(1, connectionManager.getTotalStats().getAvailable());
+        // 서버 쪽에서도 다섯 요청이 하나의 커넥션으로 들어왔는지 확인
+        assertEquals(5L, healthyPg.getStats().get("query." + KispgSimulator.INVALID_MID));
+        assertEquals(1L, healthyPg.getStats().get("http.connections"));
+    }
+
+    @Test
+    void hangingGatewayFailsWithinReadTimeoutAndRecordsIoError() throws Exception {
+        hangingPg = new KispgSimulator(simulatorOptions().responseLossRate(1.0).hangMs(5000).build());
+        hangingPg.start();
+        client = newClient(new ObjectMapper(), hangingPg.getBaseUrl(), READ_TIMEOUT_MS);
+
+        long startedAt = System.nanoTime();
+        assertThrows(ResourceAccessException.class, this::query);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        assertTrue(elapsedMs >= READ_TIMEOUT_MS - 50, "returned before the read timeout: " + elapsedMs + "ms");
+        assertTrue(elapsedMs < READ_TIMEOUT_MS + 1000, "read timeout not applied: " + elapsedMs + "ms");
+        Timer ioErrors = meterRegistry.find("kispg.client.requests")
+                .tags("operation", "query", "outcome", "io_error").timer();
+        assertNotNull(ioErrors);
+        assertEquals(1L, ioErrors.count());
+    }
+
+    private Map<?, ?> query() {
+        return client.post("query", "/v2/order", Collections.singletonMap("tid", "unknown"), Map.class);
+    }
+
+    private static KispgSimulator.Options.OptionsBuilder simulatorOptions() {
+        return KispgSimulator.Options.builder()
+                .port(0)
+                .mid("testmid")
+                .merchantKey("test-merchant-key")
+                .serverThreads(4)
+                .notifyThreads(1);
+    }
+
+    private KispgApiClient newClient(ObjectMapper objectMapper, String baseUrl) {
+        return newClient(objectMapper, baseUrl, 2000);
+    }
+
+    private KispgApiClient newClient(ObjectMapper objectMapper, String baseUrl, int readTimeoutMs) {
+        meterRegistry = new SimpleMeterRegistry();
+        KispgApiClient client = new KispgApiClient(objectMapper, meterRegistry);
+        ReflectionTestUtils.setField(client, "kispgUrl", baseUrl);
+        ReflectionTestUtils.setField(client, "connectTimeoutMs", 1000);
+        ReflectionTestUtils.setField(client, "readTimeoutMs", readTimeoutMs);
+        ReflectionTestUtils.setField(client, "connectionRequestTimeoutMs", 1000);
+        ReflectionTestUtils.setField(client, "maxTotal", 4);
+        ReflectionTestUtils.setField(client, "maxPerRoute", 4);
+        ReflectionTestUtils.setField(client, "idleTimeoutMs", 30000L);
+        ReflectionTestUtils.setField(client, "failureThreshold", 3);
+        ReflectionTestUtils.setField(client, "openDurationMs", OPEN_DURATION_MS);
+        client.init();
+        return client;
+    }
+
+    private static final class Poison {
+    }
+}
@@ -0,0 +1,104 @@
+package cms.kispg.simulator;
+
+import cms.kispg.client.KispgApiClient;
+import cms.kispg.dto.KispgPaymentResultDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * 포트 0 으로 띄운 모의 PG 에 KispgApiClient 로 결제창 인증 → 승인 → 조회까지 실행한다.
+ */
+class KispgSimulatorApprovalTest {
+
+    private static final String MID = "testmid";
+    private static final String MERCHANT_KEY = "test-merchant-key";
+    private static final String EDI_DATE = "20260101120000";
+
+    private KispgSimulator simulator;
+    private KispgApiClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        simulator = new KispgSimulator(KispgSimulator.Options.builder()
+                .port(0)
+                .mid(MID)
+                .merchantKey(MERCHANT_KEY)
+                .serverThreads(4)
+                .notifyThreads(1)
+                .build());
+        simulator.start();
+
+        client = new KispgApiClient(new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(client, "kispgUrl", simulator.getBaseUrl());
+        ReflectionTestUtils.setField(client, "connectTimeoutMs", 1000);
+        ReflectionTestUtils.setField(client, "readTimeoutMs", 2000);
+        ReflectionTestUtils.setField(client, "connectionRequestTimeoutMs", 1000);
+        ReflectionTestUtils.setField(client, "maxTotal", 4);
+        ReflectionTestUtils.setField(client, "maxPerRoute", 4);
+        ReflectionTestUtils.setField(client, "idleTimeoutMs", 30000L);
+        ReflectionTestUtils.setField(client, "failureThreshold", 5);
+        ReflectionTestUtils.setField(client, "openDurationMs", 30000L);
+        client.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        simulator.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void approvesAuthorizedTransaction() {
+        String moid = "temp_1_abcd1234_1767236400000";
+        String amt = "65000";
+
+        Map<String, String> authorize = new HashMap<>();
+        authorize.put("mid", MID);
+        authorize.put("moid", moid);
+        authorize.put("amt", amt);
+        authorize.put("ediDate", EDI_DATE);
+        authorize.put("encData", DigestUtils.sha256Hex(MID + EDI_DATE + amt + MERCHANT_KEY));
+        Map<String, Object> authorized = client.post("authorize", "/sim/pay", authorize, Map.class);
+        assertEquals(KispgSimulator.SUCCESS, authorized.get("resultCd"));
+        String tid = (String) authorized.get("tid");
+        assertNotNull(tid);
+
+        Map<String, String> approval = new HashMap<>();
+        approval.put("mid", MID);
+        approval.put("tid", tid);
+        approval.put("goodsAmt", amt);
+        approval.put("ediDate", EDI_DATE);
+        approval.put("encData", DigestUtils.sha256Hex(MID + EDI_DATE + amt + MERCHANT_KEY));
+        approval.put("charset", "UTF-8");
+        KispgPaymentResultDto result = client.post("approval", "/v2/payment", approval, KispgPaymentResultDto.class);
+
+        assertEquals(KispgSimulator.SUCCESS, result.getResultCd());
+        assertEquals(tid, result.getTid());
+        assertEquals(moid, result.getOrdNo());
+        assertEquals(amt, result.getAmt());
+        assertEquals(DigestUtils.sha256Hex(MID + result.getEdiDate() + amt + MERCHANT_KEY), result.getEncData());
+        assertEquals(1L, simulator.getStats().get("approval." + KispgSimulator.SUCCESS));
+
+        Map<String, String> query = new HashMap<>();
+        query.put("mid", MID);
+        query.put("tid", tid);
+        query.put("amt", amt);
+        query.put("ediDate", EDI_DATE);
+        query.put("encData", DigestUtils.sha256Hex(MID + EDI_DATE + amt + MERCHANT_KEY));
+        Map<String, Object> queried = client.post("query", "/v2/order", query, Map.class);
+        assertEquals(KispgSimulator.SUCCESS, queried.get("resultCd"));
+        assertEquals("N", queried.get("cancelYN"));
+    }
+}